@@ -7,6 +7,7 @@ import stg.base.Window;
  * @since 2026-02-02
  * @author JavaSTG Team
  * @date 2026-02-23 更新为使用新的三面板窗口系统
+ * @date 2026-10-18 游戏循环结束后清理窗口（保存未结束的录像并等待写入完成）
  */
 public class Main {
 	/** 窗口实例 */
@@ -30,6 +31,7 @@ public class Main {
 			System.out.println("游戏已启动");
 			window.startGameLoop();
 			System.out.println("游戏循环已结束");
+			window.cleanup();
 		} catch (Exception e) {
 			System.err.println("初始化异常: " + e.getMessage());
 			e.printStackTrace();
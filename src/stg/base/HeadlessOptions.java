@@ -0,0 +1,70 @@
+package stg.base;
+
+import java.nio.file.Path;
+
+import stg.util.math.GameRandom;
+
+/**
+ * 无头运行器的命令行参数，参数说明见 {@link HeadlessRunner}
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+final class HeadlessOptions {
+	/** 默认模拟帧数 */
+	private static final long DEFAULT_FRAMES = 3600;
+	/** 默认按键脚本：一直按住射击键 */
+	private static final String DEFAULT_SCRIPT = "0-:Z";
+
+	String groupName = null; // 关卡组显示名称，null 表示第一个关卡组
+	long frames = DEFAULT_FRAMES; // 模拟帧数
+	String script = DEFAULT_SCRIPT; // 按键脚本
+	boolean render = true; // 是否执行渲染代码路径
+	long seed = GameRandom.newSeed(); // 本局种子
+	boolean verifyReplay = false; // --verify-replay
+	boolean verifySnapshot = false; // --verify-snapshot
+	boolean benchPatterns = false; // --bench-patterns
+	Path recordPath = null; // 录像保存路径，null 表示不录制
+	Path playPath = null; // 要回放的录像路径
+	long seekTick = -1; // 回放时跳转到的模拟步，-1 表示不跳转
+	int spellcard = -1; // 回放时跳转到的符卡序号（从0开始），-1 表示不跳转
+
+	/**
+	 * 解析命令行参数，遇到未知参数时退出
+	 * @param args 命令行参数
+	 * @return 解析结果
+	 */
+	static HeadlessOptions parse(String[] args) {
+		HeadlessOptions options = new HeadlessOptions();
+		for (String arg : args) {
+			if (arg.startsWith("--group=")) {
+				options.groupName = arg.substring("--group=".length());
+			} else if (arg.startsWith("--frames=")) {
+				options.frames = Long.parseLong(arg.substring("--frames=".length()));
+			} else if (arg.startsWith("--script=")) {
+				options.script = arg.substring("--script=".length());
+			} else if (arg.equals("--no-render")) {
+				options.render = false;
+			} else if (arg.startsWith("--seed=")) {
+				options.seed = Long.parseLong(arg.substring("--seed=".length()));
+			} else if (arg.equals("--verify-replay")) {
+				options.verifyReplay = true;
+			} else if (arg.equals("--verify-snapshot")) {
+				options.verifySnapshot = true;
+			} else if (arg.equals("--bench-patterns")) {
+				options.benchPatterns = true;
+			} else if (arg.startsWith("--record=")) {
+				options.recordPath = Path.of(arg.substring("--record=".length()));
+			} else if (arg.startsWith("--play=")) {
+				options.playPath = Path.of(arg.substring("--play=".length()));
+			} else if (arg.startsWith("--seek=")) {
+				options.seekTick = Long.parseLong(arg.substring("--seek=".length()));
+			} else if (arg.startsWith("--spellcard=")) {
+				options.spellcard = Integer.parseInt(arg.substring("--spellcard=".length()));
+			} else {
+				System.err.println("[HeadlessRunner] 未知参数: " + arg);
+				System.exit(2);
+			}
+		}
+		return options;
+	}
+}
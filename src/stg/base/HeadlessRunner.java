@@ -0,0 +1,489 @@
+package stg.base;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import stg.core.GameSimulation;
+import stg.core.GameWorld;
+import stg.core.WorldSnapshot;
+import stg.entity.base.Obj;
+import stg.entity.bullet.BulletPatternBench;
+import stg.entity.player.Player;
+import stg.render.GamePanel;
+import stg.render.NullRenderer;
+import stg.render.RenderThread;
+import stg.replay.Replay;
+import stg.replay.ReplayFile;
+import stg.replay.ReplayKeyframe;
+import stg.replay.ReplayRecorder;
+import stg.replay.ReplayWriter;
+import stg.replay.WorldSnapshotCodec;
+import stg.service.audio.IAudioManager;
+import stg.service.audio.NullAudioManager;
+import stg.service.core.ServiceManager;
+import stg.stage.StageGroup;
+import stg.stage.StageGroupManager;
+import stg.util.CoordinateSystem;
+import stg.util.objectpool.ObjectPoolManager;
+import stg.util.math.GameRandom;
+import user.player.DefaultPlayer;
+
+/**
+ * 无头运行器 - 不创建窗口、OpenGL 上下文和音频设备，直接驱动关卡
+ * <p>
+ * 用空渲染器、空音频管理器和脚本按键驱动 GameWorld、StageGroup 和 Player，
+ * 不限速地执行指定帧数，最后报告每秒模拟帧数。用于在 CI 或构建机上做压力测试和回归测试。
+ * <p>
+ * 命令行参数（均可省略）：
+ * <ul>
+ * <li>{@code --group=名称} 关卡组显示名称，默认第一个关卡组</li>
+ * <li>{@code --frames=帧数} 模拟帧数，默认 3600</li>
+ * <li>{@code --script=脚本} 按键脚本，格式见 {@link ScriptedKeyStateProvider}，默认一直按住 Z</li>
+ * <li>{@code --no-render} 不执行渲染代码路径，只测模拟</li>
+ * <li>{@code --seed=种子} 本局种子，默认随机（或 -Dstg.seed）</li>
+ * <li>{@code --record=文件} 把本次运行保存为录像文件</li>
+ * <li>{@code --play=文件} 回放录像文件（关卡组和种子取自录像），并用关键帧校验和核对</li>
+ * <li>{@code --seek=步数} 与 {@code --play} 一起使用：用关键帧跳转到该步，再与从第0步完整模拟的结果比对，见 {@link ReplaySeekCheck}</li>
+ * <li>{@code --spellcard=序号} 与 {@code --play} 一起使用：跳转到第 n 张符卡（从0开始）开始时，同样与完整模拟比对</li>
+ * <li>{@code --verify-replay} 录制本次运行，经录像文件写入和读回后用同一种子回放一遍，逐步比对状态校验和</li>
+ * <li>{@code --verify-snapshot} 每秒保存一次世界快照并统计耗时，再恢复到中途的快照（包括有子弹执行运动程序时的快照）重新模拟，逐步比对状态校验和</li>
+ * <li>{@code --bench-patterns} 不运行关卡，只测量各种弹幕图案每颗子弹的发射耗时，见 {@link BulletPatternBench}</li>
+ * </ul>
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ * @date 2026-10-18 录像关键帧保存完整的世界快照；添加 --verify-snapshot
+ * @date 2026-10-18 运行报告附带对象池统计
+ * @date 2026-10-18 添加 --bench-patterns
+ * @date 2026-10-18 弹幕图案测量移到 BulletPatternBench；命令行参数解析移到 HeadlessOptions
+ * @date 2026-10-18 添加 --seek 和 --spellcard，验证录像跳转与从头模拟一致
+ * @date 2026-10-18 --verify-snapshot 另外恢复第一次有子弹执行运动程序时的快照
+ */
+public class HeadlessRunner {
+	/** 游戏面板宽度（与 Window 的游戏面板一致） */
+	private static final int PANEL_WIDTH = 720;
+	/** 游戏面板高度（与 Window 的游戏面板一致） */
+	private static final int PANEL_HEIGHT = 960;
+
+	/** 游戏世界 */
+	private final GameWorld gameWorld;
+	/** 游戏模拟 */
+	private final GameSimulation simulation;
+	/** 按步锁存的输入 */
+	private TickInput input;
+	/** 当前关卡组 */
+	private final StageGroup stageGroup;
+	/** 用于执行渲染代码路径的游戏面板 */
+	private final GamePanel gamePanel;
+	/** 空渲染器 */
+	private final NullRenderer renderer = new NullRenderer();
+	/** 是否每帧执行渲染代码路径 */
+	private boolean renderEnabled = true;
+	/** 已模拟帧数 */
+	private long frame;
+	/** 最近一次 run 的耗时（纳秒） */
+	private long elapsedNanos;
+	/** 敌弹数量峰值 */
+	private int peakEnemyBullets;
+	/** 录像录制器，不录制时为null */
+	private ReplayRecorder replayRecorder;
+
+	/**
+	 * 构造函数 - 初始化无头环境并启动关卡组
+	 * @param stageGroupName 关卡组显示名称，为null时使用第一个关卡组
+	 * @param input 按步锁存的输入（脚本按键或录像回放）
+	 * @param seed 本局种子
+	 * @throws IllegalStateException 找不到关卡组时抛出
+	 */
+	public HeadlessRunner(String stageGroupName, TickInput input, long seed) {
+		this.input = input;
+		RenderThread.setHeadless(true);
+		IAudioManager audioManager = new NullAudioManager();
+		audioManager.init();
+		ServiceManager.getInstance().registerService(IAudioManager.class, audioManager);
+
+		CoordinateSystem coordinateSystem = new CoordinateSystem(PANEL_WIDTH, PANEL_HEIGHT);
+		Obj.setSharedCoordinateSystem(coordinateSystem);
+		Player.setSharedCoordinateSystem(coordinateSystem);
+
+		gameWorld = new GameWorld();
+		simulation = new GameSimulation(gameWorld, PANEL_WIDTH, PANEL_HEIGHT);
+
+		StageGroupManager manager = StageGroupManager.getInstance();
+		manager.init(gameWorld);
+		stageGroup = findStageGroup(manager.getStageGroups(), stageGroupName);
+		if (stageGroup == null) {
+			throw new IllegalStateException("找不到关卡组: " + (stageGroupName != null ? stageGroupName : "(任意)"));
+		}
+
+		gamePanel = new GamePanel(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+		gamePanel.setGameWorld(gameWorld);
+		simulation.setStageGroup(stageGroup);
+		simulation.setInput(input);
+		startRun(seed);
+		System.out.println("[HeadlessRunner] 启动关卡组: " + stageGroup.getDisplayName() + "，种子: " + seed);
+	}
+
+	/**
+	 * 从头重新开始一局（与窗口的"重新开始"相同：清理关卡组和世界，换上新玩家）
+	 * @param input 新一局的输入
+	 * @param seed 新一局的种子
+	 */
+	public void restart(TickInput input, long seed) {
+		stageGroup.cleanup();
+		gameWorld.cleanup();
+		stageGroup.reset();
+		this.input = input;
+		simulation.setInput(input);
+		startRun(seed);
+	}
+
+	private void startRun(long seed) {
+		Player player = new DefaultPlayer(0.0f, -200.0f);
+		simulation.setPlayer(player);
+		gamePanel.setPlayer(player);
+		simulation.startRun(seed);
+		frame = 0;
+		peakEnemyBullets = 0;
+		stageGroup.start();
+	}
+
+	/**
+	 * 设置是否每帧执行渲染代码路径（提交给空渲染器）
+	 * @param renderEnabled 是否渲染
+	 */
+	public void setRenderEnabled(boolean renderEnabled) {
+		this.renderEnabled = renderEnabled;
+	}
+
+	/**
+	 * 不限速地模拟指定帧数
+	 * @param frames 帧数
+	 */
+	public void run(long frames) {
+		long start = System.nanoTime();
+		for (long i = 0; i < frames; i++) {
+			step();
+		}
+		elapsedNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * 模拟一帧：推进模拟（输入在模拟步开始时锁存），需要时执行渲染代码路径
+	 */
+	public void step() {
+		simulation.tick();
+		if (replayRecorder != null) {
+			replayRecorder.onTick(simulation);
+		}
+		if (renderEnabled) {
+			renderer.beginFrame();
+			gamePanel.render(renderer);
+			renderer.endFrame();
+		}
+		int enemyBullets = gameWorld.getEnemyBulletCount();
+		if (enemyBullets > peakEnemyBullets) {
+			peakEnemyBullets = enemyBullets;
+		}
+		frame++;
+	}
+
+	/**
+	 * 设置录像录制器，之后每步结束时调用它记录关键帧
+	 * @param replayRecorder 录像录制器，为null时不录制
+	 */
+	public void setReplayRecorder(ReplayRecorder replayRecorder) {
+		this.replayRecorder = replayRecorder;
+	}
+
+	/**
+	 * 获取已模拟帧数
+	 * @return 帧数
+	 */
+	public long getFrame() {
+		return frame;
+	}
+
+	/**
+	 * 获取最近一次 run 的每秒模拟帧数
+	 * @return 每秒模拟帧数
+	 */
+	public double getFramesPerSecond() {
+		return elapsedNanos > 0 ? frame * 1_000_000_000.0 / elapsedNanos : 0.0;
+	}
+
+	/**
+	 * 获取游戏模拟
+	 * @return 游戏模拟
+	 */
+	public GameSimulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * 输出运行报告
+	 */
+	public void printReport() {
+		System.out.println("[HeadlessRunner] 模拟帧数: " + frame);
+		System.out.printf("[HeadlessRunner] 耗时: %.3f 秒%n", elapsedNanos / 1_000_000_000.0);
+		System.out.printf("[HeadlessRunner] 每秒模拟帧数: %.1f（%.1f 倍实时）%n",
+			getFramesPerSecond(), getFramesPerSecond() / 60.0);
+		System.out.println("[HeadlessRunner] 敌弹峰值: " + peakEnemyBullets
+			+ "，结束时敌人: " + gameWorld.getEnemies().size()
+			+ "，敌弹: " + gameWorld.getEnemyBulletCount());
+		System.out.println("[HeadlessRunner] 被弹: " + simulation.getCollisionSystem().getTotalHitCount()
+			+ "，擦弹: " + simulation.getCollisionSystem().getTotalGrazeCount());
+		ObjectPoolManager.getInstance().printStats("运行结束");
+	}
+
+	/**
+	 * 命令行入口
+	 * @param args 命令行参数
+	 */
+	public static void main(String[] args) {
+		HeadlessOptions options = HeadlessOptions.parse(args);
+		if (options.benchPatterns) {
+			BulletPatternBench.run();
+			return;
+		}
+		if (options.verifySnapshot) {
+			boolean match = verifySnapshots(options.groupName, ScriptedKeyStateProvider.parse(options.script),
+				options.seed, options.frames);
+			System.exit(match ? 0 : 1);
+		}
+		try {
+			if (options.verifyReplay) {
+				boolean match = verifyReplay(options.groupName, ScriptedKeyStateProvider.parse(options.script),
+					options.seed, options.frames);
+				System.exit(match ? 0 : 1);
+			}
+			if (options.playPath != null && (options.seekTick >= 0 || options.spellcard >= 0)) {
+				boolean match = ReplaySeekCheck.run(options.playPath, options.seekTick, options.spellcard);
+				System.exit(match ? 0 : 1);
+			}
+			if (options.playPath != null) {
+				boolean match = play(options.playPath, options.render);
+				System.exit(match ? 0 : 1);
+			}
+		} catch (IOException e) {
+			System.err.println("[HeadlessRunner] 录像读写失败: " + e.getMessage());
+			System.exit(2);
+		}
+		runScripted(options);
+	}
+
+	/**
+	 * 按脚本按键运行指定帧数并输出报告，需要时保存录像
+	 * @param options 命令行参数
+	 */
+	private static void runScripted(HeadlessOptions options) {
+		TickInput input = ScriptedKeyStateProvider.parse(options.script);
+		InputRecorder inputRecorder = null;
+		if (options.recordPath != null) {
+			inputRecorder = new InputRecorder(input);
+			input = inputRecorder;
+		}
+		HeadlessRunner runner = new HeadlessRunner(options.groupName, input, options.seed);
+		if (inputRecorder != null) {
+			runner.beginRecording(inputRecorder, options.seed);
+		}
+		runner.setRenderEnabled(options.render);
+		runner.run(options.frames);
+		runner.printReport();
+		if (options.recordPath != null) {
+			try {
+				ReplayWriter.getInstance().write(runner.replayRecorder.finish(), options.recordPath).get();
+			} catch (InterruptedException | ExecutionException e) {
+				Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+				System.err.println("[HeadlessRunner] 录像保存失败: " + cause);
+				System.exit(2);
+			}
+		}
+	}
+
+	/**
+	 * 回放录像文件，在每个关键帧处核对状态校验和
+	 * @param path 录像文件
+	 * @param render 是否执行渲染代码路径
+	 * @return 所有关键帧校验和是否一致
+	 * @throws IOException 读取失败时抛出
+	 */
+	public static boolean play(Path path, boolean render) throws IOException {
+		try (ReplayFile file = ReplayFile.open(path)) {
+			Replay replay = file.getReplay();
+			HeadlessRunner runner = new HeadlessRunner(replay.getStageGroupName(),
+				new InputPlayback(replay.getMasks()), replay.getSeed());
+			runner.setRenderEnabled(render);
+			boolean match = runner.runAndCheckKeyframes(replay);
+			runner.printReport();
+			System.out.println("[HeadlessRunner] 关键帧: " + replay.getKeyframes().size() + "，校验"
+				+ (match ? "一致" : "不一致"));
+			return match;
+		}
+	}
+
+	/**
+	 * 回放一致性验证：录制一次运行的逐步输入和状态校验和，再用同一种子回放，逐步比对
+	 * @param groupName 关卡组显示名称
+	 * @param script 脚本按键
+	 * @param seed 种子
+	 * @param frames 帧数
+	 * @return 回放与录制是否完全一致
+	 */
+	public static boolean verifyReplay(String groupName, TickInput script, long seed, long frames) throws IOException {
+		InputRecorder recorder = new InputRecorder(script);
+		HeadlessRunner runner = new HeadlessRunner(groupName, recorder, seed);
+		runner.beginRecording(recorder, seed);
+		long[] checksums = new long[(int) frames];
+		for (int i = 0; i < frames; i++) {
+			runner.step();
+			checksums[i] = runner.getSimulation().computeChecksum();
+		}
+		Replay recorded = runner.replayRecorder.finish();
+		runner.setReplayRecorder(null);
+
+		// 经过文件写入和读回，同时验证录像格式
+		Path path = Files.createTempFile("stg-replay", ".rpy");
+		try {
+			ReplayWriter.writeNow(recorded, path);
+			try (ReplayFile file = ReplayFile.open(path)) {
+				Replay replay = file.getReplay();
+				System.out.println("[HeadlessRunner] 录像文件: " + Files.size(path) + " 字节，关键帧 "
+					+ replay.getKeyframes().size() + " 个");
+				runner.restart(new InputPlayback(replay.getMasks()), replay.getSeed());
+				for (int i = 0; i < frames; i++) {
+					runner.step();
+					long checksum = runner.getSimulation().computeChecksum();
+					if (checksum != checksums[i]) {
+						System.err.println("[HeadlessRunner] 回放在第 " + i + " 步与录制不一致");
+						return false;
+					}
+				}
+			}
+		} finally {
+			Files.deleteIfExists(path);
+		}
+		System.out.println("[HeadlessRunner] 回放一致: " + frames + " 步，种子 " + seed);
+		return true;
+	}
+
+	/**
+	 * 快照一致性验证：运行时每秒保存一次世界快照（复用同一块缓冲）并统计耗时，
+	 * 另在 1/3 和 2/3 处、以及第一次有子弹正在执行运动程序（MotionProgram）时各保留一份快照；
+	 * 之后依次恢复这些快照，各自按原输入模拟到结尾，逐步比对状态校验和
+	 * @param groupName 关卡组显示名称
+	 * @param script 脚本按键
+	 * @param seed 种子
+	 * @param frames 帧数
+	 * @return 恢复后的模拟是否与原运行完全一致
+	 */
+	public static boolean verifySnapshots(String groupName, TickInput script, long seed, long frames) {
+		InputRecorder recorder = new InputRecorder(script);
+		HeadlessRunner runner = new HeadlessRunner(groupName, recorder, seed);
+		runner.setRenderEnabled(false);
+		GameSimulation simulation = runner.getSimulation();
+		WorldSnapshot perSecond = new WorldSnapshot();
+		WorldSnapshot early = new WorldSnapshot();
+		WorldSnapshot late = new WorldSnapshot();
+		WorldSnapshot programs = new WorldSnapshot();
+		long earlyTick = frames / 3;
+		long lateTick = frames * 2 / 3;
+		long[] checksums = new long[(int) frames];
+		long captureNanos = 0;
+		long maxCaptureNanos = 0;
+		int captures = 0;
+		for (int i = 0; i < frames; i++) {
+			runner.step();
+			checksums[i] = simulation.computeChecksum();
+			long tick = simulation.getRunTick();
+			if (tick % 60 == 0) {
+				long start = System.nanoTime();
+				perSecond.capture(simulation);
+				long elapsed = System.nanoTime() - start;
+				captureNanos += elapsed;
+				maxCaptureNanos = Math.max(maxCaptureNanos, elapsed);
+				captures++;
+			}
+			if (tick == earlyTick) {
+				early.capture(simulation);
+			} else if (tick == lateTick) {
+				late.capture(simulation);
+			}
+			if (!programs.isCaptured() && simulation.getGameWorld().getBulletField().programCount() > 0) {
+				programs.capture(simulation);
+			}
+		}
+		if (captures > 0) {
+			System.out.printf("[HeadlessRunner] 每秒快照 %d 次，平均 %.1f 微秒，最长 %.1f 微秒，最后一次 %d 字节%n",
+				captures, captureNanos / 1000.0 / captures, maxCaptureNanos / 1000.0, perSecond.size());
+		}
+
+		InputPlayback playback = new InputPlayback(recorder.toArray());
+		simulation.setInput(playback);
+		if (!programs.isCaptured()) {
+			System.out.println("[HeadlessRunner] 运行中没有子弹执行运动程序，快照验证未覆盖运动程序");
+		}
+		for (WorldSnapshot snapshot : new WorldSnapshot[] { late, programs, early }) {
+			if (snapshot.isCaptured() && !restoreAndCompare(runner, snapshot, checksums, frames)) {
+				return false;
+			}
+		}
+		System.out.println("[HeadlessRunner] 快照恢复一致: " + frames + " 步，种子 " + seed);
+		return true;
+	}
+
+	private static boolean restoreAndCompare(HeadlessRunner runner, WorldSnapshot snapshot, long[] checksums,
+			long frames) {
+		GameSimulation simulation = runner.getSimulation();
+		long start = System.nanoTime();
+		snapshot.restore(simulation);
+		long elapsed = System.nanoTime() - start;
+		long from = simulation.getRunTick();
+		System.out.printf("[HeadlessRunner] 恢复到第 %d 步（%d 字节，%d 颗子弹执行运动程序）用时 %.1f 微秒%n",
+			from, snapshot.size(), simulation.getGameWorld().getBulletField().programCount(), elapsed / 1000.0);
+		for (long i = from; i < frames; i++) {
+			runner.step();
+			if (simulation.computeChecksum() != checksums[(int) i]) {
+				System.err.println("[HeadlessRunner] 从第 " + from + " 步恢复后，在第 " + i + " 步与原运行不一致");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void beginRecording(InputRecorder inputRecorder, long seed) {
+		replayRecorder = new ReplayRecorder(inputRecorder, new WorldSnapshotCodec());
+		replayRecorder.begin(seed, stageGroup.getDisplayName(), DefaultPlayer.class.getName());
+	}
+
+	private boolean runAndCheckKeyframes(Replay replay) {
+		List<ReplayKeyframe> keyframes = replay.getKeyframes();
+		int next = 0;
+		boolean match = true;
+		long start = System.nanoTime();
+		for (int i = 0; i < replay.getTickCount(); i++) {
+			step();
+			long tick = simulation.getRunTick();
+			while (next < keyframes.size() && keyframes.get(next).getTick() <= tick) {
+				ReplayKeyframe keyframe = keyframes.get(next++);
+				if (keyframe.getTick() == tick && keyframe.getChecksum() != simulation.computeChecksum()) {
+					System.err.println("[HeadlessRunner] 第 " + tick + " 步的关键帧校验和不一致");
+					match = false;
+				}
+			}
+		}
+		elapsedNanos = System.nanoTime() - start;
+		return match;
+	}
+
+	private static StageGroup findStageGroup(List<StageGroup> stageGroups, String name) {
+		for (StageGroup group : stageGroups) {
+			if (name == null || name.equals(group.getDisplayName()) || name.equals(group.getGroupName())) {
+				return group;
+			}
+		}
+		return null;
+	}
+}
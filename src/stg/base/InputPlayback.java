@@ -0,0 +1,51 @@
+package stg.base;
+
+/**
+ * 输入回放
+ * 按步序号依次给出录下的按键位掩码，配合同一种子即可复现一局。超出录像长度后视为不按任何键。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class InputPlayback implements TickInput {
+	/** 每步的按键位掩码 */
+	private final int[] masks;
+	/** 当前步的按键位掩码 */
+	private int currentMask;
+	/** 当前步序号 */
+	private long currentTick;
+
+	/**
+	 * 构造函数
+	 * @param masks 每步的按键位掩码（如 {@link InputRecorder#toArray()} 的结果）
+	 */
+	public InputPlayback(int[] masks) {
+		this.masks = masks;
+	}
+
+	@Override
+	public void onTick(long tick) {
+		currentTick = tick;
+		currentMask = tick < masks.length ? masks[(int) tick] : 0;
+	}
+
+	/**
+	 * 录像是否已播放完毕
+	 * @return 是否已播放完毕
+	 */
+	public boolean isFinished() {
+		return currentTick >= masks.length - 1;
+	}
+
+	/**
+	 * 获取录像的总步数
+	 * @return 步数
+	 */
+	public int getTickCount() {
+		return masks.length;
+	}
+
+	@Override
+	public int getKeyMask() {
+		return currentMask;
+	}
+}
@@ -0,0 +1,83 @@
+package stg.base;
+
+import java.util.Arrays;
+
+/**
+ * 输入录制器
+ * 包装真实的按键状态提供者，每个模拟步开始时把按键状态采样成位掩码并记录下来，
+ * 本步内的查询都返回采样结果，保证录下的正是模拟实际使用的输入。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class InputRecorder implements TickInput {
+	/** 真实的按键状态来源 */
+	private final KeyStateProvider source;
+	/** 每步的按键位掩码 */
+	private int[] masks = new int[60 * 60];
+	/** 已记录的步数 */
+	private int count;
+	/** 当前步的按键位掩码 */
+	private int currentMask;
+
+	/**
+	 * 构造函数
+	 * @param source 真实的按键状态来源
+	 */
+	public InputRecorder(KeyStateProvider source) {
+		this.source = source;
+	}
+
+	/**
+	 * 清空录制内容，开始新的一局
+	 */
+	public void reset() {
+		count = 0;
+		currentMask = 0;
+	}
+
+	@Override
+	public void onTick(long tick) {
+		if (source instanceof TickInput tickInput) {
+			tickInput.onTick(tick);
+		}
+		currentMask = source.getKeyMask();
+		if (tick < count) {
+			// 步序号回退说明新开了一局或恢复了快照，丢弃之后的记录
+			count = (int) tick;
+		}
+		if (count == masks.length) {
+			masks = Arrays.copyOf(masks, masks.length * 2);
+		}
+		masks[count++] = currentMask;
+	}
+
+	/**
+	 * 获取已记录的步数
+	 * @return 步数
+	 */
+	public int getTickCount() {
+		return count;
+	}
+
+	/**
+	 * 获取指定步的按键位掩码
+	 * @param tick 步序号
+	 * @return 按键位掩码
+	 */
+	public int getMask(int tick) {
+		return masks[tick];
+	}
+
+	/**
+	 * 复制已记录的全部输入
+	 * @return 每步的按键位掩码
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(masks, count);
+	}
+
+	@Override
+	public int getKeyMask() {
+		return currentMask;
+	}
+}
@@ -1,6 +1,21 @@
 package stg.base;
 
+/**
+ * 按键状态提供者
+ * @date 2026-10-18 添加按键位掩码常量和 getKeyMask，便于脚本输入与录制
+ */
 public interface KeyStateProvider {
+	/** 按键位掩码 */
+	int KEY_UP = 1;
+	int KEY_DOWN = 1 << 1;
+	int KEY_LEFT = 1 << 2;
+	int KEY_RIGHT = 1 << 3;
+	int KEY_Z = 1 << 4;
+	int KEY_SHIFT = 1 << 5;
+	int KEY_X = 1 << 6;
+	int KEY_C = 1 << 7;
+	int KEY_ESC = 1 << 8;
+
 	boolean isUpPressed();
 	boolean isDownPressed();
 	boolean isLeftPressed();
@@ -10,4 +25,22 @@ public interface KeyStateProvider {
 	boolean isXPressed();
 	boolean isCPressed();
 	boolean isEscPressed();
+
+	/**
+	 * 把当前按键状态打包成位掩码
+	 * @return 按键位掩码（KEY_* 的组合）
+	 */
+	default int getKeyMask() {
+		int mask = 0;
+		if (isUpPressed()) mask |= KEY_UP;
+		if (isDownPressed()) mask |= KEY_DOWN;
+		if (isLeftPressed()) mask |= KEY_LEFT;
+		if (isRightPressed()) mask |= KEY_RIGHT;
+		if (isZPressed()) mask |= KEY_Z;
+		if (isShiftPressed()) mask |= KEY_SHIFT;
+		if (isXPressed()) mask |= KEY_X;
+		if (isCPressed()) mask |= KEY_C;
+		if (isEscPressed()) mask |= KEY_ESC;
+		return mask;
+	}
 }
@@ -0,0 +1,76 @@
+package stg.base;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import stg.core.GameSimulation;
+import stg.replay.Replay;
+import stg.replay.ReplayFile;
+import stg.replay.ReplayPlayer;
+import stg.replay.WorldSnapshotCodec;
+
+/**
+ * 录像跳转验证，由无头运行器的 {@code --play=文件 --seek=步数} 或 {@code --spellcard=序号} 调用
+ * <p>
+ * 先用 {@link ReplayPlayer} 跳转：恢复目标之前最近的关键帧，再模拟剩下的步数；
+ * 然后用同一种子和按键从第0步完整模拟到同一步，比对两者的状态校验和，并输出两种方式的耗时。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+final class ReplaySeekCheck {
+	private ReplaySeekCheck() {
+	}
+
+	/**
+	 * 打开录像并验证跳转
+	 * @param path 录像文件
+	 * @param seekTick 目标步，spellcard 不小于0时忽略
+	 * @param spellcard 目标符卡序号（从0开始），小于0时按 seekTick 跳转
+	 * @return 跳转后的状态是否与完整模拟一致（找不到符卡时返回false）
+	 * @throws IOException 读取失败时抛出
+	 */
+	static boolean run(Path path, long seekTick, int spellcard) throws IOException {
+		try (ReplayFile file = ReplayFile.open(path)) {
+			Replay replay = file.getReplay();
+			HeadlessRunner runner = new HeadlessRunner(replay.getStageGroupName(),
+				new InputPlayback(replay.getMasks()), replay.getSeed());
+			runner.setRenderEnabled(false);
+			GameSimulation simulation = runner.getSimulation();
+			ReplayPlayer player = new ReplayPlayer(replay, simulation, new WorldSnapshotCodec(),
+				seed -> runner.restart(new InputPlayback(replay.getMasks()), seed));
+			if (!player.usesKeyframes()) {
+				System.out.println("[HeadlessRunner] 录像的关键帧状态版本 " + replay.getKeyframeVersion()
+					+ " 与当前版本不同，跳转将从头模拟");
+			}
+			player.start();
+
+			long start = System.nanoTime();
+			long simulated;
+			if (spellcard >= 0) {
+				if (!player.seekToSpellcard(spellcard)) {
+					System.err.println("[HeadlessRunner] 录像中没有第 " + spellcard + " 张符卡");
+					return false;
+				}
+				simulated = -1;
+			} else {
+				simulated = player.seek(seekTick);
+			}
+			long seekNanos = System.nanoTime() - start;
+			long target = simulation.getRunTick();
+			long checksum = simulation.computeChecksum();
+			System.out.printf("[HeadlessRunner] 跳转到第 %d 步用时 %.1f 毫秒%s%n", target, seekNanos / 1_000_000.0,
+				simulated >= 0 ? "（模拟 " + simulated + " 步）" : "");
+
+			runner.restart(new InputPlayback(replay.getMasks()), replay.getSeed());
+			start = System.nanoTime();
+			while (simulation.getRunTick() < target) {
+				runner.step();
+			}
+			long fullNanos = System.nanoTime() - start;
+			boolean match = simulation.computeChecksum() == checksum;
+			System.out.printf("[HeadlessRunner] 从第0步完整模拟用时 %.1f 毫秒，跳转%s%n", fullNanos / 1_000_000.0,
+				match ? "与完整模拟一致" : "与完整模拟不一致");
+			return match;
+		}
+	}
+}
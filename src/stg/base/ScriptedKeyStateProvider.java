@@ -0,0 +1,116 @@
+package stg.base;
+
+import java.util.Arrays;
+
+/**
+ * 脚本按键状态提供者
+ * 按帧区间给出按键组合，用于无头运行和自动化测试。每帧开始前调用
+ * {@link #setFrame(long)}（或由模拟步调用 {@link #onTick(long)}），之后的按键查询返回该帧所有生效区间的按键并集。
+ * <p>
+ * 文本脚本格式为以分号分隔的若干区间，每个区间为 {@code 起始帧-结束帧:按键+按键}，
+ * 结束帧不包含在内，省略时表示一直按住，例如 {@code 0-:Z;60-180:LEFT+SHIFT;180-300:RIGHT}。
+ * 按键名为 UP、DOWN、LEFT、RIGHT、Z、SHIFT、X、C、ESC。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class ScriptedKeyStateProvider implements TickInput {
+	private long[] starts = new long[8];
+	private long[] ends = new long[8];
+	private int[] masks = new int[8];
+	private int count;
+	/** 当前帧的按键位掩码 */
+	private int currentMask;
+
+	/**
+	 * 添加一个按键区间
+	 * @param startFrame 起始帧（包含）
+	 * @param endFrame 结束帧（不包含），Long.MAX_VALUE 表示一直按住
+	 * @param keyMask 按键位掩码（KEY_* 的组合）
+	 * @return 当前实例，便于链式调用
+	 */
+	public ScriptedKeyStateProvider hold(long startFrame, long endFrame, int keyMask) {
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+			masks = Arrays.copyOf(masks, count * 2);
+		}
+		starts[count] = startFrame;
+		ends[count] = endFrame;
+		masks[count] = keyMask;
+		count++;
+		return this;
+	}
+
+	/**
+	 * 解析文本脚本
+	 * @param script 脚本文本，为空时不按任何键
+	 * @return 脚本按键状态提供者
+	 * @throws IllegalArgumentException 脚本格式错误时抛出
+	 */
+	public static ScriptedKeyStateProvider parse(String script) {
+		ScriptedKeyStateProvider provider = new ScriptedKeyStateProvider();
+		if (script == null || script.isBlank()) {
+			return provider;
+		}
+		for (String segment : script.split(";")) {
+			segment = segment.trim();
+			if (segment.isEmpty()) {
+				continue;
+			}
+			int colon = segment.indexOf(':');
+			int dash = segment.indexOf('-');
+			if (colon < 0 || dash < 0 || dash > colon) {
+				throw new IllegalArgumentException("按键脚本格式错误: " + segment);
+			}
+			long start = Long.parseLong(segment.substring(0, dash).trim());
+			String endText = segment.substring(dash + 1, colon).trim();
+			long end = endText.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endText);
+			int mask = 0;
+			for (String key : segment.substring(colon + 1).split("\\+")) {
+				mask |= parseKey(key.trim());
+			}
+			provider.hold(start, end, mask);
+		}
+		return provider;
+	}
+
+	/**
+	 * 设置当前帧，重新计算按键状态
+	 * @param frame 帧序号
+	 */
+	public void setFrame(long frame) {
+		int mask = 0;
+		for (int i = 0; i < count; i++) {
+			if (frame >= starts[i] && frame < ends[i]) {
+				mask |= masks[i];
+			}
+		}
+		currentMask = mask;
+	}
+
+	@Override
+	public void onTick(long tick) {
+		setFrame(tick);
+	}
+
+	@Override
+	public int getKeyMask() {
+		return currentMask;
+	}
+
+	private static int parseKey(String key) {
+		return switch (key.toUpperCase()) {
+		case "UP" -> KEY_UP;
+		case "DOWN" -> KEY_DOWN;
+		case "LEFT" -> KEY_LEFT;
+		case "RIGHT" -> KEY_RIGHT;
+		case "Z" -> KEY_Z;
+		case "SHIFT" -> KEY_SHIFT;
+		case "X" -> KEY_X;
+		case "C" -> KEY_C;
+		case "ESC" -> KEY_ESC;
+		case "" -> 0;
+		default -> throw new IllegalArgumentException("未知按键: " + key);
+		};
+	}
+}
@@ -0,0 +1,68 @@
+package stg.base;
+
+/**
+ * 按模拟步锁存的按键输入
+ * 每个模拟步开始时由 GameSimulation 调用 {@link #onTick(long)}，之后本步内的所有按键查询
+ * 都返回同一个位掩码，录制和回放因此可以精确到步。实现类只需提供锁存的位掩码。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public interface TickInput extends KeyStateProvider {
+	/**
+	 * 模拟步开始，锁存本步的按键状态
+	 * @param tick 本局的模拟步序号（从0开始）
+	 */
+	void onTick(long tick);
+
+	/**
+	 * 获取本步锁存的按键位掩码
+	 * @return 按键位掩码（KEY_* 的组合）
+	 */
+	@Override
+	int getKeyMask();
+
+	@Override
+	default boolean isUpPressed() {
+		return (getKeyMask() & KEY_UP) != 0;
+	}
+
+	@Override
+	default boolean isDownPressed() {
+		return (getKeyMask() & KEY_DOWN) != 0;
+	}
+
+	@Override
+	default boolean isLeftPressed() {
+		return (getKeyMask() & KEY_LEFT) != 0;
+	}
+
+	@Override
+	default boolean isRightPressed() {
+		return (getKeyMask() & KEY_RIGHT) != 0;
+	}
+
+	@Override
+	default boolean isZPressed() {
+		return (getKeyMask() & KEY_Z) != 0;
+	}
+
+	@Override
+	default boolean isShiftPressed() {
+		return (getKeyMask() & KEY_SHIFT) != 0;
+	}
+
+	@Override
+	default boolean isXPressed() {
+		return (getKeyMask() & KEY_X) != 0;
+	}
+
+	@Override
+	default boolean isCPressed() {
+		return (getKeyMask() & KEY_C) != 0;
+	}
+
+	@Override
+	default boolean isEscPressed() {
+		return (getKeyMask() & KEY_ESC) != 0;
+	}
+}
@@ -4,8 +4,16 @@ import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.opengl.GL;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import stg.core.FastForward;
 import stg.core.GameLoop;
+import stg.core.GameSimulation;
 import stg.core.GameWorld;
+import stg.core.WorldSnapshot;
 import stg.entity.player.Player;
 import stg.render.GLRenderer;
 import stg.render.GamePanel;
@@ -13,13 +21,20 @@ import stg.render.IRenderer;
 import stg.render.LeftPanel;
 import stg.render.PauseMenu;
 import stg.render.PlayerSelectPanel;
+import stg.render.RenderSnapshot;
+import stg.render.RenderThread;
 import stg.render.RightPanel;
 import stg.render.StageGroupSelectPanel;
 import stg.render.TitlePanel;
+import stg.replay.Replay;
+import stg.replay.ReplayRecorder;
+import stg.replay.ReplayWriter;
+import stg.replay.WorldSnapshotCodec;
 import stg.stage.StageGroup;
 import stg.util.ALAudioManager;
 import stg.util.CoordinateSystem;
 import stg.util.GameConstants;
+import stg.util.math.GameRandom;
 import user.player.DefaultPlayer;
 
 /**
@@ -28,6 +43,17 @@ import user.player.DefaultPlayer;
  * @since 2026-02-02
  * @author JavaSTG Team
  * @date 2026-02-23 重写为三面板布局
+ * @date 2026-10-18 接入 CollisionSystem，每帧在世界更新后执行碰撞检测
+ * @date 2026-10-18 优先创建 OpenGL 3.3 兼容上下文以启用实例化子弹绘制，失败时回退到 2.1
+ * @date 2026-10-18 每次模拟更新推进 GameClock，并记录玩家上一步位置用于渲染插值
+ * @date 2026-10-18 面板绘制可记录进渲染快照，支持模拟线程与渲染线程分离；ESC 在模拟步中处理
+ * @date 2026-10-18 模拟步逻辑移入 GameSimulation，与无头运行器共用
+ * @date 2026-10-18 调试快进：F5 切换加速倍数，F6 跳转到下一张符卡，标题栏显示每秒模拟步数
+ * @date 2026-10-18 每局用新种子重置游戏随机数，玩家输入按模拟步录制
+ * @date 2026-10-18 返回标题或重新开始时把本局录像在后台写入 replays 目录
+ * @date 2026-10-18 重新开始改为恢复开局时的世界快照；练习模式 F7 保存快照、F8 读取快照；录像关键帧保存完整状态
+ * @date 2026-10-18 按键状态改用原子数组，渲染线程写入的按键对模拟线程可见
+ * @date 2026-10-18 关闭窗口时保存未结束的本局录像，并等待后台写入完成
  */
 public class Window {
 	/** 窗口总宽度 */
@@ -39,6 +65,8 @@ public class Window {
 	private static final float DIVIDER_COLOR_G = 0.3f;
 	private static final float DIVIDER_COLOR_B = 0.3f;
 	private static final float DIVIDER_COLOR_A = 1.0f;
+	/** 退出时等待录像写入完成的最长时间（毫秒） */
+	private static final long REPLAY_FLUSH_TIMEOUT_MS = 5000;
 	
 	/** GLFW窗口句柄 */
 	private long windowHandle;
@@ -66,18 +94,36 @@ public class Window {
 	private CoordinateSystem coordinateSystem;
 	/** 游戏世界 */
 	private GameWorld gameWorld;
+	/** 游戏模拟（玩家、关卡组、世界更新和碰撞检测） */
+	private GameSimulation simulation;
+	/** 调试快进设置 */
+	private final FastForward fastForward = new FastForward();
 	/** 当前选择的关卡组 */
 	private StageGroup selectedStageGroup;
 	/** 是否已初始化 */
 	private boolean initialized = false;
 	/** 当前显示的面板 */
-	private PanelState currentPanelState = PanelState.TITLE;
+	private volatile PanelState currentPanelState = PanelState.TITLE;
 	/** 是否暂停 */
-	private boolean isPaused = false;
-	/** 按键状态 */
-	private final boolean[] keyStates = new boolean[GLFW.GLFW_KEY_LAST];
+	private volatile boolean isPaused = false;
+	/** ESC 已松开、等待下一个模拟步处理（按键回调在渲染线程，状态切换在模拟线程） */
+	private volatile boolean escapeReleased = false;
+	/** 按键状态（1为按下）：按键回调在渲染线程写入，模拟线程读取，原子数组保证写入对模拟线程可见 */
+	private final AtomicIntegerArray keyStates = new AtomicIntegerArray(GLFW.GLFW_KEY_LAST);
 	/** 按键状态提供者 */
 	private KeyStateProvider keyStateProvider;
+	/** 玩家输入录制器（按模拟步锁存并记录 keyStateProvider 的状态） */
+	private InputRecorder inputRecorder;
+	/** 录像录制器（关键帧） */
+	private ReplayRecorder replayRecorder;
+	/** 本局开始时的世界快照，重新开始时直接恢复 */
+	private final WorldSnapshot runStartSnapshot = new WorldSnapshot();
+	/** 练习模式快照（F7 保存，F8 读取） */
+	private final WorldSnapshot practiceSnapshot = new WorldSnapshot();
+	/** F7 已按下、等待下一个模拟步保存快照 */
+	private volatile boolean practiceSaveRequested = false;
+	/** F8 已按下、等待下一个模拟步读取快照 */
+	private volatile boolean practiceLoadRequested = false;
 	/** 激光贴图纹理ID */
 	private int laserTextureId = -1;
 	
@@ -125,9 +171,10 @@ public class Window {
 		GLFW.glfwDefaultWindowHints();
 		GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_FALSE);
 		GLFW.glfwWindowHint(GLFW.GLFW_RESIZABLE, GLFW.GLFW_FALSE);
-		GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 2);
-		GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 1);
-		GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_ANY_PROFILE);
+		// 优先请求 3.3 兼容模式上下文（固定管线与实例化绘制并存），创建失败时回退到 2.1
+		GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 3);
+		GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 3);
+		GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_COMPAT_PROFILE);
 	}
 	
 	/**
@@ -135,82 +182,121 @@ public class Window {
 	 */
 	private void createWindow() {
 		windowHandle = GLFW.glfwCreateWindow(TOTAL_WIDTH, TOTAL_HEIGHT, "JavaSTG", 0, 0);
+		if (windowHandle == 0) {
+			System.err.println("[Window] 无法创建 OpenGL 3.3 兼容上下文，回退到 OpenGL 2.1");
+			GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 2);
+			GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 1);
+			GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_ANY_PROFILE);
+			windowHandle = GLFW.glfwCreateWindow(TOTAL_WIDTH, TOTAL_HEIGHT, "JavaSTG", 0, 0);
+		}
 		if (windowHandle == 0) {
 			throw new IllegalStateException("无法创建GLFW窗口");
 		}
 		System.out.println("GLFW窗口创建成功: " + TOTAL_WIDTH + "x" + TOTAL_HEIGHT);
 	}
 	
+	/**
+	 * 查询按键是否按下（任意线程可调用）
+	 * @param key GLFW 按键码
+	 * @return 是否按下
+	 */
+	private boolean isKeyDown(int key) {
+		return keyStates.get(key) != 0;
+	}
+	
+	/**
+	 * 松开所有按键（切换面板时调用）
+	 */
+	private void clearKeyStates() {
+		for (int i = 0; i < keyStates.length(); i++) {
+			keyStates.set(i, 0);
+		}
+	}
+	
 	/**
 	 * 设置回调函数
 	 */
 	private void setupCallbacks() {
 		GLFW.glfwSetKeyCallback(windowHandle, (window, key, scancode, action, mods) -> {
-			if (key >= 0 && key < keyStates.length) {
+			if (key >= 0 && key < keyStates.length()) {
 				if (action == GLFW.GLFW_PRESS) {
-					keyStates[key] = true;
+					keyStates.set(key, 1);
 				} else if (action == GLFW.GLFW_RELEASE) {
-					keyStates[key] = false;
+					keyStates.set(key, 0);
 				}
 			}
 			
 			if (key == GLFW.GLFW_KEY_ESCAPE && action == GLFW.GLFW_RELEASE) {
-				if (currentPanelState == PanelState.GAME && !isPaused) {
-					togglePause();
-				} else if (currentPanelState == PanelState.GAME && isPaused) {
-					togglePause();
+				escapeReleased = true;
+			}
+			
+			// 调试快进
+			if (key == GLFW.GLFW_KEY_F5 && action == GLFW.GLFW_PRESS) {
+				fastForward.cycleTurbo();
+			} else if (key == GLFW.GLFW_KEY_F6 && action == GLFW.GLFW_PRESS) {
+				if (fastForward.isSkipping()) {
+					fastForward.cancelSkip();
 				} else {
-					GLFW.glfwSetWindowShouldClose(window, true);
+					fastForward.skipToNextSpellcard();
 				}
 			}
+			
+			// 练习模式快照
+			if (key == GLFW.GLFW_KEY_F7 && action == GLFW.GLFW_PRESS) {
+				practiceSaveRequested = true;
+			} else if (key == GLFW.GLFW_KEY_F8 && action == GLFW.GLFW_PRESS) {
+				practiceLoadRequested = true;
+			}
 		});
 		
 		keyStateProvider = new KeyStateProvider() {
 			@Override
 			public boolean isUpPressed() {
-				return keyStates[GLFW.GLFW_KEY_UP];
+				return isKeyDown(GLFW.GLFW_KEY_UP);
 			}
 			
 			@Override
 			public boolean isDownPressed() {
-				return keyStates[GLFW.GLFW_KEY_DOWN];
+				return isKeyDown(GLFW.GLFW_KEY_DOWN);
 			}
 			
 			@Override
 			public boolean isLeftPressed() {
-				return keyStates[GLFW.GLFW_KEY_LEFT];
+				return isKeyDown(GLFW.GLFW_KEY_LEFT);
 			}
 			
 			@Override
 			public boolean isRightPressed() {
-				return keyStates[GLFW.GLFW_KEY_RIGHT];
+				return isKeyDown(GLFW.GLFW_KEY_RIGHT);
 			}
 			
 			@Override
 			public boolean isZPressed() {
-				return keyStates[GLFW.GLFW_KEY_Z];
+				return isKeyDown(GLFW.GLFW_KEY_Z);
 			}
 			
 			@Override
 			public boolean isShiftPressed() {
-				return keyStates[GLFW.GLFW_KEY_LEFT_SHIFT] || keyStates[GLFW.GLFW_KEY_RIGHT_SHIFT];
+				return isKeyDown(GLFW.GLFW_KEY_LEFT_SHIFT) || isKeyDown(GLFW.GLFW_KEY_RIGHT_SHIFT);
 			}
 			
 			@Override
 			public boolean isXPressed() {
-				return keyStates[GLFW.GLFW_KEY_X];
+				return isKeyDown(GLFW.GLFW_KEY_X);
 			}
 			
 			@Override
 			public boolean isCPressed() {
-				return keyStates[GLFW.GLFW_KEY_C];
+				return isKeyDown(GLFW.GLFW_KEY_C);
 			}
 			
 			@Override
 			public boolean isEscPressed() {
-				return keyStates[GLFW.GLFW_KEY_ESCAPE];
+				return isKeyDown(GLFW.GLFW_KEY_ESCAPE);
 			}
 		};
+		inputRecorder = new InputRecorder(keyStateProvider);
+		replayRecorder = new ReplayRecorder(inputRecorder, new WorldSnapshotCodec());
 	}
 	
 	/**
@@ -242,6 +328,7 @@ public class Window {
 		GLFW.glfwMakeContextCurrent(windowHandle);
 		GL.createCapabilities();
 		GLFW.glfwSwapInterval(1);
+		RenderThread.setCurrent();
 		
 		renderer = new GLRenderer();
 		renderer.initialize(TOTAL_WIDTH, TOTAL_HEIGHT);
@@ -265,9 +352,7 @@ public class Window {
 			@Override
 			public void onGameStart() {
 				// 重置按键状态
-				for (int i = 0; i < keyStates.length; i++) {
-					keyStates[i] = false;
-				}
+				clearKeyStates();
 				titlePanel.resetKeyStates();
 				// 进入关卡组选择界面
 				currentPanelState = PanelState.STAGE_GROUP_SELECT;
@@ -293,18 +378,19 @@ public class Window {
 		
 		// 初始化游戏世界
 		gameWorld = new GameWorld();
+		simulation = new GameSimulation(gameWorld, gamePanel.getWidth(), gamePanel.getHeight());
+		simulation.setInput(inputRecorder);
 		
 		// 创建关卡组选择面板
 		stageGroupSelectPanel = new StageGroupSelectPanel(0, 0, TOTAL_WIDTH, TOTAL_HEIGHT, new StageGroupSelectPanel.StageGroupSelectCallback() {
 			@Override
 			public void onStageGroupSelected(StageGroup stageGroup) {
 				// 重置按键状态
-				for (int i = 0; i < keyStates.length; i++) {
-					keyStates[i] = false;
-				}
+				clearKeyStates();
 				stageGroupSelectPanel.resetKeyStates();
 				// 保存选择的关卡组
 				selectedStageGroup = stageGroup;
+				simulation.setStageGroup(stageGroup);
 				// 进入玩家选择界面
 				currentPanelState = PanelState.PLAYER_SELECT;
 				// 播放页面切换音效
@@ -319,9 +405,7 @@ public class Window {
 			@Override
 			public void onBack() {
 				// 重置按键状态
-				for (int i = 0; i < keyStates.length; i++) {
-					keyStates[i] = false;
-				}
+				clearKeyStates();
 				stageGroupSelectPanel.resetKeyStates();
 				// 播放页面切换音效
 				System.out.println("播放页面切换音效");
@@ -367,13 +451,10 @@ public class Window {
 			@Override
 			public void onPlayerSelected(Player selectedPlayer) {
 				// 重置按键状态
-				for (int i = 0; i < keyStates.length; i++) {
-					keyStates[i] = false;
-				}
+				clearKeyStates();
 				playerSelectPanel.resetKeyStates();
 				// 开始游戏
 					player = selectedPlayer;
-					player.setKeyStateProvider(keyStateProvider);
 					
 					// 为Reimu玩家设置纹理ID
 					if (player instanceof user.player.reimu.__ReimuPlayer reimuPlayer) {
@@ -382,6 +463,7 @@ public class Window {
 					}
 					
 					gamePanel.setPlayer(player);
+					simulation.setPlayer(player);
 					// 设置游戏世界到游戏面板
 					gamePanel.setGameWorld(gameWorld);
 					currentPanelState = PanelState.GAME;
@@ -389,6 +471,9 @@ public class Window {
 					ALAudioManager.getInstance().stopMusic("title");
 					// 启动选中的关卡组
 					if (selectedStageGroup != null) {
+						runStartSnapshot.capture(simulation);
+						practiceSnapshot.clear();
+						startRun();
 						selectedStageGroup.start();
 						System.out.println("启动关卡组: " + selectedStageGroup.getDisplayName());
 					}
@@ -401,9 +486,7 @@ public class Window {
 			@Override
 			public void onBack() {
 				// 重置按键状态
-				for (int i = 0; i < keyStates.length; i++) {
-					keyStates[i] = false;
-				}
+				clearKeyStates();
 				playerSelectPanel.resetKeyStates();
 				// 播放页面切换音效
 				System.out.println("播放页面切换音效");
@@ -429,8 +512,8 @@ public class Window {
 		
 		// 初始化默认玩家
 		player = new DefaultPlayer(0.0f, -200.0f);
-		player.setKeyStateProvider(keyStateProvider);
 		gamePanel.setPlayer(player);
+		simulation.setPlayer(player);
 		
 		leftPanel.setKeyStateProvider(keyStateProvider);
 		
@@ -499,6 +582,22 @@ public class Window {
 		return keyStateProvider;
 	}
 	
+	/**
+	 * 获取玩家输入录制器，其中保存本局每个模拟步的按键位掩码
+	 * @return 输入录制器
+	 */
+	public InputRecorder getInputRecorder() {
+		return inputRecorder;
+	}
+	
+	/**
+	 * 获取本局种子
+	 * @return 种子
+	 */
+	public long getRunSeed() {
+		return GameRandom.getInstance().getSeed();
+	}
+	
 	/**
 	 * 获取玩家
 	 * @return 玩家实例
@@ -512,6 +611,26 @@ public class Window {
 	 */
 	public void render() {
 		renderer.beginFrame();
+		renderPanels(renderer);
+		renderer.endFrame();
+	}
+	
+	/**
+	 * 提交模拟线程记录的渲染快照 - 只能在渲染线程调用
+	 * @param snapshot 渲染快照
+	 */
+	public void render(RenderSnapshot snapshot) {
+		renderer.beginFrame();
+		snapshot.replay(renderer);
+		renderer.endFrame();
+	}
+	
+	/**
+	 * 绘制当前界面的所有面板
+	 * 目标可以是真实渲染器，也可以是由模拟线程记录的渲染快照
+	 * @param renderer 渲染目标
+	 */
+	public void renderPanels(IRenderer renderer) {
 		renderer.clear(0.0f, 0.0f, 0.0f, 1.0f);
 		
 		switch (currentPanelState) {
@@ -543,7 +662,7 @@ public class Window {
 			rightPanel.render(renderer);
 			
 			renderer.setViewport(0, 0, TOTAL_WIDTH, TOTAL_HEIGHT);
-			renderDividers();
+			renderDividers(renderer);
 			
 			// 如果暂停，显示暂停菜单
 			if (isPaused) {
@@ -551,14 +670,13 @@ public class Window {
 			}
 		}
 		}
-		
-		renderer.endFrame();
 	}
 	
 	/**
 	 * 渲染分割线
+	 * @param renderer 渲染目标
 	 */
-	private void renderDividers() {
+	private void renderDividers(IRenderer renderer) {
 		int gamePanelX = gamePanel.getX();
 		int rightPanelX = rightPanel.getX();
 		
@@ -579,6 +697,20 @@ public class Window {
 		}
 	}
 	
+	/**
+	 * 更新窗口标题（附带每秒模拟步数，快进时用于观察模拟吞吐量）
+	 * @param objCount 对象数量
+	 * @param fps 当前FPS
+	 * @param tps 每秒模拟步数
+	 */
+	public void updateTitle(int objCount, int fps, int tps) {
+		if (windowHandle != 0) {
+			String mode = fastForward.isSkipping() ? "  [跳转中]"
+				: (fastForward.getTurboTicks() > 1 ? "  [x" + fastForward.getTurboTicks() + "]" : "");
+			GLFW.glfwSetWindowTitle(windowHandle, "JavaSTG  obj=" + objCount + "  fps=" + fps + "  tps=" + tps + mode);
+		}
+	}
+	
 	/**
 	 * 检查窗口是否应该关闭
 	 * @return 是否应该关闭
@@ -607,6 +739,12 @@ public class Window {
 	 * 清理资源
 	 */
 	public void cleanup() {
+		// 中途关闭窗口时本局录像还没有保存；写入线程是守护线程，退出前等它写完
+		saveReplay();
+		if (!ReplayWriter.getInstance().shutdown(REPLAY_FLUSH_TIMEOUT_MS)) {
+			System.err.println("录像未能在退出前写完");
+		}
+		
 		if (renderer != null) {
 			renderer.cleanup();
 			renderer = null;
@@ -705,13 +843,43 @@ public class Window {
 				pauseMenu.resetKeyStates();
 			} else {
 				System.out.println("游戏继续");
-				for (int i = 0; i < keyStates.length; i++) {
-					keyStates[i] = false;
-				}
+				clearKeyStates();
 			}
 		}
 	}
 	
+	/**
+	 * 游戏是否在运行（游戏界面且未暂停），只有此时快进才生效
+	 * @return 是否在运行
+	 */
+	public boolean isGameRunning() {
+		return currentPanelState == PanelState.GAME && !isPaused;
+	}
+	
+	/**
+	 * 游戏运行中且正在跳转时返回true，游戏循环据此跳过渲染
+	 * @return 是否正在跳转
+	 */
+	public boolean isFastForwarding() {
+		return isGameRunning() && fastForward.isSkipping();
+	}
+	
+	/**
+	 * 获取当前生效的加速倍数（不在游戏中时为1）
+	 * @return 每个模拟步执行的更新次数
+	 */
+	public int getTurboTicks() {
+		return isGameRunning() ? fastForward.getTurboTicks() : 1;
+	}
+	
+	/**
+	 * 获取调试快进设置
+	 * @return 快进设置
+	 */
+	public FastForward getFastForward() {
+		return fastForward;
+	}
+	
 	/**
 	 * 检查是否暂停
 	 * @return 是否暂停
@@ -724,11 +892,10 @@ public class Window {
 	 * 返回标题界面
 	 */
 	private void returnToTitle() {
+		saveReplay();
 		isPaused = false;
 		currentPanelState = PanelState.TITLE;
-		for (int i = 0; i < keyStates.length; i++) {
-			keyStates[i] = false;
-		}
+		clearKeyStates();
 		pauseMenu.resetKeyStates();
 		titlePanel.resetKeyStates();
 		
@@ -750,26 +917,59 @@ public class Window {
 	 * 重新开始游戏
 	 */
 	private void restartGame() {
+		saveReplay();
 		isPaused = false;
-		for (int i = 0; i < keyStates.length; i++) {
-			keyStates[i] = false;
-		}
+		clearKeyStates();
 		pauseMenu.resetKeyStates();
 		
 		if (selectedStageGroup != null) {
-			selectedStageGroup.cleanup();
-			gameWorld.cleanup();
-			selectedStageGroup.reset();
+			if (!runStartSnapshot.restore(simulation)) {
+				selectedStageGroup.cleanup();
+				gameWorld.cleanup();
+				selectedStageGroup.reset();
+			}
+			startRun();
 			selectedStageGroup.start();
 		}
 		System.out.println("重新开始游戏");
 	}
 	
+	/**
+	 * 开始新的一局：清空输入录制，用新种子重置游戏随机数
+	 */
+	private void startRun() {
+		inputRecorder.reset();
+		long seed = GameRandom.newSeed();
+		simulation.startRun(seed);
+		replayRecorder.begin(seed, selectedStageGroup.getDisplayName(), player.getClass().getName());
+		System.out.println("本局种子: " + seed);
+	}
+	
+	/**
+	 * 结束本局录制，在后台把录像写入 replays 目录
+	 */
+	private void saveReplay() {
+		if (replayRecorder == null || !replayRecorder.isRecording()) {
+			return;
+		}
+		Replay replay = replayRecorder.finish();
+		if (replay.getTickCount() == 0) {
+			return;
+		}
+		String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".rpy";
+		ReplayWriter.getInstance().write(replay, Path.of("replays", name));
+	}
+	
 	/**
 	 * 更新当前面板 - 由 GameLoop 调用
 	 * 根据当前面板状态执行相应的更新逻辑
 	 */
 	public void updateCurrentPanel() {
+		if (escapeReleased) {
+			escapeReleased = false;
+			handleEscape();
+		}
+		
 		switch (currentPanelState) {
 		case TITLE -> {
 			if (titlePanel != null) {
@@ -798,24 +998,37 @@ public class Window {
 		}
 	}
 	
+	/**
+	 * 处理 ESC 松开：游戏中切换暂停，其他界面退出
+	 */
+	private void handleEscape() {
+		if (currentPanelState == PanelState.GAME) {
+			togglePause();
+		} else {
+			GLFW.glfwSetWindowShouldClose(windowHandle, true);
+		}
+	}
+	
 	/**
 	 * 更新游戏逻辑 - 在 GAME 状态下且未暂停时调用
 	 */
 	private void updateGameLogic() {
-		// 更新玩家
-		if (player != null && player.isActive()) {
-			player.update();
-		}
-		
-		// 更新关卡组
-		if (selectedStageGroup != null) {
-			selectedStageGroup.update();
+		if (practiceSaveRequested) {
+			practiceSaveRequested = false;
+			practiceSnapshot.capture(simulation);
+			System.out.println("练习快照已保存: 第 " + simulation.getRunTick() + " 步, " + practiceSnapshot.size() + " 字节");
 		}
-		
-		// 更新游戏世界
-		if (gameWorld != null) {
-			gameWorld.update(gamePanel.getWidth(), gamePanel.getHeight());
+		if (practiceLoadRequested) {
+			practiceLoadRequested = false;
+			if (practiceSnapshot.restore(simulation)) {
+				replayRecorder.rewind(simulation);
+				fastForward.cancelSkip();
+				System.out.println("练习快照已读取: 第 " + simulation.getRunTick() + " 步");
+			}
 		}
+		simulation.tick();
+		replayRecorder.onTick(simulation);
+		fastForward.onTick(simulation);
 	}
 	
 	/**
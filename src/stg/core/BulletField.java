@@ -0,0 +1,503 @@
+package stg.core;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import stg.entity.bullet.Bullet;
+import stg.entity.bullet.BulletSpriteSheet;
+import stg.render.IRenderer;
+import stg.util.CoordinateSystem;
+import stg.util.GameConstants;
+
+/**
+ * 子弹场 - 以结构数组（SoA）存放敌方子弹
+ * <p>
+ * 每颗子弹的状态拆分到若干并行的基本类型数组中（坐标、速度、判定半径、
+ * 绘制大小、精灵ID、颜色、标记、剩余寿命），活跃子弹始终紧密排列在
+ * [0, count) 区间。积分、出界剔除、碰撞和渲染都按下标线性遍历这些数组，
+ * 不再逐个访问分散在堆上的 Bullet 对象。
+ * <p>
+ * 删除采用交换删除（把末尾子弹移到空位），因此下标在删除后会变化；
+ * 需要长期引用某颗子弹时使用 {@link #spawn} 返回的句柄，
+ * 通过 {@link #indexOf(int)} 换算为当前下标。
+ * <p>
+ * 只做匀速直线运动的 Bullet（见 {@link Bullet#isLinearMotion()}）可以通过
+ * {@link #spawn(Bullet)} 展平进子弹场，其余子弹仍由 GameWorld 以对象方式管理。
+ * <p>
+ * 子弹可以挂一个运动程序（{@link MotionProgram}），在指定帧改变速率和方向、持续加速或转向、
+ * 瞄准目标。程序状态和解释器在 {@link BulletMotion} 中，与子弹数据按同一下标并行存放，
+ * 在 {@link #update()} 的同一个循环里执行，执行完且没有持续效果后自动摘除，
+ * 子弹回到匀速直线运动。没有程序的子弹只多一次判断。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ * @date 2026-10-18 渲染改用 drawSprite，有精灵的子弹从纹理图集取图，箭头子弹沿速度方向旋转
+ * @date 2026-10-18 寿命步长取自 GameClock；渲染位置在上一步与当前步之间插值
+ * @date 2026-10-18 实现 Snapshotable，按数组整块保存和恢复子弹数据
+ * @date 2026-10-18 支持运动程序（MotionProgram），在更新循环中解释执行
+ * @date 2026-10-18 运动程序状态和解释器移到 BulletMotion，快照按程序键保存；渲染移到 BulletFieldRenderer，句柄映射移到 BulletHandles
+ * @date 2026-10-18 添加 programCount，供快照验证确认覆盖了运行中的运动程序
+ */
+public class BulletField implements Snapshotable {
+    /** 默认初始容量 */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** 无精灵时的精灵ID */
+    public static final int NO_SPRITE = -1;
+    /** 无限寿命 */
+    public static final float INFINITE_LIFE = -1.0f;
+
+    /** 标记：已被擦弹 */
+    public static final int FLAG_GRAZED = 1;
+    /** 标记：已失效，下一次更新时移除 */
+    public static final int FLAG_DEAD = 1 << 1;
+
+    /** 判定半径相对绘制大小的比例（子弹以 size 为直径绘制） */
+    public static final float HITBOX_SCALE = 0.5f;
+
+    // ========== 子弹数据（按紧密下标存放） ==========
+    private float[] x;
+    private float[] y;
+    private float[] vx;
+    private float[] vy;
+    private float[] radius;
+    private float[] size;
+    private int[] sprite;
+    private int[] color;
+    private int[] flags;
+    private float[] life;
+    private int count;
+
+    /** 运动程序状态（只对挂了程序的子弹有效） */
+    private final BulletMotion motion;
+
+    /** 句柄与紧密下标的映射 */
+    private final BulletHandles handles;
+
+    /** 渲染及其精灵缓存 */
+    private final BulletFieldRenderer fieldRenderer = new BulletFieldRenderer();
+
+    /**
+     * 构造函数 - 使用默认容量
+     */
+    public BulletField() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     * @param capacity 初始容量，必须大于0
+     */
+    public BulletField(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        radius = new float[capacity];
+        size = new float[capacity];
+        sprite = new int[capacity];
+        color = new int[capacity];
+        flags = new int[capacity];
+        life = new float[capacity];
+        motion = new BulletMotion(capacity);
+        handles = new BulletHandles(capacity);
+    }
+
+    // ========== 生成与删除 ==========
+
+    /**
+     * 生成一颗子弹
+     * @param x X坐标（游戏逻辑坐标）
+     * @param y Y坐标（游戏逻辑坐标）
+     * @param vx X方向速度（每帧）
+     * @param vy Y方向速度（每帧）
+     * @param size 绘制大小（直径）
+     * @param spriteId 精灵ID，无精灵时为 {@link #NO_SPRITE}
+     * @param argb 颜色（ARGB）
+     * @param lifeTime 寿命（秒），{@link #INFINITE_LIFE} 表示无限
+     * @return 子弹句柄
+     */
+    public int spawn(float x, float y, float vx, float vy, float size, int spriteId, int argb, float lifeTime) {
+        if (count == this.x.length) {
+            grow(count * 2);
+        }
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.size[i] = size;
+        this.radius[i] = size * HITBOX_SCALE;
+        this.sprite[i] = spriteId;
+        this.color[i] = argb;
+        this.flags[i] = 0;
+        this.life[i] = lifeTime;
+        motion.detach(i);
+        return handles.allocate(i);
+    }
+
+    /**
+     * 生成一颗挂着运动程序的子弹
+     * @param x X坐标（游戏逻辑坐标）
+     * @param y Y坐标（游戏逻辑坐标）
+     * @param vx X方向速度（每帧），同时决定程序的初始速率和方向
+     * @param vy Y方向速度（每帧）
+     * @param size 绘制大小（直径）
+     * @param spriteId 精灵ID，无精灵时为 {@link #NO_SPRITE}
+     * @param argb 颜色（ARGB）
+     * @param lifeTime 寿命（秒），{@link #INFINITE_LIFE} 表示无限
+     * @param motion 运动程序，为null时与不带程序的 spawn 相同
+     * @return 子弹句柄
+     */
+    public int spawn(float x, float y, float vx, float vy, float size, int spriteId, int argb, float lifeTime,
+                     MotionProgram motion) {
+        int handle = spawn(x, y, vx, vy, size, spriteId, argb, lifeTime);
+        if (motion != null) {
+            this.motion.attach(count - 1, motion, vx, vy);
+        }
+        return handle;
+    }
+
+    /**
+     * 把一个 Bullet 对象展平进子弹场（适配已有的 Bullet 子类）
+     * 只复制状态，调用方负责回收原对象
+     * @param bullet 子弹对象
+     * @return 子弹句柄；子弹不是匀速直线运动或已失效时返回-1
+     */
+    public int spawn(Bullet bullet) {
+        if (bullet == null || !bullet.isActive() || !bullet.isLinearMotion()) {
+            return -1;
+        }
+        Color c = bullet.getColor();
+        int argb = c != null ? c.getRGB() : 0xFFFFFFFF;
+        float lifeTime = bullet.getLifeTime() > 0 ? bullet.getRemainingLifeTime() : INFINITE_LIFE;
+        float speedScale = bullet.getSpeedMultiplier();
+        return spawn(bullet.getX(), bullet.getY(),
+                bullet.getVx() * speedScale, bullet.getVy() * speedScale,
+                bullet.getSize() * bullet.getSizeMultiplier(),
+                BulletSpriteSheet.getSpriteId(bullet.getSpriteElement()),
+                argb, lifeTime);
+    }
+
+    /**
+     * 给已有的子弹挂上运动程序，程序从第0帧开始执行（替换之前的程序）
+     * @param handle 子弹句柄
+     * @param motion 运动程序，为null时摘除程序，子弹保持当前速度
+     * @return 句柄有效时返回true
+     */
+    public boolean setProgram(int handle, MotionProgram motion) {
+        int index = indexOf(handle);
+        if (index < 0) {
+            return false;
+        }
+        if (motion != null) {
+            this.motion.attach(index, motion, vx[index], vy[index]);
+        } else {
+            this.motion.detach(index);
+        }
+        return true;
+    }
+
+    /**
+     * 设置瞄准指令的目标，每帧更新前由游戏模拟设为玩家位置
+     * @param x 目标X坐标
+     * @param y 目标Y坐标
+     */
+    public void setTarget(float x, float y) {
+        motion.setTarget(x, y);
+    }
+
+    /**
+     * 按下标移除子弹（交换删除，末尾子弹移到该下标）
+     * @param index 紧密下标
+     */
+    public void removeAt(int index) {
+        int last = --count;
+        handles.remove(index, last);
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            vx[index] = vx[last];
+            vy[index] = vy[last];
+            radius[index] = radius[last];
+            size[index] = size[last];
+            sprite[index] = sprite[last];
+            color[index] = color[last];
+            flags[index] = flags[last];
+            life[index] = life[last];
+            motion.move(last, index);
+        }
+    }
+
+    /**
+     * 按句柄标记子弹失效，下一次更新时移除
+     * @param handle 子弹句柄
+     * @return 句柄有效时返回true
+     */
+    public boolean kill(int handle) {
+        int index = indexOf(handle);
+        if (index < 0) {
+            return false;
+        }
+        flags[index] |= FLAG_DEAD;
+        return true;
+    }
+
+    /**
+     * 把句柄换算为当前紧密下标
+     * @param handle 子弹句柄
+     * @return 紧密下标，句柄已失效时返回-1
+     */
+    public int indexOf(int handle) {
+        return handles.indexOf(handle);
+    }
+
+    /**
+     * 清空所有子弹，之前的句柄全部失效
+     */
+    public void clear() {
+        while (count > 0) {
+            removeAt(count - 1);
+        }
+    }
+
+    // ========== 每帧处理 ==========
+
+    /**
+     * 更新所有子弹：执行运动程序、积分位置、扣除寿命并剔除出界或失效的子弹
+     */
+    public void update() {
+        float left = -GameConstants.GAME_WIDTH / 2.0f;
+        float right = GameConstants.GAME_WIDTH / 2.0f;
+        float bottom = -GameConstants.GAME_HEIGHT / 2.0f;
+        float top = GameConstants.GAME_HEIGHT / 2.0f;
+
+        int i = 0;
+        while (i < count) {
+            if (motion.has(i)) {
+                motion.run(this, i);
+            }
+            float nx = x[i] + vx[i];
+            float ny = y[i] + vy[i];
+            x[i] = nx;
+            y[i] = ny;
+
+            float l = life[i];
+            if (l > 0) {
+                l -= GameClock.TICK_SECONDS;
+                if (l < 0) {
+                    l = 0;
+                }
+                life[i] = l;
+            }
+
+            float s = size[i];
+            if ((flags[i] & FLAG_DEAD) != 0 || l == 0
+                    || nx < left - s || nx > right + s || ny < bottom - s || ny > top + s) {
+                // 交换删除后末尾的子弹移到 i，尚未处理，不前进
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * 渲染所有子弹（见 {@link BulletFieldRenderer}）
+     * 无精灵的子弹画成圆形，有精灵的子弹从子弹精灵图取图，箭头类子弹沿速度方向旋转；
+     * 渲染位置在上一步与当前步之间插值
+     * @param renderer 渲染器
+     * @param coordinateSystem 坐标系统
+     */
+    public void render(IRenderer renderer, CoordinateSystem coordinateSystem) {
+        if (renderer == null || coordinateSystem == null) {
+            return;
+        }
+        fieldRenderer.render(this, renderer, coordinateSystem);
+    }
+
+    // ========== 访问器 ==========
+
+    /**
+     * 获取子弹数量
+     * @return 子弹数量
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 获取挂着运动程序的子弹数量
+     * @return 挂着运动程序的子弹数量
+     */
+    public int programCount() {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (motion.has(i)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 获取容量
+     * @return 当前数组容量
+     */
+    public int capacity() {
+        return x.length;
+    }
+
+    /**
+     * 获取X坐标数组，有效区间为 [0, size())
+     * @return X坐标数组
+     */
+    public float[] getX() {
+        return x;
+    }
+
+    /**
+     * 获取Y坐标数组，有效区间为 [0, size())
+     * @return Y坐标数组
+     */
+    public float[] getY() {
+        return y;
+    }
+
+    /**
+     * 获取X方向速度数组，有效区间为 [0, size())
+     * @return X方向速度数组
+     */
+    public float[] getVx() {
+        return vx;
+    }
+
+    /**
+     * 获取Y方向速度数组，有效区间为 [0, size())
+     * @return Y方向速度数组
+     */
+    public float[] getVy() {
+        return vy;
+    }
+
+    /**
+     * 获取判定半径数组，有效区间为 [0, size())
+     * @return 判定半径数组
+     */
+    public float[] getRadius() {
+        return radius;
+    }
+
+    /**
+     * 获取绘制大小数组，有效区间为 [0, size())
+     * @return 绘制大小数组
+     */
+    public float[] getSize() {
+        return size;
+    }
+
+    /**
+     * 获取精灵ID数组，有效区间为 [0, size())
+     * @return 精灵ID数组
+     */
+    public int[] getSprite() {
+        return sprite;
+    }
+
+    /**
+     * 获取颜色数组（ARGB），有效区间为 [0, size())
+     * @return 颜色数组（ARGB）
+     */
+    public int[] getColor() {
+        return color;
+    }
+
+    /**
+     * 获取标记数组，有效区间为 [0, size())
+     * @return 标记数组
+     */
+    public int[] getFlags() {
+        return flags;
+    }
+
+    /**
+     * 获取剩余寿命数组（秒，-1表示无限），有效区间为 [0, size())
+     * @return 剩余寿命数组（秒，-1表示无限）
+     */
+    public float[] getLife() {
+        return life;
+    }
+
+    // ========== 快照 ==========
+
+    /**
+     * 按数组整块写入全部子弹数据和运动程序状态（判定半径由绘制大小推出，不写入）
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        int n = count;
+        out.putInt(n);
+        WorldSnapshot.putFloats(out, x, n);
+        WorldSnapshot.putFloats(out, y, n);
+        WorldSnapshot.putFloats(out, vx, n);
+        WorldSnapshot.putFloats(out, vy, n);
+        WorldSnapshot.putFloats(out, size, n);
+        WorldSnapshot.putFloats(out, life, n);
+        WorldSnapshot.putInts(out, sprite, n);
+        WorldSnapshot.putInts(out, color, n);
+        WorldSnapshot.putInts(out, flags, n);
+        motion.saveState(out, n);
+    }
+
+    /**
+     * 清空子弹场后读入全部子弹数据，子弹顺序与保存时一致，之前的句柄全部失效
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        clear();
+        int n = in.getInt();
+        if (n > x.length) {
+            grow(Math.max(n, x.length * 2));
+        }
+        WorldSnapshot.getFloats(in, x, n);
+        WorldSnapshot.getFloats(in, y, n);
+        WorldSnapshot.getFloats(in, vx, n);
+        WorldSnapshot.getFloats(in, vy, n);
+        WorldSnapshot.getFloats(in, size, n);
+        WorldSnapshot.getFloats(in, life, n);
+        WorldSnapshot.getInts(in, sprite, n);
+        WorldSnapshot.getInts(in, color, n);
+        WorldSnapshot.getInts(in, flags, n);
+        motion.loadState(in, n);
+        for (int i = 0; i < n; i++) {
+            radius[i] = size[i] * HITBOX_SCALE;
+            handles.allocate(i);
+        }
+        count = n;
+    }
+
+    // ========== 内部方法 ==========
+
+    private void grow(int capacity) {
+        if (capacity > BulletHandles.MAX_CAPACITY) {
+            throw new IllegalStateException("BulletField capacity exceeded: " + capacity);
+        }
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        size = Arrays.copyOf(size, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+        color = Arrays.copyOf(color, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        life = Arrays.copyOf(life, capacity);
+        motion.grow(capacity);
+        handles.grow(capacity);
+    }
+}
@@ -0,0 +1,122 @@
+package stg.core;
+
+import java.util.Arrays;
+
+import stg.entity.bullet.BulletSpriteSheet;
+import stg.render.IRenderer;
+import stg.util.CoordinateSystem;
+
+/**
+ * 子弹场渲染 - 按下标遍历 {@link BulletField} 的数组提交绘制，缓存精灵元素和子弹精灵图纹理
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+final class BulletFieldRenderer {
+    /** 精灵ID -> 精灵元素 */
+    private BulletSpriteSheet.BulletElement[] spriteElements = new BulletSpriteSheet.BulletElement[64];
+    /** 子弹精灵图纹理及加载它的渲染器 */
+    private int spriteTexture = -1;
+    private IRenderer spriteTextureOwner;
+
+    /**
+     * 渲染所有子弹
+     * 通过 {@link IRenderer#drawSprite} 提交：无精灵的子弹画成圆形，有精灵的子弹从
+     * 子弹精灵图（纹理图集）取图，箭头类子弹沿速度方向旋转。先画全部圆形再画全部精灵，
+     * 每一遍只用一张纹理，GLRenderer 在 OpenGL 3.3 下各用一次实例化绘制完成。
+     * <p>
+     * 子弹做匀速直线运动，上一步的位置就是 x - vx，因此插值位置为
+     * x - vx * (1 - alpha)，不需要额外保存上一步的坐标。
+     * @param field 子弹场
+     * @param renderer 渲染器
+     * @param coordinateSystem 坐标系统
+     */
+    void render(BulletField field, IRenderer renderer, CoordinateSystem coordinateSystem) {
+        int count = field.size();
+        float[] x = field.getX();
+        float[] y = field.getY();
+        float[] vx = field.getVx();
+        float[] vy = field.getVy();
+        float[] size = field.getSize();
+        int[] sprite = field.getSprite();
+        int[] color = field.getColor();
+        float back = 1.0f - GameClock.getInstance().getInterpolationAlpha();
+        boolean hasSprites = false;
+        for (int i = 0; i < count; i++) {
+            if (sprite[i] != BulletField.NO_SPRITE) {
+                hasSprites = true;
+                continue;
+            }
+            int argb = color[i];
+            renderer.drawSprite(IRenderer.SHAPE_TEXTURE,
+                coordinateSystem.toScreenX(x[i] - vx[i] * back),
+                coordinateSystem.toScreenY(y[i] - vy[i] * back),
+                size[i], size[i], 0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f,
+                ((argb >>> 16) & 0xFF) / 255.0f,
+                ((argb >>> 8) & 0xFF) / 255.0f,
+                (argb & 0xFF) / 255.0f,
+                (argb >>> 24) / 255.0f);
+        }
+        if (!hasSprites) {
+            return;
+        }
+
+        int textureId = getSpriteTexture(renderer);
+        for (int i = 0; i < count; i++) {
+            BulletSpriteSheet.BulletElement element = getSpriteElement(sprite[i]);
+            if (element == null) {
+                continue;
+            }
+            float screenX = coordinateSystem.toScreenX(x[i] - vx[i] * back);
+            float screenY = coordinateSystem.toScreenY(y[i] - vy[i] * back);
+            float alpha = (color[i] >>> 24) / 255.0f;
+            if (textureId == -1) {
+                // 没有纹理时退化为圆形
+                int argb = color[i];
+                renderer.drawSprite(IRenderer.SHAPE_TEXTURE, screenX, screenY, size[i], size[i],
+                    0.0f, 0.0f, 0.0f, 0.0f, 1.0f, 1.0f,
+                    ((argb >>> 16) & 0xFF) / 255.0f, ((argb >>> 8) & 0xFF) / 255.0f, (argb & 0xFF) / 255.0f, alpha);
+                continue;
+            }
+            boolean rotate = element.getType() == BulletSpriteSheet.BulletType.ARROW;
+            // 精灵本身带颜色，只使用子弹颜色的透明度
+            renderer.drawSprite(textureId, screenX, screenY, size[i], size[i],
+                rotate ? vx[i] : 0.0f, rotate ? vy[i] : 0.0f,
+                element.getTexX(), element.getTexY(), element.getTexWidth(), element.getTexHeight(),
+                1.0f, 1.0f, 1.0f, alpha);
+        }
+    }
+
+    /**
+     * 获取子弹精灵图纹理，每个渲染器只加载一次
+     * @param renderer 渲染器
+     * @return 纹理ID，不支持时返回-1
+     */
+    private int getSpriteTexture(IRenderer renderer) {
+        if (renderer != spriteTextureOwner) {
+            spriteTextureOwner = renderer;
+            spriteTexture = renderer.loadTexture(BulletSpriteSheet.SPRITE_SHEET_PATH);
+        }
+        return spriteTexture;
+    }
+
+    /**
+     * 根据精灵ID获取精灵元素（本地缓存，避免每颗子弹都进入同步方法）
+     * @param spriteId 精灵ID
+     * @return 精灵元素，无精灵时返回null
+     */
+    private BulletSpriteSheet.BulletElement getSpriteElement(int spriteId) {
+        if (spriteId < 0) {
+            return null;
+        }
+        if (spriteId >= spriteElements.length) {
+            spriteElements = Arrays.copyOf(spriteElements, Math.max(spriteId + 1, spriteElements.length * 2));
+        }
+        BulletSpriteSheet.BulletElement element = spriteElements[spriteId];
+        if (element == null) {
+            element = BulletSpriteSheet.getSpriteById(spriteId);
+            spriteElements[spriteId] = element;
+        }
+        return element;
+    }
+}
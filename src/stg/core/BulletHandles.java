@@ -0,0 +1,100 @@
+package stg.core;
+
+import java.util.Arrays;
+
+/**
+ * 子弹场的句柄映射
+ * <p>
+ * 句柄由槽位和代数组成：槽位在子弹存在期间不变，交换删除只改变槽位指向的紧密下标；
+ * 槽位回收时代数加一，使指向它的旧句柄失效。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+final class BulletHandles {
+    /** 句柄中槽位所占位数，其余高位为代数 */
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int MAX_GENERATION = (1 << (31 - SLOT_BITS)) - 1;
+    /** 槽位数上限，即子弹场的最大容量 */
+    static final int MAX_CAPACITY = SLOT_MASK + 1;
+
+    /** 紧密下标 -> 槽位 */
+    private int[] denseToSlot;
+    /** 槽位 -> 紧密下标（空闲槽位为-1） */
+    private int[] slotToDense;
+    /** 槽位代数，槽位每次被回收后加一，使旧句柄失效 */
+    private int[] slotGeneration;
+    /** 空闲槽位栈 */
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    /**
+     * 构造函数
+     * @param capacity 初始容量
+     */
+    BulletHandles(int capacity) {
+        denseToSlot = new int[capacity];
+        slotToDense = new int[capacity];
+        slotGeneration = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    /**
+     * 为新放在紧密下标 index 的子弹分配槽位
+     * @param index 紧密下标
+     * @return 子弹句柄
+     */
+    int allocate(int index) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        denseToSlot[index] = slot;
+        slotToDense[slot] = index;
+        return (slotGeneration[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * 交换删除：回收 index 处子弹的槽位，末尾子弹（last）的槽位改为指向 index
+     * @param index 被删除子弹的紧密下标
+     * @param last 删除前的末尾下标
+     */
+    void remove(int index, int last) {
+        int slot = denseToSlot[index];
+        if (index != last) {
+            int movedSlot = denseToSlot[last];
+            denseToSlot[index] = movedSlot;
+            slotToDense[movedSlot] = index;
+        }
+        slotToDense[slot] = -1;
+        int generation = slotGeneration[slot] + 1;
+        slotGeneration[slot] = generation > MAX_GENERATION ? 0 : generation;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * 把句柄换算为当前紧密下标
+     * @param handle 子弹句柄
+     * @return 紧密下标，句柄已失效时返回-1
+     */
+    int indexOf(int handle) {
+        if (handle < 0) {
+            return -1;
+        }
+        int slot = handle & SLOT_MASK;
+        if (slot >= slotCount || slotGeneration[slot] != (handle >>> SLOT_BITS)) {
+            return -1;
+        }
+        return slotToDense[slot];
+    }
+
+    /**
+     * 扩容
+     * @param capacity 新容量
+     */
+    void grow(int capacity) {
+        denseToSlot = Arrays.copyOf(denseToSlot, capacity);
+        slotToDense = Arrays.copyOf(slotToDense, capacity);
+        slotGeneration = Arrays.copyOf(slotGeneration, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
@@ -0,0 +1,364 @@
+package stg.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 子弹场的运动程序状态和解释器
+ * <p>
+ * 与 {@link BulletField} 的子弹数据按同一个紧密下标并行存放每颗子弹的运动程序状态
+ * （程序、下一条指令、帧数、速率和方向、持续加速和转向），只对挂了程序的子弹有效。
+ * 子弹场在交换删除、扩容和快照时调用本类，在更新循环里对挂了程序的子弹调用 {@link #run(BulletField, int)}。
+ * <p>
+ * 快照中的程序按 {@link MotionProgram#getKey() 键} 写入，恢复时按键查找，找不到时抛出异常。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+final class BulletMotion {
+    /** 运动程序，null 表示没有程序 */
+    private MotionProgram[] program;
+    /** 下一条要执行的指令 */
+    private int[] pc;
+    /** 挂上程序后经过的帧数 */
+    private int[] age;
+    /** 速率和单位方向，每帧由此算出速度 */
+    private float[] speed;
+    private float[] dirX;
+    private float[] dirY;
+    /** 持续加速：每帧速率变化和速率上限（下限） */
+    private float[] accel;
+    private float[] speedLimit;
+    /** 持续转向：每帧转角的余弦和正弦 */
+    private float[] turnCos;
+    private float[] turnSin;
+    /** 瞄准指令的目标（通常为玩家） */
+    private float targetX;
+    private float targetY;
+
+    /** 快照用：本次快照中出现的程序表，以及每颗子弹在表中的下标（复用，避免每次分配） */
+    private MotionProgram[] table = new MotionProgram[8];
+    private int[] tableIndex;
+
+    /**
+     * 构造函数
+     * @param capacity 初始容量
+     */
+    BulletMotion(int capacity) {
+        program = new MotionProgram[capacity];
+        pc = new int[capacity];
+        age = new int[capacity];
+        speed = new float[capacity];
+        dirX = new float[capacity];
+        dirY = new float[capacity];
+        accel = new float[capacity];
+        speedLimit = new float[capacity];
+        turnCos = new float[capacity];
+        turnSin = new float[capacity];
+        tableIndex = new int[capacity];
+    }
+
+    // ========== 挂上与摘除 ==========
+
+    /**
+     * 是否挂着运动程序
+     * @param i 紧密下标
+     * @return 是否挂着程序
+     */
+    boolean has(int i) {
+        return program[i] != null;
+    }
+
+    /**
+     * 挂上运动程序：速率和方向取自当前速度（静止的子弹方向朝下），清除持续效果
+     * @param i 紧密下标
+     * @param motion 运动程序
+     * @param vx 当前X方向速度
+     * @param vy 当前Y方向速度
+     */
+    void attach(int i, MotionProgram motion, float vx, float vy) {
+        program[i] = motion;
+        pc[i] = 0;
+        age[i] = 0;
+        float s = (float) Math.sqrt(vx * vx + vy * vy);
+        speed[i] = s;
+        if (s > 0) {
+            dirX[i] = vx / s;
+            dirY[i] = vy / s;
+        } else {
+            dirX[i] = 0.0f;
+            dirY[i] = -1.0f;
+        }
+        accel[i] = 0.0f;
+        speedLimit[i] = 0.0f;
+        turnCos[i] = 1.0f;
+        turnSin[i] = 0.0f;
+    }
+
+    /**
+     * 摘除运动程序，子弹保持当前速度
+     * @param i 紧密下标
+     */
+    void detach(int i) {
+        program[i] = null;
+    }
+
+    /**
+     * 设置瞄准指令的目标
+     * @param x 目标X坐标
+     * @param y 目标Y坐标
+     */
+    void setTarget(float x, float y) {
+        targetX = x;
+        targetY = y;
+    }
+
+    // ========== 子弹场的存储操作 ==========
+
+    /**
+     * 交换删除时把 from 的状态移到 to
+     * @param from 源下标（末尾子弹）
+     * @param to 目标下标
+     */
+    void move(int from, int to) {
+        MotionProgram motion = program[from];
+        program[to] = motion;
+        program[from] = null;
+        if (motion != null) {
+            pc[to] = pc[from];
+            age[to] = age[from];
+            speed[to] = speed[from];
+            dirX[to] = dirX[from];
+            dirY[to] = dirY[from];
+            accel[to] = accel[from];
+            speedLimit[to] = speedLimit[from];
+            turnCos[to] = turnCos[from];
+            turnSin[to] = turnSin[from];
+        }
+    }
+
+    /**
+     * 扩容
+     * @param capacity 新容量
+     */
+    void grow(int capacity) {
+        program = Arrays.copyOf(program, capacity);
+        pc = Arrays.copyOf(pc, capacity);
+        age = Arrays.copyOf(age, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        dirX = Arrays.copyOf(dirX, capacity);
+        dirY = Arrays.copyOf(dirY, capacity);
+        accel = Arrays.copyOf(accel, capacity);
+        speedLimit = Arrays.copyOf(speedLimit, capacity);
+        turnCos = Arrays.copyOf(turnCos, capacity);
+        turnSin = Arrays.copyOf(turnSin, capacity);
+        tableIndex = Arrays.copyOf(tableIndex, capacity);
+    }
+
+    // ========== 解释执行 ==========
+
+    /**
+     * 执行一颗子弹本帧的运动程序：先执行到期的指令，再应用持续加速和转向，最后写回速度
+     * 程序执行完且没有持续效果时摘除程序
+     * @param field 所属子弹场（速度、坐标和标记数组从这里取）
+     * @param i 紧密下标
+     */
+    void run(BulletField field, int i) {
+        MotionProgram motion = program[i];
+        int frame = age[i]++;
+        int k = pc[i];
+        int length = motion.length;
+        int[] frames = motion.frames;
+        while (k < length && frames[k] <= frame) {
+            execute(field, i, motion.ops[k], motion.argA[k], motion.argB[k]);
+            k++;
+        }
+        pc[i] = k;
+
+        boolean continuous = applyContinuous(i);
+        float s = speed[i];
+        field.getVx()[i] = dirX[i] * s;
+        field.getVy()[i] = dirY[i] * s;
+        if (k == length && !continuous) {
+            program[i] = null;
+        }
+    }
+
+    /**
+     * 执行一条指令
+     * @param field 所属子弹场
+     * @param i 紧密下标
+     * @param op 操作码
+     * @param a 第一个参数
+     * @param b 第二个参数
+     */
+    private void execute(BulletField field, int i, int op, float a, float b) {
+        switch (op) {
+            case MotionProgram.OP_SPEED:
+                speed[i] = a;
+                break;
+            case MotionProgram.OP_ANGLE:
+                dirX[i] = a;
+                dirY[i] = b;
+                break;
+            case MotionProgram.OP_ROTATE:
+                rotate(i, a, b);
+                break;
+            case MotionProgram.OP_AIM:
+                aim(field, i, a);
+                break;
+            case MotionProgram.OP_ACCELERATE:
+                accel[i] = a;
+                speedLimit[i] = b;
+                break;
+            case MotionProgram.OP_TURN:
+                turnCos[i] = a;
+                turnSin[i] = b;
+                break;
+            case MotionProgram.OP_VANISH:
+                field.getFlags()[i] |= BulletField.FLAG_DEAD;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 方向旋转一个角度
+     * @param i 紧密下标
+     * @param cos 角度的余弦
+     * @param sin 角度的正弦
+     */
+    private void rotate(int i, float cos, float sin) {
+        float dx = dirX[i];
+        float dy = dirY[i];
+        dirX[i] = dx * cos - dy * sin;
+        dirY[i] = dx * sin + dy * cos;
+    }
+
+    /**
+     * 转向目标，子弹与目标重合时保持方向
+     * @param field 所属子弹场
+     * @param i 紧密下标
+     * @param newSpeed 新速率，小于0时保持速率
+     */
+    private void aim(BulletField field, int i, float newSpeed) {
+        float ax = targetX - field.getX()[i];
+        float ay = targetY - field.getY()[i];
+        float distance = (float) Math.sqrt(ax * ax + ay * ay);
+        if (distance > 0) {
+            dirX[i] = ax / distance;
+            dirY[i] = ay / distance;
+        }
+        if (newSpeed >= 0) {
+            speed[i] = newSpeed;
+        }
+    }
+
+    /**
+     * 应用持续加速和转向
+     * @param i 紧密下标
+     * @return 是否还有持续效果
+     */
+    private boolean applyContinuous(int i) {
+        float acceleration = accel[i];
+        if (acceleration != 0) {
+            float s = speed[i] + acceleration;
+            float limit = speedLimit[i];
+            speed[i] = (acceleration > 0 ? s > limit : s < limit) ? limit : s;
+        }
+        boolean turning = turnSin[i] != 0 || turnCos[i] != 1.0f;
+        if (turning) {
+            rotate(i, turnCos[i], turnSin[i]);
+        }
+        return acceleration != 0 || turning;
+    }
+
+    // ========== 快照 ==========
+
+    /**
+     * 写入前 n 颗子弹的运动程序状态：先写本次用到的程序键表，再写每颗子弹在表中的下标（-1表示没有程序）
+     * @param out 目标缓冲
+     * @param n 子弹数
+     */
+    void saveState(ByteBuffer out, int n) {
+        int tableSize = 0;
+        int last = -1;
+        for (int i = 0; i < n; i++) {
+            MotionProgram motion = program[i];
+            if (motion == null) {
+                tableIndex[i] = -1;
+                continue;
+            }
+            // 相邻子弹通常来自同一轮弹幕，先比较上一次命中的表项
+            if (last < 0 || table[last] != motion) {
+                last = 0;
+                while (last < tableSize && table[last] != motion) {
+                    last++;
+                }
+                if (last == tableSize) {
+                    if (tableSize == table.length) {
+                        table = Arrays.copyOf(table, tableSize * 2);
+                    }
+                    table[tableSize++] = motion;
+                }
+            }
+            tableIndex[i] = last;
+        }
+        out.putInt(tableSize);
+        for (int t = 0; t < tableSize; t++) {
+            byte[] key = table[t].keyBytes;
+            out.putShort((short) key.length);
+            out.put(key);
+            table[t] = null;
+        }
+        WorldSnapshot.putInts(out, tableIndex, n);
+        WorldSnapshot.putInts(out, pc, n);
+        WorldSnapshot.putInts(out, age, n);
+        WorldSnapshot.putFloats(out, speed, n);
+        WorldSnapshot.putFloats(out, dirX, n);
+        WorldSnapshot.putFloats(out, dirY, n);
+        WorldSnapshot.putFloats(out, accel, n);
+        WorldSnapshot.putFloats(out, speedLimit, n);
+        WorldSnapshot.putFloats(out, turnCos, n);
+        WorldSnapshot.putFloats(out, turnSin, n);
+    }
+
+    /**
+     * 读入 n 颗子弹的运动程序状态（容量由子弹场预先保证）
+     * @param in 状态数据
+     * @param n 子弹数
+     * @throws IllegalStateException 快照中的程序键没有对应的程序时抛出
+     */
+    void loadState(ByteBuffer in, int n) {
+        int tableSize = in.getInt();
+        MotionProgram[] programs = new MotionProgram[tableSize];
+        for (int t = 0; t < tableSize; t++) {
+            byte[] bytes = new byte[in.getShort()];
+            in.get(bytes);
+            String key = new String(bytes, StandardCharsets.UTF_8);
+            programs[t] = MotionProgram.forKey(key);
+            if (programs[t] == null) {
+                throw new IllegalStateException("Unknown motion program in snapshot: " + key);
+            }
+        }
+        WorldSnapshot.getInts(in, tableIndex, n);
+        for (int i = 0; i < n; i++) {
+            int t = tableIndex[i];
+            if (t >= tableSize) {
+                throw new IllegalStateException("Invalid motion program index in snapshot: " + t);
+            }
+            program[i] = t >= 0 ? programs[t] : null;
+        }
+        WorldSnapshot.getInts(in, pc, n);
+        WorldSnapshot.getInts(in, age, n);
+        WorldSnapshot.getFloats(in, speed, n);
+        WorldSnapshot.getFloats(in, dirX, n);
+        WorldSnapshot.getFloats(in, dirY, n);
+        WorldSnapshot.getFloats(in, accel, n);
+        WorldSnapshot.getFloats(in, speedLimit, n);
+        WorldSnapshot.getFloats(in, turnCos, n);
+        WorldSnapshot.getFloats(in, turnSin, n);
+    }
+}
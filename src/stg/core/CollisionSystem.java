@@ -1,20 +1,50 @@
 package stg.core;
 
+import java.util.List;
+
+import stg.entity.base.Obj;
 import stg.entity.bullet.Bullet;
 import stg.entity.enemy.Enemy;
 import stg.entity.item.Item;
+import stg.entity.laser.Laser;
 import stg.entity.player.Player;
+import stg.event.GrazeEvent;
+import stg.event.PlayerHitEvent;
+import stg.util.EventBus;
 
 /**
  * 碰撞检测系统 - 处理游戏中的碰撞检测
  * 
  * @author JavaSTG Team
  * @since 2026-02-17
+ * @date 2026-10-18 引入均匀网格空间索引（SpatialGrid）作为粗筛阶段，
+ *       玩家子弹与敌人的检测由 O(子弹×敌人) 降为按格子查询，所有圆形判定改为平方距离比较
+ * @date 2026-10-18 添加敌弹/激光与玩家的被弹与擦弹检测，一次遍历同时完成两种判定
+ * @date 2026-10-18 敌弹检测直接遍历 BulletField 的结构数组
+ * @date 2026-10-18 检测结束后执行 GameWorld 命令缓冲
+ * @date 2026-10-18 玩家子弹命中敌人后被消耗，可穿透的子弹按穿透次数递减
+ * @date 2026-10-18 穿透子弹跳过上一次命中的敌人，停留在同一敌人上时不再每帧重复命中
  */
 public class CollisionSystem {
     private GameWorld world;
     private Player player;
     private static final int DEFAULT_BULLET_DAMAGE = 8;
+    /** 敌弹判定半径相对子弹大小的比例（子弹以 size 为直径绘制） */
+    private static final float ENEMY_BULLET_HITBOX_SCALE = 0.5f;
+    
+    /** 本帧擦弹数 */
+    private int frameGrazeCount;
+    /** 累计擦弹数 */
+    private int totalGrazeCount;
+    /** 累计被弹数 */
+    private int totalHitCount;
+    
+    /** 敌人空间索引，每帧重建一次 */
+    private final SpatialGrid enemyGrid = new SpatialGrid();
+    /** 与 enemyGrid 条目下标一一对应的敌人快照 */
+    private Enemy[] enemySnapshot = new Enemy[32];
+    /** 穿透子弹查询相交敌人用的缓冲 */
+    private final int[] hitCandidates = new int[32];
     
     /**
      * 构造函数 - 创建碰撞检测系统实例
@@ -27,89 +57,268 @@ public class CollisionSystem {
     }
     
     /**
-     * 执行碰撞检测 - 检查玩家子弹、玩家与物品的碰撞
+     * 执行碰撞检测 - 检查玩家子弹、敌弹与玩家、玩家与物品的碰撞
      */
     public void checkCollisions() {
+        if (world == null) return;
+        
+        rebuildEnemyGrid();
         checkPlayerBulletsVsEnemies();
+        checkEnemyBulletsVsPlayer();
         checkPlayerVsItems();
+        
+        // 碰撞回调中生成或移除的实体（如敌人死亡掉落物品）在此统一生效
+        world.flushCommands();
     }
     
     /**
-     * 检测玩家子弹与敌人的碰撞 - 若发生碰撞，敌人会受到伤害
+     * 根据 GameWorld 的敌人列表重建空间索引
+     */
+    private void rebuildEnemyGrid() {
+        List<Enemy> enemies = world.getEnemies();
+        int count = enemies.size();
+        if (enemySnapshot.length < count) {
+            enemySnapshot = new Enemy[Math.max(count, enemySnapshot.length * 2)];
+        }
+        
+        enemyGrid.clear();
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            Enemy enemy = enemies.get(i);
+            if (enemy == null || !enemy.isActive()) continue;
+            enemySnapshot[n++] = enemy;
+            enemyGrid.add(enemy.getX(), enemy.getY(), enemy.getSize());
+        }
+        // 清除上一帧残留的引用，避免阻止回收
+        for (int i = n; i < enemySnapshot.length && enemySnapshot[i] != null; i++) {
+            enemySnapshot[i] = null;
+        }
+        enemyGrid.build();
+    }
+    
+    /**
+     * 检测玩家子弹与敌人的碰撞 - 若发生碰撞，敌人会受到伤害，子弹被消耗
      */
     private void checkPlayerBulletsVsEnemies() {
-        for (Bullet bullet : world.getPlayerBullets()) {
-            for (Enemy enemy : world.getEnemies()) {
-                if (checkCollision(bullet, enemy)) {
-                    int damage = bullet.getDamage() > 0 ? bullet.getDamage() : DEFAULT_BULLET_DAMAGE;
-                    enemy.takeDamage(damage);
-                    // 注意：这里不能直接移除子弹，因为我们使用的是只读列表
-                    // 子弹的移除应该由GameWorld在update时处理
-                    break;
+        if (enemyGrid.size() == 0) return;
+        
+        List<Bullet> bullets = world.getPlayerBullets();
+        for (int i = 0, count = bullets.size(); i < count; i++) {
+            Bullet bullet = bullets.get(i);
+            if (bullet == null || !bullet.isActive()) continue;
+            
+            Obj lastHit = bullet.getLastHitTarget();
+            int hit = lastHit == null
+                ? enemyGrid.queryFirst(bullet.getX(), bullet.getY(), bullet.getSize())
+                : queryFirstExcept(bullet, lastHit);
+            if (hit >= 0) {
+                Enemy enemy = enemySnapshot[hit];
+                int damage = bullet.getDamage() > 0 ? bullet.getDamage() : DEFAULT_BULLET_DAMAGE;
+                enemy.takeDamage(damage);
+                // 命中后消耗子弹（置为非活跃，由GameWorld回收），可穿透的子弹消耗一次穿透次数并记住该敌人
+                int pierce = bullet.getPierceCount();
+                if (pierce > 0) {
+                    bullet.setPierceCount(pierce - 1);
+                    bullet.setLastHitTarget(enemy);
+                } else {
+                    bullet.setActive(false);
                 }
             }
         }
     }
     
     /**
-     * 检测玩家与物品的碰撞 - 若发生碰撞，物品会被采集
+     * 查询与子弹相交的第一个敌人，跳过子弹上一次命中的敌人
+     * @param bullet 子弹
+     * @param excluded 要跳过的敌人
+     * @return 敌人在 enemySnapshot 中的下标，没有时返回-1
      */
-    private void checkPlayerVsItems() {
-        if (player == null) return;
-        
-        for (Item item : world.getItems()) {
-            if (!item.isActive()) continue;
-            
-            float dx = item.getX() - player.getX();
-            float dy = item.getY() - player.getY();
-            float distance = (float)Math.sqrt(dx * dx + dy * dy);
-            
-            // 对于 Item，使用 getSize() 作为碰撞判定半径，因为可能没有 getHitboxRadius() 方法
-            if (distance < item.getSize() + player.getSize()) {
-                item.onCollect();
-                // 注意：这里不能直接移除物品，因为我们使用的是只读列表
+    private int queryFirstExcept(Bullet bullet, Obj excluded) {
+        int n = enemyGrid.query(bullet.getX(), bullet.getY(), bullet.getSize(), hitCandidates);
+        for (int k = 0; k < n; k++) {
+            if (enemySnapshot[hitCandidates[k]] != excluded) {
+                return hitCandidates[k];
             }
         }
+        return -1;
     }
     
     /**
-     * 检测两个圆形对象的碰撞
+     * 检测敌弹和激光与玩家的碰撞 - 同一次遍历中完成被弹和擦弹判定
+     * <p>
+     * 只有一个查询点（玩家判定点），对子弹场数组和对象子弹列表各做一次线性扫描：
+     * 先用擦弹圈（最大半径）做平方距离粗判，绝大多数子弹在此被排除，
+     * 进入擦弹圈的子弹再判定是否命中判定点。命中后调用玩家的被弹流程，
+     * 本帧剩余子弹不再检测。
      */
-    private boolean checkCollision(Object obj1, Object obj2) {
-        float x1, y1, size1;
-        float x2, y2, size2;
+    private void checkEnemyBulletsVsPlayer() {
+        frameGrazeCount = 0;
+        if (player == null || !player.isVulnerable()) return;
         
-        if (obj1 instanceof Bullet bullet) {
-            x1 = bullet.getX();
-            y1 = bullet.getY();
-            size1 = bullet.getSize();
-        } else {
-            return false;
+        float px = player.getX();
+        float py = player.getY();
+        float hitbox = player.getHitboxRadius();
+        float graze = player.getGrazeRadius();
+        
+        BulletField field = world.getBulletField();
+        float[] bx = field.getX();
+        float[] by = field.getY();
+        float[] bradius = field.getRadius();
+        int[] bflags = field.getFlags();
+        for (int i = 0, count = field.size(); i < count; i++) {
+            if ((bflags[i] & BulletField.FLAG_DEAD) != 0) continue;
+            
+            float dx = bx[i] - px;
+            float dy = by[i] - py;
+            float distSq = dx * dx + dy * dy;
+            float radius = bradius[i];
+            float grazeReach = radius + graze;
+            if (distSq >= grazeReach * grazeReach) continue;
+            
+            float hitReach = radius + hitbox;
+            if (distSq < hitReach * hitReach) {
+                bflags[i] |= BulletField.FLAG_DEAD;
+                onPlayerHit(field);
+                return;
+            }
+            if ((bflags[i] & BulletField.FLAG_GRAZED) == 0) {
+                bflags[i] |= BulletField.FLAG_GRAZED;
+                onGraze(field);
+            }
         }
         
-        switch (obj2) {
-            case Enemy enemy -> {
-                x2 = enemy.getX();
-                y2 = enemy.getY();
-                size2 = enemy.getSize();
+        List<Bullet> bullets = world.getEnemyBullets();
+        for (int i = 0, count = bullets.size(); i < count; i++) {
+            Bullet bullet = bullets.get(i);
+            if (bullet == null || !bullet.isActive()) continue;
+            
+            float dx = bullet.getX() - px;
+            float dy = bullet.getY() - py;
+            float distSq = dx * dx + dy * dy;
+            float radius = bullet.getSize() * ENEMY_BULLET_HITBOX_SCALE;
+            float grazeReach = radius + graze;
+            if (distSq >= grazeReach * grazeReach) continue;
+            
+            float hitReach = radius + hitbox;
+            if (distSq < hitReach * hitReach) {
+                bullet.setActive(false);
+                onPlayerHit(bullet);
+                return;
             }
-            case Player p -> {
-                x2 = p.getX();
-                y2 = p.getY();
-                size2 = p.getSize();
+            if (!bullet.isGrazed()) {
+                bullet.setGrazed(true);
+                onGraze(bullet);
             }
-            default -> {
-                return false;
+        }
+        
+        List<Laser> lasers = world.getLasers();
+        for (int i = 0, count = lasers.size(); i < count; i++) {
+            Laser laser = lasers.get(i);
+            if (laser == null || !laser.checkCollision(px, py, graze)) continue;
+            
+            if (laser.checkCollision(px, py, hitbox)) {
+                onPlayerHit(laser);
+                return;
+            }
+            if (!laser.isGrazed()) {
+                laser.setGrazed(true);
+                onGraze(laser);
             }
         }
+    }
+    
+    /**
+     * 玩家被弹处理 - 触发玩家的被弹/重生流程并发布事件
+     * @param source 命中来源
+     */
+    private void onPlayerHit(Object source) {
+        totalHitCount++;
+        player.onHit();
+        EventBus.getInstance().publish(new PlayerHitEvent(player, source));
+    }
+    
+    /**
+     * 擦弹处理 - 计数并发布事件
+     * @param source 擦弹来源
+     */
+    private void onGraze(Object source) {
+        frameGrazeCount++;
+        totalGrazeCount++;
+        EventBus.getInstance().publish(new GrazeEvent(player, source));
+    }
+    
+    /**
+     * 检测玩家与物品的碰撞 - 若发生碰撞，物品会被采集
+     * 只有一个查询点（玩家），直接线性扫描比建网格更省
+     */
+    private void checkPlayerVsItems() {
+        if (player == null) return;
         
-        // 计算距离
+        float px = player.getX();
+        float py = player.getY();
+        float playerSize = player.getSize();
+        List<Item> items = world.getItems();
+        for (int i = 0, count = items.size(); i < count; i++) {
+            Item item = items.get(i);
+            if (item == null || !item.isActive()) continue;
+            
+            // 对于 Item，使用 getSize() 作为碰撞判定半径，因为可能没有 getHitboxRadius() 方法
+            if (circlesOverlap(item.getX(), item.getY(), item.getSize(), px, py, playerSize)) {
+                item.onCollect();
+                // 注意：这里不能直接移除物品，因为我们使用的是只读列表
+            }
+        }
+    }
+    
+    /**
+     * 检测两个圆形是否相交（平方距离比较，不开方）
+     */
+    static boolean circlesOverlap(float x1, float y1, float r1, float x2, float y2, float r2) {
         float dx = x1 - x2;
         float dy = y1 - y2;
-        float distance = (float)Math.sqrt(dx * dx + dy * dy);
-        
-        // 判断是否碰撞
-        return distance < (size1 + size2);
+        float rr = r1 + r2;
+        return dx * dx + dy * dy < rr * rr;
+    }
+    
+    /**
+     * 获取本帧擦弹数
+     * @return 本帧擦弹数
+     */
+    public int getFrameGrazeCount() {
+        return frameGrazeCount;
+    }
+    
+    /**
+     * 获取累计擦弹数
+     * @return 累计擦弹数
+     */
+    public int getTotalGrazeCount() {
+        return totalGrazeCount;
+    }
+    
+    /**
+     * 获取累计被弹数
+     * @return 累计被弹数
+     */
+    public int getTotalHitCount() {
+        return totalHitCount;
+    }
+    
+    /**
+     * 重置擦弹和被弹计数（重新开始游戏时调用）
+     */
+    public void resetCounters() {
+        frameGrazeCount = 0;
+        totalGrazeCount = 0;
+        totalHitCount = 0;
+    }
+    
+    /**
+     * 获取敌人空间索引
+     * @return 本帧构建的敌人网格
+     */
+    public SpatialGrid getEnemyGrid() {
+        return enemyGrid;
     }
     
     /**
@@ -125,4 +334,4 @@ public class CollisionSystem {
     public void setPlayer(Player player) {
         this.player = player;
     }
-}
\ No newline at end of file
+}
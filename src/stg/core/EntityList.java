@@ -0,0 +1,176 @@
+package stg.core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * 实体列表 - 紧密数组存储，O(1) 交换删除，增删通过命令缓冲延迟执行
+ * <p>
+ * 对外只提供只读的 {@link java.util.List} 视图（get/size/迭代），渲染器等读取方
+ * 在两次 {@link #flush()} 之间看到的内容保持不变。GameWorld 在更新过程中
+ * 发出的生成和移除请求先写入命令缓冲，在固定的时机统一执行：
+ * 先执行移除，再执行添加。
+ * <p>
+ * 删除时把末尾元素移到空位，因此元素顺序不保证与添加顺序一致。
+ *
+ * @param <T> 实体类型
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public class EntityList<T> extends AbstractList<T> implements RandomAccess {
+    private Object[] elements;
+    private int size;
+
+    /** 待添加的实体 */
+    private Object[] pendingAdds = new Object[16];
+    private int pendingAddCount;
+    /** 待移除的实体 */
+    private Object[] pendingRemoves = new Object[16];
+    private int pendingRemoveCount;
+
+    /**
+     * 构造函数
+     * @param capacity 初始容量
+     */
+    public EntityList(int capacity) {
+        elements = new Object[Math.max(1, capacity)];
+    }
+
+    /**
+     * 获取指定下标的实体
+     * @param index 下标
+     * @return 实体
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (T) elements[index];
+    }
+
+    /**
+     * 获取实体数量（不含命令缓冲中尚未添加的实体）
+     * @return 实体数量
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取命令缓冲中待添加的实体数量
+     * @return 待添加数量
+     */
+    public int pendingAddCount() {
+        return pendingAddCount;
+    }
+
+    // ========== 以下方法仅供 core 包内部使用 ==========
+
+    /**
+     * 请求添加实体，在下一次 flush 时生效
+     * @param entity 实体
+     */
+    void queueAdd(T entity) {
+        if (pendingAddCount == pendingAdds.length) {
+            pendingAdds = Arrays.copyOf(pendingAdds, pendingAddCount * 2);
+        }
+        pendingAdds[pendingAddCount++] = entity;
+    }
+
+    /**
+     * 请求移除实体，在下一次 flush 时生效
+     * @param entity 实体
+     */
+    void queueRemove(T entity) {
+        if (pendingRemoveCount == pendingRemoves.length) {
+            pendingRemoves = Arrays.copyOf(pendingRemoves, pendingRemoveCount * 2);
+        }
+        pendingRemoves[pendingRemoveCount++] = entity;
+    }
+
+    /**
+     * 立即移除指定下标的实体（交换删除）
+     * 在正向遍历中调用后不要前进下标，末尾元素已经移到当前位置
+     * @param index 下标
+     * @return 被移除的实体
+     */
+    @SuppressWarnings("unchecked")
+    T removeAt(int index) {
+        T removed = (T) elements[index];
+        int last = --size;
+        elements[index] = elements[last];
+        elements[last] = null;
+        return removed;
+    }
+
+    /**
+     * 执行命令缓冲：先移除，再添加
+     */
+    void flush() {
+        for (int i = 0; i < pendingRemoveCount; i++) {
+            Object entity = pendingRemoves[i];
+            pendingRemoves[i] = null;
+            if (!removeFrom(entity)) {
+                cancelPendingAdd(entity);
+            }
+        }
+        pendingRemoveCount = 0;
+
+        if (pendingAddCount > 0) {
+            int required = size + pendingAddCount;
+            if (required > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(required, elements.length * 2));
+            }
+            System.arraycopy(pendingAdds, 0, elements, size, pendingAddCount);
+            size = required;
+            Arrays.fill(pendingAdds, 0, pendingAddCount, null);
+            pendingAddCount = 0;
+        }
+    }
+
+    /**
+     * 从列表中移除实体
+     * @param entity 实体
+     * @return 是否找到并移除
+     */
+    private boolean removeFrom(Object entity) {
+        for (int k = 0; k < size; k++) {
+            if (elements[k] == entity) {
+                removeAt(k);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 撤销同一帧内添加后又移除的实体
+     * @param entity 实体
+     */
+    private void cancelPendingAdd(Object entity) {
+        for (int k = 0; k < pendingAddCount; k++) {
+            if (pendingAdds[k] == entity) {
+                int last = --pendingAddCount;
+                pendingAdds[k] = pendingAdds[last];
+                pendingAdds[last] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 立即清空列表和命令缓冲
+     */
+    void clearAll() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+        Arrays.fill(pendingAdds, 0, pendingAddCount, null);
+        pendingAddCount = 0;
+        Arrays.fill(pendingRemoves, 0, pendingRemoveCount, null);
+        pendingRemoveCount = 0;
+    }
+}
@@ -0,0 +1,162 @@
+package stg.core;
+
+import stg.entity.enemy.ISpellcard;
+import stg.stage.Stage;
+import stg.stage.StageGroup;
+
+/**
+ * 快进设置 - 调试用的加速模拟
+ * <p>
+ * 两种方式：
+ * <ul>
+ * <li>加速：每个模拟步执行 {@link #getTurboTicks()} 次更新，画面照常呈现</li>
+ * <li>跳转：不渲染地连续模拟，直到关卡帧数到达目标或出现下一张符卡，然后恢复正常速度</li>
+ * </ul>
+ * 按键回调和游戏循环可能在不同线程，设置项都是 volatile；目标是否到达由模拟线程在每步之后
+ * 通过 {@link #onTick(GameSimulation)} 判断。
+ * <p>
+ * 启动参数 {@code -Dstg.turbo=K} 设置初始加速倍数，{@code -Dstg.skipToFrame=N} 在进入游戏后
+ * 直接跳到关卡第 N 帧。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class FastForward {
+    /** 加速倍数上限 */
+    public static final int MAX_TURBO_TICKS = 64;
+    /** 单次跳转最多模拟的步数（10 分钟），防止目标永远不出现时卡住 */
+    public static final long MAX_SKIP_TICKS = 60L * 60 * 10;
+
+    /** 每个模拟步执行的更新次数 */
+    private volatile int turboTicks;
+    /** 跳转目标关卡帧数，-1 表示无 */
+    private volatile long targetStageFrame;
+    /** 是否跳转到下一张符卡 */
+    private volatile boolean untilNextSpellcard;
+    /** 跳转开始后需要记录起始符卡 */
+    private volatile boolean spellcardPending;
+    /** 跳转开始时的符卡（只在模拟线程读写） */
+    private ISpellcard startSpellcard;
+    /** 本次跳转已模拟的步数（开始跳转时清零） */
+    private volatile long skippedTicks;
+
+    /**
+     * 构造函数，读取启动参数
+     */
+    public FastForward() {
+        turboTicks = clampTurbo(Integer.getInteger("stg.turbo", 1));
+        targetStageFrame = Long.getLong("stg.skipToFrame", -1L);
+    }
+
+    /**
+     * 获取加速倍数
+     * @return 每个模拟步执行的更新次数
+     */
+    public int getTurboTicks() {
+        return turboTicks;
+    }
+
+    /**
+     * 设置加速倍数
+     * @param turboTicks 每个模拟步执行的更新次数，1 表示正常速度
+     */
+    public void setTurboTicks(int turboTicks) {
+        this.turboTicks = clampTurbo(turboTicks);
+    }
+
+    /**
+     * 在 1、2、4、8、16 倍之间循环切换加速倍数
+     * @return 切换后的倍数
+     */
+    public int cycleTurbo() {
+        int next = turboTicks >= 16 ? 1 : turboTicks * 2;
+        setTurboTicks(next);
+        System.out.println("[FastForward] 加速倍数: " + next);
+        return next;
+    }
+
+    /**
+     * 跳转到关卡的指定帧
+     * @param stageFrame 目标关卡帧数
+     */
+    public void skipToStageFrame(long stageFrame) {
+        skippedTicks = 0;
+        targetStageFrame = stageFrame;
+        System.out.println("[FastForward] 跳转到关卡第 " + stageFrame + " 帧");
+    }
+
+    /**
+     * 跳转到下一张符卡（任一 Boss 的当前符卡变为新的非空符卡）
+     */
+    public void skipToNextSpellcard() {
+        skippedTicks = 0;
+        spellcardPending = true;
+        untilNextSpellcard = true;
+        System.out.println("[FastForward] 跳转到下一张符卡");
+    }
+
+    /**
+     * 取消跳转
+     */
+    public void cancelSkip() {
+        targetStageFrame = -1;
+        untilNextSpellcard = false;
+        spellcardPending = false;
+        startSpellcard = null;
+    }
+
+    /**
+     * 是否正在跳转
+     * @return 是否正在跳转
+     */
+    public boolean isSkipping() {
+        return targetStageFrame >= 0 || untilNextSpellcard;
+    }
+
+    /**
+     * 每个游戏模拟步之后调用，判断跳转目标是否到达
+     * @param simulation 游戏模拟
+     */
+    public void onTick(GameSimulation simulation) {
+        if (!isSkipping()) {
+            return;
+        }
+        if (++skippedTicks > MAX_SKIP_TICKS) {
+            System.err.println("[FastForward] 跳转超过 " + MAX_SKIP_TICKS + " 步仍未到达目标，已取消");
+            cancelSkip();
+            return;
+        }
+
+        long target = targetStageFrame;
+        if (target >= 0) {
+            Stage stage = currentStage(simulation);
+            if (stage == null || stage.getCurrentFrame() >= target) {
+                finish("关卡第 " + (stage != null ? stage.getCurrentFrame() : target) + " 帧");
+                return;
+            }
+        }
+
+        if (untilNextSpellcard) {
+            ISpellcard spellcard = simulation.findCurrentSpellcard();
+            if (spellcardPending) {
+                startSpellcard = spellcard;
+                spellcardPending = false;
+            } else if (spellcard != null && spellcard != startSpellcard) {
+                finish("符卡 " + spellcard.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private void finish(String reached) {
+        System.out.println("[FastForward] 已到达" + reached + "，共模拟 " + skippedTicks + " 步");
+        cancelSkip();
+    }
+
+    private static Stage currentStage(GameSimulation simulation) {
+        StageGroup stageGroup = simulation.getStageGroup();
+        return stageGroup != null ? stageGroup.getCurrentStage() : null;
+    }
+
+    private static int clampTurbo(int ticks) {
+        return Math.max(1, Math.min(MAX_TURBO_TICKS, ticks));
+    }
+}
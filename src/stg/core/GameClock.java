@@ -0,0 +1,82 @@
+package stg.core;
+
+/**
+ * 游戏时钟 - 固定时间步长的模拟时钟
+ * <p>
+ * 模拟以固定的 {@link #TICKS_PER_SECOND} 次/秒推进，与渲染帧率无关。所有依赖时间的
+ * 逻辑（如子弹寿命）都以 {@link #TICK_SECONDS} 为步长，GameLoop 用累加器决定每个
+ * 渲染帧需要执行几次模拟步。
+ * <p>
+ * 渲染时物体位置在上一步与当前步之间按 {@link #getInterpolationAlpha()} 插值，
+ * 高刷新率显示器上移动依然平滑。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public final class GameClock {
+    /** 每秒模拟步数 */
+    public static final int TICKS_PER_SECOND = 60;
+    /** 每步时长（纳秒） */
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    /** 每步时长（秒） */
+    public static final float TICK_SECONDS = 1.0f / TICKS_PER_SECOND;
+
+    private static final GameClock INSTANCE = new GameClock();
+
+    /** 已执行的模拟步数（渲染线程读取用于统计） */
+    private volatile long tick;
+    /** 渲染插值系数，0 表示上一步的位置，1 表示当前步的位置 */
+    private float interpolationAlpha = 1.0f;
+
+    private GameClock() {
+    }
+
+    /**
+     * 获取单例实例
+     * @return 游戏时钟
+     */
+    public static GameClock getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 推进一个模拟步，由游戏逻辑在每次模拟更新时调用
+     */
+    public void advance() {
+        tick++;
+    }
+
+    /**
+     * 获取已执行的模拟步数
+     * @return 模拟步数
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * 获取渲染插值系数
+     * @return 插值系数（0-1）
+     */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    /**
+     * 设置渲染插值系数，由 GameLoop 在每个渲染帧前调用
+     * @param alpha 插值系数（0-1）
+     */
+    void setInterpolationAlpha(float alpha) {
+        interpolationAlpha = alpha < 0.0f ? 0.0f : (alpha > 1.0f ? 1.0f : alpha);
+    }
+
+    /**
+     * 按插值系数计算渲染位置
+     * @param previous 上一步的值
+     * @param current 当前步的值
+     * @return 插值结果
+     */
+    public float interpolate(float previous, float current) {
+        return previous + (current - previous) * interpolationAlpha;
+    }
+}
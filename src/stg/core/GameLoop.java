@@ -2,6 +2,7 @@ package stg.core;
 
 import stg.base.Window;
 import stg.entity.player.Player;
+import stg.render.RenderThread;
 import stg.util.GameConstants;
 
 /**
@@ -12,14 +13,26 @@ import stg.util.GameConstants;
  * @since 2026-01-29
  * @author JavaSTG Team
  * @date 2026-04-10 重构：消除反射，使用类型安全的接口调用
+ * @date 2026-10-18 改为固定时间步长：累加器按 60Hz 推进模拟，单帧最多追赶若干步，
+ *       渲染在上一步与当前步之间插值，目标帧率只限制渲染频率
+ * @date 2026-10-18 可选线程模式：模拟在 SimulationThread 上运行，主线程只回放最新的渲染快照
+ * @date 2026-10-18 调试快进：加速时每步执行多次更新，跳转时不渲染地连续模拟；统计每秒模拟步数
  */
 public class GameLoop implements Runnable {
 	/** 窗口引用 */
 	private final Window window;
 	/** 运行标志 */
 	private boolean running;
-	/** 目标帧率 */
-	private int targetFPS = 60;
+	/** 渲染帧率上限，0 表示不限制（依赖垂直同步） */
+	private int targetFPS = 240;
+	/** 单个渲染帧最多执行的模拟步数，超出部分直接丢弃（模拟变慢而不是卡死） */
+	private int maxCatchUpTicks = 5;
+	/** 未消耗的模拟时间（纳秒） */
+	private long accumulator = 0;
+	/** 最近一次模拟步是否推进了游戏时钟（暂停和菜单界面不推进，此时不插值） */
+	private boolean lastStepSimulated = false;
+	/** 是否在独立线程上运行模拟（可用 -Dstg.threadedSimulation=true 开启） */
+	private boolean threadedSimulation = Boolean.getBoolean("stg.threadedSimulation");
 	/** 当前活跃的游戏循环实例 */
 	private static GameLoop activeLoop;
 	/** 帧计数 */
@@ -28,11 +41,17 @@ public class GameLoop implements Runnable {
 	private long lastFpsUpdate = 0;
 	/** 当前FPS */
 	private int currentFps = 0;
+	/** 当前每秒模拟步数 */
+	private int currentTps = 0;
+	/** 上次统计时的模拟步数 */
+	private long lastTpsTick = 0;
 	/** 上一帧时间 */
 	private long lastFrameTime = 0;
 	/** 纳秒常量 */
 	private static final long NANO_PER_MILLI = 1000000L;
 	private static final long NANO_PER_SECOND = 1000000000L;
+	/** 跳转时每隔多久处理一次窗口事件（纳秒） */
+	private static final long FAST_FORWARD_SLICE_NANOS = 100 * NANO_PER_MILLI;
 	
 	/**
 	 * 构造函数 - 创建游戏循环实例
@@ -68,39 +87,124 @@ public class GameLoop implements Runnable {
 	public void run() {
 		lastFpsUpdate = System.currentTimeMillis();
 		lastFrameTime = System.nanoTime();
+		accumulator = 0;
 		
+		if (threadedSimulation && window != null) {
+			runThreaded();
+		} else {
+			runSingleThreaded();
+		}
+		cleanup();
+	}
+	
+	/**
+	 * 单线程循环：模拟和渲染在主线程上交替执行，渲染时插值
+	 */
+	private void runSingleThreaded() {
+		GameClock clock = GameClock.getInstance();
 		while (running && !Thread.interrupted()) {
 			if (window != null && window.shouldClose()) {
 				running = false;
 				break;
 			}
 			
-			long currentTime = System.nanoTime();
-			long elapsedTime = currentTime - lastFrameTime;
+			if (window != null && window.isFastForwarding()) {
+				fastForwardSlice();
+				continue;
+			}
+			
+			long frameStart = System.nanoTime();
+			long elapsedTime = frameStart - lastFrameTime;
+			lastFrameTime = frameStart;
+			
+			// 长时间卡顿（如拖动窗口）后最多追赶 maxCatchUpTicks 步
+			accumulator += Math.min(elapsedTime, GameClock.TICK_NANOS * maxCatchUpTicks);
 			
-			if (window != null) {
-				// 使用类型安全的方式更新当前面板
-				window.updateCurrentPanel();
+			int ticks = 0;
+			while (accumulator >= GameClock.TICK_NANOS && ticks < maxCatchUpTicks) {
+				if (window != null) {
+					long tickBefore = clock.getTick();
+					// 使用类型安全的方式更新当前面板，加速时每步执行多次
+					int turboTicks = window.getTurboTicks();
+					for (int i = 0; i < turboTicks; i++) {
+						window.updateCurrentPanel();
+					}
+					lastStepSimulated = clock.getTick() != tickBefore;
+				}
+				accumulator -= GameClock.TICK_NANOS;
+				ticks++;
 			}
+			if (accumulator >= GameClock.TICK_NANOS) {
+				accumulator %= GameClock.TICK_NANOS;
+			}
+			
+			clock.setInterpolationAlpha(lastStepSimulated ? (float) accumulator / GameClock.TICK_NANOS : 1.0f);
 			
 			window.render();
 			window.swapBuffers();
 			window.pollEvents();
 			
-			frameCount++;
-			long currentMsTime = System.currentTimeMillis();
-			if (currentMsTime - lastFpsUpdate >= 1000) {
-				currentFps = frameCount;
-				frameCount = 0;
-				lastFpsUpdate = currentMsTime;
-			}
-			
-			if (window != null) {
-				window.updateTitle(window.getObjectCount(), currentFps);
+			endFrame(frameStart);
+		}
+	}
+	
+	/**
+	 * 跳转：不渲染地连续模拟一个时间片，然后处理窗口事件
+	 */
+	private void fastForwardSlice() {
+		long deadline = System.nanoTime() + FAST_FORWARD_SLICE_NANOS;
+		while (window.isFastForwarding() && System.nanoTime() < deadline) {
+			window.updateCurrentPanel();
+		}
+		window.pollEvents();
+		updateStatistics();
+		// 跳转结束后从当前时刻重新计时，不追赶跳转期间的时间
+		lastFrameTime = System.nanoTime();
+		accumulator = 0;
+	}
+	
+	/**
+	 * 线程模式循环：模拟线程记录快照，主线程执行排队的 GL 任务并回放最新快照
+	 */
+	private void runThreaded() {
+		// 快照按模拟步记录，不插值
+		GameClock.getInstance().setInterpolationAlpha(1.0f);
+		SimulationThread simulation = new SimulationThread(window, window.getRenderer(), maxCatchUpTicks);
+		simulation.start();
+		System.out.println("模拟线程已启动");
+		
+		try {
+			while (running && !Thread.interrupted() && simulation.isRunning()) {
+				if (window.shouldClose()) {
+					running = false;
+					break;
+				}
+				
+				long frameStart = System.nanoTime();
+				RenderThread.runPendingTasks();
+				window.render(simulation.acquireSnapshot());
+				window.swapBuffers();
+				window.pollEvents();
+				
+				endFrame(frameStart);
 			}
-			
+		} finally {
+			simulation.stop();
+			RenderThread.cancelPendingTasks();
+		}
+	}
+	
+	/**
+	 * 帧结束：统计FPS、更新标题，并按目标帧率休眠
+	 * @param frameStart 本帧开始时间（纳秒）
+	 */
+	private void endFrame(long frameStart) {
+		frameCount++;
+		updateStatistics();
+		
+		if (targetFPS > 0) {
 			long targetFrameTime = NANO_PER_SECOND / targetFPS;
-			long sleepTime = targetFrameTime - elapsedTime;
+			long sleepTime = targetFrameTime - (System.nanoTime() - frameStart);
 			
 			if (sleepTime > 0) {
 				try {
@@ -116,10 +220,26 @@ public class GameLoop implements Runnable {
 					System.out.println("Game loop interrupted during sleep");
 				}
 			}
-			
-			lastFrameTime = System.nanoTime();
 		}
-		cleanup();
+	}
+
+	/**
+	 * 每秒统计一次FPS和每秒模拟步数，并更新窗口标题
+	 */
+	private void updateStatistics() {
+		long currentMsTime = System.currentTimeMillis();
+		if (currentMsTime - lastFpsUpdate >= 1000) {
+			long tick = GameClock.getInstance().getTick();
+			currentFps = frameCount;
+			currentTps = (int) (tick - lastTpsTick);
+			frameCount = 0;
+			lastTpsTick = tick;
+			lastFpsUpdate = currentMsTime;
+		}
+		
+		if (window != null) {
+			window.updateTitle(window.getObjectCount(), currentFps, currentTps);
+		}
 	}
 
 	/**
@@ -152,15 +272,49 @@ public class GameLoop implements Runnable {
 	}
 
 	/**
-	 * 设置目标帧率
-	 * @param targetFPS 目标帧率，必须大于0
-	 * 用于控制游戏运行的速度，默认为60 FPS
+	 * 设置目标帧率（渲染帧率上限）
+	 * @param targetFPS 目标帧率，0 表示不限制
+	 * 只影响渲染频率，模拟始终以 GameClock.TICKS_PER_SECOND 推进，默认为240 FPS
 	 */
 	public void setTargetFPS(int targetFPS) {
-		if (targetFPS > 0) {
+		if (targetFPS >= 0) {
 			this.targetFPS = targetFPS;
 		}
 	}
+	
+	/**
+	 * 设置单个渲染帧最多执行的模拟步数
+	 * @param maxCatchUpTicks 最大追赶步数，必须大于0
+	 */
+	public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+		if (maxCatchUpTicks > 0) {
+			this.maxCatchUpTicks = maxCatchUpTicks;
+		}
+	}
+	
+	/**
+	 * 获取单个渲染帧最多执行的模拟步数
+	 * @return 最大追赶步数
+	 */
+	public int getMaxCatchUpTicks() {
+		return maxCatchUpTicks;
+	}
+
+	/**
+	 * 设置是否在独立线程上运行模拟，需在 start() 之前调用
+	 * @param threadedSimulation 是否启用线程模式
+	 */
+	public void setThreadedSimulation(boolean threadedSimulation) {
+		this.threadedSimulation = threadedSimulation;
+	}
+	
+	/**
+	 * 是否在独立线程上运行模拟
+	 * @return 是否启用线程模式
+	 */
+	public boolean isThreadedSimulation() {
+		return threadedSimulation;
+	}
 
 	/**
 	 * 获取当前目标帧率
@@ -178,4 +332,12 @@ public class GameLoop implements Runnable {
 	public int getCurrentFPS() {
 		return currentFps;
 	}
+	
+	/**
+	 * 获取每秒模拟步数
+	 * @return 最近一秒内执行的游戏模拟步数（快进时反映模拟吞吐量上限）
+	 */
+	public int getCurrentTPS() {
+		return currentTps;
+	}
 }
@@ -0,0 +1,237 @@
+package stg.core;
+
+import java.util.List;
+
+import stg.base.TickInput;
+import stg.entity.bullet.Bullet;
+import stg.entity.enemy.Enemy;
+import stg.entity.enemy.IBoss;
+import stg.entity.enemy.ISpellcard;
+import stg.entity.player.Player;
+import stg.stage.StageGroup;
+import stg.util.math.GameRandom;
+
+/**
+ * 游戏模拟 - 执行一个模拟步的游戏逻辑
+ * <p>
+ * 把玩家、关卡组、游戏世界和碰撞检测按固定顺序推进一步，不依赖窗口、渲染器或音频，
+ * 窗口的游戏循环和无头运行器共用同一套更新逻辑。
+ * <p>
+ * 确定性：每局开始时调用 {@link #startRun(long)} 用种子重置 {@link GameRandom}，
+ * 每步开始时由 {@link TickInput} 锁存本步输入。同一种子加同一串逐步输入即可完全复现一局，
+ * {@link #computeChecksum()} 用于比对两次运行的状态是否一致，{@link WorldSnapshot} 用于保存和恢复整个模拟。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ * @date 2026-10-18 玩家更新后把玩家位置设为子弹场运动程序的瞄准目标
+ */
+public class GameSimulation {
+    /** 游戏世界 */
+    private final GameWorld gameWorld;
+    /** 碰撞检测系统 */
+    private final CollisionSystem collisionSystem;
+    /** 游戏区域宽度 */
+    private final int width;
+    /** 游戏区域高度 */
+    private final int height;
+    /** 玩家 */
+    private Player player;
+    /** 当前关卡组 */
+    private StageGroup stageGroup;
+    /** 按步锁存的输入 */
+    private TickInput input;
+    /** 本局已执行的模拟步数 */
+    private long runTick;
+
+    /**
+     * 构造函数
+     * @param gameWorld 游戏世界
+     * @param width 游戏区域宽度
+     * @param height 游戏区域高度
+     */
+    public GameSimulation(GameWorld gameWorld, int width, int height) {
+        this.gameWorld = gameWorld;
+        this.collisionSystem = new CollisionSystem(gameWorld, null);
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * 开始新的一局：用种子重置游戏随机数，步序号归零
+     * @param seed 本局种子
+     */
+    public void startRun(long seed) {
+        GameRandom.getInstance().reseed(seed);
+        runTick = 0;
+    }
+
+    /**
+     * 推进一个模拟步：锁存输入、玩家、关卡组、游戏世界，最后碰撞检测
+     */
+    public void tick() {
+        GameClock.getInstance().advance();
+
+        // 锁存本步输入
+        if (input != null) {
+            input.onTick(runTick);
+        }
+
+        // 更新玩家
+        if (player != null && player.isActive()) {
+            player.savePreviousPosition();
+            player.update();
+            gameWorld.getBulletField().setTarget(player.getX(), player.getY());
+        }
+
+        // 更新关卡组
+        if (stageGroup != null) {
+            stageGroup.update();
+        }
+
+        // 更新游戏世界
+        gameWorld.update(width, height);
+
+        // 碰撞检测
+        collisionSystem.checkCollisions();
+
+        runTick++;
+    }
+
+    /**
+     * 计算当前状态的校验和（玩家、敌人、子弹的位置和敌人血量）
+     * 用于验证回放与原始运行是否一致
+     * @return 校验和
+     */
+    public long computeChecksum() {
+        long hash = runTick;
+        if (player != null) {
+            hash = mix(hash, Float.floatToIntBits(player.getX()));
+            hash = mix(hash, Float.floatToIntBits(player.getY()));
+        }
+        for (Enemy enemy : gameWorld.getEnemies()) {
+            hash = mix(hash, Float.floatToIntBits(enemy.getX()));
+            hash = mix(hash, Float.floatToIntBits(enemy.getY()));
+            hash = mix(hash, enemy.getHp());
+        }
+        BulletField field = gameWorld.getBulletField();
+        float[] xs = field.getX();
+        float[] ys = field.getY();
+        for (int i = 0; i < field.size(); i++) {
+            hash = mix(hash, Float.floatToIntBits(xs[i]));
+            hash = mix(hash, Float.floatToIntBits(ys[i]));
+        }
+        for (Bullet bullet : gameWorld.getEnemyBullets()) {
+            hash = mix(hash, Float.floatToIntBits(bullet.getX()));
+            hash = mix(hash, Float.floatToIntBits(bullet.getY()));
+        }
+        for (Bullet bullet : gameWorld.getPlayerBullets()) {
+            hash = mix(hash, Float.floatToIntBits(bullet.getX()));
+            hash = mix(hash, Float.floatToIntBits(bullet.getY()));
+        }
+        return hash;
+    }
+
+    /**
+     * 查找场上Boss当前的符卡
+     * @return 当前符卡，没有Boss或Boss不在符卡阶段时返回null
+     */
+    public ISpellcard findCurrentSpellcard() {
+        List<Enemy> enemies = gameWorld.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.get(i) instanceof IBoss boss && boss.getCurrentSpellcard() != null) {
+                return boss.getCurrentSpellcard();
+            }
+        }
+        return null;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * 0x100000001B3L;
+    }
+
+    /**
+     * 设置玩家
+     * @param player 玩家
+     */
+    public void setPlayer(Player player) {
+        this.player = player;
+        collisionSystem.setPlayer(player);
+        if (player != null && input != null) {
+            player.setKeyStateProvider(input);
+        }
+    }
+
+    /**
+     * 设置按步锁存的输入，同时交给当前玩家
+     * @param input 输入
+     */
+    public void setInput(TickInput input) {
+        this.input = input;
+        if (player != null && input != null) {
+            player.setKeyStateProvider(input);
+        }
+    }
+
+    /**
+     * 获取按步锁存的输入
+     * @return 输入
+     */
+    public TickInput getInput() {
+        return input;
+    }
+
+    /**
+     * 获取本局已执行的模拟步数
+     * @return 步数
+     */
+    public long getRunTick() {
+        return runTick;
+    }
+
+    /**
+     * 设置本局已执行的模拟步数（WorldSnapshot 恢复时使用）
+     * @param runTick 步数
+     */
+    void setRunTick(long runTick) {
+        this.runTick = runTick;
+    }
+
+    /**
+     * 获取玩家
+     * @return 玩家
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * 设置当前关卡组
+     * @param stageGroup 关卡组
+     */
+    public void setStageGroup(StageGroup stageGroup) {
+        this.stageGroup = stageGroup;
+    }
+
+    /**
+     * 获取当前关卡组
+     * @return 关卡组
+     */
+    public StageGroup getStageGroup() {
+        return stageGroup;
+    }
+
+    /**
+     * 获取游戏世界
+     * @return 游戏世界
+     */
+    public GameWorld getGameWorld() {
+        return gameWorld;
+    }
+
+    /**
+     * 获取碰撞检测系统
+     * @return 碰撞检测系统
+     */
+    public CollisionSystem getCollisionSystem() {
+        return collisionSystem;
+    }
+}
@@ -1,10 +1,11 @@
 package stg.core;
 
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import stg.entity.base.Obj;
 import stg.entity.bullet.Bullet;
+import stg.entity.bullet.BulletEmitter;
+import stg.entity.bullet.BulletPattern;
 import stg.entity.enemy.Enemy;
 import stg.entity.item.Item;
 import stg.entity.laser.Laser;
@@ -15,20 +16,32 @@ import stg.entity.laser.Laser;
  * 
  * @author JavaSTG Team
  * @since 2026-02-17
+ * @date 2026-10-18 敌方子弹优先存入结构数组子弹场（BulletField），仅非直线运动的子弹保留为对象
+ * @date 2026-10-18 实体列表改为紧密数组（EntityList），交换删除；更新期间的增删写入命令缓冲，
+ *       在 update() 开始和结束时以及碰撞检测之后统一执行
+ * @date 2026-10-18 每次更新前记录实体上一步位置，加入世界时同步，供渲染插值使用
+ * @date 2026-10-18 添加 releaseAll 和包内列表访问方法，供 WorldSnapshot 恢复实体
+ * @date 2026-10-18 添加子弹发射器（BulletEmitter）和批量加入敌人子弹的 addEnemyBullets
+ * @date 2026-10-18 添加弹幕图案（BulletPattern），整轮子弹直接写入子弹场
+ * @date 2026-10-18 恢复快照前丢弃敌人的任务，不触发 onTaskEnd
  */
 public class GameWorld {
-    private final List<Enemy> enemies = new CopyOnWriteArrayList<>();
-    private final List<Bullet> playerBullets = new CopyOnWriteArrayList<>();
-    private final List<Bullet> enemyBullets = new CopyOnWriteArrayList<>();
-    private final List<Item> items = new CopyOnWriteArrayList<>();
-    private final List<Laser> lasers = new CopyOnWriteArrayList<>();
+    private final EntityList<Enemy> enemies = new EntityList<>(64);
+    private final EntityList<Bullet> playerBullets = new EntityList<>(256);
+    private final EntityList<Bullet> enemyBullets = new EntityList<>(256);
+    private final EntityList<Item> items = new EntityList<>(256);
+    private final EntityList<Laser> lasers = new EntityList<>(16);
+    private final BulletField bulletField = new BulletField();
+    private final BulletEmitter bulletEmitter = new BulletEmitter(this);
+    private final BulletPattern bulletPattern = new BulletPattern(bulletField);
     
     /**
-     * 添加敌人
+     * 添加敌人（在下一次命令缓冲执行时加入）
      */
     public void addEnemy(Enemy enemy) {
         if (enemy != null) {
-            enemies.add(enemy);
+            enemy.savePreviousPosition();
+            enemies.queueAdd(enemy);
         }
     }
     
@@ -37,25 +50,65 @@ public class GameWorld {
      */
     public void addPlayerBullet(Bullet bullet) {
         if (bullet != null) {
-            playerBullets.add(bullet);
+            bullet.savePreviousPosition();
+            playerBullets.queueAdd(bullet);
         }
     }
     
     /**
      * 添加敌人子弹
+     * 匀速直线运动的子弹被展平进子弹场，原对象立即回收；其余子弹按对象方式管理
      */
     public void addEnemyBullet(Bullet bullet) {
-        if (bullet != null) {
-            enemyBullets.add(bullet);
+        if (bullet == null) {
+            return;
+        }
+        if (bulletField.spawn(bullet) >= 0) {
+            try {
+                Obj.release(bullet);
+            } catch (Exception e) {
+                System.err.println("[GameWorld] 释放敌人子弹对象失败: " + e.getMessage());
+            }
+        } else {
+            bullet.savePreviousPosition();
+            enemyBullets.queueAdd(bullet);
+        }
+    }
+    
+    /**
+     * 批量添加敌人子弹（一轮齐射），规则与 {@link #addEnemyBullet(Bullet)} 相同
+     * @param bullets 子弹数组
+     * @param count 前 count 个元素有效
+     */
+    public void addEnemyBullets(Bullet[] bullets, int count) {
+        for (int i = 0; i < count; i++) {
+            addEnemyBullet(bullets[i]);
         }
     }
     
+    /**
+     * 获取子弹发射器
+     * @return 子弹发射器
+     */
+    public BulletEmitter getBulletEmitter() {
+        return bulletEmitter;
+    }
+    
+    /**
+     * 获取弹幕图案
+     * @return 弹幕图案
+     */
+    public BulletPattern getBulletPattern() {
+        return bulletPattern;
+    }
+    
     /**
      * 添加物品
      */
     public void addItem(Item item) {
         if (item != null) {
-            items.add(item);
+            item.savePreviousPosition();
+            items.queueAdd(item);
         }
     }
     
@@ -64,37 +117,54 @@ public class GameWorld {
      */
     public void addObject(Laser laser) {
         if (laser != null) {
-            lasers.add(laser);
+            lasers.queueAdd(laser);
         }
     }
     
     /**
      * 更新所有实体
+     * 开始前执行一次命令缓冲，使本帧关卡生成的实体参与本帧更新；
+     * 结束后再执行一次，使更新中生成的实体参与碰撞检测和渲染
      */
     public void update(int canvasWidth, int canvasHeight) {
+        flushCommands();
         updateEnemies(canvasWidth, canvasHeight);
         updateBullets();
         updateItems();
         updateLasers(canvasWidth, canvasHeight);
+        flushCommands();
     }
     
-
+    /**
+     * 执行命令缓冲中的所有生成和移除请求（包括子弹发射器中还没有发射的子弹）
+     */
+    public void flushCommands() {
+        bulletEmitter.fire();
+        enemies.flush();
+        playerBullets.flush();
+        enemyBullets.flush();
+        items.flush();
+        lasers.flush();
+    }
     
     /**
      * 更新敌人
      */
     private void updateEnemies(int canvasWidth, int canvasHeight) {
-        for (int i = enemies.size() - 1; i >= 0; i--) {
+        for (int i = 0; i < enemies.size(); ) {
             Enemy enemy = enemies.get(i);
+            enemy.savePreviousPosition();
             enemy.update(canvasWidth, canvasHeight);
             
             if (!enemy.isAlive() || enemy.isOutOfBounds(canvasWidth, canvasHeight)) {
-                enemies.remove(i);
+                enemies.removeAt(i);
                 try {
                     Obj.release(enemy);
                 } catch (Exception e) {
                     System.err.println("[GameWorld] 释放敌人对象失败: " + e.getMessage());
                 }
+            } else {
+                i++;
             }
         }
     }
@@ -104,30 +174,39 @@ public class GameWorld {
      */
     private void updateBullets() {
         // 更新玩家子弹
-        for (int i = playerBullets.size() - 1; i >= 0; i--) {
+        for (int i = 0; i < playerBullets.size(); ) {
             Bullet bullet = playerBullets.get(i);
+            bullet.savePreviousPosition();
             bullet.update();
             if (bullet.isOutOfBounds() || !bullet.isActive()) {
-                playerBullets.remove(i);
+                playerBullets.removeAt(i);
                 try {
                     Obj.release(bullet);
                 } catch (Exception e) {
                     System.err.println("[GameWorld] 释放玩家子弹对象失败: " + e.getMessage());
                 }
+            } else {
+                i++;
             }
         }
         
+        // 更新子弹场
+        bulletField.update();
+        
         // 更新敌人子弹
-        for (int i = enemyBullets.size() - 1; i >= 0; i--) {
+        for (int i = 0; i < enemyBullets.size(); ) {
             Bullet bullet = enemyBullets.get(i);
+            bullet.savePreviousPosition();
             bullet.update();
             if (bullet.isOutOfBounds() || !bullet.isActive()) {
-                enemyBullets.remove(i);
+                enemyBullets.removeAt(i);
                 try {
                     Obj.release(bullet);
                 } catch (Exception e) {
                     System.err.println("[GameWorld] 释放敌人子弹对象失败: " + e.getMessage());
                 }
+            } else {
+                i++;
             }
         }
     }
@@ -136,16 +215,19 @@ public class GameWorld {
      * 更新物品
      */
     private void updateItems() {
-        for (int i = items.size() - 1; i >= 0; i--) {
+        for (int i = 0; i < items.size(); ) {
             Item item = items.get(i);
+            item.savePreviousPosition();
             item.update();
             if (!item.isActive() || item.isOutOfBounds()) {
-                items.remove(i);
+                items.removeAt(i);
                 try {
                     Obj.release(item);
                 } catch (Exception e) {
                     System.err.println("[GameWorld] 释放物品对象失败: " + e.getMessage());
                 }
+            } else {
+                i++;
             }
         }
     }
@@ -154,17 +236,21 @@ public class GameWorld {
      * 更新激光
      */
     private void updateLasers(int canvasWidth, int canvasHeight) {
-        for (int i = lasers.size() - 1; i >= 0; i--) {
+        for (int i = 0; i < lasers.size(); ) {
             Laser laser = lasers.get(i);
             laser.update();
             if (!laser.isVisible() || laser.isOutOfBounds(canvasWidth, canvasHeight)) {
-                lasers.remove(i);
+                lasers.removeAt(i);
+            } else {
+                i++;
             }
         }
     }
     
     /**
-     * 获取敌人列表
+     * 获取敌人列表（只读）
+     * 生成和移除请求在命令缓冲执行时才生效，但 {@link #update(int, int)} 会直接移除死亡或出界的敌人，
+     * 因此只有在 update 之外（碰撞检测、渲染）遍历时内容不变
      */
     public List<Enemy> getEnemies() {
         return enemies;
@@ -178,12 +264,26 @@ public class GameWorld {
     }
     
     /**
-     * 获取敌人子弹列表
+     * 获取敌人子弹列表（仅包含未展平进子弹场的对象子弹）
      */
     public List<Bullet> getEnemyBullets() {
         return enemyBullets;
     }
     
+    /**
+     * 获取敌人子弹场
+     */
+    public BulletField getBulletField() {
+        return bulletField;
+    }
+    
+    /**
+     * 获取敌人子弹总数（子弹场与对象子弹之和）
+     */
+    public int getEnemyBulletCount() {
+        return bulletField.size() + enemyBullets.size();
+    }
+    
     /**
      * 获取物品列表
      */
@@ -202,25 +302,77 @@ public class GameWorld {
      * 清除所有实体
      */
     public void clear() {
-        enemies.clear();
-        playerBullets.clear();
-        enemyBullets.clear();
-        items.clear();
-        lasers.clear();
+        bulletEmitter.cancel();
+        enemies.clearAll();
+        playerBullets.clearAll();
+        enemyBullets.clearAll();
+        bulletField.clear();
+        items.clearAll();
+        lasers.clearAll();
+    }
+    
+    /**
+     * 清除所有实体，并把其中的池化对象归还对象池（恢复快照前调用）
+     */
+    public void releaseAll() {
+        flushCommands();
+        // 整个世界被丢弃，敌人的任务直接丢弃，不触发 onTaskEnd
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).discardTasks();
+        }
+        releaseEntities(enemies);
+        releaseEntities(playerBullets);
+        releaseEntities(enemyBullets);
+        releaseEntities(items);
+        clear();
+    }
+    
+    private void releaseEntities(EntityList<? extends Obj> list) {
+        for (int i = 0; i < list.size(); i++) {
+            try {
+                Obj.release(list.get(i));
+            } catch (Exception e) {
+                System.err.println("[GameWorld] 释放对象失败: " + e.getMessage());
+            }
+        }
+    }
+    
+    // ========== 以下方法仅供 core 包内部使用（WorldSnapshot） ==========
+    
+    EntityList<Enemy> enemyList() {
+        return enemies;
+    }
+    
+    EntityList<Bullet> playerBulletList() {
+        return playerBullets;
+    }
+    
+    EntityList<Bullet> enemyBulletList() {
+        return enemyBullets;
+    }
+    
+    EntityList<Item> itemList() {
+        return items;
+    }
+    
+    EntityList<Laser> laserList() {
+        return lasers;
     }
     
     /**
      * 清除所有物品
      */
     public void clearItems() {
-        items.clear();
+        items.clearAll();
     }
     
     /**
-     * 移除指定的物品
+     * 移除指定的物品（在下一次命令缓冲执行时移除）
      */
     public void removeItem(Item item) {
-        items.remove(item);
+        if (item != null) {
+            items.queueRemove(item);
+        }
     }
     
     /**
@@ -0,0 +1,244 @@
+package stg.core;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 子弹运动程序
+ * 用数据描述子弹在第几帧改变运动方式（例如"第30帧减速到1，第60帧转向玩家并以0.05加速到4"），
+ * 代替为每种复杂子弹写一个重写 onUpdate/onMove 的子类。
+ * 程序挂在 {@link BulletField} 的子弹上，由子弹场在每帧更新的同一个循环里解释执行，
+ * 没有虚方法调用，所有子弹走同一段代码。
+ * <p>
+ * 指令按帧数（从子弹生成时的0开始）排列，用 {@link #at(int)} 指定之后指令的执行帧：
+ * <pre>{@code
+ * static final MotionProgram SLOW_THEN_AIM = new MotionProgram(MySpellcard.class, "slowThenAim")
+ *     .at(30).setSpeed(1.0f)
+ *     .at(60).aim(2.0f).accelerate(0.05f, 4.0f);
+ * }</pre>
+ * 瞬时指令（改速率、改方向、旋转、瞄准、消失）只在指定帧执行一次；
+ * 持续指令（加速、转向）一直生效，直到被同类指令覆盖（例如 {@code accelerate(0, 0)}、{@code turn(0)}）。
+ * 所有角度的正弦和余弦在定义程序时算好，解释执行时不做三角函数运算。
+ * <p>
+ * 每个程序有一个稳定的键，快照和录像关键帧按键保存程序，恢复时按键查找，与类的加载顺序无关。
+ * 用 {@link #MotionProgram(Class, String)} 创建的程序键为"类名#名称"，在新进程中恢复快照时，
+ * 定义它的类还没有加载也能按类名加载后找到。同一个键再次创建时替换之前登记的程序，
+ * 因此每次调用都新建程序也不会让登记表无限增长，但同一个键必须始终描述同样的指令。
+ * 程序应当在使用前定义完毕（通常为静态常量），已经挂到子弹上的程序不要再添加指令。
+ * 角度为弧度，x轴正方向为0，逆时针为正。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ * @date 2026-10-18 程序用显式的键登记和写入快照，取代按创建顺序分配的编号
+ */
+public final class MotionProgram {
+    /** 指令：设置速率 */
+    static final int OP_SPEED = 0;
+    /** 指令：设置方向（a、b为方向的余弦和正弦） */
+    static final int OP_ANGLE = 1;
+    /** 指令：方向旋转一个角度（a、b为该角度的余弦和正弦） */
+    static final int OP_ROTATE = 2;
+    /** 指令：瞄准目标（a为新速率，小于0时保持速率） */
+    static final int OP_AIM = 3;
+    /** 指令：持续加速（a为每帧速率变化，b为速率上限或下限） */
+    static final int OP_ACCELERATE = 4;
+    /** 指令：持续转向（a、b为每帧转角的余弦和正弦） */
+    static final int OP_TURN = 5;
+    /** 指令：消失 */
+    static final int OP_VANISH = 6;
+
+    /** 键中类名与名称的分隔符 */
+    private static final char KEY_SEPARATOR = '#';
+
+    /** 已登记的程序，键 -> 程序 */
+    private static final Map<String, MotionProgram> registry = new HashMap<>();
+
+    /** 程序的键 */
+    private final String key;
+    /** 键的 UTF-8 编码，快照直接写入 */
+    final byte[] keyBytes;
+    /** 每条指令的执行帧（非递减） */
+    int[] frames = new int[8];
+    /** 每条指令的操作码 */
+    int[] ops = new int[8];
+    /** 每条指令的第一个参数 */
+    float[] argA = new float[8];
+    /** 每条指令的第二个参数 */
+    float[] argB = new float[8];
+    /** 指令数 */
+    int length;
+    /** 之后添加的指令的执行帧 */
+    private int frame;
+
+    /**
+     * 构造函数 - 创建一个空程序，键为"定义类的类名#名称"
+     * @param owner 定义该程序的类（通常是把程序作为静态常量的符卡或敌人类）
+     * @param name 程序在该类中的名称
+     */
+    public MotionProgram(Class<?> owner, String name) {
+        this(owner.getName() + KEY_SEPARATOR + name);
+    }
+
+    /**
+     * 构造函数 - 创建一个空程序并按键登记，替换之前同一个键的程序
+     * @param key 稳定的键，不能为空
+     */
+    public MotionProgram(String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("Motion program key must not be empty");
+        }
+        this.key = key;
+        this.keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Motion program key too long: " + key);
+        }
+        synchronized (registry) {
+            registry.put(key, this);
+        }
+    }
+
+    /**
+     * 按键获取程序
+     * 键为"类名#名称"且程序还没有登记时，先加载并初始化该类（执行其静态初始化）再查找
+     * @param key 程序的键
+     * @return 程序，找不到时返回null
+     */
+    static MotionProgram forKey(String key) {
+        MotionProgram motion;
+        synchronized (registry) {
+            motion = registry.get(key);
+        }
+        int separator = key.lastIndexOf(KEY_SEPARATOR);
+        if (motion != null || separator <= 0) {
+            return motion;
+        }
+        try {
+            Class.forName(key.substring(0, separator), true, MotionProgram.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        synchronized (registry) {
+            return registry.get(key);
+        }
+    }
+
+    // ========== 指令 ==========
+
+    /**
+     * 指定之后添加的指令在子弹生成后的第几帧执行
+     * @param frame 帧数，不能小于之前指定的帧数
+     * @return 本程序
+     */
+    public MotionProgram at(int frame) {
+        if (frame < this.frame) {
+            throw new IllegalArgumentException("Frames must be non-decreasing: " + frame + " < " + this.frame);
+        }
+        this.frame = frame;
+        return this;
+    }
+
+    /**
+     * 设置速率（保持方向）
+     * @param speed 速率
+     * @return 本程序
+     */
+    public MotionProgram setSpeed(float speed) {
+        return add(OP_SPEED, speed, 0.0f);
+    }
+
+    /**
+     * 设置方向（保持速率）
+     * @param angle 方向角度
+     * @return 本程序
+     */
+    public MotionProgram setAngle(float angle) {
+        return add(OP_ANGLE, (float) Math.cos(angle), (float) Math.sin(angle));
+    }
+
+    /**
+     * 方向旋转一个角度（保持速率）
+     * @param delta 旋转角度，正数为逆时针
+     * @return 本程序
+     */
+    public MotionProgram rotate(float delta) {
+        return add(OP_ROTATE, (float) Math.cos(delta), (float) Math.sin(delta));
+    }
+
+    /**
+     * 转向目标（通常为玩家，见 {@link BulletField#setTarget}），保持速率
+     * @return 本程序
+     */
+    public MotionProgram aim() {
+        return add(OP_AIM, -1.0f, 0.0f);
+    }
+
+    /**
+     * 转向目标并设置速率
+     * @param speed 速率
+     * @return 本程序
+     */
+    public MotionProgram aim(float speed) {
+        return add(OP_AIM, speed, 0.0f);
+    }
+
+    /**
+     * 开始持续加速，速率达到 limit 后保持不变（减速时 limit 为下限）
+     * @param acceleration 每帧速率变化，0 表示停止加速
+     * @param limit 速率上限（加速）或下限（减速）
+     * @return 本程序
+     */
+    public MotionProgram accelerate(float acceleration, float limit) {
+        return add(OP_ACCELERATE, acceleration, limit);
+    }
+
+    /**
+     * 开始持续转向
+     * @param angularVelocity 每帧转角，正数为逆时针，0 表示停止转向
+     * @return 本程序
+     */
+    public MotionProgram turn(float angularVelocity) {
+        return add(OP_TURN, (float) Math.cos(angularVelocity), (float) Math.sin(angularVelocity));
+    }
+
+    /**
+     * 子弹消失
+     * @return 本程序
+     */
+    public MotionProgram vanish() {
+        return add(OP_VANISH, 0.0f, 0.0f);
+    }
+
+    /**
+     * 获取程序的键
+     * @return 键
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 获取指令数
+     * @return 指令数
+     */
+    public int getLength() {
+        return length;
+    }
+
+    private MotionProgram add(int op, float a, float b) {
+        if (length == ops.length) {
+            int capacity = length * 2;
+            frames = Arrays.copyOf(frames, capacity);
+            ops = Arrays.copyOf(ops, capacity);
+            argA = Arrays.copyOf(argA, capacity);
+            argB = Arrays.copyOf(argB, capacity);
+        }
+        frames[length] = frame;
+        ops[length] = op;
+        argA[length] = a;
+        argB[length] = b;
+        length++;
+        return this;
+    }
+}
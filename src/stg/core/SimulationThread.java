@@ -0,0 +1,196 @@
+package stg.core;
+
+import stg.base.Window;
+import stg.render.IRenderer;
+import stg.render.RenderSnapshot;
+
+/**
+ * 模拟线程 - 在独立线程上以固定步长运行游戏逻辑
+ * <p>
+ * 模拟线程执行面板更新（世界更新、关卡逻辑、碰撞检测），每批模拟步之后把当前画面
+ * 记录进一个 {@link RenderSnapshot} 并发布；渲染线程（持有 GL 上下文的主线程）只取最新
+ * 发布的快照提交给驱动，两边在多核机器上并行执行。
+ * <p>
+ * 快照在记录端和回放端之间做缓冲交换：记录端写一个、回放端读一个、中间保留一个最新完成的，
+ * 交换只在短暂的锁内交换下标，任何一方都不会等待另一方完成整帧。快照对象循环复用。
+ * 线程模式下快照按模拟步记录，不做渲染插值。
+ * <p>
+ * 调试快进同样生效：加速时每个调度步执行多次更新，跳转时不休眠地连续模拟，每个时间片发布一次快照。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class SimulationThread implements Runnable {
+    /** 纳秒常量 */
+    private static final long NANO_PER_MILLI = 1000000L;
+    /** 跳转时每隔多久发布一次快照（纳秒） */
+    private static final long FAST_FORWARD_SLICE_NANOS = 100 * NANO_PER_MILLI;
+
+    /** 窗口引用 */
+    private final Window window;
+    /** 快照缓冲：写入中、最新完成、回放中 */
+    private final RenderSnapshot[] snapshots = new RenderSnapshot[3];
+    /** 交换快照下标用的锁 */
+    private final Object swapLock = new Object();
+    private int writeIndex = 0;
+    private int readyIndex = 1;
+    private int readIndex = 2;
+    /** 最新完成的快照是否还未被回放端取走 */
+    private boolean hasFreshSnapshot = false;
+    /** 单批最多执行的模拟步数 */
+    private final int maxCatchUpTicks;
+    /** 运行标志 */
+    private volatile boolean running;
+    /** 线程实例 */
+    private Thread thread;
+    /** 已发布的快照数量 */
+    private volatile long publishedCount;
+
+    /**
+     * 构造函数
+     * @param window 窗口引用
+     * @param textureLoader 快照转交纹理加载用的真实渲染器
+     * @param maxCatchUpTicks 单批最多执行的模拟步数
+     */
+    public SimulationThread(Window window, IRenderer textureLoader, int maxCatchUpTicks) {
+        this.window = window;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new RenderSnapshot(textureLoader);
+        }
+        // 先记录一帧，渲染线程启动后立即有画面可用
+        snapshots[readIndex].reset(GameClock.getInstance().getTick());
+        window.renderPanels(snapshots[readIndex]);
+    }
+
+    /**
+     * 启动模拟线程
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "STG-Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止模拟线程并等待其退出
+     */
+    public void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    /**
+     * 模拟线程是否在运行
+     * @return 是否在运行
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 模拟主循环：按固定步长推进，落后时单批最多追赶 maxCatchUpTicks 步
+     */
+    @Override
+    public void run() {
+        long nextTickTime = System.nanoTime();
+        while (running) {
+            if (window.isFastForwarding()) {
+                long deadline = System.nanoTime() + FAST_FORWARD_SLICE_NANOS;
+                while (running && window.isFastForwarding() && System.nanoTime() < deadline) {
+                    window.updateCurrentPanel();
+                }
+                recordAndPublish();
+                nextTickTime = System.nanoTime();
+                continue;
+            }
+
+            long now = System.nanoTime();
+            if (now < nextTickTime) {
+                sleepUntil(nextTickTime);
+                continue;
+            }
+
+            int ticks = 0;
+            while (now >= nextTickTime && ticks < maxCatchUpTicks) {
+                int turboTicks = window.getTurboTicks();
+                for (int i = 0; i < turboTicks; i++) {
+                    window.updateCurrentPanel();
+                }
+                nextTickTime += GameClock.TICK_NANOS;
+                ticks++;
+            }
+            if (now >= nextTickTime) {
+                // 落后太多时丢弃剩余时间，模拟变慢而不是卡死
+                nextTickTime = now + GameClock.TICK_NANOS;
+            }
+
+            recordAndPublish();
+        }
+    }
+
+    /**
+     * 获取最新发布的快照，由渲染线程每帧调用
+     * 没有新快照时返回上一次取得的快照，返回的快照在下次调用前保持不变
+     * @return 渲染快照
+     */
+    public RenderSnapshot acquireSnapshot() {
+        synchronized (swapLock) {
+            if (hasFreshSnapshot) {
+                int previous = readIndex;
+                readIndex = readyIndex;
+                readyIndex = previous;
+                hasFreshSnapshot = false;
+            }
+            return snapshots[readIndex];
+        }
+    }
+
+    /**
+     * 获取已发布的快照数量
+     * @return 快照数量
+     */
+    public long getPublishedCount() {
+        return publishedCount;
+    }
+
+    private void recordAndPublish() {
+        RenderSnapshot snapshot = snapshots[writeIndex];
+        snapshot.reset(GameClock.getInstance().getTick());
+        window.renderPanels(snapshot);
+        publish();
+    }
+
+    private void publish() {
+        synchronized (swapLock) {
+            int previous = readyIndex;
+            readyIndex = writeIndex;
+            writeIndex = previous;
+            hasFreshSnapshot = true;
+        }
+        publishedCount++;
+    }
+
+    private void sleepUntil(long deadline) {
+        long sleepTime = deadline - System.nanoTime();
+        if (sleepTime <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepTime / NANO_PER_MILLI, (int) (sleepTime % NANO_PER_MILLI));
+        } catch (InterruptedException e) {
+            // stop() 通过中断唤醒，由 running 标志决定是否退出
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package stg.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 可快照接口
+ * 实现类把自己的模拟状态写入缓冲，或从缓冲恢复，供 {@link WorldSnapshot} 保存和恢复整个游戏。
+ * 子类有额外的模拟状态时覆盖这两个方法，先调用父类实现，再按相同顺序读写自己的字段。
+ * 只保存影响模拟结果的状态，纹理ID等资源句柄不写入。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public interface Snapshotable {
+    /**
+     * 把状态写入缓冲
+     * @param out 目标缓冲
+     */
+    void saveState(ByteBuffer out);
+
+    /**
+     * 从缓冲恢复状态，读取顺序与 {@link #saveState(ByteBuffer)} 的写入顺序一致
+     * @param in 状态数据
+     */
+    void loadState(ByteBuffer in);
+}
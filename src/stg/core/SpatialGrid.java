@@ -0,0 +1,272 @@
+package stg.core;
+
+import java.util.Arrays;
+
+import stg.util.GameConstants;
+
+/**
+ * 均匀网格空间索引 - 碰撞检测的粗筛阶段
+ * <p>
+ * 网格覆盖固定的 360*480 游戏逻辑区域（中心原点），每帧重建一次。
+ * 条目按包围盒写入所覆盖的全部格子，查询时只检查与查询圆相交的格子，
+ * 并在格子内直接做平方距离的圆形相交判定，整个过程不分配对象。
+ * 超出场地的条目会被钳制到边缘格子，保证不会遗漏。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public class SpatialGrid {
+    /** 默认格子边长（游戏逻辑像素） */
+    public static final float DEFAULT_CELL_SIZE = 32.0f;
+
+    private final float cellSize;
+    private final float invCellSize;
+    private final int cols;
+    private final int rows;
+    private final float minX;
+    private final float minY;
+
+    /** 每个格子在 cellItems 中的起始下标，长度为 cols*rows+1 */
+    private final int[] cellStart;
+    /** 按格子排序后的条目下标 */
+    private int[] cellItems = new int[0];
+
+    /** 条目数据 */
+    private float[] itemX = new float[0];
+    private float[] itemY = new float[0];
+    private float[] itemRadius = new float[0];
+    private int itemCount;
+
+    /** 查询去重标记：条目跨多个格子时，同一次查询只返回一次 */
+    private int[] queryStamp = new int[0];
+    private int currentStamp;
+
+    /**
+     * 构造函数 - 使用默认格子大小覆盖整个游戏区域
+     */
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * 构造函数
+     * @param cellSize 格子边长（游戏逻辑像素），必须大于0
+     */
+    public SpatialGrid(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+        this.cols = (int) Math.ceil(GameConstants.GAME_WIDTH / cellSize);
+        this.rows = (int) Math.ceil(GameConstants.GAME_HEIGHT / cellSize);
+        this.minX = -GameConstants.GAME_WIDTH / 2.0f;
+        this.minY = -GameConstants.GAME_HEIGHT / 2.0f;
+        this.cellStart = new int[cols * rows + 1];
+    }
+
+    /**
+     * 开始新一帧的重建，清空所有条目
+     */
+    public void clear() {
+        itemCount = 0;
+    }
+
+    /**
+     * 添加一个圆形条目
+     * @param x 圆心X坐标（游戏逻辑坐标）
+     * @param y 圆心Y坐标（游戏逻辑坐标）
+     * @param radius 半径
+     * @return 条目下标，与添加顺序一致，从0开始
+     */
+    public int add(float x, float y, float radius) {
+        if (itemCount == itemX.length) {
+            grow(Math.max(16, itemCount * 2));
+        }
+        itemX[itemCount] = x;
+        itemY[itemCount] = y;
+        itemRadius[itemCount] = radius;
+        return itemCount++;
+    }
+
+    /**
+     * 根据已添加的条目构建网格
+     * 使用计数排序，把条目下标按格子连续存放
+     */
+    public void build() {
+        int cellCount = cols * rows;
+        Arrays.fill(cellStart, 0);
+
+        // 第一遍：统计每个格子的条目数量
+        int total = 0;
+        for (int i = 0; i < itemCount; i++) {
+            int c0 = cellX(itemX[i] - itemRadius[i]);
+            int c1 = cellX(itemX[i] + itemRadius[i]);
+            int r0 = cellY(itemY[i] - itemRadius[i]);
+            int r1 = cellY(itemY[i] + itemRadius[i]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * cols + c + 1]++;
+                }
+            }
+            total += (c1 - c0 + 1) * (r1 - r0 + 1);
+        }
+
+        // 前缀和得到起始下标
+        for (int i = 0; i < cellCount; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        if (cellItems.length < total) {
+            cellItems = new int[Math.max(total, cellItems.length * 2)];
+        }
+
+        // 第二遍：写入条目下标（借用 cellStart 作为写指针，结束后再恢复）
+        for (int i = 0; i < itemCount; i++) {
+            int c0 = cellX(itemX[i] - itemRadius[i]);
+            int c1 = cellX(itemX[i] + itemRadius[i]);
+            int r0 = cellY(itemY[i] - itemRadius[i]);
+            int r1 = cellY(itemY[i] + itemRadius[i]);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellItems[cellStart[r * cols + c]++] = i;
+                }
+            }
+        }
+        for (int i = cellCount; i > 0; i--) {
+            cellStart[i] = cellStart[i - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * 查询与指定圆相交的所有条目
+     * @param x 圆心X坐标
+     * @param y 圆心Y坐标
+     * @param radius 半径
+     * @param result 输出数组，写入相交条目的下标
+     * @return 写入 result 的条目数量（不超过 result.length）
+     */
+    public int query(float x, float y, float radius, int[] result) {
+        if (itemCount == 0 || result.length == 0) {
+            return 0;
+        }
+        nextStamp();
+
+        int c0 = cellX(x - radius);
+        int c1 = cellX(x + radius);
+        int r0 = cellY(y - radius);
+        int r1 = cellY(y + radius);
+        int found = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int item = cellItems[k];
+                    if (queryStamp[item] == currentStamp) {
+                        continue;
+                    }
+                    queryStamp[item] = currentStamp;
+                    float dx = itemX[item] - x;
+                    float dy = itemY[item] - y;
+                    float rr = itemRadius[item] + radius;
+                    if (dx * dx + dy * dy < rr * rr) {
+                        result[found++] = item;
+                        if (found == result.length) {
+                            return found;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 查询与指定圆相交的第一个条目
+     * @param x 圆心X坐标
+     * @param y 圆心Y坐标
+     * @param radius 半径
+     * @return 条目下标，没有相交条目时返回-1
+     */
+    public int queryFirst(float x, float y, float radius) {
+        if (itemCount == 0) {
+            return -1;
+        }
+        int c0 = cellX(x - radius);
+        int c1 = cellX(x + radius);
+        int r0 = cellY(y - radius);
+        int r1 = cellY(y + radius);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int item = cellItems[k];
+                    float dx = itemX[item] - x;
+                    float dy = itemY[item] - y;
+                    float rr = itemRadius[item] + radius;
+                    if (dx * dx + dy * dy < rr * rr) {
+                        return item;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取当前条目数量
+     * @return 条目数量
+     */
+    public int size() {
+        return itemCount;
+    }
+
+    /**
+     * 获取格子边长
+     * @return 格子边长
+     */
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * 获取网格列数
+     * @return 列数
+     */
+    public int getColumns() {
+        return cols;
+    }
+
+    /**
+     * 获取网格行数
+     * @return 行数
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    private int cellX(float x) {
+        int c = (int) ((x - minX) * invCellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int cellY(float y) {
+        int r = (int) ((y - minY) * invCellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    private void nextStamp() {
+        currentStamp++;
+        if (currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(queryStamp, 0);
+            currentStamp = 1;
+        }
+    }
+
+    private void grow(int capacity) {
+        itemX = Arrays.copyOf(itemX, capacity);
+        itemY = Arrays.copyOf(itemY, capacity);
+        itemRadius = Arrays.copyOf(itemRadius, capacity);
+        queryStamp = Arrays.copyOf(queryStamp, capacity);
+    }
+}
@@ -0,0 +1,176 @@
+package stg.core;
+
+import java.nio.ByteBuffer;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 脚本任务
+ * 关卡、敌人和符卡的脚本写成任务，由所属对象的 {@link TaskScheduler} 驱动。
+ * 每次被唤醒时调用一次 {@link #run()}，在其中用 {@link #waitFrames(int)}、{@link #waitUntil(BooleanSupplier)}
+ * 或 {@link #waitForChildren()} 决定下一次唤醒的时机；{@code run()} 返回时没有请求等待，任务就结束。
+ * 跨越多次唤醒的进度保存在字段里，分阶段的脚本可以用 {@link #step} 作为标签：
+ * <pre>{@code
+ * public static class OpeningTask extends Task<MyStage> {
+ *     private int spawned;
+ *
+ *     protected void run() {
+ *         getOwner().spawnFairy();
+ *         if (++spawned < 10) {
+ *             waitFrames(30);    // 30帧后再次调用 run()
+ *         }                      // 否则任务结束
+ *     }
+ * }
+ * }</pre>
+ * 在 {@code run()} 中可以用 {@link #start(Task)} 启动子任务，子任务与父任务共用调度器和所属对象。
+ * <p>
+ * 快照：调度器按类名保存任务，恢复时用公开的无参构造函数重新创建，因此需要保存进快照的任务
+ * 应为顶层类或静态内部类。基类保存 {@link #step}，子类有其他字段时覆盖 {@link #saveState} /
+ * {@link #loadState}，先调用父类实现。{@code waitUntil} 的条件无法写入快照，等待条件的任务
+ * 必须在 {@code loadState} 中按 {@code step} 重新调用 {@code waitUntil}，否则恢复时抛出 {@link IllegalStateException}。
+ *
+ * @param <O> 所属对象的类型
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public abstract class Task<O> implements Snapshotable {
+    /** 状态：等待运行（新任务或刚被唤醒） */
+    static final int READY = 0;
+    /** 状态：正在执行 run() */
+    static final int RUNNING = 1;
+    /** 状态：等待若干帧 */
+    static final int SLEEPING = 2;
+    /** 状态：等待条件成立 */
+    static final int WAITING_CONDITION = 3;
+    /** 状态：等待子任务全部结束 */
+    static final int WAITING_CHILDREN = 4;
+    /** 状态：已结束 */
+    static final int DONE = 5;
+
+    /** 分阶段脚本的标签，随快照保存 */
+    protected int step;
+
+    // ========== 调度器使用的字段 ==========
+    O owner;
+    TaskScheduler scheduler;
+    int state = READY;
+    /** 唤醒帧（SLEEPING 时有效） */
+    long wakeFrame;
+    /** 等待的条件（WAITING_CONDITION 时有效） */
+    BooleanSupplier condition;
+    /** 父任务，没有时为null */
+    Task<?> parent;
+    /** 尚未结束的子任务数 */
+    int liveChildren;
+    /** 时间轮同一格中的下一个任务 */
+    Task<?> next;
+    /** 在调度器任务列表中的下标 */
+    int index;
+
+    /**
+     * 任务被唤醒时调用
+     * 返回前调用一次等待方法表示挂起，不调用则任务结束
+     */
+    protected abstract void run();
+
+    // ========== 在 run() 中调用 ==========
+
+    /**
+     * 挂起指定帧数后再次运行
+     * @param frames 帧数，小于1时按1处理（下一帧）
+     */
+    protected final void waitFrames(int frames) {
+        state = SLEEPING;
+        wakeFrame = scheduler.getFrame() + Math.max(frames, 1);
+    }
+
+    /**
+     * 挂起直到条件成立（每帧检查一次，从下一帧开始）
+     * @param condition 条件
+     */
+    protected final void waitUntil(BooleanSupplier condition) {
+        state = WAITING_CONDITION;
+        this.condition = condition;
+    }
+
+    /**
+     * 挂起直到本任务启动的子任务全部结束，没有子任务时在本帧内立即继续
+     */
+    protected final void waitForChildren() {
+        state = WAITING_CHILDREN;
+    }
+
+    /**
+     * 启动子任务，子任务在本帧内、当前任务挂起之后开始运行
+     * @param child 子任务
+     * @return 子任务
+     */
+    protected final <T extends Task<? super O>> T start(T child) {
+        return scheduler.start(child, this, 0);
+    }
+
+    /**
+     * 延迟若干帧后启动子任务
+     * @param child 子任务
+     * @param delay 延迟帧数
+     * @return 子任务
+     */
+    protected final <T extends Task<? super O>> T start(T child, int delay) {
+        return scheduler.start(child, this, delay);
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 获取所属对象（关卡、敌人或符卡）
+     * @return 所属对象
+     */
+    protected final O getOwner() {
+        return owner;
+    }
+
+    /**
+     * 获取调度器当前帧数
+     * @return 帧数
+     */
+    protected final long getFrame() {
+        return scheduler.getFrame();
+    }
+
+    /**
+     * 是否已结束
+     * @return 是否已结束
+     */
+    public final boolean isDone() {
+        return state == DONE;
+    }
+
+    /**
+     * 结束任务（不影响子任务）
+     * 在 run() 之外调用时，任务不会再被唤醒
+     */
+    public final void cancel() {
+        if (scheduler != null && state != DONE) {
+            scheduler.finish(this);
+        }
+    }
+
+    // ========== 快照 ==========
+
+    /**
+     * 保存任务状态（调度相关字段由调度器保存）
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putInt(step);
+    }
+
+    /**
+     * 恢复任务状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        step = in.getInt();
+    }
+}
@@ -0,0 +1,479 @@
+package stg.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import stg.util.objectpool.ObjectFactories;
+
+/**
+ * 任务调度器
+ * 每个关卡、敌人和符卡各有一个，所属对象每帧调用一次 {@link #update()}，驱动它的脚本任务（{@link Task}）。
+ * <p>
+ * 等待若干帧的任务挂在按帧编号的时间轮上：轮子有 {@value #WHEEL_SIZE} 格，唤醒帧在
+ * {@value #WHEEL_SIZE} 帧以内的任务直接放进对应的格子，更远的放在溢出链表里，
+ * 每转一圈把快到期的移进格子。每帧只取出当前格子里的任务运行，
+ * 睡眠中的任务不会被逐帧检查，也不占用任何每帧开销；只有等待条件的任务需要每帧检查一次条件。
+ * <p>
+ * 同一帧内的运行顺序是确定的：先是到期的任务（按挂起的先后），再是条件成立的任务，
+ * 最后是本帧新启动的任务和子任务全部结束的父任务（按加入的先后）。
+ * 只能在游戏逻辑线程中使用。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public final class TaskScheduler implements Snapshotable {
+    /** 时间轮格数（2的幂） */
+    public static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /** 任务类名的 UTF-8 编码，保存快照时不再逐次编码 */
+    private static final ClassValue<byte[]> CLASS_NAMES = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return type.getName().getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    /** 所属对象，任务通过 getOwner() 获取 */
+    private final Object owner;
+    /** 已执行的帧数 */
+    private long frame;
+    /** 是否正在执行 update() */
+    private boolean updating;
+
+    /** 未结束的任务（按下标交换删除） */
+    private final ArrayList<Task<?>> tasks = new ArrayList<>();
+    /** 时间轮每一格的链表头和尾 */
+    private final Task<?>[] heads = new Task<?>[WHEEL_SIZE];
+    private final Task<?>[] tails = new Task<?>[WHEEL_SIZE];
+    /** 唤醒帧超出一圈的任务 */
+    private Task<?> overflowHead;
+    private Task<?> overflowTail;
+    /** 等待条件的任务 */
+    private final ArrayList<Task<?>> waitingConditions = new ArrayList<>();
+    /** 本帧待运行的任务 */
+    private final ArrayDeque<Task<?>> ready = new ArrayDeque<>();
+
+    /**
+     * 构造函数
+     * @param owner 所属对象（关卡、敌人或符卡）
+     */
+    public TaskScheduler(Object owner) {
+        this.owner = owner;
+    }
+
+    // ========== 启动与取消 ==========
+
+    /**
+     * 启动任务：在 update() 中调用时本帧运行，否则在下一次 update() 时运行
+     * @param <T> 任务类型
+     * @param task 任务（任务的所属对象类型应与本调度器的所属对象一致）
+     * @return 任务
+     */
+    public <T extends Task<?>> T start(T task) {
+        return start(task, null, 0);
+    }
+
+    /**
+     * 延迟若干帧后启动任务
+     * @param <T> 任务类型
+     * @param task 任务
+     * @param delay 从当前帧起的延迟帧数
+     * @return 任务
+     */
+    public <T extends Task<?>> T start(T task, int delay) {
+        return start(task, null, delay);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends Task<?>> T start(T task, Task<?> parent, int delay) {
+        if (task.scheduler != null) {
+            throw new IllegalStateException("Task already started: " + task.getClass().getName());
+        }
+        ((Task<Object>) task).owner = owner;
+        task.scheduler = this;
+        task.parent = parent;
+        if (parent != null) {
+            parent.liveChildren++;
+        }
+        task.index = tasks.size();
+        tasks.add(task);
+        if (delay <= 0 && updating) {
+            task.state = Task.READY;
+            ready.add(task);
+        } else {
+            task.state = Task.SLEEPING;
+            task.wakeFrame = frame + Math.max(delay, 1);
+            park(task);
+        }
+        return task;
+    }
+
+    /**
+     * 结束所有任务（不触发任何回调），帧数保留
+     */
+    public void cancelAll() {
+        for (int i = 0; i < tasks.size(); i++) {
+            Task<?> task = tasks.get(i);
+            task.state = Task.DONE;
+            task.condition = null;
+            task.parent = null;
+        }
+        tasks.clear();
+        Arrays.fill(heads, null);
+        Arrays.fill(tails, null);
+        overflowHead = null;
+        overflowTail = null;
+        waitingConditions.clear();
+        ready.clear();
+    }
+
+    /**
+     * 结束所有任务并把帧数归零（所属对象重置时调用）
+     */
+    public void clear() {
+        cancelAll();
+        frame = 0;
+    }
+
+    // ========== 每帧处理 ==========
+
+    /**
+     * 推进一帧：运行到期的任务、条件成立的任务和本帧启动的任务
+     */
+    public void update() {
+        frame++;
+        if (tasks.isEmpty()) {
+            return;
+        }
+        updating = true;
+        try {
+            if ((frame & WHEEL_MASK) == 0) {
+                cascadeOverflow();
+            }
+
+            // 当前格子里的任务都在本帧到期
+            int slot = (int) (frame & WHEEL_MASK);
+            Task<?> task = heads[slot];
+            heads[slot] = null;
+            tails[slot] = null;
+            while (task != null) {
+                Task<?> next = task.next;
+                task.next = null;
+                if (task.state == Task.SLEEPING) {
+                    if (task.wakeFrame == frame) {
+                        task.state = Task.READY;
+                        ready.add(task);
+                    } else {
+                        park(task);
+                    }
+                }
+                task = next;
+            }
+
+            // 检查等待条件的任务（原地压缩列表）
+            int kept = 0;
+            for (int i = 0; i < waitingConditions.size(); i++) {
+                Task<?> waiting = waitingConditions.get(i);
+                if (waiting.state != Task.WAITING_CONDITION) {
+                    continue;
+                }
+                if (waiting.condition.getAsBoolean()) {
+                    waiting.state = Task.READY;
+                    waiting.condition = null;
+                    ready.add(waiting);
+                } else {
+                    waitingConditions.set(kept++, waiting);
+                }
+            }
+            for (int i = waitingConditions.size() - 1; i >= kept; i--) {
+                waitingConditions.remove(i);
+            }
+
+            Task<?> next;
+            while ((next = ready.poll()) != null) {
+                run(next);
+            }
+        } finally {
+            updating = false;
+        }
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * 获取已执行的帧数
+     * @return 帧数
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * 获取未结束的任务数
+     * @return 任务数
+     */
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * 是否没有未结束的任务
+     * @return 是否空闲
+     */
+    public boolean isIdle() {
+        return tasks.isEmpty();
+    }
+
+    // ========== 快照 ==========
+
+    /**
+     * 保存帧数、所有未结束的任务（类名、调度状态和任务自己的状态）以及时间轮各格中的顺序
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putLong(frame);
+        out.putInt(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task<?> task = tasks.get(i);
+            byte[] name = CLASS_NAMES.get(task.getClass());
+            out.putShort((short) name.length);
+            out.put(name);
+            out.put((byte) task.state);
+            out.putLong(task.wakeFrame);
+            out.putInt(task.parent != null && task.parent.state != Task.DONE ? task.parent.index : -1);
+            out.putInt(task.liveChildren);
+            task.saveState(out);
+        }
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            putChain(out, heads[slot]);
+        }
+        putChain(out, overflowHead);
+        int countPosition = out.position();
+        out.putInt(0);
+        int count = 0;
+        for (int i = 0; i < waitingConditions.size(); i++) {
+            Task<?> task = waitingConditions.get(i);
+            if (task.state == Task.WAITING_CONDITION) {
+                out.putInt(task.index);
+                count++;
+            }
+        }
+        out.putInt(countPosition, count);
+        countPosition = out.position();
+        out.putInt(0);
+        count = 0;
+        if (!ready.isEmpty()) {
+            for (Task<?> task : ready) {
+                if (task.state != Task.DONE) {
+                    out.putInt(task.index);
+                    count++;
+                }
+            }
+        }
+        out.putInt(countPosition, count);
+    }
+
+    /**
+     * 恢复调度器：结束当前所有任务，按类名重新创建快照中的任务并读入状态
+     * @param in 状态数据
+     * @throws IllegalArgumentException 任务类不存在或无法用无参构造函数创建时抛出
+     * @throws IllegalStateException 等待条件的任务在 loadState 中没有重新设置条件时抛出
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void loadState(ByteBuffer in) {
+        cancelAll();
+        frame = in.getLong();
+        int count = in.getInt();
+        Task<?>[] loaded = new Task<?>[count];
+        int[] parents = new int[count];
+        for (int i = 0; i < count; i++) {
+            Task<?> task = instantiate(in);
+            ((Task<Object>) task).owner = owner;
+            task.scheduler = this;
+            int state = in.get();
+            task.wakeFrame = in.getLong();
+            parents[i] = in.getInt();
+            task.liveChildren = in.getInt();
+            task.loadState(in);
+            // 条件只能由任务在 loadState 中重新设置；没有设置时无法按原样继续，恢复后的运行会与原运行不一致
+            if (state == Task.WAITING_CONDITION && task.condition == null) {
+                throw new IllegalStateException("任务 " + task.getClass().getName()
+                    + " 在等待条件，但 loadState 没有重新调用 waitUntil");
+            } else if (state != Task.WAITING_CONDITION) {
+                task.condition = null;
+            }
+            task.state = state;
+            task.index = i;
+            tasks.add(task);
+            loaded[i] = task;
+        }
+        for (int i = 0; i < count; i++) {
+            loaded[i].parent = parents[i] >= 0 ? loaded[parents[i]] : null;
+        }
+        for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+            for (int n = in.getInt(); n > 0; n--) {
+                append(slot, loaded[in.getInt()]);
+            }
+        }
+        for (int n = in.getInt(); n > 0; n--) {
+            appendOverflow(loaded[in.getInt()]);
+        }
+        for (int n = in.getInt(); n > 0; n--) {
+            waitingConditions.add(loaded[in.getInt()]);
+        }
+        for (int n = in.getInt(); n > 0; n--) {
+            ready.add(loaded[in.getInt()]);
+        }
+    }
+
+    // ========== 内部方法 ==========
+
+    /**
+     * 运行一个任务，按 run() 返回时请求的等待方式挂起或结束
+     */
+    private void run(Task<?> task) {
+        if (task.state == Task.DONE) {
+            return;
+        }
+        task.state = Task.RUNNING;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("[TaskScheduler] 任务执行出错: " + task.getClass().getName() + ": " + e.getMessage());
+            e.printStackTrace();
+            if (task.state != Task.DONE) {
+                task.state = Task.RUNNING;
+            }
+        }
+        switch (task.state) {
+            case Task.RUNNING:
+                finish(task);
+                break;
+            case Task.SLEEPING:
+                park(task);
+                break;
+            case Task.WAITING_CONDITION:
+                waitingConditions.add(task);
+                break;
+            case Task.WAITING_CHILDREN:
+                if (task.liveChildren == 0) {
+                    task.state = Task.READY;
+                    ready.add(task);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 结束任务：移出任务列表，父任务在等待子任务且这是最后一个时唤醒父任务
+     * 任务可能还挂在时间轮或条件列表里，之后遇到时跳过
+     */
+    void finish(Task<?> task) {
+        if (task.state == Task.DONE) {
+            return;
+        }
+        task.state = Task.DONE;
+        task.condition = null;
+        int index = task.index;
+        int last = tasks.size() - 1;
+        if (index != last) {
+            Task<?> moved = tasks.get(last);
+            tasks.set(index, moved);
+            moved.index = index;
+        }
+        tasks.remove(last);
+        Task<?> parent = task.parent;
+        task.parent = null;
+        if (parent != null && parent.state != Task.DONE && --parent.liveChildren == 0
+                && parent.state == Task.WAITING_CHILDREN) {
+            parent.state = Task.READY;
+            ready.add(parent);
+        }
+    }
+
+    /**
+     * 把睡眠中的任务挂到时间轮（一圈以内）或溢出链表
+     */
+    private void park(Task<?> task) {
+        if (task.wakeFrame - frame < WHEEL_SIZE) {
+            append((int) (task.wakeFrame & WHEEL_MASK), task);
+        } else {
+            appendOverflow(task);
+        }
+    }
+
+    /**
+     * 每转一圈把一圈以内到期的溢出任务移进格子
+     */
+    private void cascadeOverflow() {
+        Task<?> task = overflowHead;
+        overflowHead = null;
+        overflowTail = null;
+        while (task != null) {
+            Task<?> next = task.next;
+            task.next = null;
+            if (task.state == Task.SLEEPING) {
+                park(task);
+            }
+            task = next;
+        }
+    }
+
+    private void append(int slot, Task<?> task) {
+        task.next = null;
+        if (tails[slot] == null) {
+            heads[slot] = task;
+        } else {
+            tails[slot].next = task;
+        }
+        tails[slot] = task;
+    }
+
+    private void appendOverflow(Task<?> task) {
+        task.next = null;
+        if (overflowTail == null) {
+            overflowHead = task;
+        } else {
+            overflowTail.next = task;
+        }
+        overflowTail = task;
+    }
+
+    /**
+     * 写入链表中仍在睡眠的任务下标
+     */
+    private static void putChain(ByteBuffer out, Task<?> head) {
+        int countPosition = out.position();
+        out.putInt(0);
+        int count = 0;
+        for (Task<?> task = head; task != null; task = task.next) {
+            if (task.state == Task.SLEEPING) {
+                out.putInt(task.index);
+                count++;
+            }
+        }
+        out.putInt(countPosition, count);
+    }
+
+    private static Task<?> instantiate(ByteBuffer in) {
+        byte[] name = new byte[in.getShort()];
+        in.get(name);
+        String className = new String(name, StandardCharsets.UTF_8);
+        try {
+            Class<?> type = Class.forName(className);
+            return (Task<?>) ObjectFactories.forClass(type).create();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("快照中的任务类不存在: " + className, e);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            throw new IllegalArgumentException("无法重新创建任务 " + className + "（需要公开的无参构造函数）", e);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package stg.core;
+
+import java.awt.Color;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import stg.entity.base.Obj;
+import stg.entity.bullet.Bullet;
+import stg.entity.enemy.Enemy;
+import stg.entity.laser.Laser;
+import stg.entity.player.Player;
+import stg.stage.StageGroup;
+import stg.util.math.GameRandom;
+import stg.util.objectpool.ObjectFactories;
+import stg.util.objectpool.ObjectPoolManager;
+
+/**
+ * 世界快照 - 把完整的模拟状态写入可复用的直接缓冲，并能原样恢复
+ * <p>
+ * 保存内容：本局步数、GameRandom 状态、玩家、关卡组（当前关卡、关卡帧数和关卡自己的状态）、
+ * GameWorld 的敌人/子弹/物品/激光列表（含 Boss 的阶段和符卡状态）以及 BulletField。
+ * 实体按 {@link Snapshotable} 各自写入字段，类名在每个快照中只写第一次，之后用编号引用。
+ * <p>
+ * 类名的 UTF-8 编码按类缓存，类编号表每次清空后复用，因此除了第一次遇到某个类和缓冲扩容之外，
+ * 保存过程不分配对象；缓冲不够时翻倍后重写。恢复时先把当前实体回收进对象池，
+ * 再按类从对象池取出（或构造）新实体并读入状态，BulletField 的旧句柄全部失效。
+ * 用于练习模式的即时存读档、重新开始和回放关键帧。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ * @date 2026-10-18 格式版本升为2，子弹场保存运动程序状态
+ * @date 2026-10-18 格式版本升为3，关卡、敌人和符卡保存任务调度器状态
+ * @date 2026-10-18 格式版本升为4，Elf 保存是否已发射生成时的子弹
+ * @date 2026-10-18 格式版本升为5，子弹场按键保存运动程序；添加数组整块读写工具
+ * @date 2026-10-18 格式版本升为6，玩家子弹按敌人列表下标保存上一次命中的敌人
+ * @date 2026-10-18 类名编码按类缓存；数组读写逐个元素进行，不再创建缓冲视图，保存过程不分配对象
+ * @date 2026-10-18 格式版本升为7，Boss保存入场终点
+ */
+public final class WorldSnapshot {
+    /** 魔数 'STGS' */
+    private static final int MAGIC = 0x53544753;
+    /** 格式版本（2：子弹场加入运动程序状态；3：关卡、敌人和符卡加入任务调度器状态；4：Elf 加入生成子弹标记；5：运动程序按键保存；
+     *  6：玩家子弹加入上一次命中的敌人；7：Boss加入入场终点），录像文件头记录关键帧使用的版本 */
+    public static final short VERSION = 7;
+    /** 默认初始缓冲大小 */
+    private static final int DEFAULT_CAPACITY = 256 * 1024;
+    /** 实体类名的 UTF-8 编码，保存快照时不再逐次编码 */
+    private static final ClassValue<byte[]> CLASS_NAMES = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return type.getName().getBytes(StandardCharsets.UTF_8);
+        }
+    };
+
+    /** 快照数据 */
+    private ByteBuffer buffer;
+    /** 是否已有快照 */
+    private boolean captured;
+    /** 写入时：类 -> 编号（每次写入前清空，表本身复用） */
+    private final IdentityHashMap<Class<?>, Integer> classIds = new IdentityHashMap<>();
+    /** 读取时：编号 -> 类 */
+    private final List<Class<?>> classTable = new ArrayList<>();
+
+    /**
+     * 构造函数 - 使用默认初始大小
+     */
+    public WorldSnapshot() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     * @param capacity 初始缓冲大小（字节），不够时自动翻倍
+     */
+    public WorldSnapshot(int capacity) {
+        buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * 保存当前模拟状态到内部缓冲，覆盖上一次的快照
+     * @param simulation 游戏模拟
+     */
+    public void capture(GameSimulation simulation) {
+        while (true) {
+            buffer.clear();
+            try {
+                write(simulation, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            }
+        }
+        buffer.flip();
+        captured = true;
+    }
+
+    /**
+     * 把模拟恢复到上一次 {@link #capture(GameSimulation)} 时的状态
+     * @param simulation 游戏模拟
+     * @return 没有快照时返回false
+     */
+    public boolean restore(GameSimulation simulation) {
+        if (!captured) {
+            return false;
+        }
+        read(simulation, buffer.duplicate());
+        return true;
+    }
+
+    /**
+     * 是否已有快照
+     * @return 是否已有快照
+     */
+    public boolean isCaptured() {
+        return captured;
+    }
+
+    /**
+     * 丢弃快照（缓冲保留复用）
+     */
+    public void clear() {
+        captured = false;
+    }
+
+    /**
+     * 获取快照数据的只读视图
+     * @return 快照数据，从位置0到快照末尾
+     */
+    public ByteBuffer getData() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * 获取快照大小
+     * @return 字节数，没有快照时为0
+     */
+    public int size() {
+        return captured ? buffer.limit() : 0;
+    }
+
+    /**
+     * 把模拟状态写入指定缓冲
+     * @param simulation 游戏模拟
+     * @param out 目标缓冲，从当前位置开始写入
+     * @throws BufferOverflowException 缓冲空间不足时抛出
+     */
+    public void write(GameSimulation simulation, ByteBuffer out) {
+        classIds.clear();
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putLong(simulation.getRunTick());
+        out.putLong(GameRandom.getInstance().getState());
+
+        Player player = simulation.getPlayer();
+        putBoolean(out, player != null);
+        if (player != null) {
+            player.saveState(out);
+        }
+        StageGroup stageGroup = simulation.getStageGroup();
+        putBoolean(out, stageGroup != null);
+        if (stageGroup != null) {
+            stageGroup.saveState(out);
+        }
+
+        GameWorld world = simulation.getGameWorld();
+        writeEntities(out, world.enemyList());
+        writeEntities(out, world.playerBulletList());
+        writeHitTargets(out, world.playerBulletList(), world.enemyList());
+        writeEntities(out, world.enemyBulletList());
+        writeEntities(out, world.itemList());
+        writeLasers(out, world.laserList());
+        world.getBulletField().saveState(out);
+    }
+
+    /**
+     * 从缓冲恢复模拟状态
+     * @param simulation 游戏模拟（需与保存时为同一关卡组和机体）
+     * @param in 由 {@link #write(GameSimulation, ByteBuffer)} 写入的数据
+     * @throws IllegalArgumentException 数据不是世界快照时抛出
+     */
+    public void read(GameSimulation simulation, ByteBuffer in) {
+        if (in.getInt() != MAGIC || in.getShort() != VERSION) {
+            throw new IllegalArgumentException("不是世界快照或版本不符");
+        }
+        classTable.clear();
+        simulation.setRunTick(in.getLong());
+        GameRandom.getInstance().setState(in.getLong());
+
+        Player player = simulation.getPlayer();
+        if (getBoolean(in)) {
+            if (player == null) {
+                throw new IllegalArgumentException("快照包含玩家，但当前模拟没有玩家");
+            }
+            player.loadState(in);
+        }
+        StageGroup stageGroup = simulation.getStageGroup();
+        if (getBoolean(in)) {
+            if (stageGroup == null) {
+                throw new IllegalArgumentException("快照包含关卡组，但当前模拟没有关卡组");
+            }
+            stageGroup.loadState(in);
+        }
+
+        GameWorld world = simulation.getGameWorld();
+        world.releaseAll();
+        readEntities(in, world.enemyList(), world);
+        readEntities(in, world.playerBulletList(), world);
+        readHitTargets(in, world.playerBulletList(), world.enemyList());
+        readEntities(in, world.enemyBulletList(), world);
+        readEntities(in, world.itemList(), world);
+        readLasers(in, world.laserList());
+        world.getBulletField().loadState(in);
+    }
+
+    // ========== 基本类型工具，供各实体的 saveState / loadState 使用 ==========
+
+    /**
+     * 写入布尔值
+     * @param out 目标缓冲
+     * @param value 布尔值
+     */
+    public static void putBoolean(ByteBuffer out, boolean value) {
+        out.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    /**
+     * 读取布尔值
+     * @param in 状态数据
+     * @return 布尔值
+     */
+    public static boolean getBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    /**
+     * 写入颜色（ARGB），null 也可写入
+     * @param out 目标缓冲
+     * @param color 颜色
+     */
+    public static void putColor(ByteBuffer out, Color color) {
+        putBoolean(out, color != null);
+        out.putInt(color != null ? color.getRGB() : 0);
+    }
+
+    /**
+     * 读取颜色，与当前颜色相同时不创建新对象
+     * @param in 状态数据
+     * @param current 当前颜色
+     * @return 颜色
+     */
+    public static Color getColor(ByteBuffer in, Color current) {
+        boolean present = getBoolean(in);
+        int argb = in.getInt();
+        if (!present) {
+            return null;
+        }
+        return current != null && current.getRGB() == argb ? current : new Color(argb, true);
+    }
+
+    /**
+     * 写入枚举（序号，null 为-1）
+     * @param out 目标缓冲
+     * @param value 枚举值
+     */
+    public static void putEnum(ByteBuffer out, Enum<?> value) {
+        out.put((byte) (value != null ? value.ordinal() : -1));
+    }
+
+    /**
+     * 读取枚举
+     * @param <E> 枚举类型
+     * @param in 状态数据
+     * @param values 枚举的全部取值
+     * @return 枚举值，写入时为null则返回null
+     */
+    public static <E extends Enum<E>> E getEnum(ByteBuffer in, E[] values) {
+        int ordinal = in.get();
+        return ordinal >= 0 ? values[ordinal] : null;
+    }
+
+    /**
+     * 写入 float 数组的前 n 个元素
+     * @param out 目标缓冲
+     * @param values 数组
+     * @param n 元素个数
+     */
+    public static void putFloats(ByteBuffer out, float[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            out.putFloat(values[i]);
+        }
+    }
+
+    /**
+     * 写入 int 数组的前 n 个元素
+     * @param out 目标缓冲
+     * @param values 数组
+     * @param n 元素个数
+     */
+    public static void putInts(ByteBuffer out, int[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            out.putInt(values[i]);
+        }
+    }
+
+    /**
+     * 读入 n 个 float 到数组开头
+     * @param in 状态数据
+     * @param values 数组，长度不小于 n
+     * @param n 元素个数
+     */
+    public static void getFloats(ByteBuffer in, float[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            values[i] = in.getFloat();
+        }
+    }
+
+    /**
+     * 读入 n 个 int 到数组开头
+     * @param in 状态数据
+     * @param values 数组，长度不小于 n
+     * @param n 元素个数
+     */
+    public static void getInts(ByteBuffer in, int[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            values[i] = in.getInt();
+        }
+    }
+
+    // ========== 实体列表 ==========
+
+    private void writeEntities(ByteBuffer out, EntityList<? extends Obj> list) {
+        int count = list.size();
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            Obj entity = list.get(i);
+            putClass(out, entity.getClass());
+            entity.saveState(out);
+        }
+    }
+
+    private void writeLasers(ByteBuffer out, EntityList<Laser> list) {
+        int count = list.size();
+        out.putInt(count);
+        for (int i = 0; i < count; i++) {
+            Laser laser = list.get(i);
+            putClass(out, laser.getClass());
+            laser.saveState(out);
+        }
+    }
+
+    /**
+     * 写入每颗子弹上一次命中的敌人在敌人列表中的下标，-1表示没有（或该敌人已不在列表中）
+     */
+    private static void writeHitTargets(ByteBuffer out, EntityList<Bullet> bullets, EntityList<Enemy> enemies) {
+        for (int i = 0, count = bullets.size(); i < count; i++) {
+            Obj target = bullets.get(i).getLastHitTarget();
+            int index = -1;
+            if (target != null) {
+                for (int e = 0, enemyCount = enemies.size(); e < enemyCount; e++) {
+                    if (enemies.get(e) == target) {
+                        index = e;
+                        break;
+                    }
+                }
+            }
+            out.putInt(index);
+        }
+    }
+
+    /**
+     * 按敌人列表下标重新关联每颗子弹上一次命中的敌人（敌人列表需已读入）
+     */
+    private static void readHitTargets(ByteBuffer in, EntityList<Bullet> bullets, EntityList<Enemy> enemies) {
+        for (int i = 0, count = bullets.size(); i < count; i++) {
+            int index = in.getInt();
+            bullets.get(i).setLastHitTarget(index >= 0 ? enemies.get(index) : null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Obj> void readEntities(ByteBuffer in, EntityList<T> list, GameWorld world) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Class<?> type = getClass(in);
+            T entity = (T) instantiate(type);
+            entity.loadState(in);
+            if (entity instanceof Enemy enemy) {
+                enemy.setGameWorld(world);
+            }
+            list.queueAdd(entity);
+        }
+        list.flush();
+    }
+
+    private void readLasers(ByteBuffer in, EntityList<Laser> list) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Laser laser = (Laser) ObjectFactories.forClass(getClass(in)).create();
+            laser.loadState(in);
+            list.queueAdd(laser);
+        }
+        list.flush();
+    }
+
+    private void putClass(ByteBuffer out, Class<?> type) {
+        Integer id = classIds.get(type);
+        if (id != null) {
+            out.putShort(id.shortValue());
+            return;
+        }
+        int newId = classIds.size();
+        classIds.put(type, newId);
+        out.putShort((short) newId);
+        byte[] name = CLASS_NAMES.get(type);
+        out.putShort((short) name.length);
+        out.put(name);
+    }
+
+    private Class<?> getClass(ByteBuffer in) {
+        int id = in.getShort();
+        if (id < classTable.size()) {
+            return classTable.get(id);
+        }
+        byte[] name = new byte[in.getShort()];
+        in.get(name);
+        String className = new String(name, StandardCharsets.UTF_8);
+        try {
+            Class<?> type = Class.forName(className);
+            classTable.add(type);
+            return type;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("快照中的类不存在: " + className, e);
+        }
+    }
+
+    /**
+     * 创建用于读入状态的实体：优先从对象池取出，否则用 {@link ObjectFactories} 的默认工厂创建
+     */
+    private static Object instantiate(Class<?> type) {
+        ObjectPoolManager poolManager = ObjectPoolManager.getInstance();
+        if (poolManager.hasPool(type)) {
+            try {
+                Obj pooled = (Obj) poolManager.acquire(type);
+                if (pooled != null) {
+                    pooled.reset();
+                    return pooled;
+                }
+            } catch (RuntimeException e) {
+                // 池的工厂无法构造该类，改用下面的构造方式
+            }
+        }
+        return ObjectFactories.forClass(type).create();
+    }
+}
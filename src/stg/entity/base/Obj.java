@@ -2,12 +2,17 @@ package stg.entity.base;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.nio.ByteBuffer;
 
+import stg.core.GameClock;
+import stg.core.Snapshotable;
+import stg.core.WorldSnapshot;
 import stg.render.IRenderable;
 import stg.render.IRenderer;
 import stg.util.BoundsUtil;
 import stg.util.CoordinateSystem;
 import stg.util.TextureUtil;
+import stg.util.objectpool.ObjectFactories;
 import stg.util.objectpool.ObjectPoolConfig;
 import stg.util.objectpool.ObjectPoolManager;
 
@@ -23,8 +28,11 @@ import stg.util.objectpool.ObjectPoolManager;
  * @date 2026-02-21 添加对象池支持
  * @date 2026-02-26 添加加载素材方法和纹理渲染支持
  * @date 2026-02-22 将对象池配置独立到 ObjectPoolConfig 类，支持@Pooled注解自动注册
+ * @date 2026-10-18 记录上一模拟步的位置，渲染时按 GameClock 插值
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复位置、速度、角度、帧计数和生命周期状态
+ * @date 2026-10-18 池外创建对象使用 ObjectFactories 缓存的构造函数句柄
  */
-public abstract class Obj implements IRenderable {
+public abstract class Obj implements IRenderable, Snapshotable {
     // 生命周期状态枚举
     public enum LifecycleState {
         CREATED,    // 已创建
@@ -35,6 +43,8 @@ public abstract class Obj implements IRenderable {
     
     protected float x; // X坐标
     protected float y; // Y坐标
+    protected float prevX; // 上一模拟步的X坐标（渲染插值用）
+    protected float prevY; // 上一模拟步的Y坐标（渲染插值用）
     protected float vx; // X方向速度
     protected float vy; // Y方向速度
     protected float size; // 物体大小
@@ -115,6 +125,8 @@ public abstract class Obj implements IRenderable {
     public Obj(float x, float y, float vx, float vy, float size, Color color) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
         this.vx = vx;
         this.vy = vy;
         this.size = size;
@@ -178,6 +190,30 @@ public abstract class Obj implements IRenderable {
         // 子类可以重写此方法实现自定义移动逻辑
     }
 
+    /**
+     * 记录当前位置为上一模拟步的位置，在每次模拟更新前以及加入游戏世界时调用
+     */
+    public void savePreviousPosition() {
+        prevX = x;
+        prevY = y;
+    }
+
+    /**
+     * 获取渲染用X坐标（在上一模拟步与当前步之间插值）
+     * @return 渲染X坐标
+     */
+    public float getRenderX() {
+        return GameClock.getInstance().interpolate(prevX, x);
+    }
+
+    /**
+     * 获取渲染用Y坐标（在上一模拟步与当前步之间插值）
+     * @return 渲染Y坐标
+     */
+    public float getRenderY() {
+        return GameClock.getInstance().interpolate(prevY, y);
+    }
+
     /**
      * 更新物体状态
      */
@@ -227,7 +263,7 @@ public abstract class Obj implements IRenderable {
         if (!active) return;
 
         requireCoordinateSystem();
-        float[] screenCoords = toScreenCoords(x, y);
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
 
@@ -245,7 +281,7 @@ public abstract class Obj implements IRenderable {
         if (!active) return;
 
         requireCoordinateSystem();
-        float[] screenCoords = toScreenCoords(x, y);
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
         float r = color.getRed() / 255.0f;
@@ -271,7 +307,7 @@ public abstract class Obj implements IRenderable {
         if (!active) return;
 
         requireCoordinateSystem();
-        float[] screenCoords = toScreenCoords(x, y);
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
         
@@ -372,6 +408,8 @@ public abstract class Obj implements IRenderable {
         this.frame = 0;
         this.x = 0;
         this.y = 0;
+        this.prevX = 0;
+        this.prevY = 0;
         this.vx = 0;
         this.vy = 0;
         this.angle = 0;
@@ -379,6 +417,50 @@ public abstract class Obj implements IRenderable {
         this.lifecycleState = LifecycleState.CREATED;
     }
     
+    /**
+     * 保存物体状态
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putFloat(x);
+        out.putFloat(y);
+        out.putFloat(prevX);
+        out.putFloat(prevY);
+        out.putFloat(vx);
+        out.putFloat(vy);
+        out.putFloat(size);
+        out.putFloat(hitboxRadius);
+        out.putFloat(angle);
+        out.putFloat(angularVelocity);
+        out.putInt(frame);
+        WorldSnapshot.putEnum(out, lifecycleState);
+        WorldSnapshot.putBoolean(out, active);
+        WorldSnapshot.putColor(out, color);
+    }
+    
+    /**
+     * 恢复物体状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        x = in.getFloat();
+        y = in.getFloat();
+        prevX = in.getFloat();
+        prevY = in.getFloat();
+        vx = in.getFloat();
+        vy = in.getFloat();
+        size = in.getFloat();
+        hitboxRadius = in.getFloat();
+        angle = in.getFloat();
+        angularVelocity = in.getFloat();
+        frame = in.getInt();
+        lifecycleState = WorldSnapshot.getEnum(in, LifecycleState.values());
+        active = WorldSnapshot.getBoolean(in);
+        color = WorldSnapshot.getColor(in, color);
+    }
+    
     /**
      * 销毁实体
      * 用于释放实体占用的资源
@@ -583,15 +665,9 @@ public abstract class Obj implements IRenderable {
     @SuppressWarnings("unchecked")
     private static <T extends Obj> T createNewInstance(Class<T> clazz, Object... args) {
         try {
-            for (java.lang.reflect.Constructor<?> constructor : clazz.getConstructors()) {
-                if (constructor.getParameterCount() == args.length) {
-                    T object = (T) constructor.newInstance(args);
-                    // 新创建的对象直接返回，不立即放入对象池
-                    // 对象会在 release() 时被回收
-                    return object;
-                }
-            }
-            throw new IllegalArgumentException("No suitable constructor found for " + clazz.getName());
+            // 构造函数句柄按类和参数个数缓存，不再逐次扫描构造函数
+            // 新创建的对象直接返回，不立即放入对象池，对象会在 release() 时被回收
+            return ObjectFactories.newInstance(clazz, args);
         } catch (Exception ex) {
             throw new RuntimeException("Failed to create object: " + ex.getMessage(), ex);
         }
@@ -2,7 +2,11 @@ package stg.entity.bullet;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 
+import stg.core.GameClock;
+import stg.core.WorldSnapshot;
 import stg.entity.base.Obj;
 import stg.util.objectpool.Pooled;
 import stg.util.objectpool.Resettable;
@@ -12,14 +16,35 @@ import stg.util.objectpool.Resettable;
  * @date 2026-01-19 使用中心原点坐标
  * @date 2026-02-20 支持对象池管理
  * @date 2026-03-10 完全重构，实现基本功能
+ * @date 2026-10-18 添加擦弹标记，保证每颗子弹只被擦一次
+ * @date 2026-10-18 添加匀速直线运动判定，供 GameWorld 把简单子弹展平进 BulletField
+ * @date 2026-10-18 寿命步长取自 GameClock.TICK_SECONDS
+ * @date 2026-10-18 保存和恢复子弹属性，精灵元素按精灵ID写入
+ * @date 2026-10-18 添加 setup()，从对象池取出后按构造函数的方式设置，供 BulletEmitter 使用
+ * @date 2026-10-18 记录穿透子弹上一次命中的目标，停留在同一目标上时不重复命中
  */
 @Pooled(initialCapacity = 100, maxCapacity = 500, name = "BulletPool")
 public class Bullet extends Obj implements Resettable, IBullet {
+    /** 记录每个子弹类是否保留了基类的运动逻辑（未重写 update/onUpdate/onMove） */
+    private static final ClassValue<Boolean> BASE_MOTION = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("update").getDeclaringClass() == Bullet.class
+                    && findMethod(type, "onUpdate").getDeclaringClass() == Bullet.class
+                    && findMethod(type, "onMove").getDeclaringClass() == Obj.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+    
     protected int damage = 0; // 子弹伤害，默认0
     protected float lifeTime = -1; // 生命周期（-1表示无限）
     protected float currentLifeTime = 0; // 当前生命周期
     protected boolean isPlayerBullet = false; // 是否为玩家子弹
     protected int pierceCount = 0; // 穿透次数（0表示不可穿透）
+    private Obj lastHitTarget; // 上一次命中的目标（穿透子弹不重复命中同一目标）
     protected int bounceCount = 0; // 反弹次数（0表示不可反弹）
     protected boolean homing = false; // 是否跟踪目标
     protected float homingStrength = 0.1f; // 跟踪强度
@@ -28,6 +53,7 @@ public class Bullet extends Obj implements Resettable, IBullet {
     protected float sizeMultiplier = 1.0f; // 大小倍率
     protected boolean hasTrail = false; // 是否有轨迹效果
     protected float trailLength = 10.0f; // 轨迹长度
+    protected boolean grazed = false; // 是否已被擦弹
     protected BulletSpriteSheet.BulletElement spriteElement; // 精灵元素
     protected BulletSpriteSheet.BulletType bulletType; // 子弹类型
     
@@ -65,6 +91,32 @@ public class Bullet extends Obj implements Resettable, IBullet {
         this.spriteElement = spriteElement;
         this.bulletType = bulletType;
     }
+    
+    /**
+     * 按构造函数的方式重新设置子弹，从对象池取出后使用，结果与
+     * {@code new Bullet(x, y, vx, vy, size, color)} 相同
+     * 子弹专有的属性（伤害、穿透等）在回收时已由 {@link #resetState()} 恢复默认值
+     * @param x X坐标
+     * @param y Y坐标
+     * @param vx X方向速度
+     * @param vy Y方向速度
+     * @param size 子弹大小
+     * @param color 子弹颜色
+     */
+    public void setup(float x, float y, float vx, float vy, float size, Color color) {
+        reset();
+        this.x = x;
+        this.y = y;
+        this.prevX = x;
+        this.prevY = y;
+        this.vx = vx;
+        this.vy = vy;
+        this.size = size;
+        this.color = color;
+        setHitboxRadius(size * 5.0f);
+        initBehavior();
+        init();
+    }
 
     // ========== 伤害相关 ==========
 
@@ -167,12 +219,23 @@ public class Bullet extends Obj implements Resettable, IBullet {
         updateLifeTime();
     }
 
+    /**
+     * 获取剩余生命周期
+     * @return 剩余生命周期，无限时返回-1
+     */
+    public float getRemainingLifeTime() {
+        if (lifeTime <= 0) {
+            return -1;
+        }
+        return Math.max(0, lifeTime - currentLifeTime);
+    }
+
     /**
      * 更新生命周期
      */
     protected void updateLifeTime() {
         if (lifeTime > 0) {
-            currentLifeTime += 0.0166667f; // 60FPS的时间增量，避免每次计算
+            currentLifeTime += GameClock.TICK_SECONDS; // 固定模拟步长
             if (currentLifeTime >= lifeTime) {
                 setActive(false);
             }
@@ -204,7 +267,7 @@ public class Bullet extends Obj implements Resettable, IBullet {
         if (!isCoordinateSystemInitialized()) return;
         
         // 优化：使用缓存的坐标转换
-        float[] screenCoords = toScreenCoords(getX(), getY());
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
         float renderSize = getSize() * sizeMultiplier;
@@ -288,6 +351,7 @@ public class Bullet extends Obj implements Resettable, IBullet {
         currentLifeTime = 0;
         isPlayerBullet = false;
         pierceCount = 0;
+        lastHitTarget = null;
         bounceCount = 0;
         homing = false;
         homingStrength = 0.1f;
@@ -296,10 +360,101 @@ public class Bullet extends Obj implements Resettable, IBullet {
         sizeMultiplier = 1.0f;
         hasTrail = false;
         trailLength = 10.0f;
+        grazed = false;
         spriteElement = null;
         bulletType = null;
     }
     
+    /**
+     * 保存子弹状态
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(damage);
+        out.putFloat(lifeTime);
+        out.putFloat(currentLifeTime);
+        out.putInt(pierceCount);
+        out.putInt(bounceCount);
+        out.putFloat(homingStrength);
+        out.putFloat(damageMultiplier);
+        out.putFloat(speedMultiplier);
+        out.putFloat(sizeMultiplier);
+        out.putFloat(trailLength);
+        WorldSnapshot.putBoolean(out, isPlayerBullet);
+        WorldSnapshot.putBoolean(out, homing);
+        WorldSnapshot.putBoolean(out, hasTrail);
+        WorldSnapshot.putBoolean(out, grazed);
+        out.putInt(spriteElement != null ? BulletSpriteSheet.getSpriteId(spriteElement) : -1);
+        WorldSnapshot.putEnum(out, bulletType);
+    }
+    
+    /**
+     * 恢复子弹状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        damage = in.getInt();
+        lifeTime = in.getFloat();
+        currentLifeTime = in.getFloat();
+        pierceCount = in.getInt();
+        bounceCount = in.getInt();
+        homingStrength = in.getFloat();
+        damageMultiplier = in.getFloat();
+        speedMultiplier = in.getFloat();
+        sizeMultiplier = in.getFloat();
+        trailLength = in.getFloat();
+        isPlayerBullet = WorldSnapshot.getBoolean(in);
+        homing = WorldSnapshot.getBoolean(in);
+        hasTrail = WorldSnapshot.getBoolean(in);
+        grazed = WorldSnapshot.getBoolean(in);
+        int spriteId = in.getInt();
+        spriteElement = spriteId >= 0 ? BulletSpriteSheet.getSpriteById(spriteId) : null;
+        bulletType = WorldSnapshot.getEnum(in, BulletSpriteSheet.BulletType.values());
+    }
+    
+    // ========== 运动类型判定 ==========
+    
+    /**
+     * 判断子弹是否只做匀速直线运动
+     * 满足条件的子弹可以被展平进 BulletField，由结构数组统一积分、碰撞和渲染。
+     * 子类重写了 update/onUpdate/onMove 时默认视为非直线运动；
+     * 如果重写的逻辑不改变直线运动（例如只固定速度分量），可以重写本方法返回 {@link #hasLinearState()}
+     * @return 是否为匀速直线运动
+     */
+    public boolean isLinearMotion() {
+        return BASE_MOTION.get(getClass()) && hasLinearState();
+    }
+    
+    /**
+     * 判断当前属性是否与匀速直线运动兼容（不跟踪、不反弹、无轨迹、不旋转）
+     * @return 是否兼容
+     */
+    protected final boolean hasLinearState() {
+        return !homing && bounceCount == 0 && !hasTrail && angularVelocity == 0;
+    }
+    
+    /**
+     * 沿继承链查找方法（包括非 public 方法）
+     * @param type 起始类
+     * @param name 方法名
+     * @return 最近一层声明的无参方法
+     * @throws NoSuchMethodException 找不到方法时抛出
+     */
+    private static Method findMethod(Class<?> type, String name) throws NoSuchMethodException {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredMethod(name);
+            } catch (NoSuchMethodException e) {
+                // 继续向父类查找
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+    
     // ========== 子弹属性相关方法 ==========
     
     /**
@@ -334,6 +489,22 @@ public class Bullet extends Obj implements Resettable, IBullet {
         this.pierceCount = pierceCount;
     }
     
+    /**
+     * 获取上一次命中的目标
+     * @return 目标，没有命中过时为null
+     */
+    public Obj getLastHitTarget() {
+        return lastHitTarget;
+    }
+    
+    /**
+     * 设置上一次命中的目标（由碰撞检测在穿透时调用，快照恢复时按敌人列表下标重新关联）
+     * @param lastHitTarget 目标
+     */
+    public void setLastHitTarget(Obj lastHitTarget) {
+        this.lastHitTarget = lastHitTarget;
+    }
+    
     /**
      * 获取反弹次数
      * @return 反弹次数
@@ -462,6 +633,22 @@ public class Bullet extends Obj implements Resettable, IBullet {
         this.trailLength = trailLength;
     }
     
+    /**
+     * 获取是否已被擦弹
+     * @return 是否已被擦弹
+     */
+    public boolean isGrazed() {
+        return grazed;
+    }
+    
+    /**
+     * 设置是否已被擦弹
+     * @param grazed 是否已被擦弹
+     */
+    public void setGrazed(boolean grazed) {
+        this.grazed = grazed;
+    }
+    
     // ========== 精灵相关方法 ==========
     
     /**
@@ -0,0 +1,137 @@
+package stg.entity.bullet;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+import stg.core.GameWorld;
+import stg.util.objectpool.ObjectPool;
+import stg.util.objectpool.ObjectPoolManager;
+
+/**
+ * 子弹发射器
+ * 每个游戏世界一个，敌人和Boss通过 {@code getBulletEmitter()} 获取。
+ * 子弹从对象池取出，用强类型的 {@link Bullet#setup} 设置（不经过 {@code Object...} 参数装箱），
+ * 先暂存在一轮齐射里，{@link #fire()} 时一次性加入游戏世界。
+ * <p>
+ * 用法：
+ * <pre>{@code
+ * BulletEmitter emitter = boss.getBulletEmitter();
+ * for (int i = 0; i < count; i++) {
+ *     emitter.emit(SimpleDownBullet.class, x, y, vx, vy, 6.0f, Color.ORANGE);
+ * }
+ * emitter.fire();
+ * }</pre>
+ * 没有调用 {@link #fire()} 的子弹会在游戏世界下一次执行命令缓冲时加入。
+ * 只能在游戏逻辑线程中使用。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class BulletEmitter {
+    /** 暂存数组的初始长度 */
+    private static final int INITIAL_VOLLEY_CAPACITY = 64;
+
+    /** 子弹加入的游戏世界 */
+    private final GameWorld world;
+    /** 本轮齐射暂存的子弹 */
+    private Bullet[] volley = new Bullet[INITIAL_VOLLEY_CAPACITY];
+    /** 本轮齐射的子弹数量 */
+    private int volleySize = 0;
+    /** 最近一次使用的子弹类型和对象池，连续发射同一种子弹时不再查表 */
+    private Class<?> lastType;
+    private ObjectPool<?> lastPool;
+
+    /**
+     * 构造函数
+     * @param world 子弹加入的游戏世界
+     */
+    public BulletEmitter(GameWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * 从对象池取出一颗子弹并设置，加入本轮齐射
+     * 返回的子弹可以继续调用伤害、寿命等setter，{@link #fire()} 之前不要保存引用
+     * @param <T> 子弹类型
+     * @param type 子弹类型
+     * @param x X坐标
+     * @param y Y坐标
+     * @param vx X方向速度
+     * @param vy Y方向速度
+     * @param size 子弹大小
+     * @param color 子弹颜色
+     * @return 设置好的子弹
+     */
+    public <T extends Bullet> T emit(Class<T> type, float x, float y, float vx, float vy, float size, Color color) {
+        T bullet = acquire(type);
+        bullet.setup(x, y, vx, vy, size, color);
+        if (volleySize == volley.length) {
+            volley = Arrays.copyOf(volley, volley.length * 2);
+        }
+        volley[volleySize++] = bullet;
+        return bullet;
+    }
+
+    /**
+     * 按角度和速率发射一颗子弹（角度为弧度，x轴正方向为0，逆时针为正）
+     * @param <T> 子弹类型
+     * @param type 子弹类型
+     * @param x X坐标
+     * @param y Y坐标
+     * @param angle 发射角度（弧度）
+     * @param speed 速率
+     * @param size 子弹大小
+     * @param color 子弹颜色
+     * @return 设置好的子弹
+     */
+    public <T extends Bullet> T emitPolar(Class<T> type, float x, float y, float angle, float speed,
+                                          float size, Color color) {
+        return emit(type, x, y, (float) (speed * Math.cos(angle)), (float) (speed * Math.sin(angle)), size, color);
+    }
+
+    /**
+     * 把本轮齐射的子弹一次性加入游戏世界的敌方子弹
+     * @return 加入的子弹数量
+     */
+    public int fire() {
+        int count = volleySize;
+        if (count == 0) {
+            return 0;
+        }
+        world.addEnemyBullets(volley, count);
+        Arrays.fill(volley, 0, count, null);
+        volleySize = 0;
+        return count;
+    }
+
+    /**
+     * 放弃本轮齐射，子弹回到对象池
+     */
+    public void cancel() {
+        ObjectPoolManager manager = ObjectPoolManager.getInstance();
+        for (int i = 0; i < volleySize; i++) {
+            manager.release(volley[i]);
+            volley[i] = null;
+        }
+        volleySize = 0;
+    }
+
+    /**
+     * 本轮齐射中尚未加入世界的子弹数量
+     * @return 子弹数量
+     */
+    public int getPendingCount() {
+        return volleySize;
+    }
+
+    /**
+     * 从对象池取出子弹（对象池不存在时创建）
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Bullet> T acquire(Class<T> type) {
+        if (type != lastType) {
+            lastPool = ObjectPoolManager.getInstance().getOrCreatePool(type);
+            lastType = type;
+        }
+        return ((ObjectPool<T>) lastPool).acquire();
+    }
+}
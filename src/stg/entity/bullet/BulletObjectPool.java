@@ -1,5 +1,6 @@
 package stg.entity.bullet;
 
+import stg.util.objectpool.ObjectFactories;
 import stg.util.objectpool.ObjectPoolManager;
 import stg.util.objectpool.Resettable;
 
@@ -44,24 +45,19 @@ public class BulletObjectPool {
             
             // 直接创建对象
             try {
-                // 查找匹配的构造函数
-                for (java.lang.reflect.Constructor<?> constructor : clazz.getConstructors()) {
-                    if (constructor.getParameterCount() == args.length) {
-                        T bullet = (T) constructor.newInstance(args);
-                        
-                        // 将新创建的对象添加到对象池中（如果对象池存在）
-                        try {
-                            ObjectPoolManager.getInstance().release(bullet);
-                            // 重新从对象池获取，这样可以确保对象被正确跟踪
-                            return ObjectPoolManager.getInstance().acquire(clazz);
-                        } catch (Exception e) {
-                            // 忽略异常，直接返回创建的对象
-                        }
-                        
-                        return bullet;
-                    }
+                // 使用按参数个数缓存的构造函数
+                T bullet = ObjectFactories.newInstance(clazz, args);
+                
+                // 将新创建的对象添加到对象池中（如果对象池存在）
+                try {
+                    ObjectPoolManager.getInstance().release(bullet);
+                    // 重新从对象池获取，这样可以确保对象被正确跟踪
+                    return ObjectPoolManager.getInstance().acquire(clazz);
+                } catch (Exception e) {
+                    // 忽略异常，直接返回创建的对象
                 }
-                throw new IllegalArgumentException("No suitable constructor found for " + clazz.getName());
+                
+                return bullet;
             } catch (Exception ex) {
                 throw new RuntimeException("Failed to create bullet: " + ex.getMessage(), ex);
             }
@@ -0,0 +1,287 @@
+package stg.entity.bullet;
+
+import java.awt.Color;
+
+import stg.core.BulletField;
+import stg.core.MotionProgram;
+import stg.util.math.GameRandom;
+
+/**
+ * 弹幕图案
+ * 每个游戏世界一个，敌人和Boss通过 {@code getBulletPattern()} 获取。
+ * 环形、扇形、螺旋、自机狙和随机锥形弹幕都在这里生成，整轮子弹直接写入游戏世界的子弹场
+ * （{@link BulletField}），不创建 Bullet 对象，每颗子弹也没有任何分配。
+ * <p>
+ * 方向取自预先计算的表：环形弹按子弹数缓存精确的单位向量，整轮只按起始角旋转一次；
+ * 扇形和随机弹的任意角度查 {@value #TABLE_SIZE} 项的正弦表（精度约0.09度）。
+ * 弹幕发射的开销集中在这个类里，优化和测量（{@code HeadlessRunner --bench-patterns}）都在这里做。
+ * <p>
+ * 用法：
+ * <pre>{@code
+ * BulletPattern pattern = boss.getBulletPattern();
+ * pattern.setStyle(7.0f, Color.RED);
+ * pattern.ring(boss.getX(), boss.getY(), 16, angle, 2.0f);
+ * }</pre>
+ * 外观（大小、精灵、颜色、寿命、运动程序）在下一次设置之前一直有效，不属于游戏状态，
+ * 每轮发射前都应重新设置。角度为弧度，x轴正方向为0，逆时针为正。只能在游戏逻辑线程中使用。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ * @date 2026-10-18 可为整轮子弹挂运动程序（MotionProgram）
+ */
+public class BulletPattern {
+    /** 正弦表长度（2的幂） */
+    public static final int TABLE_SIZE = 4096;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+    /** 弧度 → 表下标 */
+    private static final float INDEX_PER_RADIAN = (float) (TABLE_SIZE / (Math.PI * 2));
+    /** 余弦偏移：cos(a) = sin(a + π/2) */
+    private static final int COS_OFFSET = TABLE_SIZE / 4;
+    private static final float[] SIN = new float[TABLE_SIZE];
+    /** 缓存单位向量的最大环形子弹数，更多时改为查正弦表 */
+    private static final int MAX_CACHED_RING = 256;
+
+    static {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            SIN[i] = (float) Math.sin(i * Math.PI * 2 / TABLE_SIZE);
+        }
+    }
+
+    /** 子弹写入的子弹场 */
+    private final BulletField field;
+    /** 环形单位向量缓存，下标为子弹数，每项为 {cos0, sin0, cos1, sin1, ...} */
+    private final float[][] ringTables = new float[MAX_CACHED_RING + 1][];
+
+    // ========== 外观 ==========
+    private float size = 6.0f;
+    private int spriteId = BulletField.NO_SPRITE;
+    private int argb = 0xFFFFFFFF;
+    private float lifeTime = BulletField.INFINITE_LIFE;
+    private MotionProgram program;
+
+    /** 累计发射的子弹数 */
+    private long emittedCount;
+
+    /**
+     * 构造函数
+     * @param field 子弹写入的子弹场
+     */
+    public BulletPattern(BulletField field) {
+        this.field = field;
+    }
+
+    // ========== 外观设置 ==========
+
+    /**
+     * 设置之后发射的子弹外观
+     * @param size 绘制大小（直径）
+     * @param spriteId 精灵ID，无精灵时为 {@link BulletField#NO_SPRITE}
+     * @param argb 颜色（ARGB）
+     */
+    public void setStyle(float size, int spriteId, int argb) {
+        this.size = size;
+        this.spriteId = spriteId;
+        this.argb = argb;
+    }
+
+    /**
+     * 设置之后发射的子弹外观（无精灵，画成圆形）
+     * @param size 绘制大小（直径）
+     * @param color 颜色
+     */
+    public void setStyle(float size, Color color) {
+        setStyle(size, BulletField.NO_SPRITE, color != null ? color.getRGB() : 0xFFFFFFFF);
+    }
+
+    /**
+     * 设置之后发射的子弹寿命
+     * @param lifeTime 寿命（秒），{@link BulletField#INFINITE_LIFE} 表示无限
+     */
+    public void setLifeTime(float lifeTime) {
+        this.lifeTime = lifeTime;
+    }
+
+    /**
+     * 设置之后发射的子弹的运动程序
+     * @param program 运动程序，为null时子弹做匀速直线运动
+     */
+    public void setProgram(MotionProgram program) {
+        this.program = program;
+    }
+
+    // ========== 弹幕图案 ==========
+
+    /**
+     * 环形弹：count 颗子弹均匀分布在一圈上
+     * @param x 发射点X坐标
+     * @param y 发射点Y坐标
+     * @param count 子弹数
+     * @param angle 第一颗子弹的角度
+     * @param speed 速率
+     * @return 发射的子弹数
+     */
+    public int ring(float x, float y, int count, float angle, float speed) {
+        if (count <= 0) {
+            return 0;
+        }
+        if (count > MAX_CACHED_RING) {
+            return arc(x, y, count, angle, (float) (Math.PI * 2) / count, speed);
+        }
+        float[] table = ringTable(count);
+        // 整轮按起始角旋转一次：(c, s) × (cos, sin)
+        float rc = speed * cos(angle);
+        float rs = speed * sin(angle);
+        for (int i = 0, j = 0; i < count; i++, j += 2) {
+            float c = table[j];
+            float s = table[j + 1];
+            field.spawn(x, y, c * rc - s * rs, c * rs + s * rc, size, spriteId, argb, lifeTime, program);
+        }
+        emittedCount += count;
+        return count;
+    }
+
+    /**
+     * 扇形弹：count 颗子弹以 angle 为中心均匀分布在 spread 角度内
+     * @param x 发射点X坐标
+     * @param y 发射点Y坐标
+     * @param count 子弹数
+     * @param angle 中心角度
+     * @param spread 两端子弹之间的夹角
+     * @param speed 速率
+     * @return 发射的子弹数
+     */
+    public int fan(float x, float y, int count, float angle, float spread, float speed) {
+        if (count == 1) {
+            return arc(x, y, 1, angle, 0.0f, speed);
+        }
+        return arc(x, y, count, angle - spread * 0.5f, spread / (count - 1), speed);
+    }
+
+    /**
+     * 螺旋弹：arms 条旋臂的环形弹，起始角随帧数以 angularVelocity 旋转，每帧（或每隔几帧）调用一次
+     * @param x 发射点X坐标
+     * @param y 发射点Y坐标
+     * @param arms 旋臂数
+     * @param frame 当前帧数
+     * @param angle 第0帧时的起始角度
+     * @param angularVelocity 角速度（弧度/帧）
+     * @param speed 速率
+     * @return 发射的子弹数
+     */
+    public int spiral(float x, float y, int arms, int frame, float angle, float angularVelocity, float speed) {
+        return ring(x, y, arms, angle + frame * angularVelocity, speed);
+    }
+
+    /**
+     * 自机狙：以指向目标的方向为中心发射扇形弹，count 为1时正对目标
+     * @param x 发射点X坐标
+     * @param y 发射点Y坐标
+     * @param targetX 目标X坐标（通常为玩家）
+     * @param targetY 目标Y坐标
+     * @param count 子弹数
+     * @param spread 两端子弹之间的夹角
+     * @param speed 速率
+     * @return 发射的子弹数
+     */
+    public int aimed(float x, float y, float targetX, float targetY, int count, float spread, float speed) {
+        float angle = (float) Math.atan2(targetY - y, targetX - x);
+        return fan(x, y, count, angle, spread, speed);
+    }
+
+    /**
+     * 随机锥形弹：count 颗子弹的角度在 angle ± halfWidth 内、速率在 [minSpeed, maxSpeed] 内随机
+     * 随机数取自 {@link GameRandom}，回放时完全复现
+     * @param x 发射点X坐标
+     * @param y 发射点Y坐标
+     * @param count 子弹数
+     * @param angle 中心角度
+     * @param halfWidth 半角
+     * @param minSpeed 最小速率
+     * @param maxSpeed 最大速率
+     * @return 发射的子弹数
+     */
+    public int randomCone(float x, float y, int count, float angle, float halfWidth, float minSpeed, float maxSpeed) {
+        if (count <= 0) {
+            return 0;
+        }
+        GameRandom random = GameRandom.getInstance();
+        for (int i = 0; i < count; i++) {
+            int index = tableIndex(angle + random.randomRange(-halfWidth, halfWidth));
+            float speed = random.randomRange(minSpeed, maxSpeed);
+            field.spawn(x, y, speed * SIN[(index + COS_OFFSET) & TABLE_MASK], speed * SIN[index],
+                size, spriteId, argb, lifeTime, program);
+        }
+        emittedCount += count;
+        return count;
+    }
+
+    // ========== 统计 ==========
+
+    /**
+     * 累计发射的子弹数
+     * @return 子弹数
+     */
+    public long getEmittedCount() {
+        return emittedCount;
+    }
+
+    // ========== 查表 ==========
+
+    /**
+     * 查表求正弦
+     * @param angle 角度（弧度）
+     * @return 正弦值
+     */
+    public static float sin(float angle) {
+        return SIN[tableIndex(angle)];
+    }
+
+    /**
+     * 查表求余弦
+     * @param angle 角度（弧度）
+     * @return 余弦值
+     */
+    public static float cos(float angle) {
+        return SIN[(tableIndex(angle) + COS_OFFSET) & TABLE_MASK];
+    }
+
+    private static int tableIndex(float angle) {
+        return Math.round(angle * INDEX_PER_RADIAN) & TABLE_MASK;
+    }
+
+    /**
+     * 从 start 开始每隔 step 发射一颗
+     */
+    private int arc(float x, float y, int count, float start, float step, float speed) {
+        if (count <= 0) {
+            return 0;
+        }
+        // 在表下标空间里累加，每颗子弹省去一次乘法
+        float index = start * INDEX_PER_RADIAN;
+        float indexStep = step * INDEX_PER_RADIAN;
+        for (int i = 0; i < count; i++) {
+            int sinIndex = Math.round(index) & TABLE_MASK;
+            field.spawn(x, y, speed * SIN[(sinIndex + COS_OFFSET) & TABLE_MASK], speed * SIN[sinIndex],
+                size, spriteId, argb, lifeTime, program);
+            index += indexStep;
+        }
+        emittedCount += count;
+        return count;
+    }
+
+    /**
+     * 获取 count 颗子弹的环形单位向量（首次使用时计算）
+     */
+    private float[] ringTable(int count) {
+        float[] table = ringTables[count];
+        if (table == null) {
+            table = new float[count * 2];
+            for (int i = 0; i < count; i++) {
+                double a = Math.PI * 2 * i / count;
+                table[i * 2] = (float) Math.cos(a);
+                table[i * 2 + 1] = (float) Math.sin(a);
+            }
+            ringTables[count] = table;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,76 @@
+package stg.entity.bullet;
+
+import java.util.function.IntSupplier;
+
+import stg.core.BulletField;
+
+/**
+ * 弹幕图案性能测量
+ * 测量 {@link BulletPattern} 各种图案每颗子弹的发射耗时。子弹写入独立的子弹场，不影响游戏世界；
+ * 每轮写满固定数量的子弹后清空子弹场（清空不计时），先预热再计时。
+ * 由无头运行器的 {@code --bench-patterns} 调用，也可以直接运行本类。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public final class BulletPatternBench {
+    /** 每轮写入子弹场的子弹数 */
+    private static final int BULLETS_PER_ROUND = 4096;
+    /** 预热轮数 */
+    private static final int WARMUP_ROUNDS = 2000;
+    /** 计时轮数 */
+    private static final int ROUNDS = 2000;
+
+    private BulletPatternBench() {
+    }
+
+    /**
+     * 命令行入口
+     * @param args 不使用
+     */
+    public static void main(String[] args) {
+        run();
+    }
+
+    /**
+     * 依次测量各种图案，结果输出到标准输出
+     */
+    public static void run() {
+        BulletField field = new BulletField(BULLETS_PER_ROUND + 256);
+        BulletPattern pattern = new BulletPattern(field);
+        pattern.setStyle(8.0f, BulletField.NO_SPRITE, 0xFFFF0000);
+        int[] frame = new int[1];
+        measure("ring(32)", field, () -> pattern.ring(0.0f, 100.0f, 32, 0.3f, 2.0f));
+        measure("ring(300)", field, () -> pattern.ring(0.0f, 100.0f, 300, 0.3f, 2.0f));
+        measure("fan(7)", field, () -> pattern.fan(0.0f, 100.0f, 7, -1.5f, 0.8f, 3.0f));
+        measure("spiral(6)", field,
+            () -> pattern.spiral(0.0f, 100.0f, 6, frame[0]++, 0.0f, 0.07f, 2.5f));
+        measure("aimed(5)", field, () -> pattern.aimed(0.0f, 100.0f, 30.0f, -200.0f, 5, 0.4f, 4.0f));
+        measure("randomCone(16)", field,
+            () -> pattern.randomCone(0.0f, 100.0f, 16, -1.57f, 0.5f, 1.5f, 3.5f));
+    }
+
+    /**
+     * 测量一种图案
+     * @param name 输出的图案名称
+     * @param field 子弹场
+     * @param volley 发射一轮弹幕，返回写入的子弹数
+     */
+    private static void measure(String name, BulletField field, IntSupplier volley) {
+        long nanos = 0;
+        long bullets = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            field.clear();
+            long start = System.nanoTime();
+            int emitted = 0;
+            while (emitted < BULLETS_PER_ROUND) {
+                emitted += volley.getAsInt();
+            }
+            if (round >= WARMUP_ROUNDS) {
+                nanos += System.nanoTime() - start;
+                bullets += emitted;
+            }
+        }
+        System.out.printf("[BulletPatternBench] %-16s %6.2f 纳秒/颗%n", name, (double) nanos / bullets);
+    }
+}
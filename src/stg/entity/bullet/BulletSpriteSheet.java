@@ -1,13 +1,22 @@
 package stg.entity.bullet;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 子弹精灵图元素信息封装类
  * 用于管理bullet1.png精灵图的元素坐标和大小信息
+ * @date 2026-10-18 添加精灵ID注册表，供结构数组子弹场以整数引用精灵元素
+ * @date 2026-10-18 添加精灵图路径和归一化纹理坐标，配合纹理图集绘制
  */
 public class BulletSpriteSheet {
     // 精灵图基本信息
     public static final int SPRITE_SHEET_WIDTH = 256;
     public static final int SPRITE_SHEET_HEIGHT = 256;
+    /** 精灵图路径，启动时会被打包进纹理图集，GLRenderer.loadTexture 返回图集虚拟纹理ID */
+    public static final String SPRITE_SHEET_PATH = "resources/images/bullet1.png";
     
     // 元素大小常量
     public static final int SIZE_16x16 = 16;
@@ -98,6 +107,38 @@ public class BulletSpriteSheet {
         public BulletType getType() {
             return type;
         }
+        
+        /**
+         * 获取精灵图内归一化的纹理起始X坐标（0-1），可直接传给 drawImage
+         * @return 纹理起始X坐标
+         */
+        public float getTexX() {
+            return (float) x / SPRITE_SHEET_WIDTH;
+        }
+        
+        /**
+         * 获取精灵图内归一化的纹理起始Y坐标（0-1），可直接传给 drawImage
+         * @return 纹理起始Y坐标
+         */
+        public float getTexY() {
+            return (float) y / SPRITE_SHEET_HEIGHT;
+        }
+        
+        /**
+         * 获取精灵图内归一化的纹理宽度（0-1）
+         * @return 纹理宽度
+         */
+        public float getTexWidth() {
+            return (float) width / SPRITE_SHEET_WIDTH;
+        }
+        
+        /**
+         * 获取精灵图内归一化的纹理高度（0-1）
+         * @return 纹理高度
+         */
+        public float getTexHeight() {
+            return (float) height / SPRITE_SHEET_HEIGHT;
+        }
     }
     
     // 第1列：箭头形状子弹（16x16）
@@ -458,6 +499,58 @@ public class BulletSpriteSheet {
         }
     }
     
+    // ========== 精灵ID注册表 ==========
+    
+    private static final List<BulletElement> spriteTable = new ArrayList<>();
+    private static final Map<BulletElement, Integer> spriteIds = new IdentityHashMap<>();
+    
+    /**
+     * 获取精灵元素的整数ID
+     * 首次查询时按 getAllBulletElements() 的顺序登记内置元素，之后遇到的新元素追加在末尾
+     * @param element 精灵元素
+     * @return 精灵ID，element 为 null 时返回-1
+     */
+    public static synchronized int getSpriteId(BulletElement element) {
+        if (element == null) {
+            return -1;
+        }
+        if (spriteTable.isEmpty()) {
+            for (BulletElement[] group : getAllBulletElements()) {
+                for (BulletElement e : group) {
+                    registerSprite(e);
+                }
+            }
+        }
+        return registerSprite(element);
+    }
+    
+    /**
+     * 根据精灵ID获取精灵元素
+     * @param id 精灵ID
+     * @return 精灵元素，ID无效时返回null
+     */
+    public static synchronized BulletElement getSpriteById(int id) {
+        if (id < 0 || id >= spriteTable.size()) {
+            return null;
+        }
+        return spriteTable.get(id);
+    }
+    
+    /**
+     * 登记精灵元素
+     * @param element 精灵元素
+     * @return 精灵ID
+     */
+    private static int registerSprite(BulletElement element) {
+        Integer id = spriteIds.get(element);
+        if (id == null) {
+            id = spriteTable.size();
+            spriteTable.add(element);
+            spriteIds.put(element, id);
+        }
+        return id;
+    }
+    
     /**
      * 获取精灵图宽度
      * @return 精灵图宽度
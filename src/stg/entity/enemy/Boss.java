@@ -1,9 +1,12 @@
 package stg.entity.enemy;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
+import stg.core.Snapshotable;
+import stg.core.WorldSnapshot;
 import stg.render.IRenderable;
 import stg.render.IRenderer;
 
@@ -11,14 +14,21 @@ import stg.render.IRenderer;
  * Boss基类
  * 管理Boss的入场、退场和符卡系统
  * @since 2026-03-17
+ * @date 2026-10-18 符卡名颜色改为常量，每帧绘制血条不再分配数组
+ * @date 2026-10-18 从对象池取出时重置入场、符卡和阶段状态，避免沿用上一局的状态
+ * @date 2026-10-18 保存和恢复入场/退场进度、阶段和每张符卡的状态
+ * @date 2026-10-18 入场目标取入场第一帧的位置并保存，不再每帧把当前位置当作目标（原来会停在起点附近的屏幕外）
  */
 public abstract class Boss extends Enemy implements IBoss, IRenderable {
+    /** 符卡名文字颜色（白色） */
+    private static final float[] SPELLCARD_NAME_COLOR = {1.0f, 1.0f, 1.0f, 1.0f};
     protected List<ISpellcard> spellcards;
     protected ISpellcard currentSpellcard;
     protected int currentPhase;
     protected int maxPhase;
     protected BossState state;
     protected int enterFrameCount;
+    protected float enterTargetY; // 入场终点Y坐标（生成时的位置）
     protected int exitFrameCount;
     protected static final int ENTER_DURATION = 120; // 入场动画持续120帧
     protected static final int EXIT_DURATION = 90; // 退场动画持续90帧
@@ -51,6 +61,75 @@ public abstract class Boss extends Enemy implements IBoss, IRenderable {
         this.spriteTextureId = -1;
     }
     
+    /**
+     * 重置Boss状态（从对象池取出时调用），恢复到刚构造时的状态
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        this.spellcards.clear();
+        this.currentSpellcard = null;
+        this.currentPhase = 0;
+        this.maxPhase = 0;
+        this.state = BossState.ENTERING;
+        this.enterFrameCount = 0;
+        this.exitFrameCount = 0;
+    }
+    
+    /**
+     * 保存Boss状态，符卡按顺序各自写入（未实现 Snapshotable 的符卡只记录位置）
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(currentPhase);
+        out.putInt(maxPhase);
+        WorldSnapshot.putEnum(out, state);
+        out.putInt(enterFrameCount);
+        out.putFloat(enterTargetY);
+        out.putInt(exitFrameCount);
+        out.putInt(spellcards.size());
+        for (ISpellcard spellcard : spellcards) {
+            if (spellcard instanceof Snapshotable snapshotable) {
+                snapshotable.saveState(out);
+            }
+        }
+        out.putInt(currentSpellcard != null ? spellcards.indexOf(currentSpellcard) : -1);
+    }
+    
+    /**
+     * 恢复Boss状态，符卡列表为空时先调用 {@link #initSpellcards()} 重新创建符卡
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        currentPhase = in.getInt();
+        maxPhase = in.getInt();
+        state = WorldSnapshot.getEnum(in, BossState.values());
+        enterFrameCount = in.getInt();
+        enterTargetY = in.getFloat();
+        exitFrameCount = in.getInt();
+        int count = in.getInt();
+        if (spellcards.isEmpty() && count > 0) {
+            initSpellcards();
+        }
+        if (spellcards.size() != count) {
+            throw new IllegalStateException("符卡数量与快照不一致: " + spellcards.size() + " != " + count);
+        }
+        for (ISpellcard spellcard : spellcards) {
+            if (spellcard instanceof Snapshotable snapshotable) {
+                snapshotable.loadState(in);
+            }
+            if (spellcard instanceof Spellcard card) {
+                card.boss = this;
+            }
+        }
+        int current = in.getInt();
+        currentSpellcard = current >= 0 ? spellcards.get(current) : null;
+    }
+    
     /**
      * 初始化符卡
      * 由子类实现，添加所有符卡
@@ -104,7 +183,7 @@ public abstract class Boss extends Enemy implements IBoss, IRenderable {
         if (spriteTextureId != -1) {
             // 使用 IRenderer 接口的 drawImage 方法来渲染精灵图
             requireCoordinateSystem();
-            float[] screenCoords = toScreenCoords(getX(), getY());
+            float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
             float screenX = screenCoords[0];
             float screenY = screenCoords[1];
             float renderSize = getSize();
@@ -198,10 +277,13 @@ public abstract class Boss extends Enemy implements IBoss, IRenderable {
      * 更新入场逻辑
      */
     protected void updateEnterLogic() {
+        if (enterFrameCount == 0) {
+            enterTargetY = getY();
+        }
         enterFrameCount++;
         
-        // 入场动画：从屏幕上方可见位置移动到指定位置
-        float targetY = getY();
+        // 入场动画：从屏幕上方可见位置移动到生成时指定的位置
+        float targetY = enterTargetY;
         // 从游戏逻辑坐标系的顶部边界附近进入，确保可见
         requireCoordinateSystem();
         stg.util.CoordinateSystem cs = getSharedCoordinateSystem();
@@ -316,8 +398,7 @@ public abstract class Boss extends Enemy implements IBoss, IRenderable {
                 float fontSize = 12.0f;
                 float textX = barX;
                 float textY = barY - 5.0f;
-                float[] color = {1.0f, 1.0f, 1.0f, 1.0f}; // 白色
-                renderer.drawText(spellcardName, textX, textY, fontSize, color);
+                renderer.drawText(spellcardName, textX, textY, fontSize, SPELLCARD_NAME_COLOR);
             }
         }
     }
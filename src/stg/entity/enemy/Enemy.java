@@ -2,9 +2,15 @@ package stg.entity.enemy;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.nio.ByteBuffer;
 
 import stg.core.GameWorld;
+import stg.core.Task;
+import stg.core.TaskScheduler;
+import stg.core.WorldSnapshot;
 import stg.entity.base.Obj;
+import stg.entity.bullet.BulletEmitter;
+import stg.entity.bullet.BulletPattern;
 import stg.render.IRenderable;
 import stg.render.IRenderer;
 import stg.util.objectpool.Resettable;
@@ -14,11 +20,19 @@ import stg.util.objectpool.Resettable;
  * 所有敌人的基类
  * @date 2026-01-19
  * @date 2026-02-20 支持对象池管理
+ * @date 2026-10-18 渲染使用插值坐标
+ * @date 2026-10-18 保存和恢复生命值
+ * @date 2026-10-18 添加 getBulletEmitter()，发射池化子弹
+ * @date 2026-10-18 添加 getBulletPattern()，发射整轮弹幕
+ * @date 2026-10-18 添加任务调度器（startTask），由任务驱动 onTaskStart / onTaskEnd
+ * @date 2026-10-18 任何方式失效（击破、生命值归零、出界、销毁）和回收到对象池时都先结束任务并触发 onTaskEnd
  */
 public abstract class Enemy extends Obj implements Resettable, IRenderable {
 	protected int hp; // 生命值
 	protected int maxHp; // 最大生命值
 	protected GameWorld gameWorld; // 游戏世界引用
+	private TaskScheduler tasks; // 脚本任务，第一次 startTask 时创建
+	private boolean taskRunning; // 是否有任务在运行（已触发 onTaskStart）
 
 	public Enemy(int x, int y) {
 		this(x, y, 0, 0, 20, Color.BLUE, 10);
@@ -42,11 +56,32 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
 	public void update() {
 		super.update();
 
-		// 检查生命值
+		// 推进脚本任务，全部结束时触发 onTaskEnd（任务中让敌人失效时已由 setActive 触发）
+		if (taskRunning) {
+			tasks.update();
+			if (taskRunning && tasks.isIdle()) {
+				taskRunning = false;
+				onTaskEnd();
+			}
+		}
+
+		// 检查生命值（失效时由 setActive 结束任务）
 		if (hp <= 0) {
 			setActive(false);
 		}
 	}
+
+	/**
+	 * 设置激活状态，由激活变为失效时先结束所有任务（触发 onTaskEnd）
+	 * @param active 是否激活
+	 */
+	@Override
+	public void setActive(boolean active) {
+		if (!active && isActive()) {
+			cancelTasks();
+		}
+		super.setActive(active);
+	}
 	
 	/**
 	 * 更新敌人状态
@@ -67,7 +102,7 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
 	public void render(Graphics2D g) {
 		if (!isActive()) return;
 
-		float[] screenCoords = toScreenCoords(getX(), getY());
+		float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
 		float screenX = screenCoords[0];
 		float screenY = screenCoords[1];
 
@@ -87,7 +122,7 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
 
         // 转换为屏幕坐标
         requireCoordinateSystem();
-        float[] screenCoords = toScreenCoords(getX(), getY());
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
 
@@ -123,7 +158,7 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
 	protected void renderHealthBar(IRenderer renderer) {
 		// 转换为屏幕坐标
 		requireCoordinateSystem();
-		float[] screenCoords = toScreenCoords(getX(), getY());
+		float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
 		float screenX = screenCoords[0];
 		float screenY = screenCoords[1];
 		
@@ -172,11 +207,20 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
 		hp -= damage;
 		if (hp <= 0) {
 			hp = 0;
-			setActive(false);
+			setActive(false); // 同时结束任务，onTaskEnd 在 onDeath 之前触发
 			onDeath(); // 调用死亡回调
 		}
 	}
 
+	/**
+	 * 销毁时结束所有任务
+	 */
+	@Override
+	protected void onDestroy() {
+		cancelTasks();
+		super.onDestroy();
+	}
+
 	/**
 	 * 死亡回调 - 子类可重写
 	 * @since 2026-01-19 敌人死亡时触发
@@ -261,15 +305,127 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
 		return gameWorld;
 	}
 
+	/**
+	 * 获取所在游戏世界的子弹发射器
+	 * @return 子弹发射器，未加入游戏世界时为null
+	 */
+	public BulletEmitter getBulletEmitter() {
+		return gameWorld != null ? gameWorld.getBulletEmitter() : null;
+	}
+
+	/**
+	 * 获取所在游戏世界的弹幕图案
+	 * @return 弹幕图案，未加入游戏世界时为null
+	 */
+	public BulletPattern getBulletPattern() {
+		return gameWorld != null ? gameWorld.getBulletPattern() : null;
+	}
+
+	/**
+	 * 启动脚本任务，下一帧开始运行
+	 * 没有任务在运行时先触发 onTaskStart()，所有任务结束后触发 onTaskEnd()
+	 * @param task 任务
+	 */
+	public void startTask(Task<? extends Enemy> task) {
+		startTask(task, 0);
+	}
+
+	/**
+	 * 延迟若干帧后启动脚本任务
+	 * @param task 任务
+	 * @param delay 延迟帧数
+	 */
+	public void startTask(Task<? extends Enemy> task, int delay) {
+		if (tasks == null) {
+			tasks = new TaskScheduler(this);
+		}
+		tasks.start(task, delay);
+		if (!taskRunning) {
+			taskRunning = true;
+			onTaskStart();
+		}
+	}
+
+	/**
+	 * 结束所有脚本任务，有任务在运行时触发 onTaskEnd()
+	 * 敌人失效、销毁或回收到对象池时自动调用
+	 */
+	public void cancelTasks() {
+		if (tasks != null) {
+			tasks.cancelAll();
+		}
+		if (taskRunning) {
+			taskRunning = false;
+			onTaskEnd();
+		}
+	}
+
+	/**
+	 * 是否有脚本任务在运行
+	 * @return 是否有任务在运行
+	 */
+	public boolean hasRunningTasks() {
+		return taskRunning;
+	}
+
+	/**
+	 * 丢弃所有脚本任务并把任务帧数归零，不触发回调
+	 * 只在整个世界被丢弃时使用（例如恢复快照前），正常的失效和回收走 {@link #cancelTasks()}
+	 */
+	public void discardTasks() {
+		if (tasks != null) {
+			tasks.clear();
+		}
+		taskRunning = false;
+	}
+
 	/**
 	 * 重置敌人状态
 	 */
 	@Override
 	public void reset() {
+		cancelTasks();
+		discardTasks();
 		super.reset();
 		this.hp = maxHp;
 	}
 
+	/**
+	 * 保存敌人状态（游戏世界引用由 WorldSnapshot 在恢复时重新设置）
+	 * @param out 目标缓冲
+	 */
+	@Override
+	public void saveState(ByteBuffer out) {
+		super.saveState(out);
+		out.putInt(hp);
+		out.putInt(maxHp);
+		WorldSnapshot.putBoolean(out, tasks != null);
+		if (tasks != null) {
+			WorldSnapshot.putBoolean(out, taskRunning);
+			tasks.saveState(out);
+		}
+	}
+
+	/**
+	 * 恢复敌人状态
+	 * @param in 状态数据
+	 */
+	@Override
+	public void loadState(ByteBuffer in) {
+		super.loadState(in);
+		hp = in.getInt();
+		maxHp = in.getInt();
+		if (WorldSnapshot.getBoolean(in)) {
+			if (tasks == null) {
+				tasks = new TaskScheduler(this);
+			}
+			taskRunning = WorldSnapshot.getBoolean(in);
+			tasks.loadState(in);
+		} else {
+			discardTasks();
+		}
+	}
+
 	/**
 	 * 任务开始时触发的方法 - 用于处理开局对话等
 	 */
@@ -286,6 +442,9 @@ public abstract class Enemy extends Obj implements Resettable, IRenderable {
      */
     @Override
     public void resetState() {
+        // 回收时仍在运行的任务先结束（触发 onTaskEnd），再清空调度器
+        cancelTasks();
+        discardTasks();
         // 重置敌人的基本属性
         setActive(true);
         setX(0);
@@ -1,11 +1,20 @@
 package stg.entity.enemy;
 
+import java.nio.ByteBuffer;
+
+import stg.core.Snapshotable;
+import stg.core.Task;
+import stg.core.TaskScheduler;
+import stg.core.WorldSnapshot;
+
 /**
  * 敌方符卡基类
  * 用于定义Boss的攻击模式和阶段
  * @since 2026-02-14
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复激活状态、阶段、帧数和生命值
+ * @date 2026-10-18 添加任务调度器，符卡脚本可以写成任务（startTask），符卡结束时一起结束
  */
-public abstract class EnemySpellcard implements ISpellcard {
+public abstract class EnemySpellcard implements ISpellcard, Snapshotable {
     protected String name; // 符卡名称，空字符串表示非符卡阶段
     protected int phase; // 对应阶段
     protected IBoss boss; // 所属Boss
@@ -14,6 +23,7 @@ public abstract class EnemySpellcard implements ISpellcard {
     protected int currentFrame; // 当前帧数
     protected int hp; // 当前阶段生命值
     protected int maxHp; // 当前阶段最大生命值
+    private TaskScheduler tasks; // 符卡脚本任务，第一次用到时创建
     
     /**
      * 构造函数
@@ -55,6 +65,7 @@ public abstract class EnemySpellcard implements ISpellcard {
         this.active = true;
         this.currentFrame = 0;
         this.hp = maxHp; // 重置生命值
+        tasks().clear();
         onStart();
     }
     
@@ -70,6 +81,7 @@ public abstract class EnemySpellcard implements ISpellcard {
      */
     public void end() {
         this.active = false;
+        tasks().cancelAll();
         onEnd();
     }
     
@@ -88,6 +100,36 @@ public abstract class EnemySpellcard implements ISpellcard {
         }
         
         updateLogic();
+        tasks().update();
+    }
+    
+    /**
+     * 启动符卡脚本任务，下一帧开始运行
+     * @param task 任务
+     */
+    protected void startTask(Task<? extends EnemySpellcard> task) {
+        tasks().start(task);
+    }
+    
+    /**
+     * 延迟若干帧后启动符卡脚本任务（通常在 onStart 中调用）
+     * 调度器帧数与 currentFrame 同步，在 onStart 中传 n 表示第 n 帧开始
+     * @param task 任务
+     * @param delay 延迟帧数
+     */
+    protected void startTask(Task<? extends EnemySpellcard> task, int delay) {
+        tasks().start(task, delay);
+    }
+    
+    /**
+     * 获取符卡脚本任务调度器，第一次调用时创建（不在构造期间把 this 交给调度器）
+     * @return 任务调度器
+     */
+    private TaskScheduler tasks() {
+        if (tasks == null) {
+            tasks = new TaskScheduler(this);
+        }
+        return tasks;
     }
     
     /**
@@ -218,4 +260,34 @@ public abstract class EnemySpellcard implements ISpellcard {
     public boolean isDefeated() {
         return hp <= 0;
     }
-}
\ No newline at end of file
+
+    /**
+     * 保存符卡状态（名称和所属Boss由构造决定，不写入）
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        WorldSnapshot.putBoolean(out, active);
+        out.putInt(phase);
+        out.putInt(duration);
+        out.putInt(currentFrame);
+        out.putInt(hp);
+        out.putInt(maxHp);
+        tasks().saveState(out);
+    }
+    
+    /**
+     * 恢复符卡状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        active = WorldSnapshot.getBoolean(in);
+        phase = in.getInt();
+        duration = in.getInt();
+        currentFrame = in.getInt();
+        hp = in.getInt();
+        maxHp = in.getInt();
+        tasks().loadState(in);
+    }
+}
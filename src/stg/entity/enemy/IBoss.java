@@ -6,6 +6,8 @@ import stg.render.IRenderer;
  * Boss接口
  * 定义Boss的核心行为
  * @since 2026-03-17
+ * @date 2026-10-18 添加 getBulletEmitter()
+ * @date 2026-10-18 添加 getBulletPattern()
  */
 public interface IBoss {
     /**
@@ -76,6 +78,18 @@ public interface IBoss {
      */
     stg.core.GameWorld getGameWorld();
     
+    /**
+     * 获取子弹发射器
+     * @return 子弹发射器，未加入游戏世界时为null
+     */
+    stg.entity.bullet.BulletEmitter getBulletEmitter();
+    
+    /**
+     * 获取弹幕图案
+     * @return 弹幕图案，未加入游戏世界时为null
+     */
+    stg.entity.bullet.BulletPattern getBulletPattern();
+    
     /**
      * 设置X方向速度
      * @param vx X方向速度
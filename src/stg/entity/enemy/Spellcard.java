@@ -1,11 +1,17 @@
 package stg.entity.enemy;
 
+import java.nio.ByteBuffer;
+
+import stg.core.Snapshotable;
+import stg.core.WorldSnapshot;
+
 /**
  * 符卡基类
  * 实现 ISpellcard 接口，为具体符卡类提供基础功能
  * @since 2026-03-17
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复激活状态、帧数和生命值
  */
-public abstract class Spellcard implements ISpellcard {
+public abstract class Spellcard implements ISpellcard, Snapshotable {
     protected String name; // 符卡名称，空字符串表示非符卡阶段
     protected IBoss boss; // 所属Boss
     protected boolean active; // 是否激活
@@ -182,4 +188,30 @@ public abstract class Spellcard implements ISpellcard {
     public int getDuration() {
         return duration;
     }
+
+    /**
+     * 保存符卡状态（名称和所属Boss由构造决定，不写入）
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        WorldSnapshot.putBoolean(out, active);
+        out.putInt(duration);
+        out.putInt(currentFrame);
+        out.putInt(hp);
+        out.putInt(maxHp);
+    }
+    
+    /**
+     * 恢复符卡状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        active = WorldSnapshot.getBoolean(in);
+        duration = in.getInt();
+        currentFrame = in.getInt();
+        hp = in.getInt();
+        maxHp = in.getInt();
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package stg.entity.item;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.nio.ByteBuffer;
+
 import stg.entity.base.Obj;
 import stg.render.IRenderer;
 import stg.util.objectpool.Resettable;
@@ -14,6 +16,8 @@ import stg.util.objectpool.Resettable;
  * @author JavaSTG Team
  * @date 2026-02-17
  * @date 2026-02-20 支持对象池管理
+ * @date 2026-10-18 渲染使用插值坐标
+ * @date 2026-10-18 保存和恢复吸引参数
  */
 public abstract class Item extends Obj implements Resettable {
 	// 道具吸引参数
@@ -68,7 +72,7 @@ public abstract class Item extends Obj implements Resettable {
 	public void render(Graphics2D g) {
 		if (!isActive()) return;
 
-		float[] screenCoords = toScreenCoords(getX(), getY());
+		float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
 		float screenX = screenCoords[0];
 		float screenY = screenCoords[1];
 
@@ -155,5 +159,27 @@ public abstract class Item extends Obj implements Resettable {
         attractionDistance = 150.0f;
         attractionSpeed = 3.0f;
     }
+    
+	/**
+	 * 保存物品状态
+	 * @param out 目标缓冲
+	 */
+	@Override
+	public void saveState(ByteBuffer out) {
+		super.saveState(out);
+		out.putFloat(attractionDistance);
+		out.putFloat(attractionSpeed);
+	}
+	
+	/**
+	 * 恢复物品状态
+	 * @param in 状态数据
+	 */
+	@Override
+	public void loadState(ByteBuffer in) {
+		super.loadState(in);
+		attractionDistance = in.getFloat();
+		attractionSpeed = in.getFloat();
+	}
 }
 
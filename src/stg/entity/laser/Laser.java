@@ -4,14 +4,19 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.nio.ByteBuffer;
 
+import stg.core.Snapshotable;
+import stg.core.WorldSnapshot;
 import stg.render.IRenderer;
 
 /**
  * 激光基类- 所有激光的父类
  * @since 2026-01-21
+ * @date 2026-10-18 添加带半径的碰撞检测和擦弹标记，供敌弹碰撞检测使用
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复几何、预警和擦弹状态（贴图纹理ID不写入）
  */
-public abstract class Laser {
+public abstract class Laser implements Snapshotable {
 	protected float x; // 激光起点X坐标
 	protected float y; // 激光起点Y坐标
 	protected float angle; // 激光角度(弧度)
@@ -27,6 +32,7 @@ public abstract class Laser {
 	protected boolean active; // 激光是否激活(预警结束后)
 	protected boolean visible; // 激光是否可见
 	protected int damage; // 伤害值
+	protected boolean grazed; // 是否已被擦弹
 	/**
 	 * 构造函数
 	 * @param x 起点X坐标
@@ -257,6 +263,18 @@ public abstract class Laser {
 		return pointToLineDistance(px, py, x, y, angle, length) < width / 2.0f;
 	}
 
+	/**
+	 * 检查圆是否与激光碰撞体相交
+	 * @param px 圆心X坐标
+	 * @param py 圆心Y坐标
+	 * @param radius 圆半径
+	 * @return 是否碰撞
+	 */
+	public boolean checkCollision(float px, float py, float radius) {
+		if (!active || !visible) return false;
+		return pointToLineDistance(px, py, x, y, angle, length) < width / 2.0f + radius;
+	}
+
 	/**
 	 * 检查激光是否超出边界
 	 * @param width 画布宽度
@@ -331,6 +349,8 @@ public abstract class Laser {
 	public void setWarningTime(int warningTime) { this.warningTime = warningTime; }
 	public void setVisible(boolean visible) { this.visible = visible; }
 	public void setDamage(int damage) { this.damage = damage; }
+	public boolean isGrazed() { return grazed; }
+	public void setGrazed(boolean grazed) { this.grazed = grazed; }
 
 	/**
 	 * 重置激光状态
@@ -340,9 +360,54 @@ public abstract class Laser {
 		warningTimer = warningTime;
 		active = false;
 		visible = true;
+		grazed = false;
 		initBehavior();
 	}
 
+	/**
+	 * 保存激光状态
+	 * @param out 目标缓冲
+	 */
+	@Override
+	public void saveState(ByteBuffer out) {
+		out.putFloat(x);
+		out.putFloat(y);
+		out.putFloat(angle);
+		out.putFloat(length);
+		out.putFloat(width);
+		out.putInt(warningTime);
+		out.putInt(warningTimer);
+		out.putInt(damage);
+		WorldSnapshot.putBoolean(out, warningOnly);
+		WorldSnapshot.putBoolean(out, active);
+		WorldSnapshot.putBoolean(out, visible);
+		WorldSnapshot.putBoolean(out, grazed);
+		WorldSnapshot.putEnum(out, laserColor);
+		WorldSnapshot.putColor(out, color);
+	}
+
+	/**
+	 * 恢复激光状态
+	 * @param in 状态数据
+	 */
+	@Override
+	public void loadState(ByteBuffer in) {
+		x = in.getFloat();
+		y = in.getFloat();
+		angle = in.getFloat();
+		length = in.getFloat();
+		width = in.getFloat();
+		warningTime = in.getInt();
+		warningTimer = in.getInt();
+		damage = in.getInt();
+		warningOnly = WorldSnapshot.getBoolean(in);
+		active = WorldSnapshot.getBoolean(in);
+		visible = WorldSnapshot.getBoolean(in);
+		grazed = WorldSnapshot.getBoolean(in);
+		laserColor = WorldSnapshot.getEnum(in, LaserColor.values());
+		color = WorldSnapshot.getColor(in, color);
+	}
+
 
 
 	/**
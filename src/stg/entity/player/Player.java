@@ -1,8 +1,12 @@
 package stg.entity.player;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
 
 import stg.base.KeyStateProvider;
+import stg.core.GameClock;
+import stg.core.Snapshotable;
+import stg.core.WorldSnapshot;
 import stg.render.IRenderable;
 import stg.render.IRenderer;
 import stg.util.CoordinateSystem;
@@ -10,16 +14,22 @@ import stg.util.CoordinateSystem;
 /**
  * 玩家类- 自机角色
  * @since 2026-03-07
+ * @date 2026-10-18 添加擦弹半径和被弹判定状态查询，供敌弹碰撞检测使用
+ * @date 2026-10-18 记录上一模拟步的位置，渲染时按 GameClock 插值
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复位置、射击、重生、无敌、残机和符卡状态
  */
-public class Player implements IRenderable {
+public class Player implements IRenderable, Snapshotable {
     // 基本属性
     private float x; // X坐标
     private float y; // Y坐标
+    private float prevX; // 上一模拟步的X坐标（渲染插值用）
+    private float prevY; // 上一模拟步的Y坐标（渲染插值用）
     private float vx; // X方向速度
     private float vy; // Y方向速度
     private float size; // 物体大小
     private Color color; // 物体颜色
     private float hitboxRadius; // 碰撞判定半径
+    private float grazeRadius; // 擦弹判定半径
     private boolean active; // 激活状态
     // private int frame; // 帧计数器 - 暂时未使用
     
@@ -38,6 +48,7 @@ public class Player implements IRenderable {
     private static final float RESPAWN_SPEED = 8.0f; // 重生移动速度
     private int invincibleTimer; // 无敌时间计时(帧数)
     private static final int INVINCIBLE_TIME = 120; // 无敌时间(120f)
+    private static final float DEFAULT_GRAZE_RADIUS = 16.0f; // 默认擦弹半径
     protected static final int BULLET_DAMAGE = 2; // 子弹伤害，DPS = (2 × 2 × 60) / 2 = 120
     private KeyStateProvider keyStateProvider; // 按键状态提供者
     private static CoordinateSystem sharedCoordinateSystem; // 共享坐标系统
@@ -77,11 +88,14 @@ public class Player implements IRenderable {
     public Player(float x, float y, float speed, float speedSlow, float size) {
         this.x = x;
         this.y = y;
+        this.prevX = x;
+        this.prevY = y;
         this.vx = 0;
         this.vy = 0;
         this.size = size;
         this.color = new Color(255, 100, 100);
         this.hitboxRadius = 2.0f;
+        this.grazeRadius = DEFAULT_GRAZE_RADIUS;
         this.active = true;
         // this.frame = 0; // 帧计数器暂时未使用
         this.speed = speed;
@@ -218,6 +232,30 @@ public class Player implements IRenderable {
         return y;
     }
     
+    /**
+     * 记录当前位置为上一模拟步的位置，在每次模拟更新前调用
+     */
+    public void savePreviousPosition() {
+        prevX = x;
+        prevY = y;
+    }
+    
+    /**
+     * 获取渲染用X坐标（在上一模拟步与当前步之间插值）
+     * @return 渲染X坐标
+     */
+    public float getRenderX() {
+        return GameClock.getInstance().interpolate(prevX, x);
+    }
+    
+    /**
+     * 获取渲染用Y坐标（在上一模拟步与当前步之间插值）
+     * @return 渲染Y坐标
+     */
+    public float getRenderY() {
+        return GameClock.getInstance().interpolate(prevY, y);
+    }
+    
     /**
      * 设置X坐标
      * @param x X坐标
@@ -274,6 +312,22 @@ public class Player implements IRenderable {
         return hitboxRadius;
     }
     
+    /**
+     * 获取擦弹判定半径
+     * @return 擦弹判定半径
+     */
+    public float getGrazeRadius() {
+        return grazeRadius;
+    }
+    
+    /**
+     * 设置擦弹判定半径
+     * @param grazeRadius 擦弹判定半径
+     */
+    public void setGrazeRadius(float grazeRadius) {
+        this.grazeRadius = grazeRadius;
+    }
+    
     /**
      * 获取物体大小
      * @return 物体大小
@@ -489,7 +543,7 @@ public class Player implements IRenderable {
 
         // 转换为屏幕坐标
         if (isCoordinateSystemInitialized()) {
-            float[] screenCoords = toScreenCoords(getX(), getY());
+            float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
             float screenX = screenCoords[0];
             float screenY = screenCoords[1];
 
@@ -713,6 +767,72 @@ public class Player implements IRenderable {
         this.currentLives = maxLives;
         this.currentSpellCards = maxSpellCards;
     }
+    
+    /**
+     * 保存玩家状态（按键状态提供者不写入）
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putFloat(x);
+        out.putFloat(y);
+        out.putFloat(prevX);
+        out.putFloat(prevY);
+        out.putFloat(vx);
+        out.putFloat(vy);
+        out.putFloat(size);
+        out.putFloat(hitboxRadius);
+        out.putFloat(grazeRadius);
+        out.putFloat(speed);
+        out.putFloat(speedSlow);
+        out.putFloat(spawnX);
+        out.putFloat(spawnY);
+        out.putInt(shootCooldown);
+        out.putInt(respawnTimer);
+        out.putInt(invincibleTimer);
+        out.putInt(maxLives);
+        out.putInt(currentLives);
+        out.putInt(maxSpellCards);
+        out.putInt(currentSpellCards);
+        WorldSnapshot.putBoolean(out, active);
+        WorldSnapshot.putBoolean(out, slowMode);
+        WorldSnapshot.putBoolean(out, shooting);
+        WorldSnapshot.putBoolean(out, respawning);
+        WorldSnapshot.putColor(out, color);
+    }
+    
+    /**
+     * 恢复玩家状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        x = in.getFloat();
+        y = in.getFloat();
+        prevX = in.getFloat();
+        prevY = in.getFloat();
+        vx = in.getFloat();
+        vy = in.getFloat();
+        size = in.getFloat();
+        hitboxRadius = in.getFloat();
+        grazeRadius = in.getFloat();
+        speed = in.getFloat();
+        speedSlow = in.getFloat();
+        spawnX = in.getFloat();
+        spawnY = in.getFloat();
+        shootCooldown = in.getInt();
+        respawnTimer = in.getInt();
+        invincibleTimer = in.getInt();
+        maxLives = in.getInt();
+        currentLives = in.getInt();
+        maxSpellCards = in.getInt();
+        currentSpellCards = in.getInt();
+        active = WorldSnapshot.getBoolean(in);
+        slowMode = WorldSnapshot.getBoolean(in);
+        shooting = WorldSnapshot.getBoolean(in);
+        respawning = WorldSnapshot.getBoolean(in);
+        color = WorldSnapshot.getColor(in, color);
+    }
 
     /**
      * 检查玩家是否处于无敌状态
@@ -722,6 +842,22 @@ public class Player implements IRenderable {
         return invincibleTimer > 0;
     }
 
+    /**
+     * 检查玩家是否处于被弹后的重生流程中（等待或入场动画）
+     * @return 是否正在重生
+     */
+    public boolean isRespawning() {
+        return respawning || respawnTimer > 0;
+    }
+
+    /**
+     * 检查玩家当前是否可以被击中
+     * @return 激活且不在无敌和重生流程中时返回true
+     */
+    public boolean isVulnerable() {
+        return active && !isInvincible() && !isRespawning();
+    }
+
     /**
      * 获取无敌计时器剩余帧数
      * @return 无敌剩余帧数
@@ -0,0 +1,38 @@
+package stg.event;
+
+import stg.entity.player.Player;
+
+/**
+ * 擦弹事件
+ * 当敌方子弹或激光进入玩家擦弹范围但未命中判定点时触发，每个来源只触发一次
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class GrazeEvent {
+    private final Player player;
+    private final Object source;
+    
+    /**
+     * 构造函数
+     * @param player 擦弹的玩家
+     * @param source 被擦的子弹、激光，或展平子弹所在的 BulletField
+     */
+    public GrazeEvent(Player player, Object source) {
+        this.player = player;
+        this.source = source;
+    }
+    
+    /**
+     * 获取玩家
+     */
+    public Player getPlayer() {
+        return player;
+    }
+    
+    /**
+     * 获取擦弹来源
+     */
+    public Object getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,38 @@
+package stg.event;
+
+import stg.entity.player.Player;
+
+/**
+ * 玩家被弹事件
+ * 当敌方子弹或激光命中玩家判定点时触发
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class PlayerHitEvent {
+    private final Player player;
+    private final Object source;
+    
+    /**
+     * 构造函数
+     * @param player 被命中的玩家
+     * @param source 命中来源（子弹、激光，或展平子弹所在的 BulletField）
+     */
+    public PlayerHitEvent(Player player, Object source) {
+        this.player = player;
+        this.source = source;
+    }
+    
+    /**
+     * 获取玩家
+     */
+    public Player getPlayer() {
+        return player;
+    }
+    
+    /**
+     * 获取命中来源
+     */
+    public Object getSource() {
+        return source;
+    }
+}
@@ -9,6 +9,17 @@ import org.lwjgl.stb.STBImage;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
+/**
+ * OpenGL 渲染器
+ * @date 2026-10-18 矩形、线条、圆形和图片改为通过 SpriteBatch 批量提交，
+ *       只在纹理或混合状态变化以及帧结束时发起绘制调用
+ * @date 2026-10-18 GL 状态改由 GLStateCache 管理，跳过重复的状态调用，视口尺寸不变时不再重建投影
+ * @date 2026-10-18 初始化时构建 TextureAtlas，loadTexture 对已打包的精灵表返回图集虚拟纹理ID，
+ *       drawImage 把原精灵表的纹理坐标换算到图集页面
+ * @date 2026-10-18 文本改由字形图集提供，与其他图形一起批量提交，不再打断批次
+ * @date 2026-10-18 drawText 复用颜色数组，重复文本通过排版缓存绘制，不再分配对象
+ * @date 2026-10-18 添加 drawSprite：OpenGL 3.3 可用时走实例化路径，否则在 SpriteBatch 中按朝向旋转四边形
+ */
 public class GLRenderer implements IRenderer {
 	/** 窗口宽度 */
 	private int width;
@@ -18,6 +29,14 @@ public class GLRenderer implements IRenderer {
 	private boolean initialized = false;
 	/** 纹理ID列表，用于管理和释放纹理 */
 	private List<Integer> textureIds;
+	/** GL 状态缓存 */
+	private final GLStateCache state = new GLStateCache();
+	/** 精灵批处理器 */
+	private final SpriteBatch batch = new SpriteBatch(state);
+	/** 实例化精灵渲染器（OpenGL 3.3，不支持时不可用） */
+	private final InstancedSpriteRenderer instanced = new InstancedSpriteRenderer(state);
+	/** 文本颜色（复用，避免每次绘制文本都分配数组） */
+	private final float[] textColor = new float[4];
 
 	/**
 	 * 构造函数
@@ -71,29 +90,32 @@ public class GLRenderer implements IRenderer {
 		this.width = width;
 		this.height = height;
 		
-		GL11.glEnable(GL11.GL_BLEND);
+		state.invalidate();
+		state.invalidateViewport();
+		
+		state.setEnabled(GL11.GL_BLEND, true);
 		checkGLError("启用混合模式");
 		
-		GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+		state.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 		checkGLError("设置混合函数");
 		
 		GL11.glDisable(GL11.GL_DEPTH_TEST);
 		checkGLError("禁用深度测试");
 		
-		GL11.glMatrixMode(GL11.GL_PROJECTION);
-		checkGLError("设置投影矩阵模式");
+		state.ortho(width, height);
+		checkGLError("设置正交投影");
 		
-		GL11.glLoadIdentity();
-		checkGLError("重置投影矩阵");
+		batch.initialize();
+		checkGLError("初始化精灵批处理器");
 		
-		GL11.glOrtho(0, width, 0, height, -1, 1);
-		checkGLError("设置正交投影");
+		instanced.initialize();
+		checkGLError("初始化实例化精灵渲染器");
 		
-		GL11.glMatrixMode(GL11.GL_MODELVIEW);
-		checkGLError("设置模型视图矩阵模式");
+		TextureAtlas.getInstance().build(state);
+		checkGLError("构建纹理图集");
 		
-		GL11.glLoadIdentity();
-		checkGLError("重置模型视图矩阵");
+		STBFontRenderer.getInstance().prewarm(state);
+		checkGLError("预热字形图集");
 		
 		initialized = true;
 	}
@@ -103,6 +125,10 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void beginFrame() {
+		batch.resetFrameStats();
+		instanced.resetFrameStats();
+		// 纹理可能在帧之间被其他代码直接绑定（如 TextureUtil 加载素材）
+		state.invalidateTexture();
 		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
 		checkGLError("开始帧");
 	}
@@ -112,8 +138,11 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void endFrame() {
+		instanced.flush();
+		batch.flush();
 		GL11.glFlush();
 		checkGLError("结束帧");
+		state.endFrameStats();
 	}
 	
 	/**
@@ -125,18 +154,11 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void setViewport(int x, int y, int width, int height) {
-		GL11.glViewport(x, y, width, height);
-		checkGLError("设置视口");
-		GL11.glMatrixMode(GL11.GL_PROJECTION);
-		checkGLError("设置投影矩阵模式");
-		GL11.glLoadIdentity();
-		checkGLError("重置投影矩阵");
-		GL11.glOrtho(0, width, 0, height, -1, 1);
-		checkGLError("设置正交投影");
-		GL11.glMatrixMode(GL11.GL_MODELVIEW);
-		checkGLError("设置模型视图矩阵模式");
-		GL11.glLoadIdentity();
-		checkGLError("重置模型视图矩阵");
+		instanced.flush();
+		batch.flush();
+		state.viewport(x, y, width, height);
+		// 投影尺寸与上一次相同时不再重建
+		state.ortho(width, height);
 	}
 	
 	/**
@@ -148,6 +170,8 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void clear(float r, float g, float b, float a) {
+		instanced.flush();
+		batch.flush();
 		GL11.glClearColor(r, g, b, a);
 		checkGLError("设置清除颜色");
 		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
@@ -167,35 +191,10 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
-		try {
-			// 保存当前矩阵模式
-			int previousMatrixMode = GL11.glGetInteger(GL11.GL_MATRIX_MODE);
-			
-			// 确保在模型视图矩阵模式下
-			GL11.glMatrixMode(GL11.GL_MODELVIEW);
-			
-			// 禁用纹理，确保使用颜色绘制
-			GL11.glDisable(GL11.GL_TEXTURE_2D);
-			
-			// 启用混合
-			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-			
-			// 设置颜色
-			GL11.glColor4f(r, g, b, a);
-			
-			// 绘制矩形
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glVertex2f(x, y);
-			GL11.glVertex2f(x + width, y);
-			GL11.glVertex2f(x + width, y + height);
-			GL11.glVertex2f(x, y + height);
-			GL11.glEnd();
-			
-			// 恢复之前的矩阵模式
-			GL11.glMatrixMode(previousMatrixMode);
-		} catch (Exception e) {
-		}
+		// 形状纹理中心为不透明白色，四个角都取中心即得到纯色矩形
+		instanced.flush();
+		batch.useShapeTexture();
+		batch.addQuad(x, y, width, height, 0.5f, 0.5f, 0.5f, 0.5f, r, g, b, a);
 	}
 	
 	/**
@@ -211,33 +210,19 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
-		try {
-			// 保存当前矩阵模式
-			int previousMatrixMode = GL11.glGetInteger(GL11.GL_MATRIX_MODE);
-			
-			// 确保在模型视图矩阵模式下
-			GL11.glMatrixMode(GL11.GL_MODELVIEW);
-			
-			// 禁用纹理，确保使用颜色绘制
-			GL11.glDisable(GL11.GL_TEXTURE_2D);
-			
-			// 启用混合
-			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-			
-			// 设置颜色
-			GL11.glColor4f(r, g, b, a);
-			
-			// 绘制线条
-			GL11.glBegin(GL11.GL_LINES);
-			GL11.glVertex2f(x1, y1);
-			GL11.glVertex2f(x2, y2);
-			GL11.glEnd();
-			
-			// 恢复之前的矩阵模式
-			GL11.glMatrixMode(previousMatrixMode);
-		} catch (Exception e) {
+		float dx = x2 - x1;
+		float dy = y2 - y1;
+		float length = (float) Math.sqrt(dx * dx + dy * dy);
+		if (length == 0) {
+			return;
 		}
+		// 线条展开为宽1像素的四边形，法线方向各偏移半个像素
+		float nx = -dy / length * 0.5f;
+		float ny = dx / length * 0.5f;
+		instanced.flush();
+		batch.useShapeTexture();
+		batch.addQuad(x1 - nx, y1 - ny, x2 - nx, y2 - ny, x2 + nx, y2 + ny, x1 + nx, y1 + ny,
+				0.5f, 0.5f, 0.5f, 0.5f, r, g, b, a);
 	}
 	
 	/**
@@ -252,39 +237,10 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void drawCircle(float x, float y, float radius, float r, float g, float b, float a) {
-		try {
-			// 保存当前矩阵模式
-			int previousMatrixMode = GL11.glGetInteger(GL11.GL_MATRIX_MODE);
-			
-			// 确保在模型视图矩阵模式下
-			GL11.glMatrixMode(GL11.GL_MODELVIEW);
-			
-			// 禁用纹理，确保使用颜色绘制
-			GL11.glDisable(GL11.GL_TEXTURE_2D);
-			
-			// 启用混合
-			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-			
-			// 设置颜色
-			GL11.glColor4f(r, g, b, a);
-			
-			// 绘制圆形
-			GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-			int segments = 32;
-			GL11.glVertex2f(x, y);
-			for (int i = 0; i <= segments; i++) {
-				float angle = (float) (2 * Math.PI * i / segments);
-				float vx = x + radius * (float) Math.cos(angle);
-				float vy = y + radius * (float) Math.sin(angle);
-				GL11.glVertex2f(vx, vy);
-			}
-			GL11.glEnd();
-			
-			// 恢复之前的矩阵模式
-			GL11.glMatrixMode(previousMatrixMode);
-		} catch (Exception e) {
-		}
+		// 形状纹理整体是一个圆盘，直接映射到外接正方形
+		instanced.flush();
+		batch.useShapeTexture();
+		batch.addQuad(x - radius, y - radius, radius * 2, radius * 2, 0.0f, 0.0f, 1.0f, 1.0f, r, g, b, a);
 	}
 	
 	/**
@@ -297,21 +253,20 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void drawText(String text, float x, float y, java.awt.Font font, java.awt.Color color) {
-		try {
-			// 使用STBFontRenderer渲染文本
-			float fontSize = font.getSize2D();
-			float[] colorArray = {
-				color.getRed() / 255.0f,
-				color.getGreen() / 255.0f,
-				color.getBlue() / 255.0f,
-				color.getAlpha() / 255.0f
-			};
-			
-			STBFontRenderer fontRenderer = STBFontRenderer.getInstance();
-			fontRenderer.renderText(text, x, y, fontSize, colorArray);
-		} catch (Exception e) {
-			// 如果渲染失败，回退到绘制矩形
+		float fontSize = font.getSize2D();
+		textColor[0] = color.getRed() / 255.0f;
+		textColor[1] = color.getGreen() / 255.0f;
+		textColor[2] = color.getBlue() / 255.0f;
+		textColor[3] = color.getAlpha() / 255.0f;
+		
+		// 字形来自字形图集，与其他图形一样追加到批处理器
+		instanced.flush();
+		STBFontRenderer fontRenderer = STBFontRenderer.getInstance();
+		if (!fontRenderer.renderText(batch, state, text, x, y, fontSize, textColor)) {
+			// 字体不可用时回退到绘制矩形
+			batch.flush();
 			fallbackDrawText(text, x, y, font, color);
+			state.invalidate();
 		}
 	}
 	
@@ -325,14 +280,14 @@ public class GLRenderer implements IRenderer {
 	 */
 	@Override
 	public void drawText(String text, float x, float y, float fontSize, float[] color) {
-		try {
-			// 使用STBFontRenderer渲染文本
-			STBFontRenderer fontRenderer = STBFontRenderer.getInstance();
-			fontRenderer.renderText(text, x, y, fontSize, color);
-		} catch (Exception e) {
-			// 如果渲染失败，回退到绘制矩形
+		instanced.flush();
+		STBFontRenderer fontRenderer = STBFontRenderer.getInstance();
+		if (!fontRenderer.renderText(batch, state, text, x, y, fontSize, color)) {
+			// 字体不可用时回退到绘制矩形
+			batch.flush();
 			fallbackDrawText(text, x, y, new java.awt.Font("Arial", java.awt.Font.PLAIN, (int)fontSize), 
 				new java.awt.Color(color[0], color[1], color[2], color[3]));
+			state.invalidate();
 		}
 	}
 	
@@ -350,6 +305,7 @@ public class GLRenderer implements IRenderer {
 		float b = color.getBlue() / 255.0f;
 		float a = color.getAlpha() / 255.0f;
 		
+		state.setEnabled(GL11.GL_TEXTURE_2D, false);
 		GL11.glColor4f(r, g, b, a);
 		
 		// 计算文本宽度（每个汉字20像素，每个英文字母10像素）
@@ -378,10 +334,17 @@ public class GLRenderer implements IRenderer {
 	
 	/**
 	 * 加载纹理
+	 * 已打包进 {@link TextureAtlas} 的图片直接返回图集虚拟纹理ID，不再单独创建纹理
 	 * @param path 图片文件路径
 	 * @return 纹理ID
 	 */
+	@Override
 	public int loadTexture(String path) {
+		int atlasId = TextureAtlas.getInstance().getTextureId(path);
+		if (atlasId != -1) {
+			return atlasId;
+		}
+		
 		int textureId = -1;
 		
 		try (MemoryStack stack = MemoryStack.stackPush()) {
@@ -421,7 +384,7 @@ public class GLRenderer implements IRenderer {
 				// 创建纹理
 			textureId = GL11.glGenTextures();
 			textureIds.add(textureId); // 添加到纹理ID列表
-			GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+			state.bindTexture(textureId);
 			
 			// 设置纹理参数
 			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
@@ -452,7 +415,7 @@ public class GLRenderer implements IRenderer {
 				// 创建纹理
 				textureId = GL11.glGenTextures();
 				textureIds.add(textureId); // 添加到纹理ID列表
-				GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+				state.bindTexture(textureId);
 				
 				// 设置纹理参数
 				GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
@@ -511,64 +474,115 @@ public class GLRenderer implements IRenderer {
 			return;
 		}
 		
-		try {
-			// 保存当前矩阵模式
-			int previousMatrixMode = GL11.glGetInteger(GL11.GL_MATRIX_MODE);
-			
-			// 确保在模型视图矩阵模式下
-			GL11.glMatrixMode(GL11.GL_MODELVIEW);
-			
-			// 启用纹理和混合
-			GL11.glEnable(GL11.GL_TEXTURE_2D);
-			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-			
-			// 绑定纹理
-			GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-			
-			// 设置颜色为白色，这样纹理的颜色会正常显示
-			GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
-			
-			// 计算纹理坐标，调整上下颠倒的问题
-			float texYTop = texY + texHeight;
-			float texYBottom = texY;
-			
-			// 绘制四边形
-			GL11.glBegin(GL11.GL_QUADS);
-			GL11.glTexCoord2f(texX, texYTop); // 左上角
-			GL11.glVertex2f(x, y);
-			GL11.glTexCoord2f(texX + texWidth, texYTop); // 右上角
-			GL11.glVertex2f(x + width, y);
-			GL11.glTexCoord2f(texX + texWidth, texYBottom); // 右下角
-			GL11.glVertex2f(x + width, y + height);
-			GL11.glTexCoord2f(texX, texYBottom); // 左下角
-			GL11.glVertex2f(x, y + height);
-			GL11.glEnd();
-			
-			// 恢复之前的矩阵模式
-			GL11.glMatrixMode(previousMatrixMode);
-			
-			// 禁用纹理（可选，根据需要）
-			GL11.glDisable(GL11.GL_TEXTURE_2D);
-		} catch (Exception e) {
+		float u0 = texX;
+		float v0 = texY;
+		float u1 = texX + texWidth;
+		float v1 = texY + texHeight;
+		TextureAtlas.Region region = TextureAtlas.getInstance().getRegion(textureId);
+		if (region != null) {
+			// 图集虚拟纹理：换算到所在页面
+			textureId = region.getPageTexture();
+			u0 = region.mapU(u0);
+			v0 = region.mapV(v0);
+			u1 = region.mapU(u1);
+			v1 = region.mapV(v1);
 		}
+		
+		// 纹理V坐标上下翻转，与图片数据的行序一致
+		instanced.flush();
+		batch.setTexture(textureId);
+		batch.addQuad(x, y, width, height, u0, v1, u1, v0, 1.0f, 1.0f, 1.0f, 1.0f);
 	}
 
+	/**
+	 * 绘制精灵（以中心定位，可旋转，带颜色）
+	 * OpenGL 3.3 可用时作为实例写入实例缓冲，旋转由顶点着色器完成；
+	 * 否则在 CPU 上计算旋转后的四个顶点追加到 SpriteBatch
+	 */
+	@Override
+	public void drawSprite(int textureId, float x, float y, float width, float height, float dirX, float dirY,
+			float texX, float texY, float texWidth, float texHeight, float r, float g, float b, float a) {
+		if (textureId == -1) {
+			return;
+		}
+		
+		float u0;
+		float vTop;
+		float u1;
+		float vBottom;
+		if (textureId == SHAPE_TEXTURE) {
+			textureId = batch.getShapeTexture();
+			u0 = 0.0f;
+			vTop = 0.0f;
+			u1 = 1.0f;
+			vBottom = 1.0f;
+		} else {
+			u0 = texX;
+			vTop = texY;
+			u1 = texX + texWidth;
+			vBottom = texY + texHeight;
+			TextureAtlas.Region region = TextureAtlas.getInstance().getRegion(textureId);
+			if (region != null) {
+				textureId = region.getPageTexture();
+				u0 = region.mapU(u0);
+				vTop = region.mapV(vTop);
+				u1 = region.mapU(u1);
+				vBottom = region.mapV(vBottom);
+			}
+		}
+		
+		if (instanced.isAvailable()) {
+			batch.flush();
+			instanced.add(textureId, x, y, width, height, dirX, dirY, u0, vTop, u1, vBottom, r, g, b, a);
+			return;
+		}
+		
+		// OpenGL 2.1 路径：精灵默认朝上，把局部的上方向旋转到朝向向量
+		float halfWidth = width * 0.5f;
+		float halfHeight = height * 0.5f;
+		float rightX = halfWidth;
+		float rightY = 0.0f;
+		float upX = 0.0f;
+		float upY = halfHeight;
+		float lengthSq = dirX * dirX + dirY * dirY;
+		if (lengthSq > 1e-12f) {
+			float invLength = (float) (1.0 / Math.sqrt(lengthSq));
+			float dx = dirX * invLength;
+			float dy = dirY * invLength;
+			rightX = dy * halfWidth;
+			rightY = -dx * halfWidth;
+			upX = dx * halfHeight;
+			upY = dy * halfHeight;
+		}
+		batch.setTexture(textureId);
+		batch.addQuad(
+				x - rightX - upX, y - rightY - upY,
+				x + rightX - upX, y + rightY - upY,
+				x + rightX + upX, y + rightY + upY,
+				x - rightX + upX, y - rightY + upY,
+				u0, vBottom, u1, vTop, r, g, b, a);
+	}
+	
 	/**
 	 * 清理资源
 	 */
 	@Override
 	public void cleanup() {
+		instanced.cleanup();
+		batch.cleanup();
+		TextureAtlas.getInstance().cleanup(state);
+		
 		// 释放所有纹理
 		for (Integer textureId : textureIds) {
 			if (textureId > 0) {
+				state.onTextureDeleted(textureId);
 				GL11.glDeleteTextures(textureId);
 			}
 		}
 		textureIds.clear();
 		
 		// 清理STB字体渲染器资源
-		STBFontRenderer.getInstance().cleanup();
+		STBFontRenderer.getInstance().cleanup(state);
 		initialized = false;
 	}
 	
@@ -580,6 +594,54 @@ public class GLRenderer implements IRenderer {
 		return initialized;
 	}
 	
+	/**
+	 * 获取本帧的绘制调用数
+	 * @return 绘制调用数
+	 */
+	public int getDrawCallCount() {
+		return batch.getDrawCallCount() + instanced.getDrawCallCount();
+	}
+	
+	/**
+	 * 获取本帧批量提交的四边形数
+	 * @return 四边形数
+	 */
+	public int getBatchedQuadCount() {
+		return batch.getQuadCount();
+	}
+	
+	/**
+	 * 获取本帧实例化绘制的精灵数
+	 * @return 实例数，实例化路径不可用时为0
+	 */
+	public int getInstancedSpriteCount() {
+		return instanced.getInstanceCount();
+	}
+	
+	/**
+	 * 实例化路径是否可用
+	 * @return 是否可用
+	 */
+	public boolean isInstancingAvailable() {
+		return instanced.isAvailable();
+	}
+	
+	/**
+	 * 获取 GL 状态缓存（可读取每帧发出/跳过的状态调用数）
+	 * @return GL 状态缓存
+	 */
+	public GLStateCache getStateCache() {
+		return state;
+	}
+	
+	/**
+	 * 获取精灵批处理器
+	 * @return 精灵批处理器
+	 */
+	public SpriteBatch getSpriteBatch() {
+		return batch;
+	}
+	
 	/**
 	 * 获取窗口宽度
 	 * @return 窗口宽度
@@ -0,0 +1,324 @@
+package stg.render;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * OpenGL 状态缓存
+ * 在渲染器内部记录已设置的状态（开关、混合函数、纹理绑定、矩阵模式、视口和投影），
+ * 与当前值相同的调用直接跳过，热路径上不再向驱动查询任何状态。
+ * 同时统计每帧实际发出和被跳过的状态调用次数。
+ * <p>
+ * 绕过本缓存直接修改 GL 状态的代码（如回退文本渲染）执行后需要调用
+ * {@link #invalidate()}，使下一次设置一定会发出。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class GLStateCache {
+	/** 未知状态 */
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+
+	/** 开关状态：1启用，0禁用，UNKNOWN未知 */
+	private int blend = UNKNOWN;
+	private int texture2D = UNKNOWN;
+	private int vertexArray = UNKNOWN;
+	private int texCoordArray = UNKNOWN;
+	private int colorArray = UNKNOWN;
+
+	private int srcBlend = UNKNOWN;
+	private int dstBlend = UNKNOWN;
+	private int boundTexture = UNKNOWN;
+	private int boundArrayBuffer = UNKNOWN;
+	private int matrixMode = UNKNOWN;
+
+	private int viewportX = UNKNOWN;
+	private int viewportY = UNKNOWN;
+	private int viewportWidth = UNKNOWN;
+	private int viewportHeight = UNKNOWN;
+	private int projectionWidth = UNKNOWN;
+	private int projectionHeight = UNKNOWN;
+
+	/** 本帧计数 */
+	private int issued;
+	private int skipped;
+	/** 上一帧计数 */
+	private int lastIssued;
+	private int lastSkipped;
+
+	/**
+	 * 启用或禁用服务端能力（glEnable/glDisable）
+	 * 支持 GL_BLEND 与 GL_TEXTURE_2D，其他能力直接发出
+	 * @param cap 能力
+	 * @param enabled 是否启用
+	 */
+	public void setEnabled(int cap, boolean enabled) {
+		int value = enabled ? 1 : 0;
+		switch (cap) {
+		case GL11.GL_BLEND:
+			if (blend == value) {
+				skipped++;
+				return;
+			}
+			blend = value;
+			break;
+		case GL11.GL_TEXTURE_2D:
+			if (texture2D == value) {
+				skipped++;
+				return;
+			}
+			texture2D = value;
+			break;
+		default:
+			break;
+		}
+		issued++;
+		if (enabled) {
+			GL11.glEnable(cap);
+		} else {
+			GL11.glDisable(cap);
+		}
+	}
+
+	/**
+	 * 启用或禁用客户端数组（glEnableClientState/glDisableClientState）
+	 * @param array 数组类型
+	 * @param enabled 是否启用
+	 */
+	public void setClientState(int array, boolean enabled) {
+		int value = enabled ? 1 : 0;
+		switch (array) {
+		case GL11.GL_VERTEX_ARRAY:
+			if (vertexArray == value) {
+				skipped++;
+				return;
+			}
+			vertexArray = value;
+			break;
+		case GL11.GL_TEXTURE_COORD_ARRAY:
+			if (texCoordArray == value) {
+				skipped++;
+				return;
+			}
+			texCoordArray = value;
+			break;
+		case GL11.GL_COLOR_ARRAY:
+			if (colorArray == value) {
+				skipped++;
+				return;
+			}
+			colorArray = value;
+			break;
+		default:
+			break;
+		}
+		issued++;
+		if (enabled) {
+			GL11.glEnableClientState(array);
+		} else {
+			GL11.glDisableClientState(array);
+		}
+	}
+
+	/**
+	 * 设置混合函数
+	 * @param src 源因子
+	 * @param dst 目标因子
+	 */
+	public void blendFunc(int src, int dst) {
+		if (srcBlend == src && dstBlend == dst) {
+			skipped++;
+			return;
+		}
+		srcBlend = src;
+		dstBlend = dst;
+		issued++;
+		GL11.glBlendFunc(src, dst);
+	}
+
+	/**
+	 * 绑定二维纹理
+	 * @param textureId 纹理ID
+	 */
+	public void bindTexture(int textureId) {
+		if (boundTexture == textureId) {
+			skipped++;
+			return;
+		}
+		boundTexture = textureId;
+		issued++;
+		GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+	}
+
+	/**
+	 * 绑定顶点缓冲对象
+	 * @param buffer 缓冲对象ID，0表示解除绑定
+	 */
+	public void bindArrayBuffer(int buffer) {
+		if (boundArrayBuffer == buffer) {
+			skipped++;
+			return;
+		}
+		boundArrayBuffer = buffer;
+		issued++;
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+	}
+
+	/**
+	 * 设置矩阵模式
+	 * @param mode 矩阵模式
+	 */
+	public void matrixMode(int mode) {
+		if (matrixMode == mode) {
+			skipped++;
+			return;
+		}
+		matrixMode = mode;
+		issued++;
+		GL11.glMatrixMode(mode);
+	}
+
+	/**
+	 * 设置视口
+	 * @param x 左下角X坐标
+	 * @param y 左下角Y坐标
+	 * @param width 宽度
+	 * @param height 高度
+	 */
+	public void viewport(int x, int y, int width, int height) {
+		if (viewportX == x && viewportY == y && viewportWidth == width && viewportHeight == height) {
+			skipped++;
+			return;
+		}
+		viewportX = x;
+		viewportY = y;
+		viewportWidth = width;
+		viewportHeight = height;
+		issued++;
+		GL11.glViewport(x, y, width, height);
+	}
+
+	/**
+	 * 设置 (0,0)-(width,height) 的正交投影，并把模型视图矩阵重置为单位矩阵
+	 * 尺寸与当前投影相同时整组调用都会跳过
+	 * @param width 投影宽度
+	 * @param height 投影高度
+	 */
+	public void ortho(int width, int height) {
+		if (projectionWidth == width && projectionHeight == height) {
+			skipped++;
+			return;
+		}
+		projectionWidth = width;
+		projectionHeight = height;
+		matrixMode(GL11.GL_PROJECTION);
+		GL11.glLoadIdentity();
+		GL11.glOrtho(0, width, 0, height, -1, 1);
+		matrixMode(GL11.GL_MODELVIEW);
+		GL11.glLoadIdentity();
+		issued += 3;
+	}
+
+	/**
+	 * 获取当前正交投影宽度
+	 * @return 投影宽度
+	 */
+	public int getProjectionWidth() {
+		return projectionWidth;
+	}
+	
+	/**
+	 * 获取当前正交投影高度
+	 * @return 投影高度
+	 */
+	public int getProjectionHeight() {
+		return projectionHeight;
+	}
+	
+	/**
+	 * 标记纹理已被删除，如果它正处于绑定状态则清除记录
+	 * @param textureId 纹理ID
+	 */
+	public void onTextureDeleted(int textureId) {
+		if (boundTexture == textureId) {
+			boundTexture = UNKNOWN;
+		}
+	}
+
+	/**
+	 * 使纹理绑定记录失效（其他代码可能在帧之间直接绑定过纹理）
+	 */
+	public void invalidateTexture() {
+		boundTexture = UNKNOWN;
+	}
+
+	/**
+	 * 使缓存失效，下一次设置任何状态都会真正发出
+	 * 在外部代码直接修改 GL 状态后调用
+	 */
+	public void invalidate() {
+		blend = UNKNOWN;
+		texture2D = UNKNOWN;
+		vertexArray = UNKNOWN;
+		texCoordArray = UNKNOWN;
+		colorArray = UNKNOWN;
+		srcBlend = UNKNOWN;
+		dstBlend = UNKNOWN;
+		boundTexture = UNKNOWN;
+		boundArrayBuffer = UNKNOWN;
+		matrixMode = UNKNOWN;
+	}
+
+	/**
+	 * 使视口和投影记录失效（窗口尺寸变化或上下文重建时调用）
+	 */
+	public void invalidateViewport() {
+		viewportX = UNKNOWN;
+		viewportY = UNKNOWN;
+		viewportWidth = UNKNOWN;
+		viewportHeight = UNKNOWN;
+		projectionWidth = UNKNOWN;
+		projectionHeight = UNKNOWN;
+	}
+
+	/**
+	 * 结束一帧的统计，保存为上一帧计数并清零
+	 */
+	public void endFrameStats() {
+		lastIssued = issued;
+		lastSkipped = skipped;
+		issued = 0;
+		skipped = 0;
+	}
+
+	/**
+	 * 获取本帧已发出的状态调用数
+	 * @return 已发出次数
+	 */
+	public int getIssuedCount() {
+		return issued;
+	}
+
+	/**
+	 * 获取本帧被跳过的状态调用数
+	 * @return 跳过次数
+	 */
+	public int getSkippedCount() {
+		return skipped;
+	}
+
+	/**
+	 * 获取上一帧已发出的状态调用数
+	 * @return 已发出次数
+	 */
+	public int getLastFrameIssuedCount() {
+		return lastIssued;
+	}
+
+	/**
+	 * 获取上一帧被跳过的状态调用数
+	 * @return 跳过次数
+	 */
+	public int getLastFrameSkippedCount() {
+		return lastSkipped;
+	}
+}
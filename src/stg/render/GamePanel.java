@@ -1,6 +1,7 @@
 package stg.render;
 
 import stg.core.GameWorld;
+import stg.entity.base.Obj;
 import stg.entity.player.Player;
 import stg.entity.enemy.Enemy;
 import stg.entity.bullet.Bullet;
@@ -79,7 +80,8 @@ public class GamePanel extends Panel {
 				}
 			}
 			
-			// 渲染敌人子弹
+			// 渲染敌人子弹（子弹场按数组线性绘制）
+			gameWorld.getBulletField().render(renderer, Obj.getSharedCoordinateSystem());
 			for (Bullet bullet : gameWorld.getEnemyBullets()) {
 				if (bullet != null && bullet.isActive()) {
 					bullet.renderOnScreen(renderer);
@@ -0,0 +1,334 @@
+package stg.render;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTTPackContext;
+import org.lwjgl.stb.STBTTPackedchar;
+import org.lwjgl.stb.STBTruetype;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * 字形图集
+ * 使用 stb_truetype 的打包接口把字形逐个打包进共享的单通道（GL_ALPHA）页面，
+ * 同一页面上的所有字形共用一张纹理，整段文本可以作为一批四边形提交。
+ * <p>
+ * 每个页面保持打包上下文打开，新字形随时追加；页面写满后开启新页面。
+ * 新打包的字形只写入内存中的像素，调用 {@link #upload(GLStateCache)} 后才创建或更新纹理。
+ * 字形按（字号, 字符）两级数组索引，查找过程不分配对象。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class GlyphAtlas {
+	/** 页面边长 */
+	public static final int PAGE_SIZE = 1024;
+	/** 字形之间的间隔像素 */
+	private static final int PADDING = 1;
+
+	/**
+	 * 字形信息（位置相对于基线，Y轴向下，与 stb_truetype 一致）
+	 */
+	public static class Glyph {
+		/** 所在页面，无位图（如空格）时为null */
+		private Page page;
+		private float u0;
+		private float v0;
+		private float u1;
+		private float v1;
+		private float xOff;
+		private float yOff;
+		private float xOff2;
+		private float yOff2;
+		private float advance;
+
+		/**
+		 * 是否有需要绘制的位图
+		 * @return 是否有位图
+		 */
+		public boolean hasBitmap() {
+			return page != null;
+		}
+
+		/**
+		 * 获取所在页面纹理ID
+		 * @return 纹理ID，无位图时返回0
+		 */
+		public int getTextureId() {
+			return page != null ? page.textureId : 0;
+		}
+
+		/**
+		 * 获取左上角纹理U坐标
+		 * @return 左上角纹理U坐标
+		 */
+		public float getU0() {
+			return u0;
+		}
+
+		/**
+		 * 获取左上角纹理V坐标
+		 * @return 左上角纹理V坐标
+		 */
+		public float getV0() {
+			return v0;
+		}
+
+		/**
+		 * 获取右下角纹理U坐标
+		 * @return 右下角纹理U坐标
+		 */
+		public float getU1() {
+			return u1;
+		}
+
+		/**
+		 * 获取右下角纹理V坐标
+		 * @return 右下角纹理V坐标
+		 */
+		public float getV1() {
+			return v1;
+		}
+
+		/**
+		 * 获取位图左边缘相对于笔位置的偏移
+		 * @return X偏移
+		 */
+		public float getXOff() {
+			return xOff;
+		}
+
+		/**
+		 * 获取位图上边缘相对于基线的偏移（向下为正）
+		 * @return Y偏移
+		 */
+		public float getYOff() {
+			return yOff;
+		}
+
+		/**
+		 * 获取位图右边缘相对于笔位置的偏移
+		 * @return X偏移
+		 */
+		public float getXOff2() {
+			return xOff2;
+		}
+
+		/**
+		 * 获取位图下边缘相对于基线的偏移（向下为正）
+		 * @return Y偏移
+		 */
+		public float getYOff2() {
+			return yOff2;
+		}
+
+		/**
+		 * 获取笔位置前进量（像素）
+		 * @return 前进量
+		 */
+		public float getAdvance() {
+			return advance;
+		}
+	}
+
+	/**
+	 * 图集页面
+	 */
+	private static class Page {
+		int textureId;
+		ByteBuffer pixels;
+		STBTTPackContext context;
+		boolean dirty;
+	}
+
+	/**
+	 * 单个字号的字形表，按字符高8位分块，块在首次使用时分配
+	 */
+	private static class SizeTable {
+		final float fontSize;
+		final Glyph[][] blocks = new Glyph[256][];
+
+		SizeTable(float fontSize) {
+			this.fontSize = fontSize;
+		}
+	}
+
+	private final STBTTFontinfo fontInfo;
+	private final ByteBuffer fontBuffer;
+	private final List<Page> pages = new ArrayList<>();
+	private final List<SizeTable> sizeTables = new ArrayList<>();
+	/** 打包单个字形用的输出缓冲 */
+	private final STBTTPackedchar.Buffer packed = STBTTPackedchar.malloc(1);
+	/** 最近一次查找的字号表 */
+	private SizeTable lastTable;
+
+	/**
+	 * 构造函数
+	 * @param fontInfo 字体信息
+	 * @param fontBuffer 字体文件数据
+	 */
+	public GlyphAtlas(STBTTFontinfo fontInfo, ByteBuffer fontBuffer) {
+		this.fontInfo = fontInfo;
+		this.fontBuffer = fontBuffer;
+	}
+
+	/**
+	 * 获取字形，未缓存时打包进图集
+	 * 打包只修改内存中的像素，绘制前需要调用 {@link #upload(GLStateCache)}
+	 * @param c 字符
+	 * @param fontSize 字号（像素高度）
+	 * @return 字形
+	 */
+	public Glyph getGlyph(char c, float fontSize) {
+		SizeTable table = getSizeTable(fontSize);
+		Glyph[] block = table.blocks[c >>> 8];
+		if (block == null) {
+			block = new Glyph[256];
+			table.blocks[c >>> 8] = block;
+		}
+		Glyph glyph = block[c & 0xFF];
+		if (glyph == null) {
+			glyph = createGlyph(c, fontSize);
+			block[c & 0xFF] = glyph;
+		}
+		return glyph;
+	}
+
+	/**
+	 * 预先打包一段文本中的所有字符
+	 * @param text 文本
+	 * @param fontSize 字号
+	 */
+	public void prewarm(CharSequence text, float fontSize) {
+		for (int i = 0; i < text.length(); i++) {
+			getGlyph(text.charAt(i), fontSize);
+		}
+	}
+
+	/**
+	 * 把有新字形的页面上传到纹理
+	 * @param state GL 状态缓存
+	 */
+	public void upload(GLStateCache state) {
+		for (int i = 0; i < pages.size(); i++) {
+			Page page = pages.get(i);
+			if (!page.dirty) {
+				continue;
+			}
+			GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+			if (page.textureId == 0) {
+				page.textureId = GL11.glGenTextures();
+				state.bindTexture(page.textureId);
+				GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+				GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+				GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, PAGE_SIZE, PAGE_SIZE, 0,
+					GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, page.pixels);
+			} else {
+				state.bindTexture(page.textureId);
+				GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, PAGE_SIZE, PAGE_SIZE,
+					GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, page.pixels);
+			}
+			page.dirty = false;
+		}
+	}
+
+	/**
+	 * 获取页面数量
+	 * @return 页面数量
+	 */
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * 释放所有页面
+	 * @param state GL 状态缓存
+	 */
+	public void cleanup(GLStateCache state) {
+		for (Page page : pages) {
+			STBTruetype.stbtt_PackEnd(page.context);
+			page.context.free();
+			MemoryUtil.memFree(page.pixels);
+			if (page.textureId > 0) {
+				state.onTextureDeleted(page.textureId);
+				GL11.glDeleteTextures(page.textureId);
+			}
+		}
+		pages.clear();
+		sizeTables.clear();
+		lastTable = null;
+		packed.free();
+	}
+
+	private SizeTable getSizeTable(float fontSize) {
+		if (lastTable != null && lastTable.fontSize == fontSize) {
+			return lastTable;
+		}
+		for (int i = 0; i < sizeTables.size(); i++) {
+			SizeTable table = sizeTables.get(i);
+			if (table.fontSize == fontSize) {
+				lastTable = table;
+				return table;
+			}
+		}
+		SizeTable table = new SizeTable(fontSize);
+		sizeTables.add(table);
+		lastTable = table;
+		return table;
+	}
+
+	private Glyph createGlyph(char c, float fontSize) {
+		Glyph glyph = new Glyph();
+		if (STBTruetype.stbtt_FindGlyphIndex(fontInfo, c) == 0) {
+			// 字体中没有该字符，只占位不绘制
+			glyph.advance = fontSize * 0.5f;
+			return glyph;
+		}
+
+		Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+		if (page == null || !pack(page, c, fontSize)) {
+			page = createPage();
+			if (!pack(page, c, fontSize)) {
+				System.err.println("[GlyphAtlas] 字形打包失败: " + c + " (" + fontSize + ")");
+				glyph.advance = fontSize * 0.5f;
+				return glyph;
+			}
+		}
+
+		STBTTPackedchar pc = packed.get(0);
+		glyph.advance = pc.xadvance();
+		if (pc.x1() > pc.x0() && pc.y1() > pc.y0()) {
+			glyph.page = page;
+			glyph.u0 = (float) pc.x0() / PAGE_SIZE;
+			glyph.v0 = (float) pc.y0() / PAGE_SIZE;
+			glyph.u1 = (float) pc.x1() / PAGE_SIZE;
+			glyph.v1 = (float) pc.y1() / PAGE_SIZE;
+			glyph.xOff = pc.xoff();
+			glyph.yOff = pc.yoff();
+			glyph.xOff2 = pc.xoff2();
+			glyph.yOff2 = pc.yoff2();
+			page.dirty = true;
+		}
+		return glyph;
+	}
+
+	private boolean pack(Page page, char c, float fontSize) {
+		packed.clear();
+		return STBTruetype.stbtt_PackFontRange(page.context, fontBuffer, 0, fontSize, c, packed);
+	}
+
+	private Page createPage() {
+		Page page = new Page();
+		page.pixels = MemoryUtil.memCalloc(PAGE_SIZE * PAGE_SIZE);
+		page.context = STBTTPackContext.malloc();
+		if (!STBTruetype.stbtt_PackBegin(page.context, page.pixels, PAGE_SIZE, PAGE_SIZE, 0, PADDING)) {
+			throw new IllegalStateException("无法初始化字形打包上下文");
+		}
+
+		pages.add(page);
+		System.out.println("[GlyphAtlas] 新建字形页面 " + (pages.size() - 1));
+		return page;
+	}
+}
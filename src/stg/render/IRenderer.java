@@ -5,8 +5,12 @@ package stg.render;
  * 定义渲染器的基本功能
  * @since 2026-02-23
  * @author JavaSTG Team
+ * @date 2026-10-18 添加 drawSprite（中心定位、可按方向旋转、带颜色）和 loadTexture
  */
 public interface IRenderer {
+	/** drawSprite 使用的内置形状纹理（抗锯齿白色圆盘） */
+	int SHAPE_TEXTURE = 0;
+	
 	/**
 	 * 初始化渲染器
 	 * @param width 窗口宽度
@@ -124,6 +128,44 @@ public interface IRenderer {
 	 */
 	void drawImage(int textureId, float x, float y, float width, float height, float texX, float texY, float texWidth, float texHeight);
 
+	/**
+	 * 绘制精灵（以中心定位，可旋转，带颜色）
+	 * 精灵图形默认朝上，给出方向向量时旋转到该方向（如箭头子弹沿速度方向），
+	 * 方向向量为 (0, 0) 时不旋转。默认实现忽略旋转和颜色，退化为 drawImage / drawCircle。
+	 * @param textureId 纹理ID，{@link #SHAPE_TEXTURE} 表示内置的圆形
+	 * @param x 中心X坐标
+	 * @param y 中心Y坐标
+	 * @param width 宽度
+	 * @param height 高度
+	 * @param dirX 朝向X分量
+	 * @param dirY 朝向Y分量
+	 * @param texX 纹理起始X坐标（0-1）
+	 * @param texY 纹理起始Y坐标（0-1）
+	 * @param texWidth 纹理宽度（0-1）
+	 * @param texHeight 纹理高度（0-1）
+	 * @param r 红色分量
+	 * @param g 绿色分量
+	 * @param b 蓝色分量
+	 * @param a 透明度
+	 */
+	default void drawSprite(int textureId, float x, float y, float width, float height, float dirX, float dirY,
+			float texX, float texY, float texWidth, float texHeight, float r, float g, float b, float a) {
+		if (textureId == SHAPE_TEXTURE) {
+			drawCircle(x, y, width * 0.5f, r, g, b, a);
+		} else {
+			drawImage(textureId, x - width * 0.5f, y - height * 0.5f, width, height, texX, texY, texWidth, texHeight);
+		}
+	}
+	
+	/**
+	 * 加载纹理
+	 * @param path 图片文件路径
+	 * @return 纹理ID，不支持纹理或加载失败时返回-1
+	 */
+	default int loadTexture(String path) {
+		return -1;
+	}
+	
 	/**
 	 * 清理资源
 	 */
@@ -0,0 +1,306 @@
+package stg.render;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * 实例化精灵渲染器（OpenGL 3.3）
+ * 每个精灵（子弹）是一个实例：中心位置、大小、朝向、纹理矩形和颜色写入每帧流式更新的
+ * 实例缓冲，一个单位四边形通过 glDrawArraysInstanced 一次绘制整批精灵。
+ * 旋转在顶点着色器中由朝向向量直接构造，CPU 不需要计算三角函数。
+ * <p>
+ * 上下文不支持 OpenGL 3.3 或着色器编译失败时 {@link #isAvailable()} 返回false，
+ * GLRenderer 改用 SpriteBatch 在 CPU 上计算旋转后的四个顶点（OpenGL 2.1 路径）。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class InstancedSpriteRenderer {
+	/** 每批最多容纳的实例数量 */
+	public static final int MAX_INSTANCES = 8192;
+	/** 每个实例的字节数：中心与大小(4 float) + 朝向(2 float) + 纹理矩形(4 float) + 颜色(4 byte) */
+	private static final int INSTANCE_SIZE = 4 * 4 + 2 * 4 + 4 * 4 + 4;
+
+	private static final String VERTEX_SHADER =
+		"#version 330 core\n" +
+		"layout(location = 0) in vec2 aCorner;\n" +
+		"layout(location = 1) in vec4 aRect;\n" +
+		"layout(location = 2) in vec2 aDir;\n" +
+		"layout(location = 3) in vec4 aUv;\n" +
+		"layout(location = 4) in vec4 aColor;\n" +
+		"uniform vec2 uProjection;\n" +
+		"out vec2 vUv;\n" +
+		"out vec4 vColor;\n" +
+		"void main() {\n" +
+		"    vec2 d = dot(aDir, aDir) > 1e-12 ? normalize(aDir) : vec2(0.0, 1.0);\n" +
+		"    vec2 c = aCorner * aRect.zw;\n" +
+		"    vec2 p = aRect.xy + vec2(c.x * d.y + c.y * d.x, c.y * d.y - c.x * d.x);\n" +
+		"    gl_Position = vec4(p / uProjection * 2.0 - 1.0, 0.0, 1.0);\n" +
+		"    vUv = vec2(mix(aUv.x, aUv.z, aCorner.x + 0.5), mix(aUv.w, aUv.y, aCorner.y + 0.5));\n" +
+		"    vColor = aColor;\n" +
+		"}\n";
+
+	private static final String FRAGMENT_SHADER =
+		"#version 330 core\n" +
+		"uniform sampler2D uTexture;\n" +
+		"in vec2 vUv;\n" +
+		"in vec4 vColor;\n" +
+		"out vec4 fragColor;\n" +
+		"void main() {\n" +
+		"    fragColor = texture(uTexture, vUv) * vColor;\n" +
+		"}\n";
+
+	/** GL 状态缓存 */
+	private final GLStateCache state;
+	private ByteBuffer instances;
+	private int program;
+	private int vao;
+	private int cornerVbo;
+	private int instanceVbo;
+	private int projectionLocation;
+	private int instanceCount;
+	private int currentTexture;
+	/** 本帧绘制调用数 */
+	private int drawCalls;
+	/** 本帧提交的实例总数 */
+	private int frameInstances;
+	private boolean available;
+
+	/**
+	 * 构造函数
+	 * @param state GL 状态缓存
+	 */
+	public InstancedSpriteRenderer(GLStateCache state) {
+		this.state = state;
+	}
+
+	/**
+	 * 检查当前上下文是否支持实例化路径
+	 * @return 是否支持 OpenGL 3.3
+	 */
+	public static boolean isSupported() {
+		GLCapabilities caps = GL.getCapabilities();
+		return caps.OpenGL33;
+	}
+
+	/**
+	 * 初始化渲染器，需要在OpenGL上下文创建后调用
+	 * 不支持时保持不可用状态，由调用方走回退路径
+	 */
+	public void initialize() {
+		if (available || !isSupported()) {
+			return;
+		}
+		program = createProgram();
+		if (program == 0) {
+			return;
+		}
+		projectionLocation = GL20.glGetUniformLocation(program, "uProjection");
+		GL20.glUseProgram(program);
+		GL20.glUniform1i(GL20.glGetUniformLocation(program, "uTexture"), 0);
+		GL20.glUseProgram(0);
+
+		instances = MemoryUtil.memAlloc(MAX_INSTANCES * INSTANCE_SIZE);
+
+		vao = GL30.glGenVertexArrays();
+		GL30.glBindVertexArray(vao);
+
+		// 单位四边形（三角形带），顶点即相对中心的角坐标
+		cornerVbo = GL15.glGenBuffers();
+		state.bindArrayBuffer(cornerVbo);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, new float[] {
+			-0.5f, -0.5f,
+			0.5f, -0.5f,
+			-0.5f, 0.5f,
+			0.5f, 0.5f
+		}, GL15.GL_STATIC_DRAW);
+		GL20.glEnableVertexAttribArray(0);
+		GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 0, 0L);
+
+		instanceVbo = GL15.glGenBuffers();
+		state.bindArrayBuffer(instanceVbo);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) MAX_INSTANCES * INSTANCE_SIZE, GL15.GL_STREAM_DRAW);
+		GL20.glEnableVertexAttribArray(1);
+		GL20.glVertexAttribPointer(1, 4, GL11.GL_FLOAT, false, INSTANCE_SIZE, 0L);
+		GL20.glEnableVertexAttribArray(2);
+		GL20.glVertexAttribPointer(2, 2, GL11.GL_FLOAT, false, INSTANCE_SIZE, 16L);
+		GL20.glEnableVertexAttribArray(3);
+		GL20.glVertexAttribPointer(3, 4, GL11.GL_FLOAT, false, INSTANCE_SIZE, 24L);
+		GL20.glEnableVertexAttribArray(4);
+		GL20.glVertexAttribPointer(4, 4, GL11.GL_UNSIGNED_BYTE, true, INSTANCE_SIZE, 40L);
+		for (int attribute = 1; attribute <= 4; attribute++) {
+			GL33.glVertexAttribDivisor(attribute, 1);
+		}
+
+		GL30.glBindVertexArray(0);
+		available = true;
+		System.out.println("[InstancedSpriteRenderer] 已启用 OpenGL 3.3 实例化绘制");
+	}
+
+	/**
+	 * 实例化路径是否可用
+	 * @return 是否可用
+	 */
+	public boolean isAvailable() {
+		return available;
+	}
+
+	/**
+	 * 添加一个精灵实例，纹理变化或缓冲写满时先提交当前批次
+	 * @param textureId 纹理ID（实际 GL 纹理）
+	 * @param x 中心X坐标
+	 * @param y 中心Y坐标
+	 * @param width 宽度
+	 * @param height 高度
+	 * @param dirX 朝向X分量，(0, 0) 表示不旋转
+	 * @param dirY 朝向Y分量
+	 * @param u0 左侧纹理U坐标
+	 * @param vTop 上边纹理V坐标
+	 * @param u1 右侧纹理U坐标
+	 * @param vBottom 下边纹理V坐标
+	 * @param r 红色分量
+	 * @param g 绿色分量
+	 * @param b 蓝色分量
+	 * @param a 透明度
+	 */
+	public void add(int textureId, float x, float y, float width, float height, float dirX, float dirY,
+			float u0, float vTop, float u1, float vBottom, float r, float g, float b, float a) {
+		if (textureId != currentTexture) {
+			flush();
+			currentTexture = textureId;
+		}
+		if (instanceCount == MAX_INSTANCES) {
+			flush();
+		}
+		instances.putFloat(x).putFloat(y).putFloat(width).putFloat(height);
+		instances.putFloat(dirX).putFloat(dirY);
+		instances.putFloat(u0).putFloat(vTop).putFloat(u1).putFloat(vBottom);
+		instances.put(toByte(r)).put(toByte(g)).put(toByte(b)).put(toByte(a));
+		instanceCount++;
+	}
+
+	/**
+	 * 提交当前批次
+	 */
+	public void flush() {
+		if (instanceCount == 0) {
+			return;
+		}
+		instances.flip();
+
+		state.bindArrayBuffer(instanceVbo);
+		// 先以空数据重新分配（丢弃旧存储），避免等待上一批次的绘制完成
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) MAX_INSTANCES * INSTANCE_SIZE, GL15.GL_STREAM_DRAW);
+		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, instances);
+
+		state.bindTexture(currentTexture);
+		state.setEnabled(GL11.GL_BLEND, true);
+		state.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+		GL20.glUseProgram(program);
+		GL20.glUniform2f(projectionLocation, state.getProjectionWidth(), state.getProjectionHeight());
+		GL30.glBindVertexArray(vao);
+		GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, instanceCount);
+		GL30.glBindVertexArray(0);
+		// 其余绘制仍使用固定管线
+		GL20.glUseProgram(0);
+
+		drawCalls++;
+		frameInstances += instanceCount;
+		instanceCount = 0;
+		instances.clear();
+	}
+
+	/**
+	 * 重置每帧统计
+	 */
+	public void resetFrameStats() {
+		drawCalls = 0;
+		frameInstances = 0;
+	}
+
+	/**
+	 * 获取本帧绘制调用数
+	 * @return 绘制调用数
+	 */
+	public int getDrawCallCount() {
+		return drawCalls;
+	}
+
+	/**
+	 * 获取本帧提交的实例数
+	 * @return 实例数
+	 */
+	public int getInstanceCount() {
+		return frameInstances + instanceCount;
+	}
+
+	/**
+	 * 释放资源
+	 */
+	public void cleanup() {
+		if (!available) {
+			return;
+		}
+		state.bindArrayBuffer(0);
+		GL15.glDeleteBuffers(cornerVbo);
+		GL15.glDeleteBuffers(instanceVbo);
+		GL30.glDeleteVertexArrays(vao);
+		GL20.glDeleteProgram(program);
+		MemoryUtil.memFree(instances);
+		instances = null;
+		instanceCount = 0;
+		available = false;
+	}
+
+	private static byte toByte(float c) {
+		int value = (int) (c * 255.0f + 0.5f);
+		return (byte) (value < 0 ? 0 : (value > 255 ? 255 : value));
+	}
+
+	/**
+	 * 编译并链接着色器程序
+	 * @return 程序ID，失败时返回0
+	 */
+	private static int createProgram() {
+		int vertexShader = compileShader(GL20.GL_VERTEX_SHADER, VERTEX_SHADER);
+		int fragmentShader = compileShader(GL20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+		if (vertexShader == 0 || fragmentShader == 0) {
+			GL20.glDeleteShader(vertexShader);
+			GL20.glDeleteShader(fragmentShader);
+			return 0;
+		}
+		int program = GL20.glCreateProgram();
+		GL20.glAttachShader(program, vertexShader);
+		GL20.glAttachShader(program, fragmentShader);
+		GL20.glLinkProgram(program);
+		GL20.glDeleteShader(vertexShader);
+		GL20.glDeleteShader(fragmentShader);
+		if (GL20.glGetProgrami(program, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+			System.err.println("[InstancedSpriteRenderer] 着色器链接失败: " + GL20.glGetProgramInfoLog(program));
+			GL20.glDeleteProgram(program);
+			return 0;
+		}
+		return program;
+	}
+
+	private static int compileShader(int type, String source) {
+		int shader = GL20.glCreateShader(type);
+		GL20.glShaderSource(shader, source);
+		GL20.glCompileShader(shader);
+		if (GL20.glGetShaderi(shader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+			System.err.println("[InstancedSpriteRenderer] 着色器编译失败: " + GL20.glGetShaderInfoLog(shader));
+			GL20.glDeleteShader(shader);
+			return 0;
+		}
+		return shader;
+	}
+}
@@ -0,0 +1,88 @@
+package stg.render;
+
+/**
+ * 空渲染器
+ * 所有绘制调用直接忽略，不需要窗口和 OpenGL 上下文。无头运行时用来执行各对象的
+ * render 代码路径（坐标换算、精灵查找等 CPU 开销），而不产生任何 GL 调用。
+ * 纹理加载总是返回-1，对象会退化为无纹理绘制。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class NullRenderer implements IRenderer {
+	/** 本帧收到的绘制调用次数 */
+	private int drawCallCount;
+
+	@Override
+	public void initialize(int width, int height) {
+	}
+
+	@Override
+	public void beginFrame() {
+		drawCallCount = 0;
+	}
+
+	@Override
+	public void endFrame() {
+	}
+
+	@Override
+	public void setViewport(int x, int y, int width, int height) {
+	}
+
+	@Override
+	public void clear(float r, float g, float b, float a) {
+	}
+
+	@Override
+	public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawCircle(float x, float y, float radius, float r, float g, float b, float a) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawText(String text, float x, float y, java.awt.Font font, java.awt.Color color) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawText(String text, float x, float y, float fontSize, float[] color) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawImage(int textureId, float x, float y, float width, float height) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawImage(int textureId, float x, float y, float width, float height, float texX, float texY, float texWidth, float texHeight) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void drawSprite(int textureId, float x, float y, float width, float height, float dirX, float dirY,
+			float texX, float texY, float texWidth, float texHeight, float r, float g, float b, float a) {
+		drawCallCount++;
+	}
+
+	@Override
+	public void cleanup() {
+	}
+
+	/**
+	 * 获取本帧收到的绘制调用次数
+	 * @return 绘制调用次数
+	 */
+	public int getDrawCallCount() {
+		return drawCallCount;
+	}
+}
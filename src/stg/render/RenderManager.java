@@ -88,7 +88,8 @@ public class RenderManager {
                 }
             }
             
-            // 渲染敌人子弹
+            // 渲染敌人子弹（子弹场按数组线性绘制）
+            gameWorld.getBulletField().render(renderer, Obj.getSharedCoordinateSystem());
             for (Bullet bullet : gameWorld.getEnemyBullets()) {
                 if (bullet != null && bullet.isActive()) {
                     bullet.renderOnScreen(renderer);
@@ -0,0 +1,329 @@
+package stg.render;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 渲染快照
+ * 以渲染器接口的形式记录一帧的全部绘制命令（位置、纹理、颜色），之后在渲染线程上
+ * 通过 {@link #replay(IRenderer)} 按原顺序提交给真正的渲染器。
+ * <p>
+ * 命令按操作码和参数顺序写入几个可增长的数组，快照对象和数组在帧之间复用，
+ * 稳定运行时记录一帧不分配内存。发布给渲染线程后快照只读，直到被 {@link #reset(long)} 回收。
+ * 纹理加载转交渲染线程执行（图集内的纹理直接返回虚拟ID）。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class RenderSnapshot implements IRenderer {
+	private static final byte OP_VIEWPORT = 0;
+	private static final byte OP_CLEAR = 1;
+	private static final byte OP_RECT = 2;
+	private static final byte OP_LINE = 3;
+	private static final byte OP_CIRCLE = 4;
+	private static final byte OP_TEXT_FONT = 5;
+	private static final byte OP_TEXT = 6;
+	private static final byte OP_IMAGE = 7;
+	private static final byte OP_IMAGE_REGION = 8;
+	private static final byte OP_SPRITE = 9;
+
+	/** 已转交渲染线程加载过的纹理（快照轮流使用，按路径共享结果） */
+	private static final Map<String, Integer> loadedTextures = new ConcurrentHashMap<>();
+
+	/** 负责加载纹理的真实渲染器 */
+	private final IRenderer textureLoader;
+
+	private byte[] ops = new byte[1024];
+	private float[] floats = new float[8192];
+	private int[] ints = new int[1024];
+	private Object[] refs = new Object[64];
+	private int opCount;
+	private int floatCount;
+	private int intCount;
+	private int refCount;
+	/** 回放文本时复用的颜色数组 */
+	private final float[] textColor = new float[4];
+	/** 记录该快照时的模拟步数 */
+	private long tick;
+
+	/**
+	 * 构造函数
+	 * @param textureLoader 负责加载纹理的真实渲染器
+	 */
+	public RenderSnapshot(IRenderer textureLoader) {
+		this.textureLoader = textureLoader;
+	}
+
+	/**
+	 * 清空已记录的命令，开始记录新的一帧
+	 * @param tick 当前模拟步数
+	 */
+	public void reset(long tick) {
+		// 释放上一帧的字符串和字体引用
+		Arrays.fill(refs, 0, refCount, null);
+		opCount = 0;
+		floatCount = 0;
+		intCount = 0;
+		refCount = 0;
+		this.tick = tick;
+	}
+
+	/**
+	 * 获取记录该快照时的模拟步数
+	 * @return 模拟步数
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * 获取记录的命令数量
+	 * @return 命令数量
+	 */
+	public int getCommandCount() {
+		return opCount;
+	}
+
+	/**
+	 * 按记录顺序把所有命令提交给渲染器
+	 * @param renderer 目标渲染器
+	 */
+	public void replay(IRenderer renderer) {
+		int f = 0;
+		int n = 0;
+		int o = 0;
+		float[] fl = floats;
+		for (int i = 0; i < opCount; i++) {
+			switch (ops[i]) {
+			case OP_VIEWPORT -> {
+				renderer.setViewport(ints[n], ints[n + 1], ints[n + 2], ints[n + 3]);
+				n += 4;
+			}
+			case OP_CLEAR -> {
+				renderer.clear(fl[f], fl[f + 1], fl[f + 2], fl[f + 3]);
+				f += 4;
+			}
+			case OP_RECT -> {
+				renderer.drawRect(fl[f], fl[f + 1], fl[f + 2], fl[f + 3], fl[f + 4], fl[f + 5], fl[f + 6], fl[f + 7]);
+				f += 8;
+			}
+			case OP_LINE -> {
+				renderer.drawLine(fl[f], fl[f + 1], fl[f + 2], fl[f + 3], fl[f + 4], fl[f + 5], fl[f + 6], fl[f + 7]);
+				f += 8;
+			}
+			case OP_CIRCLE -> {
+				renderer.drawCircle(fl[f], fl[f + 1], fl[f + 2], fl[f + 3], fl[f + 4], fl[f + 5], fl[f + 6]);
+				f += 7;
+			}
+			case OP_TEXT_FONT -> {
+				renderer.drawText((String) refs[o], fl[f], fl[f + 1], (java.awt.Font) refs[o + 1], (java.awt.Color) refs[o + 2]);
+				f += 2;
+				o += 3;
+			}
+			case OP_TEXT -> {
+				textColor[0] = fl[f + 3];
+				textColor[1] = fl[f + 4];
+				textColor[2] = fl[f + 5];
+				textColor[3] = fl[f + 6];
+				renderer.drawText((String) refs[o], fl[f], fl[f + 1], fl[f + 2], textColor);
+				f += 7;
+				o++;
+			}
+			case OP_IMAGE -> {
+				renderer.drawImage(ints[n], fl[f], fl[f + 1], fl[f + 2], fl[f + 3]);
+				n++;
+				f += 4;
+			}
+			case OP_IMAGE_REGION -> {
+				renderer.drawImage(ints[n], fl[f], fl[f + 1], fl[f + 2], fl[f + 3],
+					fl[f + 4], fl[f + 5], fl[f + 6], fl[f + 7]);
+				n++;
+				f += 8;
+			}
+			case OP_SPRITE -> {
+				renderer.drawSprite(ints[n], fl[f], fl[f + 1], fl[f + 2], fl[f + 3], fl[f + 4], fl[f + 5],
+					fl[f + 6], fl[f + 7], fl[f + 8], fl[f + 9], fl[f + 10], fl[f + 11], fl[f + 12], fl[f + 13]);
+				n++;
+				f += 14;
+			}
+			default -> throw new IllegalStateException("未知的渲染命令: " + ops[i]);
+			}
+		}
+	}
+
+	@Override
+	public void initialize(int width, int height) {
+	}
+
+	@Override
+	public void beginFrame() {
+	}
+
+	@Override
+	public void endFrame() {
+	}
+
+	@Override
+	public void setViewport(int x, int y, int width, int height) {
+		op(OP_VIEWPORT);
+		ensureInts(4);
+		ints[intCount++] = x;
+		ints[intCount++] = y;
+		ints[intCount++] = width;
+		ints[intCount++] = height;
+	}
+
+	@Override
+	public void clear(float r, float g, float b, float a) {
+		op(OP_CLEAR);
+		ensureFloats(4);
+		putColor(r, g, b, a);
+	}
+
+	@Override
+	public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+		op(OP_RECT);
+		ensureFloats(8);
+		put4(x, y, width, height);
+		putColor(r, g, b, a);
+	}
+
+	@Override
+	public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
+		op(OP_LINE);
+		ensureFloats(8);
+		put4(x1, y1, x2, y2);
+		putColor(r, g, b, a);
+	}
+
+	@Override
+	public void drawCircle(float x, float y, float radius, float r, float g, float b, float a) {
+		op(OP_CIRCLE);
+		ensureFloats(7);
+		floats[floatCount++] = x;
+		floats[floatCount++] = y;
+		floats[floatCount++] = radius;
+		putColor(r, g, b, a);
+	}
+
+	@Override
+	public void drawText(String text, float x, float y, java.awt.Font font, java.awt.Color color) {
+		op(OP_TEXT_FONT);
+		ensureFloats(2);
+		floats[floatCount++] = x;
+		floats[floatCount++] = y;
+		ensureRefs(3);
+		refs[refCount++] = text;
+		refs[refCount++] = font;
+		refs[refCount++] = color;
+	}
+
+	@Override
+	public void drawText(String text, float x, float y, float fontSize, float[] color) {
+		// 颜色数组可能被调用方复用，按值记录
+		op(OP_TEXT);
+		ensureFloats(7);
+		floats[floatCount++] = x;
+		floats[floatCount++] = y;
+		floats[floatCount++] = fontSize;
+		putColor(color[0], color[1], color[2], color[3]);
+		ensureRefs(1);
+		refs[refCount++] = text;
+	}
+
+	@Override
+	public void drawImage(int textureId, float x, float y, float width, float height) {
+		op(OP_IMAGE);
+		ensureInts(1);
+		ints[intCount++] = textureId;
+		ensureFloats(4);
+		put4(x, y, width, height);
+	}
+
+	@Override
+	public void drawImage(int textureId, float x, float y, float width, float height, float texX, float texY, float texWidth, float texHeight) {
+		op(OP_IMAGE_REGION);
+		ensureInts(1);
+		ints[intCount++] = textureId;
+		ensureFloats(8);
+		put4(x, y, width, height);
+		put4(texX, texY, texWidth, texHeight);
+	}
+
+	@Override
+	public void drawSprite(int textureId, float x, float y, float width, float height, float dirX, float dirY,
+			float texX, float texY, float texWidth, float texHeight, float r, float g, float b, float a) {
+		op(OP_SPRITE);
+		ensureInts(1);
+		ints[intCount++] = textureId;
+		ensureFloats(14);
+		put4(x, y, width, height);
+		floats[floatCount++] = dirX;
+		floats[floatCount++] = dirY;
+		put4(texX, texY, texWidth, texHeight);
+		putColor(r, g, b, a);
+	}
+
+	/**
+	 * 加载纹理：图集内的纹理直接返回虚拟ID，其余转交渲染线程加载并等待结果，每个路径只加载一次
+	 * @param path 图片文件路径
+	 * @return 纹理ID，加载失败时返回-1
+	 */
+	@Override
+	public int loadTexture(String path) {
+		int atlasId = TextureAtlas.getInstance().getTextureId(path);
+		if (atlasId != -1) {
+			return atlasId;
+		}
+		Integer textureId = loadedTextures.get(path);
+		if (textureId == null) {
+			textureId = RenderThread.invoke(() -> textureLoader.loadTexture(path));
+			if (textureId == null) {
+				textureId = -1;
+			}
+			loadedTextures.put(path, textureId);
+		}
+		return textureId;
+	}
+
+	@Override
+	public void cleanup() {
+		reset(0);
+	}
+
+	private void op(byte op) {
+		if (opCount == ops.length) {
+			ops = Arrays.copyOf(ops, ops.length * 2);
+		}
+		ops[opCount++] = op;
+	}
+
+	private void ensureFloats(int count) {
+		if (floatCount + count > floats.length) {
+			floats = Arrays.copyOf(floats, Math.max(floats.length * 2, floatCount + count));
+		}
+	}
+
+	private void ensureInts(int count) {
+		if (intCount + count > ints.length) {
+			ints = Arrays.copyOf(ints, Math.max(ints.length * 2, intCount + count));
+		}
+	}
+
+	private void ensureRefs(int count) {
+		if (refCount + count > refs.length) {
+			refs = Arrays.copyOf(refs, Math.max(refs.length * 2, refCount + count));
+		}
+	}
+
+	private void put4(float a, float b, float c, float d) {
+		floats[floatCount++] = a;
+		floats[floatCount++] = b;
+		floats[floatCount++] = c;
+		floats[floatCount++] = d;
+	}
+
+	private void putColor(float r, float g, float b, float a) {
+		put4(r, g, b, a);
+	}
+}
@@ -0,0 +1,110 @@
+package stg.render;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 渲染线程
+ * 记录持有 OpenGL 上下文的线程，其他线程需要调用 GL（如加载纹理）时把任务投递到该线程执行。
+ * 渲染线程每帧开始时调用 {@link #runPendingTasks()} 执行排队的任务；
+ * 在渲染线程上直接调用 {@link #invoke(Callable)} 时立即执行，不排队。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public final class RenderThread {
+	/** 持有 GL 上下文的线程 */
+	private static volatile Thread renderThread;
+	/** 是否无头运行（没有 GL 上下文，纹理加载等 GL 任务直接跳过） */
+	private static volatile boolean headless;
+	/** 等待在渲染线程执行的任务 */
+	private static final ConcurrentLinkedQueue<FutureTask<?>> pendingTasks = new ConcurrentLinkedQueue<>();
+
+	private RenderThread() {
+	}
+
+	/**
+	 * 把当前线程登记为渲染线程，在创建 GL 上下文后调用
+	 */
+	public static void setCurrent() {
+		renderThread = Thread.currentThread();
+	}
+
+	/**
+	 * 设置是否无头运行
+	 * @param headless 是否无头运行
+	 */
+	public static void setHeadless(boolean headless) {
+		RenderThread.headless = headless;
+	}
+
+	/**
+	 * 是否无头运行
+	 * @return 没有 GL 上下文时返回true
+	 */
+	public static boolean isHeadless() {
+		return headless;
+	}
+
+	/**
+	 * 当前线程是否是渲染线程（未登记时视为是，保持单线程行为）
+	 * @return 是否是渲染线程
+	 */
+	public static boolean isCurrent() {
+		Thread thread = renderThread;
+		return thread == null || thread == Thread.currentThread();
+	}
+
+	/**
+	 * 在渲染线程上执行任务并等待结果
+	 * @param task 任务
+	 * @param <T> 结果类型
+	 * @return 任务结果，无头运行、任务抛出异常或等待被中断时返回null
+	 */
+	public static <T> T invoke(Callable<T> task) {
+		if (headless) {
+			return null;
+		}
+		if (isCurrent()) {
+			try {
+				return task.call();
+			} catch (Exception e) {
+				System.err.println("[RenderThread] 任务执行失败: " + e.getMessage());
+				return null;
+			}
+		}
+
+		FutureTask<T> future = new FutureTask<>(task);
+		pendingTasks.add(future);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			System.err.println("[RenderThread] 任务执行失败: " + e.getCause());
+			return null;
+		}
+	}
+
+	/**
+	 * 执行所有排队的任务，只能在渲染线程上调用
+	 */
+	public static void runPendingTasks() {
+		FutureTask<?> task;
+		while ((task = pendingTasks.poll()) != null) {
+			task.run();
+		}
+	}
+
+	/**
+	 * 取消所有排队的任务（渲染线程退出时调用，避免投递方永久等待）
+	 */
+	public static void cancelPendingTasks() {
+		FutureTask<?> task;
+		while ((task = pendingTasks.poll()) != null) {
+			task.cancel(false);
+		}
+	}
+}
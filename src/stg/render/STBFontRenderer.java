@@ -2,18 +2,11 @@ package stg.render;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
 
-import org.lwjgl.BufferUtils;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL12;
 import org.lwjgl.stb.STBTTFontinfo;
 import org.lwjgl.stb.STBTruetype;
-import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
 /**
@@ -21,41 +14,33 @@ import org.lwjgl.system.MemoryUtil;
  * 使用STB Truetype库实现高质量的文本渲染，支持汉字等复杂字符
  * @since 2026-02-23
  * @author JavaSTG Team
+ * @date 2026-10-18 每个字形单独一张纹理改为共享的字形图集（stb_truetype 打包接口），
+ *       文本作为一串四边形追加到 SpriteBatch，启动时预先打包 ASCII 和菜单中文
+ * @date 2026-10-18 排版结果按（文本, 字号）缓存，重复绘制的文本不再重新查询字形
  */
 public class STBFontRenderer {
 	private static STBFontRenderer instance;
 	
 	private STBTTFontinfo fontInfo;
 	private ByteBuffer fontBuffer;
-	private Map<Integer, GlyphCache> glyphCache;
+	private GlyphAtlas glyphAtlas;
+	private TextLayoutCache layoutCache;
 	private String fontPath;
 	
-	/**
-	 * 字形缓存类
-	 */
-	private static class GlyphCache {
-		int textureId;
-		int width;
-		int height;
-		int xOff;
-		int yOff;
-		int advanceWidth;
-		
-		GlyphCache(int textureId, int width, int height, int xOff, int yOff, int advanceWidth) {
-			this.textureId = textureId;
-			this.width = width;
-			this.height = height;
-			this.xOff = xOff;
-			this.yOff = yOff;
-			this.advanceWidth = advanceWidth;
-		}
-	}
+	/** 启动时预先打包的 ASCII 字符 */
+	private static final String PREWARM_ASCII = buildAsciiRange();
+	/** 启动时预先打包的菜单中文 */
+	private static final String PREWARM_CJK =
+		"继续游戏返回标题重新开始选择玩家关卡组没有可用的角色默认标准射击灵梦博丽神社巫女";
+	/** ASCII 预热字号：描述、虚拟键盘、菜单、标题 */
+	private static final float[] PREWARM_SIZES = {18f, 20f, 32f, 48f};
+	/** 中文预热字号 */
+	private static final float[] PREWARM_CJK_SIZES = {18f, 32f, 48f};
 	
 	/**
 	 * 私有构造函数
 	 */
 	private STBFontRenderer() {
-		glyphCache = new HashMap<>();
 		fontPath = "resources/fonts/OPPO Sans 4.0.ttf";
 		initFont();
 	}
@@ -71,6 +56,14 @@ public class STBFontRenderer {
 		return instance;
 	}
 	
+	private static String buildAsciiRange() {
+		StringBuilder sb = new StringBuilder();
+		for (char c = 32; c < 127; c++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+	
 	/**
 	 * 初始化字体
 	 */
@@ -128,215 +121,114 @@ public class STBFontRenderer {
 			
 			fontInfo = STBTTFontinfo.create();
 			if (!STBTruetype.stbtt_InitFont(fontInfo, fontBuffer)) {
-	
 				throw new RuntimeException("无法初始化字体信息");
 			}
 			
-	
+			glyphAtlas = new GlyphAtlas(fontInfo, fontBuffer);
+			layoutCache = new TextLayoutCache(glyphAtlas);
 		} catch (Exception e) {
+			// 图集和布局缓存要么都可用，要么都不可用，文字绘制统一跳过
+			glyphAtlas = null;
+			layoutCache = null;
+			System.err.println("[STBFontRenderer] 字体初始化失败: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * 预先打包常用字符：ASCII 可见字符和菜单中的中文，避免首次显示时卡顿
+	 * 需要在OpenGL上下文创建后调用
+	 * @param state GL 状态缓存
+	 */
+	public void prewarm(GLStateCache state) {
+		if (glyphAtlas == null) {
+			return;
+		}
+		for (float size : PREWARM_SIZES) {
+			glyphAtlas.prewarm(PREWARM_ASCII, size);
 		}
+		for (float size : PREWARM_CJK_SIZES) {
+			glyphAtlas.prewarm(PREWARM_CJK, size);
+		}
+		glyphAtlas.upload(state);
 	}
 	
 	/**
 	 * 渲染文本
+	 * 排版结果按（文本, 字号）缓存在 {@link TextLayoutCache} 中，重复绘制的文本
+	 * 直接把缓存的四边形追加到精灵批处理器，同一页面上的字形不会打断批次
+	 * @param batch 精灵批处理器
+	 * @param state GL 状态缓存
 	 * @param text 文本内容
-	 * @param x X坐标
-	 * @param y Y坐标
+	 * @param x X坐标（左侧）
+	 * @param y Y坐标（基线）
 	 * @param fontSize 字体大小
 	 * @param color 颜色 [r, g, b, a]
+	 * @return 字体不可用时返回false，由调用方降级渲染
 	 */
-	public void renderText(String text, float x, float y, float fontSize, float[] color) {
-		if (fontInfo == null || fontBuffer == null) {
-			// 降级到简单的文本渲染
-			fallbackRenderText(text, x, y, fontSize, color);
-			return;
+	public boolean renderText(SpriteBatch batch, GLStateCache state, String text, float x, float y, float fontSize, float[] color) {
+		if (layoutCache == null) {
+			return false;
 		}
 		
 		if (text == null || text.isEmpty()) {
-			return;
+			return true;
 		}
 		
 		if (color == null || color.length < 4) {
-			return;
+			return true;
 		}
 		
-		try {
-			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-			GL11.glColor4f(color[0], color[1], color[2], color[3]);
-			
-			float scale = STBTruetype.stbtt_ScaleForPixelHeight(fontInfo, fontSize);
-			
-			try (MemoryStack stack = MemoryStack.stackPush()) {
-				IntBuffer pWidth = stack.mallocInt(1);
-				IntBuffer pHeight = stack.mallocInt(1);
-				IntBuffer pXOff = stack.mallocInt(1);
-				IntBuffer pYOff = stack.mallocInt(1);
-				IntBuffer pAdvanceWidth = stack.mallocInt(1);
-				IntBuffer pLeftSideBearing = stack.mallocInt(1);
-				IntBuffer pAscent = stack.mallocInt(1);
-				IntBuffer pDescent = stack.mallocInt(1);
-				IntBuffer pLineGap = stack.mallocInt(1);
-				
-				STBTruetype.stbtt_GetFontVMetrics(fontInfo, pAscent, pDescent, pLineGap);
-				int ascent = pAscent.get(0);
-				
-				float currentX = x;
-				float baseline = y;
-				
-				for (int i = 0; i < text.length(); i++) {
-					char c = text.charAt(i);
-					
-					int cacheKey = (int)c | ((int)fontSize << 16);
-					GlyphCache cached = glyphCache.get(cacheKey);
-					
-					if (cached == null) {
-						try {
-							cached = createGlyphCache(c, fontSize, scale, stack,
-								pWidth, pHeight, pXOff, pYOff, pAdvanceWidth, pLeftSideBearing);
-							glyphCache.put(cacheKey, cached);
-						} catch (Exception e) {
-					// 使用默认字形
-					cached = new GlyphCache(0, 0, 0, 0, 0, (int)(fontSize * 0.5f / scale));
-				}
-					}
-					
-					if (cached.textureId > 0 && cached.width > 0 && cached.height > 0) {
-						try {
-							GL11.glEnable(GL11.GL_TEXTURE_2D);
-							GL11.glBindTexture(GL11.GL_TEXTURE_2D, cached.textureId);
-							
-							float charX = currentX + cached.xOff;
-							float charY = baseline - cached.yOff;
-							
-							GL11.glBegin(GL11.GL_QUADS);
-							GL11.glTexCoord2f(0, 1); GL11.glVertex2f(charX, charY - cached.height);
-							GL11.glTexCoord2f(1, 1); GL11.glVertex2f(charX + cached.width, charY - cached.height);
-							GL11.glTexCoord2f(1, 0); GL11.glVertex2f(charX + cached.width, charY);
-							GL11.glTexCoord2f(0, 0); GL11.glVertex2f(charX, charY);
-							GL11.glEnd();
-							
-							GL11.glDisable(GL11.GL_TEXTURE_2D);
-						} catch (Exception e) {
-						GL11.glDisable(GL11.GL_TEXTURE_2D);
-					}
-					}
-					
-					currentX += cached.advanceWidth * scale;
-				}
-			}
-		} catch (Exception e) {
-			// 降级到简单的文本渲染
-			fallbackRenderText(text, x, y, fontSize, color);
-		} finally {
-			try {
-				GL11.glDisable(GL11.GL_BLEND);
-				GL11.glDisable(GL11.GL_TEXTURE_2D);
-			} catch (Exception e) {
-				// 忽略清理时的错误
-			}
-		}
+		TextLayoutCache.TextLayout layout = layoutCache.getLayout(text, fontSize, state);
+		layout.draw(batch, x, y, color[0], color[1], color[2], color[3]);
+		return true;
 	}
 	
 	/**
-	 * 降级文本渲染方法（当字体渲染失败时使用）
+	 * 计算文本宽度
+	 * @param state GL 状态缓存
 	 * @param text 文本内容
-	 * @param x X坐标
-	 * @param y Y坐标
 	 * @param fontSize 字体大小
-	 * @param color 颜色 [r, g, b, a]
+	 * @return 文本宽度（像素），字体不可用时按每字符半个字号估算
 	 */
-	private void fallbackRenderText(String text, float x, float y, float fontSize, float[] color) {
-		try {
-			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-			GL11.glColor4f(color[0], color[1], color[2], color[3]);
-			
-			// 简单的文本渲染，使用矩形表示每个字符
-			float charWidth = fontSize * 0.6f;
-			float charHeight = fontSize;
-			float currentX = x;
-			
-			for (int i = 0; i < text.length(); i++) {
-				char c = text.charAt(i);
-				// 绘制矩形表示字符
-				GL11.glBegin(GL11.GL_QUADS);
-				GL11.glVertex2f(currentX, y - charHeight);
-				GL11.glVertex2f(currentX + charWidth, y - charHeight);
-				GL11.glVertex2f(currentX + charWidth, y);
-				GL11.glVertex2f(currentX, y);
-				GL11.glEnd();
-				currentX += charWidth;
-			}
-			
-			GL11.glDisable(GL11.GL_BLEND);
-		} catch (Exception e) {
+	public float getTextWidth(GLStateCache state, String text, float fontSize) {
+		if (text == null || text.isEmpty()) {
+			return 0;
+		}
+		if (layoutCache == null) {
+			return text.length() * fontSize * 0.5f;
 		}
+		return layoutCache.getLayout(text, fontSize, state).getWidth();
 	}
 	
 	/**
-	 * 创建字形缓存
+	 * 获取文本排版缓存
+	 * @return 文本排版缓存，字体不可用时返回null
 	 */
-	private GlyphCache createGlyphCache(char c, float fontSize, float scale, MemoryStack stack,
-			IntBuffer pWidth, IntBuffer pHeight, IntBuffer pXOff, IntBuffer pYOff,
-			IntBuffer pAdvanceWidth, IntBuffer pLeftSideBearing) {
-		
-		int glyphIndex = STBTruetype.stbtt_FindGlyphIndex(fontInfo, c);
-		
-		if (glyphIndex == 0) {
-			return new GlyphCache(0, 0, 0, 0, 0, (int)(fontSize * 0.5f / scale));
-		}
-		
-		ByteBuffer bitmap = STBTruetype.stbtt_GetGlyphBitmap(
-			fontInfo, scale, scale, glyphIndex,
-			pWidth, pHeight, pXOff, pYOff
-		);
-		
-		int bitmapWidth = pWidth.get(0);
-		int bitmapHeight = pHeight.get(0);
-		int xOff = pXOff.get(0);
-		int yOff = pYOff.get(0);
-		
-		STBTruetype.stbtt_GetGlyphHMetrics(fontInfo, glyphIndex, pAdvanceWidth, pLeftSideBearing);
-		int advanceWidth = pAdvanceWidth.get(0);
-		
-		if (bitmap == null || bitmapWidth <= 0 || bitmapHeight <= 0) {
-			return new GlyphCache(0, 0, 0, 0, 0, advanceWidth);
-		}
-		
-		ByteBuffer rgbaBitmap = BufferUtils.createByteBuffer(bitmapWidth * bitmapHeight * 4);
-		for (int j = 0; j < bitmapWidth * bitmapHeight; j++) {
-			byte alpha = bitmap.get(j);
-			rgbaBitmap.put((byte) 255);
-			rgbaBitmap.put((byte) 255);
-			rgbaBitmap.put((byte) 255);
-			rgbaBitmap.put(alpha);
-		}
-		rgbaBitmap.flip();
-		
-		int textureId = GL11.glGenTextures();
-		GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-		GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, 
-			bitmapWidth, bitmapHeight, 0,
-			GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, rgbaBitmap);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
-		
-		return new GlyphCache(textureId, bitmapWidth, bitmapHeight, xOff, yOff, advanceWidth);
+	public TextLayoutCache getLayoutCache() {
+		return layoutCache;
+	}
+	
+	/**
+	 * 获取字形图集
+	 * @return 字形图集，字体不可用时返回null
+	 */
+	public GlyphAtlas getGlyphAtlas() {
+		return glyphAtlas;
 	}
 	
 	/**
 	 * 清理资源
+	 * @param state GL 状态缓存
 	 */
-	public void cleanup() {
-		for (GlyphCache cached : glyphCache.values()) {
-			if (cached.textureId > 0) {
-				GL11.glDeleteTextures(cached.textureId);
-			}
+	public void cleanup(GLStateCache state) {
+		if (layoutCache != null) {
+			layoutCache.clear();
+			layoutCache = null;
+		}
+		if (glyphAtlas != null) {
+			glyphAtlas.cleanup(state);
+			glyphAtlas = null;
 		}
-		glyphCache.clear();
 		
 		if (fontBuffer != null) {
 			MemoryUtil.memFree(fontBuffer);
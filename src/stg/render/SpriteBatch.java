@@ -0,0 +1,287 @@
+package stg.render;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * 精灵批处理器
+ * 把四边形累积到顶点缓冲中，只在纹理或混合状态变化、缓冲写满以及帧结束时
+ * 用一次 glDrawArrays 提交，每帧的绘制调用数与子弹数量无关。
+ * 纯色图形（矩形、线条、圆形）使用内置的形状纹理：纹理中心为不透明白色，
+ * 整张纹理是一个抗锯齿的白色圆盘，因此可以和同一批次中的其他图形一起提交。
+ * 所有 GL 状态设置都经过 {@link GLStateCache}，重复设置会被跳过。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class SpriteBatch {
+	/** 每批最多容纳的四边形数量 */
+	public static final int MAX_QUADS = 4096;
+	/** 每个顶点的字节数：x, y, u, v（float）+ r, g, b, a（byte） */
+	private static final int VERTEX_SIZE = 4 * 4 + 4;
+	/** 形状纹理边长 */
+	private static final int SHAPE_TEXTURE_SIZE = 64;
+
+	/** GL 状态缓存 */
+	private final GLStateCache state;
+	/** 顶点数据（堆外内存） */
+	private ByteBuffer vertices;
+	/** 顶点缓冲对象 */
+	private int vbo;
+	/** 形状纹理 */
+	private int shapeTexture;
+	/** 当前批次中的四边形数量 */
+	private int quadCount;
+	/** 当前批次的纹理 */
+	private int currentTexture;
+	/** 当前批次的混合函数 */
+	private int srcBlend = GL11.GL_SRC_ALPHA;
+	private int dstBlend = GL11.GL_ONE_MINUS_SRC_ALPHA;
+	/** 本帧绘制调用数 */
+	private int drawCalls;
+	/** 本帧提交的四边形总数 */
+	private int frameQuads;
+	/** 是否已初始化 */
+	private boolean initialized;
+
+	/**
+	 * 构造函数
+	 * @param state GL 状态缓存
+	 */
+	public SpriteBatch(GLStateCache state) {
+		this.state = state;
+	}
+
+	/**
+	 * 初始化批处理器，需要在OpenGL上下文创建后调用
+	 */
+	public void initialize() {
+		if (initialized) {
+			return;
+		}
+		vertices = MemoryUtil.memAlloc(MAX_QUADS * 4 * VERTEX_SIZE);
+		vbo = GL15.glGenBuffers();
+		shapeTexture = createShapeTexture(state);
+		currentTexture = shapeTexture;
+		initialized = true;
+	}
+
+	/**
+	 * 设置后续四边形使用的纹理，纹理变化时先提交当前批次
+	 * @param textureId 纹理ID
+	 */
+	public void setTexture(int textureId) {
+		if (textureId != currentTexture) {
+			flush();
+			currentTexture = textureId;
+		}
+	}
+
+	/**
+	 * 切换到形状纹理（用于纯色图形）
+	 */
+	public void useShapeTexture() {
+		setTexture(shapeTexture);
+	}
+
+	/**
+	 * 设置后续四边形使用的混合函数，混合状态变化时先提交当前批次
+	 * @param src 源混合因子
+	 * @param dst 目标混合因子
+	 */
+	public void setBlendFunc(int src, int dst) {
+		if (src != srcBlend || dst != dstBlend) {
+			flush();
+			srcBlend = src;
+			dstBlend = dst;
+		}
+	}
+
+	/**
+	 * 添加轴对齐四边形
+	 * 顶点顺序：(x, y) 对应 (u0, v0)，(x + width, y + height) 对应 (u1, v1)
+	 * @param x 左下角X坐标
+	 * @param y 左下角Y坐标
+	 * @param width 宽度
+	 * @param height 高度
+	 * @param u0 左下角纹理U坐标
+	 * @param v0 左下角纹理V坐标
+	 * @param u1 右上角纹理U坐标
+	 * @param v1 右上角纹理V坐标
+	 * @param r 红色分量
+	 * @param g 绿色分量
+	 * @param b 蓝色分量
+	 * @param a 透明度
+	 */
+	public void addQuad(float x, float y, float width, float height,
+			float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+		float x1 = x + width;
+		float y1 = y + height;
+		addQuad(x, y, x1, y, x1, y1, x, y1, u0, v0, u1, v1, r, g, b, a);
+	}
+
+	/**
+	 * 添加任意四边形（可旋转）
+	 * 四个顶点按逆时针顺序给出，依次对应纹理坐标 (u0,v0) (u1,v0) (u1,v1) (u0,v1)
+	 * @param x0 顶点0 X坐标
+	 * @param y0 顶点0 Y坐标
+	 * @param x1 顶点1 X坐标
+	 * @param y1 顶点1 Y坐标
+	 * @param x2 顶点2 X坐标
+	 * @param y2 顶点2 Y坐标
+	 * @param x3 顶点3 X坐标
+	 * @param y3 顶点3 Y坐标
+	 * @param u0 起始纹理U坐标
+	 * @param v0 起始纹理V坐标
+	 * @param u1 结束纹理U坐标
+	 * @param v1 结束纹理V坐标
+	 * @param r 红色分量
+	 * @param g 绿色分量
+	 * @param b 蓝色分量
+	 * @param a 透明度
+	 */
+	public void addQuad(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3,
+			float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+		if (!initialized) {
+			return;
+		}
+		if (quadCount == MAX_QUADS) {
+			flush();
+		}
+		byte rb = toByte(r);
+		byte gb = toByte(g);
+		byte bb = toByte(b);
+		byte ab = toByte(a);
+		putVertex(x0, y0, u0, v0, rb, gb, bb, ab);
+		putVertex(x1, y1, u1, v0, rb, gb, bb, ab);
+		putVertex(x2, y2, u1, v1, rb, gb, bb, ab);
+		putVertex(x3, y3, u0, v1, rb, gb, bb, ab);
+		quadCount++;
+	}
+
+	/**
+	 * 提交当前批次
+	 */
+	public void flush() {
+		if (quadCount == 0) {
+			return;
+		}
+		vertices.flip();
+
+		state.bindArrayBuffer(vbo);
+		// 先以空数据重新分配（丢弃旧存储），避免等待上一批次的绘制完成
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) MAX_QUADS * 4 * VERTEX_SIZE, GL15.GL_STREAM_DRAW);
+		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, vertices);
+
+		state.setEnabled(GL11.GL_TEXTURE_2D, true);
+		state.bindTexture(currentTexture);
+		state.setEnabled(GL11.GL_BLEND, true);
+		state.blendFunc(srcBlend, dstBlend);
+
+		// 客户端数组只影响 glDrawArrays，对立即模式绘制没有影响，因此保持启用
+		state.setClientState(GL11.GL_VERTEX_ARRAY, true);
+		state.setClientState(GL11.GL_TEXTURE_COORD_ARRAY, true);
+		state.setClientState(GL11.GL_COLOR_ARRAY, true);
+		GL11.glVertexPointer(2, GL11.GL_FLOAT, VERTEX_SIZE, 0L);
+		GL11.glTexCoordPointer(2, GL11.GL_FLOAT, VERTEX_SIZE, 8L);
+		GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, VERTEX_SIZE, 16L);
+
+		GL11.glDrawArrays(GL11.GL_QUADS, 0, quadCount * 4);
+
+		drawCalls++;
+		frameQuads += quadCount;
+		quadCount = 0;
+		vertices.clear();
+	}
+
+	/**
+	 * 重置每帧统计
+	 */
+	public void resetFrameStats() {
+		drawCalls = 0;
+		frameQuads = 0;
+	}
+
+	/**
+	 * 获取本帧绘制调用数
+	 * @return 绘制调用数
+	 */
+	public int getDrawCallCount() {
+		return drawCalls;
+	}
+
+	/**
+	 * 获取本帧提交的四边形数
+	 * @return 四边形数
+	 */
+	public int getQuadCount() {
+		return frameQuads + quadCount;
+	}
+
+	/**
+	 * 获取形状纹理ID
+	 * @return 形状纹理ID
+	 */
+	public int getShapeTexture() {
+		return shapeTexture;
+	}
+
+	/**
+	 * 释放资源
+	 */
+	public void cleanup() {
+		if (!initialized) {
+			return;
+		}
+		state.bindArrayBuffer(0);
+		GL15.glDeleteBuffers(vbo);
+		state.onTextureDeleted(shapeTexture);
+		GL11.glDeleteTextures(shapeTexture);
+		MemoryUtil.memFree(vertices);
+		vertices = null;
+		quadCount = 0;
+		initialized = false;
+	}
+
+	private void putVertex(float x, float y, float u, float v, byte r, byte g, byte b, byte a) {
+		vertices.putFloat(x).putFloat(y).putFloat(u).putFloat(v);
+		vertices.put(r).put(g).put(b).put(a);
+	}
+
+	private static byte toByte(float c) {
+		int value = (int) (c * 255.0f + 0.5f);
+		return (byte) (value < 0 ? 0 : (value > 255 ? 255 : value));
+	}
+
+	/**
+	 * 生成形状纹理：抗锯齿白色圆盘，中心区域完全不透明
+	 * @param state GL 状态缓存
+	 * @return 纹理ID
+	 */
+	private static int createShapeTexture(GLStateCache state) {
+		int size = SHAPE_TEXTURE_SIZE;
+		ByteBuffer pixels = MemoryUtil.memAlloc(size * size * 4);
+		float center = size / 2.0f;
+		for (int py = 0; py < size; py++) {
+			for (int px = 0; px < size; px++) {
+				float dx = px + 0.5f - center;
+				float dy = py + 0.5f - center;
+				float dist = (float) Math.sqrt(dx * dx + dy * dy);
+				float alpha = center - dist + 0.5f;
+				alpha = alpha < 0 ? 0 : (alpha > 1 ? 1 : alpha);
+				pixels.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) (alpha * 255.0f));
+			}
+		}
+		pixels.flip();
+
+		int textureId = GL11.glGenTextures();
+		state.bindTexture(textureId);
+		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+		GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, size, size, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+		MemoryUtil.memFree(pixels);
+		return textureId;
+	}
+}
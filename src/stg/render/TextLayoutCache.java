@@ -0,0 +1,212 @@
+package stg.render;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文本排版缓存
+ * 按（字符串, 字号）缓存排好版的字形四边形和文本宽度。HUD 和菜单中每帧重复绘制的
+ * 同一段文本只在第一次出现时查询字形和计算位置，之后直接把缓存的四边形追加到批处理器，
+ * 查找和绘制过程都不分配对象。
+ * <p>
+ * 每个字号最多缓存 {@link #MAX_ENTRIES_PER_SIZE} 条，超出时淘汰最久未使用的条目，
+ * 避免分数等不断变化的文本无限增长。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class TextLayoutCache {
+	/** 每个字号最多缓存的文本数量 */
+	public static final int MAX_ENTRIES_PER_SIZE = 256;
+	/** 每个字形占用的浮点数：left, bottom, width, height, u0, v0, u1, v1 */
+	private static final int FLOATS_PER_GLYPH = 8;
+
+	/**
+	 * 排好版的一段文本，坐标相对于文本起点（左侧基线）
+	 */
+	public static class TextLayout {
+		private final int glyphCount;
+		private final float[] quads;
+		private final int[] textures;
+		private final float width;
+
+		private TextLayout(int glyphCount, float[] quads, int[] textures, float width) {
+			this.glyphCount = glyphCount;
+			this.quads = quads;
+			this.textures = textures;
+			this.width = width;
+		}
+
+		/**
+		 * 获取需要绘制的字形数量（不含空格等无位图字符）
+		 * @return 字形数量
+		 */
+		public int getGlyphCount() {
+			return glyphCount;
+		}
+
+		/**
+		 * 获取文本宽度（所有字符前进量之和）
+		 * @return 宽度（像素）
+		 */
+		public float getWidth() {
+			return width;
+		}
+
+		/**
+		 * 把文本的四边形追加到批处理器
+		 * @param batch 精灵批处理器
+		 * @param x 起点X坐标
+		 * @param y 基线Y坐标
+		 * @param r 红色分量
+		 * @param g 绿色分量
+		 * @param b 蓝色分量
+		 * @param a 透明度
+		 */
+		public void draw(SpriteBatch batch, float x, float y, float r, float g, float b, float a) {
+			for (int i = 0; i < glyphCount; i++) {
+				int o = i * FLOATS_PER_GLYPH;
+				batch.setTexture(textures[i]);
+				batch.addQuad(x + quads[o], y + quads[o + 1], quads[o + 2], quads[o + 3],
+					quads[o + 4], quads[o + 5], quads[o + 6], quads[o + 7], r, g, b, a);
+			}
+		}
+	}
+
+	/**
+	 * 单个字号的缓存（按访问顺序排列，便于淘汰最久未使用的条目）
+	 */
+	private static class SizeEntry {
+		final float fontSize;
+		final Map<String, TextLayout> layouts = new LinkedHashMap<String, TextLayout>(64, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, TextLayout> eldest) {
+				return size() > MAX_ENTRIES_PER_SIZE;
+			}
+		};
+
+		SizeEntry(float fontSize) {
+			this.fontSize = fontSize;
+		}
+	}
+
+	private final GlyphAtlas atlas;
+	private final List<SizeEntry> sizes = new ArrayList<>();
+	private SizeEntry lastSize;
+	private long hits;
+	private long misses;
+
+	/**
+	 * 构造函数
+	 * @param atlas 字形图集
+	 */
+	public TextLayoutCache(GlyphAtlas atlas) {
+		this.atlas = atlas;
+	}
+
+	/**
+	 * 获取文本排版，未缓存时排版并上传新字形
+	 * @param text 文本
+	 * @param fontSize 字号
+	 * @param state GL 状态缓存
+	 * @return 文本排版
+	 */
+	public TextLayout getLayout(String text, float fontSize, GLStateCache state) {
+		SizeEntry entry = getSizeEntry(fontSize);
+		TextLayout layout = entry.layouts.get(text);
+		if (layout != null) {
+			hits++;
+			return layout;
+		}
+		misses++;
+		// 先打包并上传新字形，页面纹理在上传时才创建
+		atlas.prewarm(text, fontSize);
+		atlas.upload(state);
+		layout = buildLayout(text, fontSize);
+		entry.layouts.put(text, layout);
+		return layout;
+	}
+
+	/**
+	 * 清空缓存（字形图集被释放后必须调用）
+	 */
+	public void clear() {
+		sizes.clear();
+		lastSize = null;
+	}
+
+	/**
+	 * 获取缓存的文本数量
+	 * @return 文本数量
+	 */
+	public int size() {
+		int count = 0;
+		for (int i = 0; i < sizes.size(); i++) {
+			count += sizes.get(i).layouts.size();
+		}
+		return count;
+	}
+
+	/**
+	 * 获取命中次数
+	 * @return 命中次数
+	 */
+	public long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * 获取未命中（重新排版）次数
+	 * @return 未命中次数
+	 */
+	public long getMissCount() {
+		return misses;
+	}
+
+	private SizeEntry getSizeEntry(float fontSize) {
+		if (lastSize != null && lastSize.fontSize == fontSize) {
+			return lastSize;
+		}
+		for (int i = 0; i < sizes.size(); i++) {
+			SizeEntry entry = sizes.get(i);
+			if (entry.fontSize == fontSize) {
+				lastSize = entry;
+				return entry;
+			}
+		}
+		SizeEntry entry = new SizeEntry(fontSize);
+		sizes.add(entry);
+		lastSize = entry;
+		return entry;
+	}
+
+	private TextLayout buildLayout(String text, float fontSize) {
+		int length = text.length();
+		float[] quads = new float[length * FLOATS_PER_GLYPH];
+		int[] textures = new int[length];
+		int count = 0;
+		float penX = 0;
+		for (int i = 0; i < length; i++) {
+			GlyphAtlas.Glyph glyph = atlas.getGlyph(text.charAt(i), fontSize);
+			if (glyph.hasBitmap()) {
+				// 字形偏移以Y轴向下为正，屏幕坐标Y轴向上，纹理V坐标上下翻转
+				int o = count * FLOATS_PER_GLYPH;
+				quads[o] = penX + glyph.getXOff();
+				quads[o + 1] = -glyph.getYOff2();
+				quads[o + 2] = glyph.getXOff2() - glyph.getXOff();
+				quads[o + 3] = glyph.getYOff2() - glyph.getYOff();
+				quads[o + 4] = glyph.getU0();
+				quads[o + 5] = glyph.getV1();
+				quads[o + 6] = glyph.getU1();
+				quads[o + 7] = glyph.getV0();
+				textures[count] = glyph.getTextureId();
+				count++;
+			}
+			penX += glyph.getAdvance();
+		}
+		return new TextLayout(count, quads, textures, penX);
+	}
+}
@@ -0,0 +1,424 @@
+package stg.render;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * 纹理图集
+ * 启动时把子弹、敌人、玩家和激光等精灵表打包进一张或几张大纹理，
+ * 不同精灵表的图形可以在同一批次中绘制，不再因为切换纹理打断批处理。
+ * <p>
+ * 图集中的每张精灵表分配一个虚拟纹理ID（{@link #ATLAS_ID_BASE} 起），
+ * {@link GLRenderer#loadTexture(String)} 对已登记的路径直接返回该ID。
+ * 调用方仍按原精灵表的归一化纹理坐标调用 drawImage，由渲染器换算到图集页面，
+ * 因此 SpriteSheetRenderer、BulletSpriteSheet 等现有代码无需修改即可使用图集。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class TextureAtlas {
+	/** 虚拟纹理ID起始值，远大于驱动分配的纹理名 */
+	public static final int ATLAS_ID_BASE = 0x40000000;
+	/** 默认打包的精灵表 */
+	private static final String[] DEFAULT_SHEETS = {
+		"resources/images/bullet1.png",
+		"resources/images/bullet2.png",
+		"resources/images/bullet3.png",
+		"resources/images/bullet4.png",
+		"resources/images/bullet5.png",
+		"resources/images/bullet6.png",
+		"resources/images/enemy1.png",
+		"resources/images/reimu.png",
+		"resources/images/laser1.png"
+	};
+	/** 页面最大边长 */
+	private static final int MAX_PAGE_SIZE = 2048;
+	/** 图形之间的间隔像素，防止线性过滤采样到相邻图形 */
+	private static final int PADDING = 2;
+
+	private static TextureAtlas instance;
+
+	/**
+	 * 图集中的一块区域（对应一张原始精灵表）
+	 */
+	public static class Region {
+		private final String path;
+		private final int width;
+		private final int height;
+		private int pageTexture;
+		private float u0;
+		private float v0;
+		private float uScale;
+		private float vScale;
+
+		private Region(String path, int width, int height) {
+			this.path = path;
+			this.width = width;
+			this.height = height;
+		}
+
+		/**
+		 * 获取原始图片路径
+		 * @return 路径
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * 获取原始图片宽度（像素）
+		 * @return 宽度
+		 */
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 * 获取原始图片高度（像素）
+		 * @return 高度
+		 */
+		public int getHeight() {
+			return height;
+		}
+
+		/**
+		 * 获取所在图集页面的纹理ID
+		 * @return 纹理ID
+		 */
+		public int getPageTexture() {
+			return pageTexture;
+		}
+
+		/**
+		 * 把原始图片内的归一化U坐标换算为图集页面坐标
+		 * @param u 原始U坐标（0-1）
+		 * @return 图集U坐标
+		 */
+		public float mapU(float u) {
+			return u0 + u * uScale;
+		}
+
+		/**
+		 * 把原始图片内的归一化V坐标换算为图集页面坐标
+		 * @param v 原始V坐标（0-1）
+		 * @return 图集V坐标
+		 */
+		public float mapV(float v) {
+			return v0 + v * vScale;
+		}
+
+		/**
+		 * 获取U方向缩放（原始宽度占页面宽度的比例）
+		 * @return U缩放
+		 */
+		public float getUScale() {
+			return uScale;
+		}
+
+		/**
+		 * 获取V方向缩放（原始高度占页面高度的比例）
+		 * @return V缩放
+		 */
+		public float getVScale() {
+			return vScale;
+		}
+	}
+
+	/** 待打包的路径 */
+	private final Set<String> registered = new LinkedHashSet<>();
+	/** 路径 -> 虚拟纹理ID */
+	private final Map<String, Integer> idsByPath = new HashMap<>();
+	/** 按虚拟纹理ID排列的区域 */
+	private final List<Region> regions = new ArrayList<>();
+	/** 页面纹理 */
+	private final List<Integer> pages = new ArrayList<>();
+	private boolean built;
+
+	private TextureAtlas() {
+		for (String path : DEFAULT_SHEETS) {
+			registered.add(normalize(path));
+		}
+	}
+
+	/**
+	 * 获取单例实例
+	 * @return 纹理图集实例
+	 */
+	public static synchronized TextureAtlas getInstance() {
+		if (instance == null) {
+			instance = new TextureAtlas();
+		}
+		return instance;
+	}
+
+	/**
+	 * 登记需要打包的图片，必须在 {@link #build(GLStateCache)} 之前调用
+	 * @param path 图片路径
+	 */
+	public void register(String path) {
+		if (built) {
+			System.err.println("[TextureAtlas] 图集已构建，忽略登记: " + path);
+			return;
+		}
+		registered.add(normalize(path));
+	}
+
+	/**
+	 * 加载所有登记的图片并打包上传，需要在OpenGL上下文创建后调用
+	 * @param state GL 状态缓存
+	 */
+	public void build(GLStateCache state) {
+		if (built) {
+			return;
+		}
+		built = true;
+
+		List<ByteBuffer> images = new ArrayList<>();
+		for (String path : registered) {
+			int[] size = new int[2];
+			ByteBuffer pixels = loadPixels(path, size);
+			if (pixels == null) {
+				continue;
+			}
+			idsByPath.put(path, ATLAS_ID_BASE + regions.size());
+			regions.add(new Region(path, size[0], size[1]));
+			images.add(pixels);
+		}
+		if (regions.isEmpty()) {
+			return;
+		}
+
+		int maxTextureSize = GL11.glGetInteger(GL11.GL_MAX_TEXTURE_SIZE);
+		int pageSize = Math.min(MAX_PAGE_SIZE, maxTextureSize);
+
+		// 按高度从大到小排序后逐行（货架式）摆放
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < regions.size(); i++) {
+			order.add(i);
+		}
+		order.sort((a, b) -> regions.get(b).height - regions.get(a).height);
+
+		int[] placeX = new int[regions.size()];
+		int[] placeY = new int[regions.size()];
+		int[] placePage = new int[regions.size()];
+		List<int[]> pageExtents = new ArrayList<>();
+		int page = 0;
+		int cursorX = 0;
+		int cursorY = 0;
+		int shelfHeight = 0;
+		int usedWidth = 0;
+		pageExtents.add(new int[2]);
+		for (int index : order) {
+			Region region = regions.get(index);
+			int w = region.width + PADDING;
+			int h = region.height + PADDING;
+			if (w > pageSize || h > pageSize) {
+				System.err.println("[TextureAtlas] 图片过大，无法打包: " + region.path);
+				placePage[index] = -1;
+				continue;
+			}
+			if (cursorX + w > pageSize) {
+				cursorX = 0;
+				cursorY += shelfHeight;
+				shelfHeight = 0;
+			}
+			if (cursorY + h > pageSize) {
+				page++;
+				pageExtents.add(new int[2]);
+				cursorX = 0;
+				cursorY = 0;
+				shelfHeight = 0;
+				usedWidth = 0;
+			}
+			placeX[index] = cursorX;
+			placeY[index] = cursorY;
+			placePage[index] = page;
+			cursorX += w;
+			shelfHeight = Math.max(shelfHeight, h);
+			usedWidth = Math.max(usedWidth, cursorX);
+			int[] extent = pageExtents.get(page);
+			extent[0] = Math.max(extent[0], usedWidth);
+			extent[1] = Math.max(extent[1], cursorY + shelfHeight);
+		}
+
+		// 逐页合成像素并上传
+		for (int p = 0; p < pageExtents.size(); p++) {
+			int pageWidth = nextPowerOfTwo(pageExtents.get(p)[0]);
+			int pageHeight = nextPowerOfTwo(pageExtents.get(p)[1]);
+			ByteBuffer pagePixels = MemoryUtil.memCalloc(pageWidth * pageHeight * 4);
+			for (int i = 0; i < regions.size(); i++) {
+				if (placePage[i] != p) {
+					continue;
+				}
+				Region region = regions.get(i);
+				ByteBuffer src = images.get(i);
+				int rowBytes = region.width * 4;
+				for (int row = 0; row < region.height; row++) {
+					int srcOffset = row * rowBytes;
+					int dstOffset = ((placeY[i] + row) * pageWidth + placeX[i]) * 4;
+					MemoryUtil.memCopy(MemoryUtil.memAddress(src) + srcOffset,
+						MemoryUtil.memAddress(pagePixels) + dstOffset, rowBytes);
+				}
+				region.u0 = (float) placeX[i] / pageWidth;
+				region.v0 = (float) placeY[i] / pageHeight;
+				region.uScale = (float) region.width / pageWidth;
+				region.vScale = (float) region.height / pageHeight;
+			}
+
+			int textureId = GL11.glGenTextures();
+			state.bindTexture(textureId);
+			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+			GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, pageWidth, pageHeight, 0,
+				GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pagePixels);
+			MemoryUtil.memFree(pagePixels);
+			pages.add(textureId);
+			for (int i = 0; i < regions.size(); i++) {
+				if (placePage[i] == p) {
+					regions.get(i).pageTexture = textureId;
+				}
+			}
+			System.out.println("[TextureAtlas] 图集页面 " + p + ": " + pageWidth + "x" + pageHeight);
+		}
+
+		for (ByteBuffer image : images) {
+			STBImage.stbi_image_free(image);
+		}
+		// 过大而未打包的图片不作为图集纹理返回
+		for (int i = 0; i < regions.size(); i++) {
+			if (placePage[i] < 0) {
+				idsByPath.remove(regions.get(i).path);
+			}
+		}
+	}
+
+	/**
+	 * 获取图片在图集中的虚拟纹理ID
+	 * @param path 图片路径
+	 * @return 虚拟纹理ID，未打包时返回-1
+	 */
+	public int getTextureId(String path) {
+		Integer id = idsByPath.get(normalize(path));
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * 判断纹理ID是否为图集虚拟纹理ID
+	 * @param textureId 纹理ID
+	 * @return 是否为图集ID
+	 */
+	public boolean isAtlasId(int textureId) {
+		int index = textureId - ATLAS_ID_BASE;
+		return index >= 0 && index < regions.size() && regions.get(index).pageTexture != 0;
+	}
+
+	/**
+	 * 根据虚拟纹理ID获取区域
+	 * @param textureId 虚拟纹理ID
+	 * @return 区域，ID无效时返回null
+	 */
+	public Region getRegion(int textureId) {
+		return isAtlasId(textureId) ? regions.get(textureId - ATLAS_ID_BASE) : null;
+	}
+
+	/**
+	 * 根据图片路径获取区域
+	 * @param path 图片路径
+	 * @return 区域，未打包时返回null
+	 */
+	public Region getRegion(String path) {
+		return getRegion(getTextureId(path));
+	}
+
+	/**
+	 * 获取图集页面数量
+	 * @return 页面数量
+	 */
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	/**
+	 * 释放所有页面纹理
+	 * @param state GL 状态缓存
+	 */
+	public void cleanup(GLStateCache state) {
+		for (int textureId : pages) {
+			state.onTextureDeleted(textureId);
+			GL11.glDeleteTextures(textureId);
+		}
+		pages.clear();
+		regions.clear();
+		idsByPath.clear();
+		built = false;
+	}
+
+	/**
+	 * 读取图片像素（RGBA），先从文件系统读取，失败时从类路径读取
+	 * @param path 图片路径
+	 * @param size 输出宽高
+	 * @return stb 分配的像素数据，失败时返回null
+	 */
+	private ByteBuffer loadPixels(String path, int[] size) {
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			IntBuffer width = stack.mallocInt(1);
+			IntBuffer height = stack.mallocInt(1);
+			IntBuffer channels = stack.mallocInt(1);
+			ByteBuffer image;
+			Path filePath = Paths.get(path);
+			if (Files.exists(filePath)) {
+				image = STBImage.stbi_load(filePath.toAbsolutePath().toString(), width, height, channels, 4);
+			} else {
+				InputStream inputStream = getClass().getClassLoader().getResourceAsStream(path);
+				if (inputStream == null) {
+					System.err.println("[TextureAtlas] 图片文件不存在: " + path);
+					return null;
+				}
+				byte[] bytes;
+				try (InputStream in = inputStream) {
+					bytes = in.readAllBytes();
+				}
+				ByteBuffer buffer = MemoryUtil.memAlloc(bytes.length);
+				buffer.put(bytes).flip();
+				image = STBImage.stbi_load_from_memory(buffer, width, height, channels, 4);
+				MemoryUtil.memFree(buffer);
+			}
+			if (image == null) {
+				System.err.println("[TextureAtlas] 加载图片失败: " + path + " - " + STBImage.stbi_failure_reason());
+				return null;
+			}
+			size[0] = width.get(0);
+			size[1] = height.get(0);
+			return image;
+		} catch (Exception e) {
+			System.err.println("[TextureAtlas] 加载图片失败: " + path + " - " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static String normalize(String path) {
+		return Paths.get(path).normalize().toString().replace('\\', '/');
+	}
+
+	private static int nextPowerOfTwo(int value) {
+		int result = 1;
+		while (result < value) {
+			result <<= 1;
+		}
+		return result;
+	}
+}
@@ -6,8 +6,14 @@ import stg.base.KeyStateProvider;
  * 虚拟键盘渲染器 - 在左侧面板显示按键状态
  * @since 2026-02-23
  * @author JavaSTG Team
+ * @date 2026-10-18 按键文字颜色改为常量，每帧绘制不再分配数组
  */
 public class VirtualKeyboardRenderer {
+	/** 按下时的文字颜色（白色） */
+	private static final float[] PRESSED_TEXT_COLOR = {1.0f, 1.0f, 1.0f, 1.0f};
+	/** 松开时的文字颜色（灰色） */
+	private static final float[] RELEASED_TEXT_COLOR = {0.7f, 0.7f, 0.7f, 1.0f};
+	
 	private KeyStateProvider keyStateProvider;
 	private int keyWidth = 40;
 	private int keyHeight = 40;
@@ -70,12 +76,12 @@ public class VirtualKeyboardRenderer {
 			renderer.drawRect(x + 2, y + 2, width - 4, height - 4, 0.31f, 0.71f, 0.31f, 1.0f);
 			renderer.drawRect(x + 4, y + 4, width - 8, height - 8, 0.24f, 0.63f, 0.24f, 1.0f);
 			// 绘制文本（白色）
-			renderer.drawText(text, x + width/2 - 10, y + height/2 + 5, 20, new float[]{1.0f, 1.0f, 1.0f, 1.0f});
+			renderer.drawText(text, x + width/2 - 10, y + height/2 + 5, 20, PRESSED_TEXT_COLOR);
 		} else {
 			renderer.drawRect(x, y, width, height, 0.24f, 0.24f, 0.31f, 1.0f);
 			renderer.drawRect(x, y, width, height, 0.39f, 0.39f, 0.47f, 1.0f);
 			// 绘制文本（灰色）
-			renderer.drawText(text, x + width/2 - 10, y + height/2 + 5, 20, new float[]{0.7f, 0.7f, 0.7f, 1.0f});
+			renderer.drawText(text, x + width/2 - 10, y + height/2 + 5, 20, RELEASED_TEXT_COLOR);
 		}
 	}
 }
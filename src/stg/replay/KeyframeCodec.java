@@ -0,0 +1,34 @@
+package stg.replay;
+
+import java.nio.ByteBuffer;
+
+import stg.core.GameSimulation;
+
+/**
+ * 关键帧状态编解码
+ * 把模拟的完整状态写入缓冲，或从缓冲恢复。录像只把结果当作不透明的字节保存。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public interface KeyframeCodec {
+    /**
+     * 把模拟的完整状态写入缓冲
+     * @param simulation 游戏模拟
+     * @param out 目标缓冲，从当前位置开始写入
+     * @throws java.nio.BufferOverflowException 缓冲空间不足时抛出，调用方扩容后重试
+     */
+    void capture(GameSimulation simulation, ByteBuffer out);
+
+    /**
+     * 从缓冲恢复模拟的完整状态（包括本局已执行的步数）
+     * @param simulation 游戏模拟
+     * @param in 状态数据
+     */
+    void restore(GameSimulation simulation, ByteBuffer in);
+
+    /**
+     * 状态数据的格式版本，写入录像文件头；回放时与录像记录的版本不同则不使用关键帧
+     * @return 格式版本
+     */
+    short getStateVersion();
+}
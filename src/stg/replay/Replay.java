@@ -0,0 +1,142 @@
+package stg.replay;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 录像
+ * 一局的种子、关卡组、机体、每步的按键位掩码以及按模拟步排序的关键帧。
+ * 同一种子加同一串按键即可逐步复现一局，关键帧用于快速跳转。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public final class Replay {
+    /** 本局种子 */
+    private final long seed;
+    /** 关卡组显示名称 */
+    private final String stageGroupName;
+    /** 机体类名 */
+    private final String playerClass;
+    /** 每步的按键位掩码 */
+    private final int[] masks;
+    /** 关键帧，按模拟步升序 */
+    private final List<ReplayKeyframe> keyframes;
+    /** 关键帧状态数据的格式版本（见 {@link KeyframeCodec#getStateVersion()}），没有状态数据时为0 */
+    private final short keyframeVersion;
+
+    /**
+     * 构造函数
+     * @param seed 本局种子
+     * @param stageGroupName 关卡组显示名称
+     * @param playerClass 机体类名
+     * @param masks 每步的按键位掩码（不复制，调用方之后不应再修改）
+     * @param keyframes 关键帧，按模拟步升序
+     * @param keyframeVersion 关键帧状态数据的格式版本，没有状态数据时为0
+     */
+    public Replay(long seed, String stageGroupName, String playerClass, int[] masks, List<ReplayKeyframe> keyframes,
+            short keyframeVersion) {
+        this.seed = seed;
+        this.stageGroupName = stageGroupName != null ? stageGroupName : "";
+        this.playerClass = playerClass != null ? playerClass : "";
+        this.masks = masks;
+        this.keyframes = Collections.unmodifiableList(keyframes);
+        this.keyframeVersion = keyframeVersion;
+    }
+
+    /**
+     * 获取本局种子
+     * @return 种子
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 获取关卡组显示名称
+     * @return 关卡组显示名称
+     */
+    public String getStageGroupName() {
+        return stageGroupName;
+    }
+
+    /**
+     * 获取机体类名
+     * @return 机体类名
+     */
+    public String getPlayerClass() {
+        return playerClass;
+    }
+
+    /**
+     * 获取录像的总步数
+     * @return 步数
+     */
+    public int getTickCount() {
+        return masks.length;
+    }
+
+    /**
+     * 获取每步的按键位掩码（内部数组，不可修改）
+     * @return 按键位掩码
+     */
+    public int[] getMasks() {
+        return masks;
+    }
+
+    /**
+     * 获取全部关键帧
+     * @return 只读关键帧列表
+     */
+    public List<ReplayKeyframe> getKeyframes() {
+        return keyframes;
+    }
+
+    /**
+     * 获取关键帧状态数据的格式版本
+     * @return 格式版本，没有状态数据时为0
+     */
+    public short getKeyframeVersion() {
+        return keyframeVersion;
+    }
+
+    /**
+     * 查找不晚于指定步、且带有状态数据的最后一个关键帧
+     * @param tick 目标模拟步
+     * @return 关键帧，没有时返回null
+     */
+    public ReplayKeyframe findKeyframe(long tick) {
+        int low = 0;
+        int high = keyframes.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keyframes.get(mid).getTick() <= tick) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        for (int i = found; i >= 0; i--) {
+            if (keyframes.get(i).hasState()) {
+                return keyframes.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找第 n 张符卡开始时的关键帧
+     * @param ordinal 符卡序号（从0开始）
+     * @return 关键帧，不存在时返回null
+     */
+    public ReplayKeyframe findSpellcardKeyframe(int ordinal) {
+        int count = 0;
+        for (ReplayKeyframe keyframe : keyframes) {
+            if (keyframe.getKind() == ReplayKeyframe.KIND_SPELLCARD && count++ == ordinal) {
+                return keyframe;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,123 @@
+package stg.replay;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 录像文件读取器
+ * 打开时只读取文件头、按键段和关键帧索引；关键帧的状态数据在需要时按索引中的偏移单独读取，
+ * 所以打开长录像和跳转到任意关键帧都只需要少量读盘。使用完毕后需要关闭。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public final class ReplayFile implements AutoCloseable {
+    /** 文件通道 */
+    private final FileChannel channel;
+    /** 读入的录像 */
+    private final Replay replay;
+
+    private ReplayFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < ReplayFormat.TRAILER_SIZE) {
+            throw new IOException("不是录像文件（长度过短）");
+        }
+        ByteBuffer trailer = readFully(size - ReplayFormat.TRAILER_SIZE, ReplayFormat.TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != ReplayFormat.MAGIC || indexOffset < 0 || indexOffset > size - ReplayFormat.TRAILER_SIZE) {
+            throw new IOException("不是录像文件（文件尾损坏）");
+        }
+
+        ByteBuffer index = readFully(indexOffset, (int) (size - ReplayFormat.TRAILER_SIZE - indexOffset));
+        int keyframeCount = index.getInt();
+        List<ReplayKeyframe> keyframes = new ArrayList<>(keyframeCount);
+        long firstStateOffset = indexOffset;
+        for (int i = 0; i < keyframeCount; i++) {
+            long tick = index.getLong();
+            int kind = index.get();
+            long checksum = index.getLong();
+            long offset = index.getLong();
+            int length = index.getInt();
+            firstStateOffset = Math.min(firstStateOffset, offset);
+            keyframes.add(new ReplayKeyframe(tick, kind, checksum, offset, length, this));
+        }
+
+        // 文件头和按键段位于第一个关键帧之前，一次读入
+        ByteBuffer head = readFully(0, (int) firstStateOffset);
+        if (head.getInt() != ReplayFormat.MAGIC) {
+            throw new IOException("不是录像文件（文件头损坏）");
+        }
+        short version = head.getShort();
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("不支持的录像版本: " + version);
+        }
+        short keyframeVersion = head.getShort();
+        long seed = head.getLong();
+        int tickCount = head.getInt();
+        String stageGroupName = ReplayFormat.getString(head);
+        String playerClass = ReplayFormat.getString(head);
+        int[] masks;
+        try {
+            masks = ReplayFormat.decodeInputs(head, tickCount);
+        } catch (IllegalArgumentException | java.nio.BufferUnderflowException e) {
+            throw new IOException("录像按键段损坏", e);
+        }
+        this.replay = new Replay(seed, stageGroupName, playerClass, masks, keyframes, keyframeVersion);
+    }
+
+    /**
+     * 打开录像文件
+     * @param path 文件路径
+     * @return 录像文件
+     * @throws IOException 文件不存在或格式错误时抛出
+     */
+    public static ReplayFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ReplayFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 获取录像，关键帧状态在访问时从本文件读取，所以在读取完成前不要关闭
+     * @return 录像
+     */
+    public Replay getReplay() {
+        return replay;
+    }
+
+    /**
+     * 按偏移读取关键帧状态
+     */
+    ByteBuffer readState(long offset, int length) {
+        try {
+            return readFully(offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取关键帧失败", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("录像文件意外结束");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,150 @@
+package stg.replay;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 录像文件格式
+ * <p>
+ * 文件依次为：文件头、按键段、关键帧段、关键帧索引、文件尾，全部为大端序。
+ * <pre>
+ * 文件头    int 魔数 'STGR' | short 版本 | short 关键帧状态版本 | long 种子 | int 总步数
+ *           | 字符串 关卡组名 | 字符串 机体类名（字符串为 short 长度 + UTF-8）
+ * 按键段    int 字节数 | 若干 (变长整数 与上一段掩码的异或, 变长整数 连续步数)
+ * 关键帧段  每个关键帧的状态数据，依次排列
+ * 索引      int 关键帧数 | 每项 long 模拟步, byte 类型, long 校验和, long 偏移, int 长度
+ * 文件尾    long 索引偏移 | int 魔数
+ * </pre>
+ * 按键掩码在长时间内保持不变，按"异或差值 + 连续步数"游程编码后，十分钟的录像通常只有几KB。
+ * 打开文件时先读文件尾定位索引，跳转时只按偏移读取需要的那一个关键帧。
+ * 关键帧状态版本是写入时 {@link KeyframeCodec#getStateVersion()} 的值，
+ * 与当前版本不同时关键帧不可恢复，回放跳转改为从头模拟。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ * @date 2026-10-18 格式版本升为2，文件头的保留字段改为关键帧状态版本
+ */
+final class ReplayFormat {
+    /** 魔数 'STGR' */
+    static final int MAGIC = 0x53544752;
+    /** 格式版本（2：文件头记录关键帧状态版本） */
+    static final short VERSION = 2;
+    /** 文件头定长部分的长度（魔数、版本、关键帧状态版本、种子、总步数），之后是两个变长字符串 */
+    static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES;
+    /** 文件尾长度 */
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+    /** 每个索引项的长度 */
+    static final int INDEX_ENTRY_SIZE = Long.BYTES + 1 + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private ReplayFormat() {
+    }
+
+    /**
+     * 编码文件头
+     * @param replay 录像
+     * @return 已 flip 的缓冲
+     */
+    static ByteBuffer encodeHeader(Replay replay) {
+        byte[] group = replay.getStageGroupName().getBytes(StandardCharsets.UTF_8);
+        byte[] player = replay.getPlayerClass().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + Short.BYTES + group.length + Short.BYTES + player.length);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort(replay.getKeyframeVersion());
+        buffer.putLong(replay.getSeed());
+        buffer.putInt(replay.getTickCount());
+        putBytes(buffer, group);
+        putBytes(buffer, player);
+        return buffer.flip();
+    }
+
+    /**
+     * 游程编码按键段（含前置的字节数）
+     * @param masks 每步的按键位掩码
+     * @return 已 flip 的缓冲
+     */
+    static ByteBuffer encodeInputs(int[] masks) {
+        // 最坏情况每步一段，每段两个最长5字节的变长整数
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + masks.length * 10);
+        buffer.position(Integer.BYTES);
+        int previous = 0;
+        int i = 0;
+        while (i < masks.length) {
+            int mask = masks[i];
+            int run = 1;
+            while (i + run < masks.length && masks[i + run] == mask) {
+                run++;
+            }
+            putVarint(buffer, mask ^ previous);
+            putVarint(buffer, run);
+            previous = mask;
+            i += run;
+        }
+        buffer.putInt(0, buffer.position() - Integer.BYTES);
+        return buffer.flip();
+    }
+
+    /**
+     * 解码按键段
+     * @param buffer 位于按键段开头的缓冲
+     * @param tickCount 总步数
+     * @return 每步的按键位掩码
+     * @throws IllegalArgumentException 数据损坏时抛出
+     */
+    static int[] decodeInputs(ByteBuffer buffer, int tickCount) {
+        int length = buffer.getInt();
+        int end = buffer.position() + length;
+        int[] masks = new int[tickCount];
+        int mask = 0;
+        int i = 0;
+        while (buffer.position() < end) {
+            mask ^= getVarint(buffer);
+            int run = getVarint(buffer);
+            if (run <= 0 || i + run > tickCount) {
+                throw new IllegalArgumentException("按键段损坏: 第 " + i + " 步");
+            }
+            Arrays.fill(masks, i, i + run, mask);
+            i += run;
+        }
+        if (i != tickCount) {
+            throw new IllegalArgumentException("按键段长度不符: " + i + " / " + tickCount);
+        }
+        return masks;
+    }
+
+    /**
+     * 读取短字符串
+     * @param buffer 缓冲
+     * @return 字符串
+     */
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("变长整数过长");
+    }
+}
@@ -0,0 +1,111 @@
+package stg.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 录像关键帧
+ * 记录某一模拟步结束时的完整状态，回放时可直接恢复到这里，不必从第0步重新模拟。
+ * 从文件打开的录像只读入关键帧索引，状态数据在第一次 {@link #getState()} 时按偏移读取。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public final class ReplayKeyframe {
+    /** 周期关键帧 */
+    public static final int KIND_PERIODIC = 0;
+    /** 符卡开始时的关键帧 */
+    public static final int KIND_SPELLCARD = 1;
+
+    /** 关键帧所在的模拟步（已执行的步数） */
+    private final long tick;
+    /** 关键帧类型 */
+    private final int kind;
+    /** 该步的状态校验和 */
+    private final long checksum;
+    /** 状态数据，未读入或未记录时为null */
+    private ByteBuffer state;
+    /** 状态数据在文件中的偏移和长度（录制中的关键帧为-1） */
+    private final long fileOffset;
+    private final int stateLength;
+    /** 按需读取状态数据的录像文件 */
+    private final ReplayFile source;
+
+    /**
+     * 构造函数 - 录制时使用
+     * @param tick 模拟步
+     * @param kind 关键帧类型
+     * @param checksum 状态校验和
+     * @param state 状态数据，可为null
+     */
+    public ReplayKeyframe(long tick, int kind, long checksum, ByteBuffer state) {
+        this.tick = tick;
+        this.kind = kind;
+        this.checksum = checksum;
+        this.state = state;
+        this.fileOffset = -1;
+        this.stateLength = state != null ? state.remaining() : 0;
+        this.source = null;
+    }
+
+    /**
+     * 构造函数 - 从文件索引读入时使用
+     */
+    ReplayKeyframe(long tick, int kind, long checksum, long fileOffset, int stateLength, ReplayFile source) {
+        this.tick = tick;
+        this.kind = kind;
+        this.checksum = checksum;
+        this.fileOffset = fileOffset;
+        this.stateLength = stateLength;
+        this.source = source;
+    }
+
+    /**
+     * 获取关键帧所在的模拟步
+     * @return 模拟步
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * 获取关键帧类型
+     * @return KIND_PERIODIC 或 KIND_SPELLCARD
+     */
+    public int getKind() {
+        return kind;
+    }
+
+    /**
+     * 获取状态校验和
+     * @return 校验和
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * 是否带有状态数据（不带状态的关键帧只用于定位和校验）
+     * @return 是否带有状态数据
+     */
+    public boolean hasState() {
+        return stateLength > 0;
+    }
+
+    /**
+     * 获取状态数据，从文件打开的录像会在第一次调用时读取
+     * @return 状态数据的只读视图，没有状态时返回null
+     */
+    public ByteBuffer getState() {
+        if (state == null && source != null && stateLength > 0) {
+            state = source.readState(fileOffset, stateLength);
+        }
+        return state != null ? state.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * 获取状态数据长度（字节）
+     * @return 长度
+     */
+    public int getStateLength() {
+        return stateLength;
+    }
+}
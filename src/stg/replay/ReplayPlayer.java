@@ -0,0 +1,123 @@
+package stg.replay;
+
+import java.util.function.LongConsumer;
+
+import stg.base.InputPlayback;
+import stg.core.GameSimulation;
+
+/**
+ * 录像播放器
+ * 把录像的按键交给模拟逐步回放，并支持跳转到任意步或任意符卡：
+ * 先恢复到目标之前最近的带状态关键帧，再快速模拟剩下的步数；没有可用关键帧时从头重新开始。
+ * 录像的关键帧状态版本与编解码的版本不同时（录像由旧版本保存），不使用关键帧。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ * @date 2026-10-18 关键帧状态版本不符时不恢复关键帧
+ */
+public class ReplayPlayer {
+    /** 录像 */
+    private final Replay replay;
+    /** 游戏模拟 */
+    private final GameSimulation simulation;
+    /** 关键帧状态编解码，为null（或录像的关键帧版本不符）时跳转总是从头模拟 */
+    private final KeyframeCodec codec;
+    /** 用指定种子从第0步重新开始一局（重置关卡组和玩家，并调用 GameSimulation.startRun） */
+    private final LongConsumer restart;
+    /** 按键回放 */
+    private final InputPlayback playback;
+
+    /**
+     * 构造函数
+     * @param replay 录像
+     * @param simulation 游戏模拟
+     * @param codec 关键帧状态编解码，为null或与录像的关键帧状态版本不同时跳转总是从头模拟
+     * @param restart 用指定种子从第0步重新开始一局
+     */
+    public ReplayPlayer(Replay replay, GameSimulation simulation, KeyframeCodec codec, LongConsumer restart) {
+        this.replay = replay;
+        this.simulation = simulation;
+        this.codec = codec != null && codec.getStateVersion() == replay.getKeyframeVersion() ? codec : null;
+        this.restart = restart;
+        this.playback = new InputPlayback(replay.getMasks());
+    }
+
+    /**
+     * 从第0步开始回放
+     */
+    public void start() {
+        simulation.setInput(playback);
+        restart.accept(replay.getSeed());
+    }
+
+    /**
+     * 回放一步
+     * @return 是否执行了一步（录像播完后返回false）
+     */
+    public boolean step() {
+        if (isFinished()) {
+            return false;
+        }
+        simulation.tick();
+        return true;
+    }
+
+    /**
+     * 录像是否已播完
+     * @return 是否已播完
+     */
+    public boolean isFinished() {
+        return simulation.getRunTick() >= replay.getTickCount();
+    }
+
+    /**
+     * 跳转到指定步（该步执行完之后的状态）
+     * @param targetTick 目标步，超出录像长度时停在末尾
+     * @return 实际模拟的步数
+     */
+    public long seek(long targetTick) {
+        long target = Math.min(Math.max(targetTick, 0), replay.getTickCount());
+        long current = simulation.getRunTick();
+        ReplayKeyframe keyframe = codec != null ? replay.findKeyframe(target) : null;
+        if (keyframe != null && (keyframe.getTick() > current || target < current)) {
+            codec.restore(simulation, keyframe.getState());
+        } else if (target < current) {
+            start();
+        }
+        long simulated = 0;
+        while (simulation.getRunTick() < target) {
+            simulation.tick();
+            simulated++;
+        }
+        return simulated;
+    }
+
+    /**
+     * 跳转到第 n 张符卡开始时
+     * @param ordinal 符卡序号（从0开始）
+     * @return 是否找到该符卡
+     */
+    public boolean seekToSpellcard(int ordinal) {
+        ReplayKeyframe keyframe = replay.findSpellcardKeyframe(ordinal);
+        if (keyframe == null) {
+            return false;
+        }
+        seek(keyframe.getTick());
+        return true;
+    }
+
+    /**
+     * 跳转时是否恢复关键帧
+     * @return 有编解码且关键帧状态版本相符时为true，否则跳转从头模拟
+     */
+    public boolean usesKeyframes() {
+        return codec != null;
+    }
+
+    /**
+     * 获取录像
+     * @return 录像
+     */
+    public Replay getReplay() {
+        return replay;
+    }
+}
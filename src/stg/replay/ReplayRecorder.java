@@ -0,0 +1,169 @@
+package stg.replay;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import stg.base.InputRecorder;
+import stg.core.GameSimulation;
+import stg.entity.enemy.ISpellcard;
+
+/**
+ * 录像录制器
+ * 每个模拟步之后调用 {@link #onTick(GameSimulation)}：按键由 {@link InputRecorder} 逐步记录，
+ * 这里负责在每张符卡开始时和每隔固定步数记录关键帧。一局结束时用 {@link #finish()} 得到录像，
+ * 交给 {@link ReplayWriter} 在后台写盘。
+ * <p>
+ * 关键帧的状态由 {@link KeyframeCodec} 写入一块复用的直接缓冲，再复制成紧凑的副本保存；
+ * 没有编解码器时关键帧只记录位置和校验和，回放跳转退化为从头快速模拟。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class ReplayRecorder {
+    /** 周期关键帧间隔（30秒） */
+    public static final int KEYFRAME_INTERVAL_TICKS = 30 * 60;
+    /** 状态缓冲的初始大小 */
+    private static final int INITIAL_STATE_CAPACITY = 64 * 1024;
+
+    /** 按键录制器 */
+    private final InputRecorder inputRecorder;
+    /** 关键帧状态编解码，可为null */
+    private KeyframeCodec codec;
+    /** 复用的状态缓冲 */
+    private ByteBuffer scratch;
+    /** 本局的关键帧 */
+    private final List<ReplayKeyframe> keyframes = new ArrayList<>();
+    /** 本局种子 */
+    private long seed;
+    /** 关卡组显示名称 */
+    private String stageGroupName;
+    /** 机体类名 */
+    private String playerClass;
+    /** 上一步的符卡 */
+    private ISpellcard lastSpellcard;
+    /** 是否正在录制 */
+    private boolean recording;
+
+    /**
+     * 构造函数
+     * @param inputRecorder 按键录制器（需已设为模拟的输入）
+     * @param codec 关键帧状态编解码，为null时关键帧不带状态
+     */
+    public ReplayRecorder(InputRecorder inputRecorder, KeyframeCodec codec) {
+        this.inputRecorder = inputRecorder;
+        this.codec = codec;
+    }
+
+    /**
+     * 设置关键帧状态编解码
+     * @param codec 编解码，为null时关键帧不带状态
+     */
+    public void setCodec(KeyframeCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * 开始录制新的一局（在 GameSimulation.startRun 之后调用）
+     * @param seed 本局种子
+     * @param stageGroupName 关卡组显示名称
+     * @param playerClass 机体类名
+     */
+    public void begin(long seed, String stageGroupName, String playerClass) {
+        this.seed = seed;
+        this.stageGroupName = stageGroupName;
+        this.playerClass = playerClass;
+        keyframes.clear();
+        lastSpellcard = null;
+        recording = true;
+    }
+
+    /**
+     * 模拟步结束后调用，需要时记录关键帧
+     * @param simulation 游戏模拟
+     */
+    public void onTick(GameSimulation simulation) {
+        if (!recording) {
+            return;
+        }
+        ISpellcard spellcard = simulation.findCurrentSpellcard();
+        if (spellcard != null && spellcard != lastSpellcard) {
+            addKeyframe(simulation, ReplayKeyframe.KIND_SPELLCARD);
+        } else if (simulation.getRunTick() % KEYFRAME_INTERVAL_TICKS == 0) {
+            addKeyframe(simulation, ReplayKeyframe.KIND_PERIODIC);
+        }
+        lastSpellcard = spellcard;
+    }
+
+    /**
+     * 模拟被恢复到较早的快照后调用：丢弃当前步之后的关键帧，之后的按键由 InputRecorder 覆盖记录，
+     * 录像仍然可以从种子完整复现
+     * @param simulation 已恢复的游戏模拟
+     */
+    public void rewind(GameSimulation simulation) {
+        if (!recording) {
+            return;
+        }
+        long tick = simulation.getRunTick();
+        for (int i = keyframes.size() - 1; i >= 0 && keyframes.get(i).getTick() > tick; i--) {
+            keyframes.remove(i);
+        }
+        lastSpellcard = simulation.findCurrentSpellcard();
+    }
+
+    /**
+     * 结束录制，返回本局录像
+     * @return 录像，未在录制时返回null
+     */
+    public Replay finish() {
+        if (!recording) {
+            return null;
+        }
+        recording = false;
+        return new Replay(seed, stageGroupName, playerClass, inputRecorder.toArray(), new ArrayList<>(keyframes),
+            codec != null ? codec.getStateVersion() : 0);
+    }
+
+    /**
+     * 是否正在录制
+     * @return 是否正在录制
+     */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * 获取本局已记录的关键帧数
+     * @return 关键帧数
+     */
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    private void addKeyframe(GameSimulation simulation, int kind) {
+        ByteBuffer state = null;
+        if (codec != null) {
+            state = captureState(simulation);
+        }
+        keyframes.add(new ReplayKeyframe(simulation.getRunTick(), kind, simulation.computeChecksum(), state));
+    }
+
+    private ByteBuffer captureState(GameSimulation simulation) {
+        if (scratch == null) {
+            scratch = ByteBuffer.allocateDirect(INITIAL_STATE_CAPACITY);
+        }
+        while (true) {
+            scratch.clear();
+            try {
+                codec.capture(simulation, scratch);
+                break;
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocateDirect(scratch.capacity() * 2);
+            }
+        }
+        scratch.flip();
+        ByteBuffer copy = ByteBuffer.allocate(scratch.remaining());
+        copy.put(scratch);
+        return copy.flip();
+    }
+}
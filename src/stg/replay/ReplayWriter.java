@@ -0,0 +1,130 @@
+package stg.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 录像写入器
+ * 在后台线程上编码录像并用 FileChannel 写入文件，游戏线程只提交任务、不等待磁盘。
+ * 先写入同目录下的临时文件，完成后再替换目标文件，写到一半退出不会留下损坏的录像。
+ * 写入线程是守护线程，程序退出前应调用 {@link #shutdown(long)} 等待已提交的写入完成。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public final class ReplayWriter {
+    private static final ReplayWriter INSTANCE = new ReplayWriter();
+
+    /** 单个守护线程，按提交顺序写入 */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "STG-ReplayWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ReplayWriter() {
+    }
+
+    /**
+     * 获取单例实例
+     * @return 录像写入器
+     */
+    public static ReplayWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提交写入任务，立即返回
+     * @param replay 录像（提交后不应再修改）
+     * @param path 目标文件，所在目录不存在时自动创建
+     * @return 写入完成后得到目标文件路径，失败时以异常完成
+     */
+    public Future<Path> write(Replay replay, Path path) {
+        return executor.submit(() -> {
+            try {
+                writeNow(replay, path);
+                System.out.println("[ReplayWriter] 录像已保存: " + path + "（" + Files.size(path) + " 字节）");
+                return path;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[ReplayWriter] 录像保存失败: " + path + " - " + e.getMessage());
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * 停止接受新的写入，并等待已提交的写入完成（程序退出前调用）
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否在超时前全部写完
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 在当前线程上写入录像
+     * @param replay 录像
+     * @param path 目标文件
+     * @throws IOException 写入失败时抛出
+     */
+    public static void writeNow(Replay replay, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ReplayFormat.encodeHeader(replay));
+            writeFully(channel, ReplayFormat.encodeInputs(replay.getMasks()));
+
+            List<ReplayKeyframe> keyframes = replay.getKeyframes();
+            ByteBuffer index = ByteBuffer.allocate(Integer.BYTES + keyframes.size() * ReplayFormat.INDEX_ENTRY_SIZE);
+            index.putInt(keyframes.size());
+            for (ReplayKeyframe keyframe : keyframes) {
+                long offset = channel.position();
+                ByteBuffer state = keyframe.getState();
+                int length = 0;
+                if (state != null) {
+                    length = state.remaining();
+                    writeFully(channel, state);
+                }
+                index.putLong(keyframe.getTick());
+                index.put((byte) keyframe.getKind());
+                index.putLong(keyframe.getChecksum());
+                index.putLong(offset);
+                index.putInt(length);
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, index.flip());
+            ByteBuffer trailer = ByteBuffer.allocate(ReplayFormat.TRAILER_SIZE);
+            trailer.putLong(indexOffset);
+            trailer.putInt(ReplayFormat.MAGIC);
+            writeFully(channel, trailer.flip());
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
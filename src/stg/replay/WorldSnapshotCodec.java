@@ -0,0 +1,32 @@
+package stg.replay;
+
+import java.nio.ByteBuffer;
+
+import stg.core.GameSimulation;
+import stg.core.WorldSnapshot;
+
+/**
+ * 基于 {@link WorldSnapshot} 的关键帧状态编解码
+ * 关键帧保存完整的世界快照，回放跳转时直接恢复，不需要从头模拟。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class WorldSnapshotCodec implements KeyframeCodec {
+    /** 读写快照用的世界快照（只使用它的 write/read，不占用它自己的缓冲） */
+    private final WorldSnapshot snapshot = new WorldSnapshot(0);
+
+    @Override
+    public void capture(GameSimulation simulation, ByteBuffer out) {
+        snapshot.write(simulation, out);
+    }
+
+    @Override
+    public void restore(GameSimulation simulation, ByteBuffer in) {
+        snapshot.read(simulation, in);
+    }
+
+    @Override
+    public short getStateVersion() {
+        return WorldSnapshot.VERSION;
+    }
+}
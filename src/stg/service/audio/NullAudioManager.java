@@ -0,0 +1,78 @@
+package stg.service.audio;
+
+/**
+ * 空音频管理器 - 不打开任何音频设备，所有调用直接忽略
+ * 用于无头运行（CI、压力测试）等没有 OpenAL 设备的环境
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public class NullAudioManager implements IAudioManager {
+    private boolean initialized = false;
+
+    @Override
+    public void init() {
+        initialized = true;
+    }
+
+    @Override
+    public void loadMusic(String name, String path) {
+    }
+
+    @Override
+    public void loadSound(String name, String path) {
+    }
+
+    @Override
+    public void playMusic(String name, boolean loop) {
+    }
+
+    @Override
+    public void playSound(String name) {
+    }
+
+    @Override
+    public void stopMusic(String name) {
+    }
+
+    @Override
+    public void stopAllSounds() {
+    }
+
+    @Override
+    public void setMusicVolume(float volume) {
+    }
+
+    @Override
+    public void setSoundVolume(float volume) {
+    }
+
+    @Override
+    public void pauseMusic(String name) {
+    }
+
+    @Override
+    public void resumeMusic(String name) {
+    }
+
+    @Override
+    public void unloadMusic(String name) {
+    }
+
+    @Override
+    public void unloadSound(String name) {
+    }
+
+    @Override
+    public void unloadAll() {
+    }
+
+    @Override
+    public void cleanup() {
+        initialized = false;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return initialized;
+    }
+}
@@ -1,14 +1,26 @@
 package stg.stage;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import stg.entity.enemy.Enemy;
 import stg.core.GameWorld;
+import stg.core.Snapshotable;
+import stg.core.Task;
+import stg.core.TaskScheduler;
+import stg.core.WorldSnapshot;
+import stg.util.objectpool.ObjectPoolConfig;
+import stg.util.objectpool.ObjectPoolManager;
+import stg.util.objectpool.PoolProfile;
 
 /**
  * 关卡类 - 管理单个关卡的逻辑
  * @since 2026-01-30
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复关卡状态和帧数，子类追加自己的波次状态
+ * @date 2026-10-18 关卡结束时输出对象池统计（-Dstg.poolStats=true），并开始新的峰值统计区间
+ * @date 2026-10-18 加载时预热对象池，关卡结束或中途清理时把峰值写入 PoolProfile
+ * @date 2026-10-18 添加任务调度器，关卡脚本可以写成等待若干帧或条件的任务（startTask）
  */
-public abstract class Stage {
+public abstract class Stage implements Snapshotable {
     private final String stageName;
     private final int stageId;
     private State state;
@@ -17,6 +29,8 @@ public abstract class Stage {
     
     // 波次管理相关字段
     protected int currentFrame = 0;
+    /** 关卡脚本任务，与 currentFrame 同步推进，第一次用到时创建 */
+    private TaskScheduler tasks;
 
     /**
      * 关卡状态枚举
@@ -66,7 +80,9 @@ public abstract class Stage {
     public void end() {
         if (state == State.STARTED) {
             state = State.COMPLETED;
+            tasks().cancelAll();
             onStageEnd();
+            finishPoolStats();
         }
     }
 
@@ -95,6 +111,7 @@ public abstract class Stage {
      */
     protected void setLoaded() {
         this.state = State.LOADED;
+        prewarmPools();
     }
 
     /**
@@ -102,10 +119,40 @@ public abstract class Stage {
      */
     public void cleanup() {
         if (state != State.CLEANED_UP) {
+            if (state == State.STARTED) {
+                // 关卡中途被清理（进入下一关、重新开始或退出）时同样记录本关的对象池峰值
+                finishPoolStats();
+            }
             // 敌人清理逻辑由GameWorld负责
+            tasks().cancelAll();
             state = State.CLEANED_UP;
         }
     }
+    
+    /**
+     * 按配置的初始容量和上次运行记录的峰值预热对象池，并开始本关的峰值统计
+     */
+    private void prewarmPools() {
+        long start = System.nanoTime();
+        int created = ObjectPoolConfig.prewarm(stageName);
+        if (created > 0) {
+            System.out.printf("[Stage] %s 预先创建 %d 个池化对象，用时 %.1f 毫秒%n",
+                stageName, created, (System.nanoTime() - start) / 1_000_000.0);
+        }
+        ObjectPoolManager.getInstance().resetPeaks();
+    }
+    
+    /**
+     * 本关结束：输出对象池统计（-Dstg.poolStats=true），把峰值写入 PoolProfile，并开始新的峰值统计区间
+     */
+    private void finishPoolStats() {
+        ObjectPoolManager pools = ObjectPoolManager.getInstance();
+        if (ObjectPoolManager.isStatsReportEnabled()) {
+            pools.printStats("关卡结束: " + stageName);
+        }
+        PoolProfile.getInstance().record(stageName, pools.getAllStats());
+        pools.resetPeaks();
+    }
 
     /**
      * 添加敌人到关卡
@@ -219,6 +266,7 @@ public abstract class Stage {
         if (isActive()) {
             currentFrame++;
             updateWaveLogic();
+            tasks().update();
         }
         checkCompletion();
     }
@@ -231,6 +279,35 @@ public abstract class Stage {
         // 子类可以重写此方法实现具体的波次管理
     }
 
+    /**
+     * 获取关卡脚本任务调度器，第一次调用时创建（不在构造期间把 this 交给调度器）
+     * @return 任务调度器
+     */
+    private TaskScheduler tasks() {
+        if (tasks == null) {
+            tasks = new TaskScheduler(this);
+        }
+        return tasks;
+    }
+
+    /**
+     * 启动关卡脚本任务，下一帧开始运行
+     * @param task 任务
+     */
+    protected void startTask(Task<? extends Stage> task) {
+        tasks().start(task);
+    }
+
+    /**
+     * 延迟若干帧后启动关卡脚本任务（通常在 onStageStart 中调用）
+     * 任务的所属对象为本关卡，在关卡结束或清理时一起结束
+     * @param task 任务
+     * @param delay 从当前帧起的延迟帧数，例如在 onStageStart 中传60表示第60帧开始
+     */
+    protected void startTask(Task<? extends Stage> task, int delay) {
+        tasks().start(task, delay);
+    }
+
     /**
      * 获取当前帧数
      * @return 当前帧数
@@ -244,6 +321,29 @@ public abstract class Stage {
      */
     public void reset() {
         this.state = State.CREATED;
+        tasks().clear();
         initStage();
     }
+    
+    /**
+     * 保存关卡状态
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        WorldSnapshot.putEnum(out, state);
+        out.putInt(currentFrame);
+        tasks().saveState(out);
+    }
+    
+    /**
+     * 恢复关卡状态（不会再次调用 load() 和 start()）
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        state = WorldSnapshot.getEnum(in, State.values());
+        currentFrame = in.getInt();
+        tasks().loadState(in);
+    }
 }
@@ -1,15 +1,20 @@
 package stg.stage;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
 import stg.core.GameWorld;
+import stg.core.Snapshotable;
+import stg.core.WorldSnapshot;
 
 /**
  * 关卡组类 - 管理多个关卡的顺序、切换和状态
  * @since 2026-01-30
+ * @date 2026-10-18 实现 Snapshotable，保存和恢复当前关卡序号、完成标记和每个关卡的状态
+ * @date 2026-10-18 保存关卡状态时按下标遍历，不创建迭代器
  */
-public class StageGroup {
+public class StageGroup implements Snapshotable {
     private String groupName;
     private String description;
     private Difficulty difficulty;
@@ -224,6 +229,41 @@ public class StageGroup {
         initStages();
     }
 
+    /**
+     * 保存关卡组状态
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putInt(currentStageIndex);
+        WorldSnapshot.putBoolean(out, completed);
+        out.putInt(stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            stages.get(i).saveState(out);
+        }
+    }
+
+    /**
+     * 恢复关卡组状态，关卡列表已被清理时先重新创建关卡
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        currentStageIndex = in.getInt();
+        completed = WorldSnapshot.getBoolean(in);
+        int count = in.getInt();
+        if (stages.size() != count) {
+            stages = new ArrayList<>();
+            initStages();
+        }
+        if (stages.size() != count) {
+            throw new IllegalStateException("关卡数量与快照不一致: " + stages.size() + " != " + count);
+        }
+        for (Stage stage : stages) {
+            stage.loadState(in);
+        }
+    }
+
     /**
      * 获取游戏世界引用
      * @return 游戏世界引用
@@ -16,6 +16,7 @@ import stg.util.LogUtil;
  * 关卡组发现器 - 负责发现所有 StageGroup 的子类
  * @since 2026-02-16
  * @date 2026-02-26 优化关卡扫描逻辑
+ * @date 2026-10-18 目录扫描不再跳过目标包的上级目录
  */
 public class StageGroupDiscovery {
     
@@ -120,8 +121,9 @@ public class StageGroupDiscovery {
                                .replace(File.separatorChar, '/');
         if (relPath.startsWith("/")) relPath = relPath.substring(1);
         
-        // 非目标包则跳过（大小写不敏感）
-        if (!relPath.isEmpty() && !relPath.toLowerCase().startsWith(packagePathLower)) {
+        // 非目标包则跳过（大小写不敏感，目标包的上级目录需要继续向下查找）
+        if (!relPath.isEmpty() && !relPath.toLowerCase().startsWith(packagePathLower)
+                && !packagePathLower.startsWith(relPath.toLowerCase() + "/")) {
             return;
         }
         
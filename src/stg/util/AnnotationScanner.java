@@ -131,8 +131,9 @@ public class AnnotationScanner {
                                .replace(File.separatorChar, '/');
         if (relPath.startsWith("/")) relPath = relPath.substring(1);
         
-        // 跳过非目标包的目录
-        if (!relPath.isEmpty() && !relPath.toLowerCase().startsWith(packagePathLower)) {
+        // 跳过非目标包的目录（目标包的上级目录需要继续向下查找）
+        if (!relPath.isEmpty() && !relPath.toLowerCase().startsWith(packagePathLower)
+                && !packagePathLower.startsWith(relPath.toLowerCase() + "/")) {
             return;
         }
         
@@ -4,6 +4,7 @@ package stg.util;
  * 边界工具类 - 提供边界检查相关的功能
  * @since 26-04-07 初始创建
  * @author JavaSTG Team
+ * @date 2026-10-18 修正上下边界判断（Y轴向上为正，原判断会把场内物体判为出界）
  */
 public class BoundsUtil {
     /**
@@ -25,8 +26,8 @@ public class BoundsUtil {
         
         float leftBound = coordinateSystem.getLeftBound() - size;
         float rightBound = coordinateSystem.getRightBound() + size;
-        float topBound = coordinateSystem.getTopBound() - size;
-        float bottomBound = coordinateSystem.getBottomBound() + size;
-        return x < leftBound || x > rightBound || y < topBound || y > bottomBound;
+        float topBound = coordinateSystem.getTopBound() + size;
+        float bottomBound = coordinateSystem.getBottomBound() - size;
+        return x < leftBound || x > rightBound || y < bottomBound || y > topBound;
     }
 }
\ No newline at end of file
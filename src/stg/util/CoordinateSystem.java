@@ -5,6 +5,7 @@ package stg.util;
  * 提供坐标转换功能,将屏幕坐标系转换为画布中心原点坐标系
  * 游戏逻辑尺寸固定为360*480，支持屏幕尺寸变化的拉伸适配
  * @since 2026-01-19
+ * @date 2026-10-18 添加不分配数组的单轴坐标转换，供批量渲染使用
  */
 public class CoordinateSystem {
 	private int screenWidth;
@@ -68,6 +69,26 @@ public class CoordinateSystem {
 		return new float[]{screenX, screenY};
 	}
 
+	/**
+	 * 将游戏逻辑X坐标转换为屏幕X坐标（不分配数组）
+	 * @param x 游戏逻辑X坐标
+	 * @return 屏幕X坐标
+	 */
+	public float toScreenX(float x) {
+		float offsetX = (screenWidth - GameConstants.GAME_WIDTH * scaleX) / 2.0f;
+		return (x + GameConstants.GAME_WIDTH / 2.0f) * scaleX + offsetX;
+	}
+
+	/**
+	 * 将游戏逻辑Y坐标转换为屏幕Y坐标（不分配数组）
+	 * @param y 游戏逻辑Y坐标
+	 * @return 屏幕Y坐标
+	 */
+	public float toScreenY(float y) {
+		float offsetY = (screenHeight - GameConstants.GAME_HEIGHT * scaleY) / 2.0f;
+		return offsetY + (y + GameConstants.GAME_HEIGHT / 2.0f) * scaleY;
+	}
+
 	/**
 	 * 将屏幕坐标转换为游戏逻辑坐标
 	 * @param screenX 屏幕X坐标
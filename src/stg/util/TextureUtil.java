@@ -1,9 +1,12 @@
 package stg.util;
 
+import stg.render.RenderThread;
+
 /**
  * 纹理工具类 - 提供纹理加载和管理相关的功能
  * @since 26-04-07 初始创建
  * @author JavaSTG Team
+ * @date 2026-10-18 非渲染线程调用时转交渲染线程加载，无头运行时直接返回-1
  */
 public class TextureUtil {
     /**
@@ -17,6 +20,15 @@ public class TextureUtil {
      * @return 纹理ID
      */
     public static int loadTexture(String path, float x, float y, float width, float height) {
+        if (RenderThread.isHeadless()) {
+            return -1;
+        }
+        if (!RenderThread.isCurrent()) {
+            // 模拟线程上调用时转交渲染线程，GL 调用只能在持有上下文的线程执行
+            Integer textureId = RenderThread.invoke(() -> loadTexture(path, x, y, width, height));
+            return textureId != null ? textureId : -1;
+        }
+
         // 直接使用GL11来加载纹理，不创建新的GLRenderer实例
         // 这样可以确保在同一个OpenGL上下文中加载纹理
         int textureId = -1;
@@ -0,0 +1,110 @@
+package stg.util.math;
+
+import java.util.Random;
+
+/**
+ * 游戏随机数服务
+ * 整个引擎的玩法代码（弹幕、敌人生成等）都从这里取随机数。每局开始时用种子重新初始化，
+ * 同一种子配合同样的逐帧输入即可完全复现一局（回放）。
+ * 只能在模拟线程上使用，渲染和界面效果不应消耗它，否则会打乱回放。
+ * <p>
+ * 内部的线性同余状态可以读出和写回（{@link #getState()} / {@link #setState(long)}），
+ * 世界快照借此在恢复后得到完全相同的后续随机序列。
+ * @since 2026-10-18
+ * @author JavaSTG Team
+ */
+public final class GameRandom extends RandomGenerator {
+	private static final GameRandom INSTANCE = new GameRandom();
+	/** 生成新种子用的随机源（不参与回放） */
+	private static final Random SEED_SOURCE = new Random();
+
+	/** 本局种子 */
+	private long seed;
+	/** 状态可读写的随机源 */
+	private final StateRandom source;
+
+	private GameRandom() {
+		this(new StateRandom());
+	}
+
+	private GameRandom(StateRandom source) {
+		super(source);
+		this.source = source;
+	}
+
+	/**
+	 * 获取单例实例
+	 * @return 游戏随机数服务
+	 */
+	public static GameRandom getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 生成一个新的种子（每局开始时使用，回放时改用录像中的种子）
+	 * 可用启动参数 -Dstg.seed=N 固定种子
+	 * @return 种子
+	 */
+	public static long newSeed() {
+		Long fixed = Long.getLong("stg.seed");
+		return fixed != null ? fixed : SEED_SOURCE.nextLong();
+	}
+
+	/**
+	 * 用种子重新初始化，开始新的一局
+	 * @param seed 种子
+	 */
+	public void reseed(long seed) {
+		this.seed = seed;
+		setSeed(seed);
+	}
+
+	/**
+	 * 获取本局种子
+	 * @return 种子
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * 获取随机数内部状态
+	 * @return 48位线性同余状态
+	 */
+	public long getState() {
+		return source.state;
+	}
+
+	/**
+	 * 恢复随机数内部状态
+	 * @param state 由 {@link #getState()} 得到的状态
+	 */
+	public void setState(long state) {
+		source.state = state;
+	}
+
+	/**
+	 * 与 java.util.Random 相同的线性同余算法，但状态是普通字段，可以读写
+	 * 只在模拟线程上使用，不需要原子操作。nextGaussian 的缓存值不属于可保存的状态。
+	 */
+	private static final class StateRandom extends Random {
+		private static final long serialVersionUID = 1L;
+		private static final long MULTIPLIER = 0x5DEECE66DL;
+		private static final long ADDEND = 0xBL;
+		private static final long MASK = (1L << 48) - 1;
+
+		private long state;
+
+		@Override
+		public synchronized void setSeed(long seed) {
+			super.setSeed(seed);
+			state = (seed ^ MULTIPLIER) & MASK;
+		}
+
+		@Override
+		protected int next(int bits) {
+			state = (state * MULTIPLIER + ADDEND) & MASK;
+			return (int) (state >>> (48 - bits));
+		}
+	}
+}
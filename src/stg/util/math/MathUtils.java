@@ -4,6 +4,7 @@ package stg.util.math;
  * 数学工具类
  * 创建stg.util.math包，添加数学工具函数
  * @since 2026-01-20
+ * @date 2026-10-18 随机函数改用按局播种的 GameRandom，保证回放可复现
  */
 public class MathUtils {
 
@@ -156,19 +157,19 @@ public class MathUtils {
 	}
 
 	/**
-	 * 简单的随机数（伪随机）
+	 * 随机浮点数，取自本局的 {@link GameRandom}
 	 * @param min 最小值
 	 * @param max 最大值
 	 */
 	public static float randomRange(float min, float max) {
-		return min + (float)Math.random() * (max - min);
+		return GameRandom.getInstance().randomRange(min, max);
 	}
 
 	/**
-	 * 简单的随机整数
+	 * 随机整数（包含两端），取自本局的 {@link GameRandom}
 	 */
 	public static int randomInt(int min, int max) {
-		return min + (int)(Math.random() * (max - min + 1));
+		return GameRandom.getInstance().randomInt(min, max);
 	}
 }
 
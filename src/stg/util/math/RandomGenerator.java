@@ -7,6 +7,7 @@ import java.util.Random;
  * 创建stg.util.math包，添加随机数生成器
  * 简化类,移除不必要的功能
  * @since 2026-01-20
+ * @date 2026-10-18 添加可注入随机源的构造函数，供 GameRandom 保存和恢复随机数状态
  */
 public class RandomGenerator {
 	private Random random;
@@ -19,6 +20,14 @@ public class RandomGenerator {
 		this.random = new Random(seed);
 	}
 
+	/**
+	 * 使用指定的随机源
+	 * @param random 随机源
+	 */
+	protected RandomGenerator(Random random) {
+		this.random = random;
+	}
+
 	public int randomInt(int min, int max) {
 		return min + random.nextInt(max - min + 1);
 	}
@@ -0,0 +1,198 @@
+package stg.util.objectpool;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * 基于数组栈的对象池实现
+ * 非线程安全，只能在单个线程（游戏逻辑线程）中使用。
+ * 后进先出：最近回收的对象最先被复用，它的内存很可能还在缓存中；
+ * 获取和回收只移动栈顶下标，数组扩容到峰值后不再产生任何分配。
+ * <p>
+ * 调试模式（-Dstg.poolDebug=true）下会记录池中的对象，同一对象在被取出前重复回收时
+ * 输出调用栈并忽略第二次回收，避免一个对象同时被两处使用。
+ *
+ * @param <T> 池化对象的类型
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public class ArrayStackObjectPool<T> implements ObjectPool<T> {
+    /** 是否开启重复回收检测（可用 -Dstg.poolDebug=true 开启） */
+    static final boolean DEBUG = Boolean.getBoolean("stg.poolDebug");
+    /** 未限制容量时数组的初始长度 */
+    private static final int DEFAULT_ARRAY_LENGTH = 16;
+
+    private final ObjectFactory<T> factory;
+    private Object[] items;
+    private int top = 0;
+    private int maxCapacity;
+    private int totalCreatedObjects = 0;
+    private final PoolStats stats = new PoolStats();
+    /** 调试模式下池中对象的集合（按引用比较），非调试模式为 null */
+    private final Set<Object> pooled;
+
+    /**
+     * 构造函数
+     *
+     * @param factory 对象工厂，用于创建新对象
+     */
+    public ArrayStackObjectPool(ObjectFactory<T> factory) {
+        this(factory, 0, -1);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param factory 对象工厂，用于创建新对象
+     * @param initialCapacity 初始容量（只用于确定数组长度，不预先创建对象）
+     * @param maxCapacity 最大容量，-1 表示无限制
+     */
+    public ArrayStackObjectPool(ObjectFactory<T> factory, int initialCapacity, int maxCapacity) {
+        this.factory = factory;
+        this.maxCapacity = maxCapacity;
+        int length = Math.max(initialCapacity, DEFAULT_ARRAY_LENGTH);
+        if (maxCapacity >= 0) {
+            length = Math.min(length, maxCapacity);
+        }
+        this.items = new Object[length];
+        this.pooled = DEBUG ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if (top > 0) {
+            T object = (T) items[--top];
+            items[top] = null;
+            if (pooled != null) {
+                pooled.remove(object);
+            }
+            stats.recordAcquire(false);
+            return object;
+        }
+
+        // 池为空，创建新对象
+        T object = factory.create();
+        if (object == null) {
+            throw new RuntimeException("Object factory returned null");
+        }
+        totalCreatedObjects++;
+        stats.recordAcquire(true);
+        return object;
+    }
+
+    @Override
+    public void release(T object) {
+        if (object == null) {
+            throw new IllegalArgumentException("Object cannot be null");
+        }
+        if (pooled != null && pooled.contains(object)) {
+            new IllegalStateException("Object released twice: " + object.getClass().getName()
+                + "@" + Integer.toHexString(System.identityHashCode(object))).printStackTrace();
+            return;
+        }
+
+        // 检查对象是否可重置
+        if (object instanceof Resettable) {
+            try {
+                ((Resettable) object).resetState();
+            } catch (Exception e) {
+                // 重置失败，记录异常但继续
+                System.err.println("Failed to reset object state: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        // 达到最大容量时丢弃对象，交给 GC 回收
+        if (maxCapacity >= 0 && top >= maxCapacity) {
+            stats.recordRelease(true);
+            return;
+        }
+        stats.recordRelease(false);
+        push(object);
+    }
+
+    @Override
+    public void initialize(int initialCapacity) {
+        for (int i = 0; i < initialCapacity; i++) {
+            if (maxCapacity >= 0 && top >= maxCapacity) {
+                break;
+            }
+            T object = factory.create();
+            if (object == null) {
+                break;
+            }
+            totalCreatedObjects++;
+            push(object);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(items, 0, top, null);
+        top = 0;
+        totalCreatedObjects = 0;
+        if (pooled != null) {
+            pooled.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        return totalCreatedObjects;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return top;
+    }
+
+    @Override
+    public PoolStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    @Override
+    public void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+
+        // 如果设置了新的最大容量且当前池大小超过了最大容量，清理多余的对象（丢弃栈底最冷的对象）
+        if (maxCapacity >= 0 && top > maxCapacity) {
+            int excess = top - maxCapacity;
+            if (pooled != null) {
+                for (int i = 0; i < excess; i++) {
+                    pooled.remove(items[i]);
+                }
+            }
+            System.arraycopy(items, excess, items, 0, maxCapacity);
+            Arrays.fill(items, maxCapacity, top, null);
+            top = maxCapacity;
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return top == 0;
+    }
+
+    private void push(T object) {
+        if (top == items.length) {
+            int length = items.length * 2;
+            if (maxCapacity >= 0) {
+                length = Math.min(length, maxCapacity);
+            }
+            items = Arrays.copyOf(items, Math.max(length, top + 1));
+        }
+        items[top++] = object;
+        if (pooled != null) {
+            pooled.add(object);
+        }
+    }
+}
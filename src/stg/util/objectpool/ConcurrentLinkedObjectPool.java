@@ -1,6 +1,7 @@
 package stg.util.objectpool;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 基于ConcurrentLinkedQueue的对象池实现
@@ -8,15 +9,20 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  * 
  * @param <T> 池化对象的类型
  * @date 2026-02-20
+ * @date 2026-10-18 单独记录池中对象数量，回收时不再调用 O(n) 的 ConcurrentLinkedQueue.size()
+ * @date 2026-10-18 记录获取、未命中、回收和丢弃统计
  * @author JavaSTG Team
  */
 public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
     
     private final ConcurrentLinkedQueue<T> pool;
     private final ObjectFactory<T> factory;
+    /** 池中可用对象数量 */
+    private final AtomicInteger idleCount = new AtomicInteger();
     private int maxCapacity;
     private int totalCreatedObjects = 0;
     private int totalAcquiredObjects = 0;
+    private final PoolStats stats = new PoolStats();
     
     /**
      * 构造函数
@@ -57,16 +63,20 @@ public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
     public T acquire() {
         // 尝试从池中获取对象
         T object = pool.poll();
+        if (object != null) {
+            idleCount.decrementAndGet();
+            stats.recordAcquire(false);
+            return object;
+        }
         
         // 如果池为空，创建新对象
+        object = factory.create();
         if (object == null) {
-            object = factory.create();
-            if (object == null) {
-                throw new RuntimeException("Object factory returned null");
-            }
-            // 增加创建对象计数
-            totalCreatedObjects++;
+            throw new RuntimeException("Object factory returned null");
         }
+        // 增加创建对象计数
+        totalCreatedObjects++;
+        stats.recordAcquire(true);
         
         return object;
     }
@@ -89,9 +99,13 @@ public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
         }
         
         // 检查是否达到最大容量
-        if (maxCapacity == -1 || pool.size() < maxCapacity) {
+        if (maxCapacity == -1 || idleCount.get() < maxCapacity) {
             // 将对象放回池中
+            idleCount.incrementAndGet();
             pool.offer(object);
+            stats.recordRelease(false);
+        } else {
+            stats.recordRelease(true);
         }
     }
     
@@ -99,6 +113,10 @@ public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
     public void initialize(int initialCapacity) {
         for (int i = 0; i < initialCapacity; i++) {
             T object = factory.create();
+            if (object == null) {
+                break;
+            }
+            idleCount.incrementAndGet();
             pool.offer(object);
             totalCreatedObjects++;
         }
@@ -107,6 +125,7 @@ public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
     @Override
     public void clear() {
         pool.clear();
+        idleCount.set(0);
         totalCreatedObjects = 0;
     }
     
@@ -115,12 +134,14 @@ public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
         return totalCreatedObjects;
     }
     
-    /**
-     * 获取池中当前可用的对象数量
-     * @return 池中可用对象数量
-     */
+    @Override
     public int getPoolSize() {
-        return pool.size();
+        return idleCount.get();
+    }
+    
+    @Override
+    public PoolStats getStats() {
+        return stats;
     }
     
     @Override
@@ -134,8 +155,8 @@ public class ConcurrentLinkedObjectPool<T> implements ObjectPool<T> {
         
         // 如果设置了新的最大容量且当前池大小超过了最大容量，清理多余的对象
         if (maxCapacity > 0) {
-            while (pool.size() > maxCapacity) {
-                pool.poll();
+            while (idleCount.get() > maxCapacity && pool.poll() != null) {
+                idleCount.decrementAndGet();
             }
         }
     }
@@ -11,6 +11,7 @@ import java.util.function.Supplier;
  * 支持自定义对象工厂和池配置
  * 
  * @date 2026-03-01
+ * @date 2026-10-18 默认对象工厂改为 ObjectFactories 生成并缓存
  * @author JavaSTG Team
  */
 public class GenericObjectPoolManager {
@@ -143,20 +144,13 @@ public class GenericObjectPoolManager {
             // 获取对象工厂
             ObjectFactory<T> factory = (ObjectFactory<T>) factoryMap.get(type);
             if (factory == null) {
-                // 默认工厂：尝试使用无参构造函数
-                factory = () -> {
-                    try {
-                        return type.getDeclaredConstructor().newInstance();
-                    } catch (Exception e) {
-                        // 如果无参构造函数失败，尝试使用float, float构造函数
-                        try {
-                            return type.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-                        } catch (Exception ex) {
-                            System.err.println("Failed to create object for " + type.getName() + ": " + ex.getMessage());
-                            return null;
-                        }
-                    }
-                };
+                // 默认工厂：无参构造函数或 (float, float) 构造函数，生成后按类缓存
+                try {
+                    factory = ObjectFactories.forClass(type);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Failed to create object for " + type.getName() + ": " + e.getMessage());
+                    factory = () -> null;
+                }
             }
             
             // 获取对象池配置
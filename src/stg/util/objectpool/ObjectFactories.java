@@ -0,0 +1,217 @@
+package stg.util.objectpool;
+
+import java.awt.Color;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+/**
+ * 对象工厂生成器
+ * 为池化类生成强类型的 {@link ObjectFactory}，每个类只查找一次构造函数并缓存结果。
+ * <p>
+ * 构造函数是公开的时候用 {@link LambdaMetafactory} 生成工厂类，默认参数作为捕获值保存在工厂里，
+ * {@code create()} 就是一次普通的 {@code new}，可以被 JIT 内联；
+ * 无法生成时退回到绑定好参数的 {@link MethodHandle}，同样不再需要逐次查找和装箱参数数组。
+ * <p>
+ * 默认工厂按以下顺序选择构造函数：无参构造、(float, float) 构造，
+ * 最后是参数都能取默认值（数值为0，布尔为false，字符串为空，颜色为白色）的参数最少的公开构造函数。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public final class ObjectFactories {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FACTORY_METHOD_TYPE = MethodType.methodType(Object.class);
+    /** 参数数组长度上限（超过的构造函数只能通过反射调用，这里不缓存） */
+    private static final int MAX_ARITY = 8;
+
+    /** 每个类的默认工厂 */
+    private static final ClassValue<ObjectFactory<?>> DEFAULT_FACTORIES = new ClassValue<ObjectFactory<?>>() {
+        @Override
+        protected ObjectFactory<?> computeValue(Class<?> type) {
+            return createDefaultFactory(type);
+        }
+    };
+
+    /** 每个类按参数个数索引的构造函数句柄，类型为 (Object[])Object */
+    private static final ClassValue<MethodHandle[]> CONSTRUCTORS_BY_ARITY = new ClassValue<MethodHandle[]>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            MethodHandle[] handles = new MethodHandle[MAX_ARITY + 1];
+            for (Constructor<?> constructor : type.getConstructors()) {
+                int arity = constructor.getParameterCount();
+                if (arity <= MAX_ARITY && handles[arity] == null) {
+                    try {
+                        MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+                        handles[arity] = handle.asType(handle.type().generic()).asSpreader(Object[].class, arity);
+                    } catch (IllegalAccessException e) {
+                        // 无法访问的构造函数不缓存
+                    }
+                }
+            }
+            return handles;
+        }
+    };
+
+    private ObjectFactories() {
+    }
+
+    /**
+     * 获取指定类的默认工厂（首次调用时生成并缓存）
+     * @param <T> 对象类型
+     * @param type 对象类型
+     * @return 对象工厂
+     * @throws IllegalArgumentException 找不到可用的构造函数时抛出
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectFactory<T> forClass(Class<T> type) {
+        return (ObjectFactory<T>) DEFAULT_FACTORIES.get(type);
+    }
+
+    /**
+     * 为指定构造函数和固定参数生成工厂
+     * @param <T> 对象类型
+     * @param type 对象类型
+     * @param parameterTypes 构造函数参数类型
+     * @param args 每次创建时使用的参数
+     * @return 对象工厂
+     * @throws IllegalArgumentException 构造函数不存在或无法访问时抛出
+     */
+    public static <T> ObjectFactory<T> forConstructor(Class<T> type, Class<?>[] parameterTypes, Object... args) {
+        try {
+            return generate(type.getConstructor(parameterTypes), args);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No suitable constructor found for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 用参数个数匹配的公开构造函数创建对象，构造函数句柄按类缓存
+     * 参数按方法句柄的规则转换：包装类型拆箱，数值只做拓宽转换
+     * @param <T> 对象类型
+     * @param type 对象类型
+     * @param args 构造函数参数
+     * @return 新对象
+     * @throws IllegalArgumentException 找不到参数个数匹配的构造函数时抛出
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T newInstance(Class<T> type, Object... args) {
+        MethodHandle[] handles = CONSTRUCTORS_BY_ARITY.get(type);
+        MethodHandle handle = args.length < handles.length ? handles[args.length] : null;
+        if (handle == null) {
+            throw new IllegalArgumentException("No suitable constructor found for " + type.getName());
+        }
+        try {
+            return (T) handle.invoke(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create object for " + type.getName(), e);
+        }
+    }
+
+    // ========== 内部方法 ==========
+
+    private static ObjectFactory<?> createDefaultFactory(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers()) || type.isInterface()) {
+            throw new IllegalArgumentException("Cannot instantiate abstract type " + type.getName());
+        }
+        Constructor<?> best = null;
+        for (Constructor<?> constructor : type.getConstructors()) {
+            if (!hasDefaultArguments(constructor)) {
+                continue;
+            }
+            if (best == null || rank(constructor) < rank(best)) {
+                best = constructor;
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("No suitable constructor found for " + type.getName());
+        }
+        Class<?>[] parameterTypes = best.getParameterTypes();
+        Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = defaultValue(parameterTypes[i]);
+        }
+        return generate(best, args);
+    }
+
+    /**
+     * 构造函数的优先级，越小越优先：无参、(float, float)，其余按参数个数
+     */
+    private static int rank(Constructor<?> constructor) {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            return 0;
+        }
+        if (parameterTypes.length == 2 && parameterTypes[0] == float.class && parameterTypes[1] == float.class) {
+            return 1;
+        }
+        return 1 + parameterTypes.length;
+    }
+
+    private static boolean hasDefaultArguments(Constructor<?> constructor) {
+        for (Class<?> parameterType : constructor.getParameterTypes()) {
+            if (defaultValue(parameterType) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == float.class || type == Float.class) {
+            return 0.0f;
+        } else if (type == int.class || type == Integer.class) {
+            return 0;
+        } else if (type == double.class || type == Double.class) {
+            return 0.0;
+        } else if (type == long.class || type == Long.class) {
+            return 0L;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return false;
+        } else if (type == String.class) {
+            return "";
+        } else if (type == Color.class) {
+            return Color.WHITE;
+        }
+        return null;
+    }
+
+    /**
+     * 生成工厂：优先用 LambdaMetafactory 生成直接调用构造函数的工厂类，失败时用绑定参数的方法句柄
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectFactory<T> generate(Constructor<?> constructor, Object[] args) {
+        Class<?> type = constructor.getDeclaringClass();
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access constructor of " + type.getName(), e);
+        }
+        try {
+            // 捕获的参数排在构造函数参数的最前面，create() 本身不带参数
+            MethodType capturedTypes = MethodType.methodType(ObjectFactory.class, constructor.getParameterTypes());
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "create", capturedTypes,
+                    FACTORY_METHOD_TYPE, handle, MethodType.methodType(type));
+            return (ObjectFactory<T>) site.getTarget().invokeWithArguments(args);
+        } catch (Throwable e) {
+            // 类或构造函数对生成的工厂类不可见时退回到方法句柄
+            MethodHandle bound = MethodHandles.insertArguments(handle, 0, args).asType(FACTORY_METHOD_TYPE);
+            return () -> {
+                try {
+                    return (T) bound.invokeExact();
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new RuntimeException("Failed to create object for " + type.getName(), ex);
+                }
+            };
+        }
+    }
+}
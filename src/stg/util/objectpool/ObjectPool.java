@@ -6,6 +6,7 @@ package stg.util.objectpool;
  * 
  * @param <T> 池化对象的类型
  * @date 2026-02-20
+ * @date 2026-10-18 添加 getPoolSize() 和 getStats()
  * @author JavaSTG Team
  */
 public interface ObjectPool<T> {
@@ -47,6 +48,20 @@ public interface ObjectPool<T> {
      */
     int size();
     
+    /**
+     * 获取池中当前可用的对象数量
+     * 
+     * @return 池中可用对象数量
+     */
+    int getPoolSize();
+    
+    /**
+     * 获取对象池的统计
+     * 
+     * @return 统计
+     */
+    PoolStats getStats();
+    
     /**
      * 获取对象池的最大容量
      * 如果返回-1，表示无限制
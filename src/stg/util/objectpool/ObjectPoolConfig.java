@@ -1,6 +1,10 @@
 package stg.util.objectpool;
 
-import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 对象池配置类
@@ -8,6 +12,9 @@ import java.lang.reflect.Constructor;
  * 支持通过@Pooled注解自动注册对象池
  * 
  * @date 2026-02-22
+ * @date 2026-10-18 对象工厂改为 ObjectFactories 生成，注册时只查找一次构造函数
+ * @date 2026-10-18 按 @Pooled 的 kind 选择数组栈对象池或并发对象池
+ * @date 2026-10-18 记录配置的初始容量，加载关卡时按初始容量和 PoolProfile 记录的峰值预先创建对象
  * @author JavaSTG Team
  */
 public class ObjectPoolConfig {
@@ -16,6 +23,8 @@ public class ObjectPoolConfig {
     private static volatile boolean initialized = false;
     // 对象池初始化锁
     private static final Object initLock = new Object();
+    // 注册时配置的初始容量（对象池创建时不预先创建对象，加载关卡时按此数量预热）
+    private static final Map<Class<?>, Integer> initialCapacities = new ConcurrentHashMap<>();
     
     /**
      * 初始化所有对象池
@@ -96,7 +105,8 @@ public class ObjectPoolConfig {
             }
             
             // 创建对象池
-            ConcurrentLinkedObjectPool pool = new ConcurrentLinkedObjectPool(
+            ObjectPool pool = createPool(
+                clazz,
                 createObjectFactory(clazz, className),
                 0, // 初始容量为 0，避免初始化时创建对象
                 maxCapacity
@@ -104,6 +114,7 @@ public class ObjectPoolConfig {
             
             // 注册对象池
             manager.registerPool(clazz, pool);
+            initialCapacities.put(clazz, initialCapacity);
         } catch (Exception e) {
             // 注册失败，记录异常但继续
             System.err.println("Failed to register pool for " + className + ": " + e.getMessage());
@@ -143,135 +154,141 @@ public class ObjectPoolConfig {
             ObjectFactory factory = createObjectFactoryForClass(clazz);
             
             // 创建对象池
-            ConcurrentLinkedObjectPool pool = new ConcurrentLinkedObjectPool(
-                factory,
-                initialCapacity,
-                maxCapacity
-            );
+            ObjectPool pool = createPool(clazz, factory, initialCapacity, maxCapacity);
             
             // 注册对象池
             manager.registerPool(clazz, pool);
+            initialCapacities.put(clazz, initialCapacity);
         } catch (Exception e) {
             System.err.println("Failed to register @Pooled class " + clazz.getName() + ": " + e.getMessage());
         }
     }
     
     /**
-     * 创建对象工厂
+     * 获取类型配置的初始容量
+     * 优先使用注册时的配置，其次是 @Pooled 注解（包括从父类继承的注解）
      * @param clazz 类
-     * @param className 类名
-     * @return 对象工厂
+     * @return 初始容量，没有配置时为 0
      */
-    private static ObjectFactory createObjectFactory(Class<?> clazz, String className) {
-        return new ObjectFactory() {
-            @Override
-            public Object create() {
-                try {
-                    return createObjectInstance(clazz, className);
-                } catch (Exception e) {
-                    System.err.println("Failed to create object for " + className + ": " + e.getMessage());
-                    return null;
-                }
+    public static int getInitialCapacity(Class<?> clazz) {
+        Integer capacity = initialCapacities.get(clazz);
+        if (capacity != null) {
+            return capacity;
+        }
+        Pooled annotation = clazz.getAnnotation(Pooled.class);
+        return annotation != null ? annotation.initialCapacity() : 0;
+    }
+    
+    /**
+     * 为关卡预热对象池
+     * 每种已注册的类型预先创建到配置的初始容量；PoolProfile 记录了该关卡的峰值时，
+     * 按峰值预先创建（对象池尚未创建时一并创建），上限低于峰值时调高上限，避免回收时丢弃对象。
+     * 在关卡加载时调用，此后关卡中的获取不会再调用构造函数。
+     * @param stageName 关卡名
+     * @return 预先创建的对象数量
+     */
+    public static int prewarm(String stageName) {
+        initialize();
+        ObjectPoolManager manager = ObjectPoolManager.getInstance();
+        
+        Map<Class<?>, Integer> targets = new HashMap<>();
+        for (Class<?> type : new ArrayList<>(manager.getRegisteredTypes())) {
+            targets.put(type, getInitialCapacity(type));
+        }
+        for (Map.Entry<String, Integer> entry : PoolProfile.getInstance().getPeaks(stageName).entrySet()) {
+            Class<?> type;
+            try {
+                type = Class.forName(entry.getKey());
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue; // 记录中的类已不存在
             }
-        };
+            int peak = entry.getValue();
+            ObjectPool<?> pool = manager.getOrCreatePool(type);
+            if (pool.getMaxCapacity() >= 0 && pool.getMaxCapacity() < peak) {
+                pool.setMaxCapacity(peak);
+            }
+            targets.merge(type, peak, Math::max);
+        }
+        
+        int created = 0;
+        for (Map.Entry<Class<?>, Integer> entry : targets.entrySet()) {
+            created += manager.prewarm(entry.getKey(), entry.getValue());
+        }
+        return created;
     }
     
     /**
-     * 为指定类创建对象工厂
+     * 按类上的 @Pooled 注解（包括从父类继承的注解）创建对象池
+     * 没有注解的类使用数组栈对象池，游戏对象只在游戏逻辑线程中获取和回收
+     * @param <T> 对象类型
      * @param clazz 类
+     * @param factory 对象工厂
+     * @param initialCapacity 初始容量
+     * @param maxCapacity 最大容量
+     * @return 对象池
+     */
+    static <T> ObjectPool<T> createPool(Class<?> clazz, ObjectFactory<T> factory, int initialCapacity, int maxCapacity) {
+        Pooled annotation = clazz.getAnnotation(Pooled.class);
+        if (annotation != null && annotation.kind() == Pooled.Kind.CONCURRENT) {
+            return new ConcurrentLinkedObjectPool<>(factory, initialCapacity, maxCapacity);
+        }
+        return new ArrayStackObjectPool<>(factory, initialCapacity, maxCapacity);
+    }
+    
+    /**
+     * 创建对象工厂
+     * 按类名选择构造函数和默认参数，工厂在注册时生成一次
+     * @param clazz 类
+     * @param className 类名
      * @return 对象工厂
      */
-    private static ObjectFactory createObjectFactoryForClass(Class<?> clazz) {
-        return new ObjectFactory() {
-            @Override
-            public Object create() {
-                try {
-                    return createObjectInstanceForClass(clazz);
-                } catch (Exception e) {
-                    System.err.println("Failed to create object for " + clazz.getName() + ": " + e.getMessage());
-                    return null;
-                }
-            }
-        };
+    @SuppressWarnings("rawtypes")
+    private static ObjectFactory createObjectFactory(Class<?> clazz, String className) {
+        if (Modifier.isAbstract(clazz.getModifiers())) {
+            // 抽象基类只登记对象池，不能直接创建对象
+            return () -> null;
+        }
+        try {
+            return createLegacyObjectFactory(clazz, className);
+        } catch (IllegalArgumentException e) {
+            // 没有约定的构造函数时，改用参数都能取默认值的构造函数
+            return ObjectFactories.forClass(clazz);
+        }
     }
     
     /**
-     * 根据类名创建对象实例（向后兼容）
+     * 根据类名选择构造函数和默认参数（向后兼容）
      * @param clazz 类
      * @param className 类名
-     * @return 对象实例
-     * @throws Exception 创建失败时抛出异常
+     * @return 对象工厂
      */
-    private static Object createObjectInstance(Class<?> clazz, String className) throws Exception {
+    @SuppressWarnings("rawtypes")
+    private static ObjectFactory createLegacyObjectFactory(Class<?> clazz, String className) {
         // 对于不同类型的对象，使用不同的默认参数
-        if (className.contains("FairyEnemy")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("MidFairyEnemy")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("DefaultEnemy")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("TestBoss")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("MinorikoBoss")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("DefaultPlayerMainBullet")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("SimpleDownBullet")) {
-            return clazz.getConstructor(float.class, float.class, float.class, float.class, float.class, java.awt.Color.class)
-                .newInstance(0.0f, 0.0f, 0.0f, 1.0f, 5.0f, java.awt.Color.RED);
-        } else if (className.contains("Bullet")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-        } else if (className.contains("Enemy")) {
-            return clazz.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
+        if (className.contains("SimpleDownBullet")) {
+            return ObjectFactories.forConstructor(clazz,
+                new Class<?>[] {float.class, float.class, float.class, float.class, float.class, java.awt.Color.class},
+                0.0f, 0.0f, 0.0f, 1.0f, 5.0f, java.awt.Color.RED);
         } else if (className.contains("Item")) {
-            return clazz.getConstructor(float.class, float.class, float.class, float.class).newInstance(0.0f, 0.0f, 0.0f, 0.0f);
+            return ObjectFactories.forConstructor(clazz,
+                new Class<?>[] {float.class, float.class, float.class, float.class},
+                0.0f, 0.0f, 0.0f, 0.0f);
+        } else if (className.contains("Bullet") || className.contains("Enemy")
+                || className.contains("TestBoss") || className.contains("MinorikoBoss")) {
+            return ObjectFactories.forConstructor(clazz, new Class<?>[] {float.class, float.class}, 0.0f, 0.0f);
         } else {
-            // 尝试使用默认构造函数
-            return clazz.getDeclaredConstructor().newInstance();
+            return ObjectFactories.forClass(clazz);
         }
     }
     
     /**
-     * 为指定类创建对象实例
-     * 尝试找到最合适的构造函数
+     * 为指定类创建对象工厂
+     * 选择参数都能取默认值的构造函数，工厂按类缓存
      * @param clazz 类
-     * @return 对象实例
-     * @throws Exception 创建失败时抛出异常
+     * @return 对象工厂
      */
-    private static Object createObjectInstanceForClass(Class<?> clazz) throws Exception {
-        Constructor<?>[] constructors = clazz.getConstructors();
-        
-        for (Constructor<?> constructor : constructors) {
-            Class<?>[] paramTypes = constructor.getParameterTypes();
-            Object[] args = new Object[paramTypes.length];
-            
-            boolean canUse = true;
-            for (int i = 0; i < paramTypes.length; i++) {
-                Class<?> paramType = paramTypes[i];
-                if (paramType == float.class || paramType == Float.class) {
-                    args[i] = 0.0f;
-                } else if (paramType == int.class || paramType == Integer.class) {
-                    args[i] = 0;
-                } else if (paramType == double.class || paramType == Double.class) {
-                    args[i] = 0.0;
-                } else if (paramType == boolean.class || paramType == Boolean.class) {
-                    args[i] = false;
-                } else if (paramType == String.class) {
-                    args[i] = "";
-                } else if (paramType == java.awt.Color.class) {
-                    args[i] = java.awt.Color.WHITE;
-                } else {
-                    canUse = false;
-                    break;
-                }
-            }
-            
-            if (canUse) {
-                return constructor.newInstance(args);
-            }
-        }
-        
-        // 如果没有找到合适的构造函数，尝试默认构造函数
-        return clazz.getDeclaredConstructor().newInstance();
+    @SuppressWarnings("rawtypes")
+    private static ObjectFactory createObjectFactoryForClass(Class<?> clazz) {
+        return ObjectFactories.forClass(clazz);
     }
 }
@@ -8,6 +8,10 @@ import java.util.Map;
  * 使用单例模式，提供全局访问点
  * 
  * @date 2026-02-20
+ * @date 2026-10-18 默认对象工厂改为 ObjectFactories 生成并缓存
+ * @date 2026-10-18 对象池实现按 @Pooled 的 kind 选择
+ * @date 2026-10-18 添加对象池统计查询和报告（-Dstg.poolStats=true 时关卡结束输出）
+ * @date 2026-10-18 添加 prewarm()，预先创建对象到指定数量
  * @author JavaSTG Team
  */
 public class ObjectPoolManager {
@@ -15,6 +19,9 @@ public class ObjectPoolManager {
     // 单例实例
     private static final ObjectPoolManager INSTANCE = new ObjectPoolManager();
     
+    /** 关卡结束时是否输出对象池统计（可用 -Dstg.poolStats=true 开启） */
+    private static final boolean STATS_REPORT = Boolean.getBoolean("stg.poolStats");
+    
     // 存储不同类型的对象池（线程安全）
     private final Map<Class<?>, ObjectPool<?>> poolMap;
     
@@ -99,38 +106,19 @@ public class ObjectPoolManager {
     public <T> ObjectPool<T> getOrCreatePool(Class<T> type) {
         ObjectPool<T> pool = getPool(type);
         if (pool == null) {
+            // 构造函数只查找一次，生成的工厂按类缓存
+            ObjectFactory<T> factory;
+            try {
+                factory = ObjectFactories.forClass(type);
+            } catch (IllegalArgumentException e) {
+                factory = () -> {
+                    throw new RuntimeException("No suitable constructor found for " + type.getName());
+                };
+            }
             // 创建新的对象池
-            pool = new ConcurrentLinkedObjectPool<>(
-                new ObjectFactory<T>() {
-                    @Override
-                    public T create() {
-                        try {
-                            // 尝试使用默认无参构造函数
-                            try {
-                                return type.getConstructor().newInstance();
-                            } catch (NoSuchMethodException e) {
-                                // 尝试使用两个float参数的构造函数
-                                try {
-                                    return type.getConstructor(float.class, float.class).newInstance(0.0f, 0.0f);
-                                } catch (NoSuchMethodException e2) {
-                                    // 尝试使用一个float参数的构造函数
-                                    try {
-                                        return type.getConstructor(float.class).newInstance(0.0f);
-                                    } catch (NoSuchMethodException e3) {
-                                        // 尝试使用一个int参数的构造函数
-                                        try {
-                                            return type.getConstructor(int.class).newInstance(0);
-                                        } catch (NoSuchMethodException e4) {
-                                            throw new RuntimeException("No suitable constructor found for " + type.getName());
-                                        }
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            throw new RuntimeException("Failed to create object for " + type.getName(), e);
-                        }
-                    }
-                },
+            pool = ObjectPoolConfig.createPool(
+                type,
+                factory,
                 0, // 初始容量为 0，避免初始化时创建对象
                 100 // 最大容量
             );
@@ -170,6 +158,31 @@ public class ObjectPoolManager {
         pool.release(object);
     }
     
+    /**
+     * 预先创建对象，使池中可用对象达到指定数量（不超过对象池上限）
+     * 
+     * @param type 对象类型的Class
+     * @param count 目标数量
+     * @return 实际创建的对象数量
+     */
+    public int prewarm(Class<?> type, int count) {
+        ObjectPool<?> pool = poolMap.get(type);
+        if (pool == null || count <= 0 || java.lang.reflect.Modifier.isAbstract(type.getModifiers())) {
+            return 0;
+        }
+        int target = pool.getMaxCapacity() >= 0 ? Math.min(count, pool.getMaxCapacity()) : count;
+        int before = pool.getPoolSize();
+        if (target <= before) {
+            return 0;
+        }
+        try {
+            pool.initialize(target - before);
+        } catch (RuntimeException e) {
+            System.err.println("[ObjectPoolManager] 预热对象池失败: " + type.getName() + ": " + e.getMessage());
+        }
+        return pool.getPoolSize() - before;
+    }
+    
     /**
      * 初始化所有对象池
      */
@@ -223,4 +236,81 @@ public class ObjectPoolManager {
         }
         return total;
     }
+    
+    /**
+     * 获取指定类型对象池的统计
+     * @param type 对象类型的Class
+     * @return 统计，没有对应的对象池时返回 null
+     */
+    public PoolStats getStats(Class<?> type) {
+        ObjectPool<?> pool = poolMap.get(type);
+        return pool != null ? pool.getStats() : null;
+    }
+    
+    /**
+     * 获取所有对象池的统计，按类名排序
+     * @return 类型到统计的映射
+     */
+    public Map<Class<?>, PoolStats> getAllStats() {
+        Map<Class<?>, PoolStats> result = new java.util.TreeMap<>(java.util.Comparator.comparing(Class::getName));
+        for (Map.Entry<Class<?>, ObjectPool<?>> entry : poolMap.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return result;
+    }
+    
+    /**
+     * 清零所有对象池的统计
+     */
+    public void resetStats() {
+        for (ObjectPool<?> pool : poolMap.values()) {
+            pool.getStats().reset();
+        }
+    }
+    
+    /**
+     * 把所有对象池的峰值重置为当前使用中数量，开始新的统计区间
+     */
+    public void resetPeaks() {
+        for (ObjectPool<?> pool : poolMap.values()) {
+            pool.getStats().resetPeak();
+        }
+    }
+    
+    /**
+     * 关卡结束时是否输出对象池统计
+     * @return 是否输出
+     */
+    public static boolean isStatsReportEnabled() {
+        return STATS_REPORT;
+    }
+    
+    /**
+     * 输出对象池统计（只列出获取过对象的池）
+     * 未回收 = 获取后还没有回收的对象数量，关卡结束时不为0说明有对象没有被回收
+     * @param title 报告标题
+     */
+    public void printStats(String title) {
+        StringBuilder report = new StringBuilder();
+        report.append("[ObjectPool] ").append(title).append('\n');
+        // 表头按中文字符占两列手动对齐
+        report.append("  类型                         获取  未命中 命中率     回收   丢弃   峰值 未回收   池中   上限\n");
+        boolean any = false;
+        for (Class<?> type : getAllStats().keySet()) {
+            ObjectPool<?> pool = poolMap.get(type);
+            PoolStats stats = pool.getStats();
+            if (stats.getAcquires() == 0 && stats.getLive() == 0) {
+                continue;
+            }
+            any = true;
+            report.append(String.format("  %-24s %8d %7d %5.1f%% %8d %6d %6d %6d %6d %6d%n",
+                type.getSimpleName(), stats.getAcquires(), stats.getMisses(), stats.getHitRate() * 100.0,
+                stats.getReleases(), stats.getDiscards(), stats.getPeakLive(), stats.getLive(),
+                pool.getPoolSize(), pool.getMaxCapacity()));
+        }
+        if (!any) {
+            report.append("  （没有使用过对象池）\n");
+        }
+        System.out.print(report);
+    }
 }
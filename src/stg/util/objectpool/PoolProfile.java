@@ -0,0 +1,137 @@
+package stg.util.objectpool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 对象池使用记录
+ * 按关卡记录每种池化对象同时使用中的峰值，保存在一个小的属性文件里，
+ * 下次运行加载同一关卡时按记录的峰值预先创建对象并调整对象池上限。
+ * <p>
+ * 文件默认为 profiles/pool_profile.properties，可用 -Dstg.poolProfile=路径 指定，
+ * 指定为空字符串时不读写文件。每行格式为 {@code 关卡名/类名=峰值}，同一项保留历次运行的最大值。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public class PoolProfile {
+    private static final PoolProfile INSTANCE = new PoolProfile(
+        Path.of(System.getProperty("stg.poolProfile", "profiles/pool_profile.properties")));
+    /** 关卡名和类名之间的分隔符 */
+    private static final char SEPARATOR = '/';
+
+    /** 记录文件，路径为空时不读写 */
+    private final Path path;
+    /** 关卡名 → (类名 → 峰值) */
+    private final Map<String, Map<String, Integer>> peaks = new HashMap<>();
+    private boolean loaded = false;
+
+    private PoolProfile(Path path) {
+        this.path = path.toString().isEmpty() ? null : path;
+    }
+
+    /**
+     * 获取单例实例
+     * @return 对象池使用记录
+     */
+    public static PoolProfile getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取关卡记录的峰值
+     * @param stageName 关卡名
+     * @return 类名到峰值的映射（只读），没有记录时为空
+     */
+    public synchronized Map<String, Integer> getPeaks(String stageName) {
+        ensureLoaded();
+        Map<String, Integer> stagePeaks = peaks.get(stageName);
+        return stagePeaks != null ? Collections.unmodifiableMap(stagePeaks) : Collections.emptyMap();
+    }
+
+    /**
+     * 记录关卡的峰值（与已有记录取最大值）并写入文件
+     * @param stageName 关卡名
+     * @param stats 类型到统计的映射
+     */
+    public synchronized void record(String stageName, Map<Class<?>, PoolStats> stats) {
+        ensureLoaded();
+        Map<String, Integer> stagePeaks = peaks.computeIfAbsent(stageName, k -> new HashMap<>());
+        boolean changed = false;
+        for (Map.Entry<Class<?>, PoolStats> entry : stats.entrySet()) {
+            int peak = entry.getValue().getPeakLive();
+            if (peak <= 0) {
+                continue;
+            }
+            String className = entry.getKey().getName();
+            Integer old = stagePeaks.get(className);
+            if (old == null || peak > old) {
+                stagePeaks.put(className, peak);
+                changed = true;
+            }
+        }
+        if (changed) {
+            save();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (path == null || !Files.isRegularFile(path)) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            System.err.println("[PoolProfile] 读取对象池记录失败: " + e.getMessage());
+            return;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                int peak = Integer.parseInt(properties.getProperty(key).trim());
+                peaks.computeIfAbsent(key.substring(0, separator), k -> new HashMap<>())
+                    .put(key.substring(separator + 1), peak);
+            } catch (NumberFormatException e) {
+                // 忽略损坏的行
+            }
+        }
+    }
+
+    private void save() {
+        if (path == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, Map<String, Integer>> stage : peaks.entrySet()) {
+            for (Map.Entry<String, Integer> entry : stage.getValue().entrySet()) {
+                properties.setProperty(stage.getKey() + SEPARATOR + entry.getKey(), entry.getValue().toString());
+            }
+        }
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                properties.store(writer, "JavaSTG object pool peak usage per stage");
+            }
+        } catch (IOException e) {
+            System.err.println("[PoolProfile] 保存对象池记录失败: " + e.getMessage());
+        }
+    }
+}
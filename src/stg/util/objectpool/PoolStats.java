@@ -0,0 +1,123 @@
+package stg.util.objectpool;
+
+/**
+ * 对象池统计
+ * 记录单个对象池的获取、未命中、回收和丢弃次数，以及使用中对象数量和它的峰值。
+ * 使用中对象 = 从池中取出后还没有回收的对象，关卡结束时仍不为0说明有对象没有被回收。
+ * <p>
+ * 计数只是普通字段，由对象池在获取和回收时更新；并发对象池跨线程使用时为近似值。
+ *
+ * @author JavaSTG Team
+ * @since 2026-10-18
+ */
+public class PoolStats {
+    private long acquires;
+    private long misses;
+    private long releases;
+    private long discards;
+    private int live;
+    private int peakLive;
+
+    /**
+     * 记录一次获取
+     * @param miss 是否未命中（池为空，新建了对象）
+     */
+    public void recordAcquire(boolean miss) {
+        acquires++;
+        if (miss) {
+            misses++;
+        }
+        if (++live > peakLive) {
+            peakLive = live;
+        }
+    }
+
+    /**
+     * 记录一次回收
+     * @param discarded 是否因为达到最大容量而丢弃
+     */
+    public void recordRelease(boolean discarded) {
+        releases++;
+        if (discarded) {
+            discards++;
+        }
+        // 不是从池中取出的对象（例如直接 new 的对象）也可能被回收，使用中数量不会小于0
+        if (live > 0) {
+            live--;
+        }
+    }
+
+    /**
+     * 获取次数
+     * @return 获取次数
+     */
+    public long getAcquires() {
+        return acquires;
+    }
+
+    /**
+     * 未命中次数（池为空，新建对象的次数）
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * 命中率
+     * @return 命中率（0~1），没有获取过时为1
+     */
+    public double getHitRate() {
+        return acquires > 0 ? (double) (acquires - misses) / acquires : 1.0;
+    }
+
+    /**
+     * 回收次数（包括丢弃的次数）
+     * @return 回收次数
+     */
+    public long getReleases() {
+        return releases;
+    }
+
+    /**
+     * 因为达到最大容量而丢弃的次数
+     * @return 丢弃次数
+     */
+    public long getDiscards() {
+        return discards;
+    }
+
+    /**
+     * 当前使用中（取出后还没有回收）的对象数量
+     * @return 使用中对象数量
+     */
+    public int getLive() {
+        return live;
+    }
+
+    /**
+     * 使用中对象数量的峰值
+     * @return 峰值
+     */
+    public int getPeakLive() {
+        return peakLive;
+    }
+
+    /**
+     * 把峰值重置为当前使用中数量，开始新的统计区间（例如新关卡）
+     */
+    public void resetPeak() {
+        peakLive = live;
+    }
+
+    /**
+     * 清零所有计数（使用中数量保留，保证之后的回收仍能正确计数）
+     */
+    public void reset() {
+        acquires = 0;
+        misses = 0;
+        releases = 0;
+        discards = 0;
+        peakLive = live;
+    }
+}
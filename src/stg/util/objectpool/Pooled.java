@@ -6,13 +6,27 @@ import java.lang.annotation.*;
  * 对象池注解
  * 用于标记需要使用对象池管理的类
  * 被标记的类会在类加载时自动注册到对象池管理器
+ * 注解会被子类继承，子类未单独标记时沿用父类的配置
  * 
  * @date 2026-02-22
+ * @date 2026-10-18 添加 kind()，选择数组栈对象池或并发对象池
  * @author JavaSTG Team
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
+@Inherited
 public @interface Pooled {
+    /**
+     * 对象池实现类型
+     */
+    enum Kind {
+        /** 数组栈对象池，只能在游戏逻辑线程中使用，获取和回收不产生分配 */
+        STACK,
+        /** 基于 ConcurrentLinkedQueue 的对象池，可以跨线程获取和回收 */
+        CONCURRENT
+    }
+    
+
     /**
      * 对象池初始容量
      * @return 初始容量
@@ -30,4 +44,10 @@ public @interface Pooled {
      * @return 对象池名称
      */
     String name() default "";
+    
+    /**
+     * 对象池实现类型（默认为数组栈对象池，需要跨线程使用时选择 CONCURRENT）
+     * @return 对象池实现类型
+     */
+    Kind kind() default Kind.STACK;
 }
@@ -51,6 +51,20 @@ public class SimpleDownBullet extends Bullet {
         super(x, y, 0, speed, size, color, spriteElement, bulletType); // vx=0, vy=speed 确保竖直向下
     }
     
+    /**
+     * 从对象池取出后重新设置子弹（与6参数构造函数相同，始终竖直向下）
+     * @param x 初始X坐标
+     * @param y 初始Y坐标
+     * @param vx X方向速度（会被忽略，始终设为0）
+     * @param vy Y方向速度（会被取绝对值作为向下速度）
+     * @param size 子弹大小
+     * @param color 子弹颜色
+     */
+    @Override
+    public void setup(float x, float y, float vx, float vy, float size, Color color) {
+        super.setup(x, y, 0, Math.abs(vy), size, color);
+    }
+    
     /**
      * 自定义更新逻辑
      * 确保子弹始终保持竖直向下的方向
@@ -88,6 +102,16 @@ public class SimpleDownBullet extends Bullet {
         setVy(Math.abs(speed));
     }
     
+    /**
+     * 判断子弹是否只做匀速直线运动
+     * onUpdate 只把X方向速度固定为0，不改变直线运动，因此仍可展平进子弹场
+     * @return 是否为匀速直线运动
+     */
+    @Override
+    public boolean isLinearMotion() {
+        return getVx() == 0 && hasLinearState();
+    }
+    
     /**
      * 重置对象状态
      * 用于对象池回收和重用时
@@ -1,8 +1,10 @@
 package user.enemy;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
 
-import stg.core.GameWorld;
+import stg.core.WorldSnapshot;
+import stg.entity.bullet.BulletEmitter;
 import stg.entity.enemy.Enemy;
 import stg.render.IRenderer;
 import user.bullet.SimpleDownBullet;
@@ -10,6 +12,7 @@ import user.bullet.SimpleDownBullet;
 /**
  * 精灵敌人类 - 使用精灵图中的第一个敌人
  * @since 2026-02-26
+ * @date 2026-10-18 生成时的子弹改在第一次更新时发射（构造时尚未加入游戏世界，对象池预热也会调用构造函数）
  */
 public class Elf extends Enemy {
     private static final float ENEMY_SPEED = 3.0f; // 敌人移动速度
@@ -18,6 +21,7 @@ public class Elf extends Enemy {
     private static final int ENEMY_HP = 150; // 敌人生命值
     
     private int textureId = -1; // 纹理ID
+    private boolean spawnShotFired = false; // 是否已发射生成时的子弹
     private static final String IMAGE_PATH = "resources/images/enemy1.png"; // 图片路径
     private static final float TEX_X = 256; // 素材在图片内的X坐标（左上角）- 中心坐标为 (272, 16) 的敌人
     private static final float TEX_Y = 0; // 素材在图片内的Y坐标（左上角）- 中心坐标为 (272, 16) 的敌人
@@ -34,28 +38,24 @@ public class Elf extends Enemy {
     public Elf(float x, float y) {
         super(x, y, ENEMY_SPEED, 0, ENEMY_SIZE, ENEMY_COLOR, ENEMY_HP);
         // 延迟加载纹理，直到第一次渲染时
-        // 生成时发射一次基础子弹
-        fireBullet();
+        // 生成时的子弹在第一次更新时发射，此时已加入游戏世界
     }
     
     /**
      * 发射子弹
      */
     private void fireBullet() {
-        // 获取游戏世界引用
-        GameWorld world = getGameWorld();
-        if (world != null) {
+        // 获取所在游戏世界的子弹发射器
+        BulletEmitter emitter = getBulletEmitter();
+        if (emitter != null) {
             // 创建基础子弹，竖直向下发射
             float bulletSpeed = 4.0f;
             float bulletSize = 8.0f;
             Color bulletColor = Color.RED;
             
-            // 创建子弹，从屏幕中心发射，竖直向下
-            SimpleDownBullet bullet = new SimpleDownBullet(0, 0, bulletSpeed, bulletSize, bulletColor);
-            bullet.setPlayerBullet(false); // 标记为敌人子弹
-            
-            // 添加到游戏世界
-            world.addEnemyBullet(bullet);
+            // 从对象池取出子弹，从屏幕中心发射，竖直向下（回收时已重置为敌人子弹）
+            emitter.emit(SimpleDownBullet.class, 0, 0, 0, bulletSpeed, bulletSize, bulletColor);
+            emitter.fire();
         } else {
             System.err.println("GameWorld is null, cannot fire bullet");
         }
@@ -67,11 +67,8 @@ public class Elf extends Enemy {
      * @return 纹理ID
      */
     private int loadTexture(IRenderer renderer) {
-        // 使用GLRenderer的loadTexture方法加载纹理
-        if (renderer instanceof stg.render.GLRenderer) {
-            return ((stg.render.GLRenderer) renderer).loadTexture(IMAGE_PATH);
-        }
-        return -1;
+        // 通过渲染器接口加载，记录渲染快照时由快照转交渲染线程
+        return renderer.loadTexture(IMAGE_PATH);
     }
 
     /**
@@ -98,7 +95,7 @@ public class Elf extends Enemy {
                 
                 // 转换为屏幕坐标
                 requireCoordinateSystem();
-                float[] screenCoords = toScreenCoords(getX(), getY());
+                float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
                 float screenX = screenCoords[0];
                 float screenY = screenCoords[1];
                 
@@ -152,6 +149,12 @@ public class Elf extends Enemy {
     public void update(int canvasWidth, int canvasHeight) {
         super.update(canvasWidth, canvasHeight);
         
+        // 生成后第一次更新时发射一次基础子弹
+        if (!spawnShotFired && isActive()) {
+            spawnShotFired = true;
+            fireBullet();
+        }
+        
         // 处理边界反弹逻辑
         float x = getX();
         float vx = getVx();
@@ -184,5 +187,26 @@ public class Elf extends Enemy {
         color = ENEMY_COLOR;
         // 重置纹理ID
         textureId = -1;
+        spawnShotFired = false;
+    }
+
+    /**
+     * 保存Elf状态
+     * @param out 目标缓冲
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        WorldSnapshot.putBoolean(out, spawnShotFired);
+    }
+
+    /**
+     * 恢复Elf状态
+     * @param in 状态数据
+     */
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        spawnShotFired = WorldSnapshot.getBoolean(in);
     }
 }
\ No newline at end of file
@@ -1,8 +1,9 @@
 package user.enemy;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
 
-import stg.entity.base.Obj;
+import stg.entity.bullet.BulletEmitter;
 import stg.entity.enemy.Enemy;
 import user.bullet.SimpleDownBullet;
 
@@ -32,19 +33,14 @@ public class __FairyEnemy extends Enemy {
     }
 
     private void shoot() {
+        BulletEmitter emitter = getBulletEmitter();
+        if (emitter == null) {
+            return;
+        }
         float bulletSpeed = 4.0f;
         
-        SimpleDownBullet bullet = Obj.create(SimpleDownBullet.class,
-            getX(),
-            getY(),
-            bulletSpeed,
-            5.0f,
-            Color.RED
-        );
-        
-        if (getGameWorld() != null) {
-            getGameWorld().addEnemyBullet(bullet);
-        }
+        emitter.emit(SimpleDownBullet.class, getX(), getY(), 0, bulletSpeed, 5.0f, Color.RED);
+        emitter.fire();
     }
 
     @Override
@@ -60,4 +56,16 @@ public class __FairyEnemy extends Enemy {
         super.resetState();
         this.shootTimer = 0;
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(shootTimer);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        shootTimer = in.getInt();
+    }
 }
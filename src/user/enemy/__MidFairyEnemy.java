@@ -1,7 +1,8 @@
 package user.enemy;
 
 import java.awt.Color;
-import stg.entity.base.Obj;
+import java.nio.ByteBuffer;
+import stg.entity.bullet.BulletEmitter;
 import stg.entity.enemy.Enemy;
 import user.bullet.SimpleDownBullet;
 
@@ -47,24 +48,18 @@ public class __MidFairyEnemy extends Enemy {
     }
 
     private void shoot() {
+        BulletEmitter emitter = getBulletEmitter();
+        if (emitter == null) {
+            return;
+        }
         float bulletSpeed = 3.0f;
         int bulletCount = 5;
         
         for (int i = 0; i < bulletCount; i++) {
             float offsetX = (i - bulletCount / 2) * 10.0f;
-            
-            SimpleDownBullet bullet = Obj.create(SimpleDownBullet.class,
-                getX() + offsetX,
-                getY(),
-                bulletSpeed,
-                6.0f,
-                Color.ORANGE
-            );
-            
-            if (getGameWorld() != null) {
-                getGameWorld().addEnemyBullet(bullet);
-            }
+            emitter.emit(SimpleDownBullet.class, getX() + offsetX, getY(), 0, bulletSpeed, 6.0f, Color.ORANGE);
         }
+        emitter.fire();
     }
 
     @Override
@@ -81,4 +76,18 @@ public class __MidFairyEnemy extends Enemy {
         this.shootTimer = 0;
         this.moveDirection = 1.0f;
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(shootTimer);
+        out.putFloat(moveDirection);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        shootTimer = in.getInt();
+        moveDirection = in.getFloat();
+    }
 }
@@ -1,5 +1,7 @@
 package user.player.reimu;
 
+import java.nio.ByteBuffer;
+
 import stg.entity.player.Player;
 import stg.render.IRenderer;
 import stg.util.SpriteSheetRenderer;
@@ -88,7 +90,7 @@ public class __ReimuPlayer extends Player {
         
         // 转换为屏幕坐标
         requireCoordinateSystem();
-        float[] screenCoords = toScreenCoords(getX(), getY());
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
         
@@ -136,4 +138,20 @@ public class __ReimuPlayer extends Player {
         // 实现射击逻辑，使用精灵表中的子弹
         // 这里可以创建子弹对象并添加到游戏世界
     }
+    
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(animationFrame);
+        out.putInt(animationCounter);
+        out.putInt(currentAnimation);
+    }
+    
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        animationFrame = in.getInt();
+        animationCounter = in.getInt();
+        currentAnimation = in.getInt();
+    }
 }
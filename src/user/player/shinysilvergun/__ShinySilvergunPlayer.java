@@ -1,5 +1,7 @@
 package user.player.shinysilvergun;
 
+import java.nio.ByteBuffer;
+
 import stg.entity.player.Player;
 import stg.render.IRenderer;
 import stg.util.SpriteSheetRenderer;
@@ -248,7 +250,7 @@ public class __ShinySilvergunPlayer extends Player {
         
         // 转换为屏幕坐标
         requireCoordinateSystem();
-        float[] screenCoords = toScreenCoords(getX(), getY());
+        float[] screenCoords = toScreenCoords(getRenderX(), getRenderY());
         float screenX = screenCoords[0];
         float screenY = screenCoords[1];
         
@@ -286,4 +288,26 @@ public class __ShinySilvergunPlayer extends Player {
             renderer.drawCircle(screenX, screenY, hitboxRadius, 1.0f, 1.0f, 1.0f, 1.0f);
         }
     }
+    
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(animationFrame);
+        out.putInt(animationCounter);
+        out.putInt(currentAnimation);
+        out.putInt(currentWeaponMode.ordinal());
+        out.putInt(weaponLevel);
+        out.putInt(specialEnergy);
+    }
+    
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        animationFrame = in.getInt();
+        animationCounter = in.getInt();
+        currentAnimation = in.getInt();
+        currentWeaponMode = WeaponMode.values()[in.getInt()];
+        weaponLevel = in.getInt();
+        specialEnergy = in.getInt();
+    }
 }
\ No newline at end of file
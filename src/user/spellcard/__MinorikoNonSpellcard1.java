@@ -1,21 +1,29 @@
 package user.spellcard;
 
 import java.awt.Color;
+import stg.core.MotionProgram;
+import stg.core.Task;
+import stg.entity.bullet.BulletPattern;
 import stg.entity.enemy.Boss;
 import stg.entity.enemy.EnemySpellcard;
-import user.bullet.SimpleDownBullet;
 
 public class __MinorikoNonSpellcard1 extends EnemySpellcard {
-    private int shootTimer = 0;
     private static final int SHOOT_INTERVAL = 30;
 
+    /**
+     * 扇形弹的运动程序：发射后减速到0.5，第45帧停止减速、转向玩家并以3.0飞出
+     */
+    static final MotionProgram SLOW_THEN_AIM = new MotionProgram(__MinorikoNonSpellcard1.class, "slowThenAim")
+        .at(0).accelerate(-0.1f, 0.5f)
+        .at(45).accelerate(0.0f, 0.0f).aim(3.0f);
+
     public __MinorikoNonSpellcard1(Boss boss) {
         super("", 1, boss, 2000);
     }
 
     @Override
     protected void onStart() {
-        shootTimer = 0;
+        startTask(new ShootTask(), SHOOT_INTERVAL);
     }
 
     @Override
@@ -24,32 +32,35 @@ public class __MinorikoNonSpellcard1 extends EnemySpellcard {
 
     @Override
     protected void updateLogic() {
-        shootTimer++;
-        if (shootTimer >= SHOOT_INTERVAL) {
-            shoot();
-            shootTimer = 0;
-        }
     }
 
     private void shoot() {
         stg.entity.enemy.IBoss boss = getBoss();
+        BulletPattern pattern = boss.getBulletPattern();
+        if (pattern == null) {
+            return;
+        }
         float bulletSpeed = 3.0f;
         int bulletCount = 8;
-        
-        for (int i = 0; i < bulletCount; i++) {
-            float offsetX = (i - bulletCount / 2) * 15.0f;
-            
-            SimpleDownBullet bullet = new SimpleDownBullet(
-                boss.getX() + offsetX,
-                boss.getY(),
-                bulletSpeed,
-                5.0f,
-                Color.RED
-            );
-            
-            if (boss.getGameWorld() != null) {
-                boss.getGameWorld().addEnemyBullet(bullet);
-            }
+        float baseAngle = (float) -Math.PI / 2;
+        float spread = (float) Math.PI / 3;
+
+        // 向下的扇形弹，先散开减速，再一齐转向玩家
+        pattern.setStyle(5.0f, Color.RED);
+        pattern.setProgram(SLOW_THEN_AIM);
+        pattern.fan(boss.getX(), boss.getY(), bulletCount, baseAngle, spread, bulletSpeed);
+        pattern.setProgram(null);
+    }
+
+    /**
+     * 每隔 SHOOT_INTERVAL 帧射击一次
+     */
+    public static class ShootTask extends Task<__MinorikoNonSpellcard1> {
+        @Override
+        protected void run() {
+            __MinorikoNonSpellcard1 card = getOwner();
+            card.shoot();
+            waitFrames(SHOOT_INTERVAL);
         }
     }
 }
@@ -1,12 +1,14 @@
 package user.spellcard;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
+import stg.core.Task;
+import stg.entity.bullet.BulletEmitter;
 import stg.entity.enemy.Boss;
 import stg.entity.enemy.EnemySpellcard;
 import user.bullet.SimpleDownBullet;
 
 public class __MinorikoNonSpellcard2 extends EnemySpellcard {
-    private int shootTimer = 0;
     private static final int SHOOT_INTERVAL = 25;
     private float moveDirection = 1.0f;
     private float moveTimer = 0;
@@ -17,7 +19,7 @@ public class __MinorikoNonSpellcard2 extends EnemySpellcard {
 
     @Override
     protected void onStart() {
-        shootTimer = 0;
+        startTask(new ShootTask(), SHOOT_INTERVAL);
         moveTimer = 0;
         moveDirection = 1.0f;
     }
@@ -37,33 +39,47 @@ public class __MinorikoNonSpellcard2 extends EnemySpellcard {
         }
         
         boss.setVx(moveDirection * 1.5f);
-        
-        shootTimer++;
-        if (shootTimer >= SHOOT_INTERVAL) {
-            shoot();
-            shootTimer = 0;
-        }
     }
 
     private void shoot() {
         stg.entity.enemy.IBoss boss = getBoss();
+        BulletEmitter emitter = boss.getBulletEmitter();
+        if (emitter == null) {
+            return;
+        }
         float bulletSpeed = 3.5f;
         int bulletCount = 6;
         
         for (int i = 0; i < bulletCount; i++) {
             float offsetX = (i - bulletCount / 2) * 12.0f;
-            
-            SimpleDownBullet bullet = new SimpleDownBullet(
-                boss.getX() + offsetX,
-                boss.getY(),
-                bulletSpeed,
-                5.0f,
-                Color.YELLOW
-            );
-            
-            if (boss.getGameWorld() != null) {
-                boss.getGameWorld().addEnemyBullet(bullet);
-            }
+            emitter.emit(SimpleDownBullet.class, boss.getX() + offsetX, boss.getY(), 0, bulletSpeed, 5.0f, Color.YELLOW);
+        }
+        emitter.fire();
+    }
+
+    /**
+     * 每隔 SHOOT_INTERVAL 帧射击一次
+     */
+    public static class ShootTask extends Task<__MinorikoNonSpellcard2> {
+        @Override
+        protected void run() {
+            __MinorikoNonSpellcard2 card = getOwner();
+            card.shoot();
+            waitFrames(SHOOT_INTERVAL);
         }
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putFloat(moveDirection);
+        out.putFloat(moveTimer);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        moveDirection = in.getFloat();
+        moveTimer = in.getFloat();
+    }
 }
@@ -1,12 +1,14 @@
 package user.spellcard;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
+import stg.core.Task;
+import stg.entity.bullet.BulletEmitter;
 import stg.entity.enemy.Boss;
 import stg.entity.enemy.EnemySpellcard;
 import user.bullet.SimpleDownBullet;
 
 public class __MinorikoSpellcard1 extends EnemySpellcard {
-    private int shootTimer = 0;
     private static final int SHOOT_INTERVAL = 20;
     private float angleOffset = 0;
 
@@ -16,7 +18,7 @@ public class __MinorikoSpellcard1 extends EnemySpellcard {
 
     @Override
     protected void onStart() {
-        shootTimer = 0;
+        startTask(new ShootTask(), SHOOT_INTERVAL);
         angleOffset = 0;
     }
 
@@ -26,33 +28,46 @@ public class __MinorikoSpellcard1 extends EnemySpellcard {
 
     @Override
     protected void updateLogic() {
-        shootTimer++;
-        if (shootTimer >= SHOOT_INTERVAL) {
-            shoot();
-            shootTimer = 0;
-            angleOffset += 0.1f;
-        }
     }
 
     private void shoot() {
         stg.entity.enemy.IBoss boss = getBoss();
+        BulletEmitter emitter = boss.getBulletEmitter();
+        if (emitter == null) {
+            return;
+        }
         float bulletSpeed = 2.5f;
         int bulletCount = 12;
         
         for (int i = 0; i < bulletCount; i++) {
             float offsetX = (i - bulletCount / 2) * 10.0f;
-            
-            SimpleDownBullet bullet = new SimpleDownBullet(
-                boss.getX() + offsetX,
-                boss.getY(),
-                bulletSpeed,
-                6.0f,
-                Color.ORANGE
-            );
-            
-            if (boss.getGameWorld() != null) {
-                boss.getGameWorld().addEnemyBullet(bullet);
-            }
+            emitter.emit(SimpleDownBullet.class, boss.getX() + offsetX, boss.getY(), 0, bulletSpeed, 6.0f, Color.ORANGE);
+        }
+        emitter.fire();
+    }
+
+    /**
+     * 每隔 SHOOT_INTERVAL 帧射击一次
+     */
+    public static class ShootTask extends Task<__MinorikoSpellcard1> {
+        @Override
+        protected void run() {
+            __MinorikoSpellcard1 card = getOwner();
+            card.shoot();
+            card.angleOffset += 0.1f;
+            waitFrames(SHOOT_INTERVAL);
         }
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putFloat(angleOffset);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        angleOffset = in.getFloat();
+    }
 }
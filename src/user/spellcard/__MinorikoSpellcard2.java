@@ -1,12 +1,13 @@
 package user.spellcard;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
+import stg.core.Task;
+import stg.entity.bullet.BulletPattern;
 import stg.entity.enemy.Boss;
 import stg.entity.enemy.EnemySpellcard;
-import user.bullet.SimpleDownBullet;
 
 public class __MinorikoSpellcard2 extends EnemySpellcard {
-    private int shootTimer = 0;
     private static final int SHOOT_INTERVAL = 15;
     private float angleOffset = 0;
     private float spiralSpeed = 0.05f;
@@ -17,7 +18,7 @@ public class __MinorikoSpellcard2 extends EnemySpellcard {
 
     @Override
     protected void onStart() {
-        shootTimer = 0;
+        startTask(new ShootTask(), SHOOT_INTERVAL);
         angleOffset = 0;
     }
 
@@ -27,51 +28,49 @@ public class __MinorikoSpellcard2 extends EnemySpellcard {
 
     @Override
     protected void updateLogic() {
-        shootTimer++;
-        if (shootTimer >= SHOOT_INTERVAL) {
-            shoot();
-            shootTimer = 0;
-            angleOffset += spiralSpeed;
-        }
     }
 
     private void shoot() {
         stg.entity.enemy.IBoss boss = getBoss();
+        BulletPattern pattern = boss.getBulletPattern();
+        if (pattern == null) {
+            return;
+        }
         float bulletSpeed = 2.0f;
         int bulletCount = 16;
+        float baseAngle = (float) Math.PI / 2;
         
-        for (int i = 0; i < bulletCount; i++) {
-            float angle = (float) Math.PI / 2 + (i * 2 * (float) Math.PI / bulletCount) + angleOffset;
-            
-            SimpleDownBullet bullet = new SimpleDownBullet(
-                boss.getX(),
-                boss.getY(),
-                (float) (bulletSpeed * Math.cos(angle)),
-                (float) (bulletSpeed * Math.sin(angle)),
-                7.0f,
-                Color.RED
-            );
-            
-            if (boss.getGameWorld() != null) {
-                boss.getGameWorld().addEnemyBullet(bullet);
-            }
-        }
-        
-        for (int i = 0; i < bulletCount; i++) {
-            float angle = (float) Math.PI / 2 + (i * 2 * (float) Math.PI / bulletCount) - angleOffset;
-            
-            SimpleDownBullet bullet = new SimpleDownBullet(
-                boss.getX(),
-                boss.getY(),
-                (float) (bulletSpeed * Math.cos(angle)),
-                (float) (bulletSpeed * Math.sin(angle)),
-                7.0f,
-                Color.ORANGE
-            );
-            
-            if (boss.getGameWorld() != null) {
-                boss.getGameWorld().addEnemyBullet(bullet);
-            }
+        // 两圈反向旋转的环形弹
+        pattern.setStyle(7.0f, Color.RED);
+        pattern.ring(boss.getX(), boss.getY(), bulletCount, baseAngle + angleOffset, bulletSpeed);
+        pattern.setStyle(7.0f, Color.ORANGE);
+        pattern.ring(boss.getX(), boss.getY(), bulletCount, baseAngle - angleOffset, bulletSpeed);
+    }
+
+    /**
+     * 每隔 SHOOT_INTERVAL 帧射击一次
+     */
+    public static class ShootTask extends Task<__MinorikoSpellcard2> {
+        @Override
+        protected void run() {
+            __MinorikoSpellcard2 card = getOwner();
+            card.shoot();
+            card.angleOffset += card.spiralSpeed;
+            waitFrames(SHOOT_INTERVAL);
         }
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putFloat(angleOffset);
+        out.putFloat(spiralSpeed);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        angleOffset = in.getFloat();
+        spiralSpeed = in.getFloat();
+    }
 }
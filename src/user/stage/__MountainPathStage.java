@@ -1,6 +1,10 @@
 package user.stage;
 
+import java.nio.ByteBuffer;
+
 import stg.core.GameWorld;
+import stg.core.Task;
+import stg.core.WorldSnapshot;
 import stg.entity.base.Obj;
 import stg.stage.Stage;
 import user.boss.__MinorikoBoss;
@@ -33,6 +37,8 @@ public class __MountainPathStage extends Stage {
         midFairyCount = 0;
         elfCount = 0;
         hasSpawnedBoss = false;
+        startTask(new ElfWaveTask(), 60);
+        startTask(new BossTask(), 900);
     }
 
     @Override
@@ -41,36 +47,49 @@ public class __MountainPathStage extends Stage {
 
     @Override
     protected void updateWaveLogic() {
-        int frame = getCurrentFrame();
-        
         /*
         if (frame >= 60 && frame % 90 == 0 && fairyCount < MAX_FAIRIES) {
-            float x = (float) (Math.random() * 600 - 300);
+            float x = MathUtils.randomRange(-300, 300);
             __FairyEnemy fairy = Obj.create(__FairyEnemy.class, x, -400);
             addEnemy(fairy);
             fairyCount++;
         }*/
        /*
         if (frame >= 300 && frame % 180 == 0 && midFairyCount < MAX_MID_FAIRIES) {
-            float x = (float) (Math.random() * 400 - 200);
+            float x = MathUtils.randomRange(-200, 200);
             __MidFairyEnemy midFairy = Obj.create(__MidFairyEnemy.class, x, -400);
             addEnemy(midFairy);
             midFairyCount++;
         }*/
-        
-        // 每隔1秒（60帧）在屏幕正中心生成一个Elf敌人
-        if (frame >= 60 && frame % 60 == 0) {
+    }
+
+    /**
+     * 从第60帧起每隔1秒（60帧）在屏幕正中心生成一个Elf敌人
+     */
+    public static class ElfWaveTask extends Task<__MountainPathStage> {
+        @Override
+        protected void run() {
+            __MountainPathStage stage = getOwner();
             Elf elf = Obj.create(Elf.class, 0, 0);
             // 设置Elf敌人向上移动
             elf.setVy(3.0f);
-            addEnemy(elf);
-            elfCount++;
+            stage.addEnemy(elf);
+            stage.elfCount++;
+            waitFrames(60);
         }
-        
-        if (frame >= 900 && !hasSpawnedBoss) {
-            __MinorikoBoss boss = Obj.create(__MinorikoBoss.class, 0, -300);
-            addEnemy(boss);
-            hasSpawnedBoss = true;
+    }
+
+    /**
+     * 第900帧生成Boss
+     */
+    public static class BossTask extends Task<__MountainPathStage> {
+        @Override
+        protected void run() {
+            __MountainPathStage stage = getOwner();
+            __MinorikoBoss boss = Obj.create(__MinorikoBoss.class, 0, 150);
+            boss.start();
+            stage.addEnemy(boss);
+            stage.hasSpawnedBoss = true;
         }
     }
 
@@ -83,4 +102,22 @@ public class __MountainPathStage extends Stage {
     public void load() {
         setLoaded();
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        super.saveState(out);
+        out.putInt(fairyCount);
+        out.putInt(midFairyCount);
+        out.putInt(elfCount);
+        WorldSnapshot.putBoolean(out, hasSpawnedBoss);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        super.loadState(in);
+        fairyCount = in.getInt();
+        midFairyCount = in.getInt();
+        elfCount = in.getInt();
+        hasSpawnedBoss = WorldSnapshot.getBoolean(in);
+    }
 }